@@ -0,0 +1,149 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.cloudformation.templates;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Read-only lookup structure over a parsed template model. Nodes are indexed
+ * by their character offsets, so the innermost node at a document offset is
+ * found with a binary search, and by their field path, so a node can be
+ * looked up by path without walking the tree.
+ * <p>
+ * The index is built once per model; the model must not be modified
+ * afterwards.
+ */
+public class TemplateNodeIndex {
+
+    private static final String ROOT = "ROOT";
+
+    private final TemplateNode root;
+
+    /** All non-field nodes, in document order */
+    private final TemplateNode[] nodes;
+
+    /** Start offsets of the nodes above, in ascending order */
+    private final long[] startOffsets;
+
+    /** Field paths (without the ROOT prefix), e.g. "Resources/MyBucket" */
+    private final Map<String, TemplateNode> nodesByPath = new HashMap<String, TemplateNode>();
+
+    public TemplateNodeIndex(TemplateNode root) {
+        this.root = root;
+
+        List<TemplateNode> orderedNodes = new ArrayList<TemplateNode>();
+        collect(root, "", true, orderedNodes);
+
+        nodes = orderedNodes.toArray(new TemplateNode[orderedNodes.size()]);
+        startOffsets = new long[nodes.length];
+        for (int i = 0; i < nodes.length; i++) {
+            startOffsets[i] = nodes[i].getStartLocation().getCharOffset();
+        }
+    }
+
+    public TemplateNode getRoot() {
+        return root;
+    }
+
+    /**
+     * Returns the innermost node whose range contains the specified document
+     * offset, or the root node if no other node does.
+     */
+    public TemplateNode findNode(int documentOffset) {
+        if (root.getStartLocation().getCharOffset() > documentOffset) {
+            throw new RuntimeException("Out of bounds in node search");
+        }
+
+        // Last node starting at or before the offset; nodes are properly
+        // nested, so the containing node is either it or one of its parents.
+        int low = 0;
+        int high = startOffsets.length - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (startOffsets[mid] <= documentOffset) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        TemplateNode node = nodes[low];
+        while (node != null && node != root) {
+            if (!node.isField() && contains(node, documentOffset)) {
+                return node;
+            }
+            node = node.getParent();
+        }
+        return root;
+    }
+
+    /**
+     * Returns the node at the specified path, e.g.
+     * "ROOT/Resources/MyBucket/Properties", or null if there is no such node.
+     */
+    public TemplateNode lookupNodeByPath(String path) {
+        if (!path.startsWith(ROOT)) {
+            throw new RuntimeException("Unexpected path encountered");
+        }
+        return nodesByPath.get(normalize(path.substring(ROOT.length())));
+    }
+
+    /**
+     * Adds the node and its descendants to the indexes. As in the original
+     * path lookup, only nodes reachable through object fields have a path;
+     * members of arrays are indexed by offset only.
+     */
+    private void collect(TemplateNode node, String path, boolean addressable,
+            List<TemplateNode> orderedNodes) {
+        orderedNodes.add(node);
+        if (addressable) {
+            nodesByPath.put(path, node);
+        }
+
+        if (node.isObject()) {
+            for (Entry<String, TemplateNode> entry : ((TemplateObjectNode) node).getFields()) {
+                String fieldPath = path.length() == 0 ? entry.getKey() : path + "/" + entry.getKey();
+                collect(entry.getValue(), fieldPath, addressable, orderedNodes);
+            }
+        } else if (node.isArray()) {
+            for (TemplateNode member : ((TemplateArrayNode) node).getMembers()) {
+                collect(member, path, false, orderedNodes);
+            }
+        }
+    }
+
+    /**
+     * Strips leading, trailing and repeated separators, matching the way the
+     * paths used to be tokenized.
+     */
+    private static String normalize(String path) {
+        StringBuilder normalized = new StringBuilder(path.length());
+        for (String token : path.split("/")) {
+            if (token.length() == 0) continue;
+            if (normalized.length() > 0) normalized.append('/');
+            normalized.append(token);
+        }
+        return normalized.toString();
+    }
+
+    private static boolean contains(TemplateNode node, int offset) {
+        return offset >= node.getStartLocation().getCharOffset() &&
+               offset <= node.getEndLocation().getCharOffset();
+    }
+}
@@ -68,37 +68,6 @@ public class TemplateContentAssistProcessor implements IContentAssistProcessor {
 
     private static final String EMPTY_STRING = "";
 
-    /**
-     * Identifies the node in the document for the given path and returns it.
-     *
-     * @param document
-     *            The document associated with the editor.
-     * @param path
-     *            The path from the Root to the node.
-     */
-    private TemplateNode lookupNodeByPath(TemplateDocument document, String path) {
-        TemplateNode node = ((TemplateDocument) document).getModel();
-
-        if (path.startsWith("ROOT"))
-            path = path.substring("ROOT".length());
-        else
-            throw new RuntimeException("Unexpected path encountered");
-
-        StringTokenizer tokenizer = new StringTokenizer(path, "/");
-
-        while (tokenizer.hasMoreTokens()) {
-            String token = tokenizer.nextToken();
-
-            if (node != null && node.isObject()) {
-                TemplateObjectNode object = (TemplateObjectNode) node;
-                node = object.get(token);
-            } else {
-                throw new RuntimeException("Unexpected node structure");
-            }
-        }
-        return node;
-    }
-
     /**
      * Generates a proposal for the given field.
      *
@@ -266,8 +235,8 @@ public class TemplateContentAssistProcessor implements IContentAssistProcessor {
                 String schemaLookupProperty = lastSchemaProperty
                         .getSchemaLookupProperty();
 
-                TemplateNode node = lookupNodeByPath(document, currentPath);
-                if (node.isObject()) {
+                TemplateNode node = document.lookupNodeByPath(currentPath);
+                if (node != null && node.isObject()) {
                     String lookupValue = null;
 
                     TemplateObjectNode object = (TemplateObjectNode) node;
@@ -304,8 +273,8 @@ public class TemplateContentAssistProcessor implements IContentAssistProcessor {
             Collections.sort(properties);
 
             Set<String> existingFields = new HashSet<String>();
-            TemplateNode node = lookupNodeByPath(document, "ROOT" + path);
-            if (node.isObject()) {
+            TemplateNode node = document.lookupNodeByPath("ROOT" + path);
+            if (node != null && node.isObject()) {
                 TemplateObjectNode objectNode = (TemplateObjectNode) node;
                 for (Entry<String, TemplateNode> entry : objectNode.getFields()) {
                     existingFields.add(entry.getKey());
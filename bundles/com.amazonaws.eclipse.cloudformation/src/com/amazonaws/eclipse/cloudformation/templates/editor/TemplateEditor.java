@@ -16,7 +16,6 @@ package com.amazonaws.eclipse.cloudformation.templates.editor;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -34,9 +33,8 @@ import org.eclipse.ui.texteditor.IDocumentProvider;
 import org.eclipse.ui.views.contentoutline.IContentOutlinePage;
 
 import com.amazonaws.eclipse.cloudformation.CloudFormationPlugin;
-import com.amazonaws.eclipse.cloudformation.templates.TemplateArrayNode;
 import com.amazonaws.eclipse.cloudformation.templates.TemplateNode;
-import com.amazonaws.eclipse.cloudformation.templates.TemplateObjectNode;
+import com.amazonaws.eclipse.cloudformation.templates.TemplateNodeIndex;
 
 public class TemplateEditor extends TextEditor {
 
@@ -46,7 +44,9 @@ public class TemplateEditor extends TextEditor {
 
     public class TemplateDocument extends Document {
         private ArrayList<TemplateDocumentListener> listeners = new ArrayList<TemplateDocumentListener>();
-        private TemplateNode model;
+        private volatile TemplateNode model;
+        /** Offset and path lookups for the current model. */
+        private volatile TemplateNodeIndex index;
         /** The path from the root to the current position in the Json Document.*/
         private List<String> path;
 
@@ -63,6 +63,7 @@ public class TemplateEditor extends TextEditor {
         }
 
         public void setModel(TemplateNode root) {
+            this.index = new TemplateNodeIndex(root);
             this.model = root;
 
             Display.getDefault().asyncExec(new Runnable() {
@@ -74,32 +75,19 @@ public class TemplateEditor extends TextEditor {
             });
         }
 
+        /**
+         * Returns the innermost node containing the specified document offset.
+         */
         public TemplateNode findNode(int documentOffset) {
-            return findNode(documentOffset, model);
+            return index.findNode(documentOffset);
         }
 
-        private TemplateNode findNode(int documentOffset, TemplateNode node) {
-            if (node.getStartLocation().getCharOffset() > documentOffset) {
-                throw new RuntimeException("Out of bounds in node search");
-            }
-
-            if (node.isObject()) {
-                TemplateObjectNode object = (TemplateObjectNode)node;
-                for (Entry<String, TemplateNode> entry : object.getFields()) {
-                    entry.getKey();
-                    if (match(documentOffset, entry.getValue())) {
-                        return findNode(documentOffset, entry.getValue());
-                    }
-                }
-            } else if (node.isArray()) {
-                TemplateArrayNode array = (TemplateArrayNode)node;
-                for (TemplateNode member : array.getMembers()) {
-                    if (match(documentOffset, member)) {
-                        return findNode(documentOffset, member);
-                    }
-                }
-            }
-            return node;
+        /**
+         * Returns the node at the specified path (e.g. "ROOT/Resources/"), or
+         * null if the current model has no such node.
+         */
+        public TemplateNode lookupNodeByPath(String path) {
+            return index.lookupNodeByPath(path);
         }
 
         public List<String> getPath() {
@@ -111,11 +99,6 @@ public class TemplateEditor extends TextEditor {
         }
     }
 
-    private boolean match(int offset, TemplateNode node) {
-        return offset >= node.getStartLocation().getCharOffset() &&
-               offset <=  node.getEndLocation().getCharOffset();
-    }
-
     private final class TemplateDocumentProvider extends FileDocumentProvider {
         @Override
         protected IDocument createEmptyDocument() {
@@ -17,10 +17,15 @@ package com.amazonaws.eclipse.cloudformation.templates.editor;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.Map.Entry;
 import java.util.Stack;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentExtension4;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.reconciler.DirtyRegion;
@@ -31,6 +36,7 @@ import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.jface.text.source.ISourceViewer;
 
 import com.amazonaws.eclipse.cloudformation.templates.TemplateArrayNode;
+import com.amazonaws.eclipse.cloudformation.templates.TemplateNode;
 import com.amazonaws.eclipse.cloudformation.templates.TemplateObjectNode;
 import com.amazonaws.eclipse.cloudformation.templates.TemplateValueNode;
 import com.amazonaws.eclipse.cloudformation.templates.editor.TemplateEditor.TemplateDocument;
@@ -41,6 +47,22 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+/**
+ * Parses the template document into a model of TemplateNodes, and marks syntax
+ * errors in the editor.
+ * <p>
+ * When the document was edited since the last successful parse, only the
+ * innermost object enclosing the edited region is reparsed. The rest of the
+ * previous model is copied around it, with the offsets of the nodes after the
+ * edit shifted; the previous model is never modified, since the editor may
+ * still be reading it. This saves tokenizing the whole document again, but
+ * each edit still walks the whole model.
+ * Edits are tracked with a document listener rather than taken from the
+ * reconciler's dirty regions, since several dirty regions can be queued
+ * against a document that already contains all of them. Consecutive edits are
+ * coalesced into the single region they damaged; edits that can't be related
+ * to the current model fall back to a full parse.
+ */
 public class TemplateReconcilingStrategy implements IReconcilingStrategy, IReconcilingStrategyExtension {
 
     private IDocument document;
@@ -55,8 +77,46 @@ public class TemplateReconcilingStrategy implements IReconcilingStrategy, IRecon
         this.sourceViewer = sourceViewer;
     }
 
+    /** The last successfully parsed model, which edits are applied to */
+    private TemplateObjectNode model;
+
+    /** Modification stamp of the document text the model was parsed from */
+    private long modelStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+
+    /** Guards the pending edit, which is updated on the UI thread */
+    private final Object editLock = new Object();
+
+    /** The edits made since the last reconcile, coalesced into one */
+    private DocumentEdit pendingEdit;
+
+    private final IDocumentListener editTracker = new IDocumentListener() {
+        private long stampBeforeChange;
+
+        public void documentAboutToBeChanged(DocumentEvent event) {
+            stampBeforeChange = getModificationStamp();
+        }
+
+        public void documentChanged(DocumentEvent event) {
+            int textLength = event.getText() == null ? 0 : event.getText().length();
+            DocumentEdit edit = new DocumentEdit(event.getOffset(), event.getLength(), textLength,
+                    stampBeforeChange, event.getModificationStamp());
+            synchronized (editLock) {
+                pendingEdit = pendingEdit == null ? edit : pendingEdit.followedBy(edit);
+            }
+        }
+    };
+
     public void setDocument(IDocument document) {
+        if (this.document != null) {
+            this.document.removeDocumentListener(editTracker);
+        }
         this.document = document;
+        this.model = null;
+        this.modelStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+        takePendingEdit();
+        if (document != null) {
+            document.addDocumentListener(editTracker);
+        }
     }
 
     public void reconcile(IRegion partition) {
@@ -246,17 +306,25 @@ public class TemplateReconcilingStrategy implements IReconcilingStrategy, IRecon
      */
     private void reconcile() {
         TemplateDocument templateDocument = (TemplateDocument) this.document;
+        DocumentEdit edit = takePendingEdit();
 
         try {
             path.clear();
-            JsonParser parser = factory.createJsonParser(document.get());
-
-            TemplateObjectNode model = parse(parser);
+            TemplateObjectNode newModel = null;
+            if (edit != null) {
+                newModel = reparseEnclosingObject(templateDocument, edit);
+            }
+            if (newModel == null) {
+                path.clear();
+                newModel = parseDocument();
+            }
 
-            templateDocument.setModel(model);
+            model = newModel;
+            templateDocument.setModel(newModel);
 
             removeAllAnnotations();
         } catch (JsonParseException e) {
+            invalidateModel();
             templateDocument.setPath(Collections.unmodifiableList(path));
             IAnnotationModel annotationModel = sourceViewer.getAnnotationModel();
             if (annotationModel != null) {
@@ -266,12 +334,168 @@ public class TemplateReconcilingStrategy implements IReconcilingStrategy, IRecon
                 throw new RuntimeException("No AnnotationModel configured");
             }
         } catch (Exception e) {
+            invalidateModel();
             // TODO: Add a status annotation for this
         }
 
         if (monitor != null) monitor.done();
     }
 
+    /**
+     * Parses the whole document.
+     */
+    private TemplateObjectNode parseDocument() throws IOException {
+        long stamp = getModificationStamp();
+        String text = document.get();
+        // If the text changed while being read, don't apply later edits to it
+        boolean consistent = stamp == getModificationStamp();
+
+        TemplateObjectNode root = parse(factory.createJsonParser(text));
+        modelStamp = consistent ? stamp : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+        return root;
+    }
+
+    /**
+     * Reparses only the innermost object that encloses the specified edit and
+     * splices it into the current model.
+     *
+     * @return The updated model, or null if the edit can't be applied
+     *         incrementally and the whole document has to be parsed.
+     */
+    private TemplateObjectNode reparseEnclosingObject(TemplateDocument templateDocument, DocumentEdit edit)
+            throws IOException, BadLocationException {
+        if (model == null || templateDocument.getModel() != model
+                || modelStamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP
+                || edit.stampBefore != modelStamp
+                || edit.stampAfter != getModificationStamp()
+                || edit.offset < model.getStartLocation().getCharOffset()) {
+            return null;
+        }
+
+        int editEnd = edit.offset + edit.length;
+        int delta = edit.textLength - edit.length;
+
+        // The edit must lie between the braces of the enclosing object
+        TemplateNode enclosing = templateDocument.findNode(edit.offset);
+        while (enclosing != null && !(enclosing.isObject()
+                && enclosing.getStartLocation().getCharOffset() <= edit.offset
+                && enclosing.getEndLocation().getCharOffset() > editEnd)) {
+            enclosing = enclosing.getParent();
+        }
+        if (enclosing == null) return null;
+
+        // Node locations point just past the opening and closing braces
+        int start = (int) enclosing.getStartLocation().getCharOffset() - 1;
+        int end = (int) enclosing.getEndLocation().getCharOffset() + delta;
+        String text = document.get(start, end - start);
+        if (edit.stampAfter != getModificationStamp()) return null;
+
+        TemplateObjectNode reparsed;
+        try {
+            JsonParser parser = factory.createJsonParser(text);
+            if (nextToken(parser) != JsonToken.START_OBJECT) return null;
+            reparsed = parseObject(parser);
+            if (reparsed.getEndLocation().getCharOffset() != text.length()
+                    || nextToken(parser) != null) {
+                return null;
+            }
+        } catch (JsonParseException e) {
+            // Let the full parse report the error with the complete path
+            return null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+
+        shiftInPlace(reparsed, 0, start);
+        TemplateObjectNode root = (TemplateObjectNode) splice(model, enclosing, reparsed, editEnd, delta);
+        modelStamp = edit.stampAfter;
+        return root;
+    }
+
+    /**
+     * Returns a copy of the specified subtree with the replaced node swapped
+     * for its replacement and the character offsets at or after the end of
+     * the edit shifted by the given delta. Every other node is copied, since
+     * the subtree belongs to the published model and its index, and adding a
+     * node to a new parent would modify it. Line and column numbers aren't
+     * maintained, the editor only uses character offsets.
+     */
+    private static TemplateNode splice(TemplateNode node, TemplateNode replaced, TemplateNode replacement,
+            int editEnd, int delta) {
+        if (node == replaced) return replacement;
+
+        TemplateNode copy;
+        if (node.isObject()) {
+            TemplateObjectNode object = new TemplateObjectNode(shift(node.getStartLocation(), editEnd, delta));
+            for (Entry<String, TemplateNode> entry : ((TemplateObjectNode) node).getFields()) {
+                object.put(entry.getKey(), splice(entry.getValue(), replaced, replacement, editEnd, delta));
+            }
+            copy = object;
+        } else if (node.isArray()) {
+            TemplateArrayNode array = new TemplateArrayNode(shift(node.getStartLocation(), editEnd, delta));
+            for (TemplateNode member : ((TemplateArrayNode) node).getMembers()) {
+                array.add(splice(member, replaced, replacement, editEnd, delta));
+            }
+            copy = array;
+        } else {
+            copy = new TemplateValueNode(((TemplateValueNode) node).getText());
+            copy.setStartLocation(shift(node.getStartLocation(), editEnd, delta));
+        }
+        copy.setEndLocation(shift(node.getEndLocation(), editEnd, delta));
+        return copy;
+    }
+
+    /**
+     * Shifts the character offsets at or after the end of the edit by the
+     * given delta throughout the specified subtree, which must not have been
+     * published yet. Subtrees that end before the edit are left untouched.
+     */
+    private static void shiftInPlace(TemplateNode node, int editEnd, int delta) {
+        if (delta == 0 || node.getEndLocation() == null || node.getEndLocation().getCharOffset() < editEnd) return;
+
+        node.setStartLocation(shift(node.getStartLocation(), editEnd, delta));
+        node.setEndLocation(shift(node.getEndLocation(), editEnd, delta));
+        if (node.isObject()) {
+            for (Entry<String, TemplateNode> entry : ((TemplateObjectNode) node).getFields()) {
+                shiftInPlace(entry.getValue(), editEnd, delta);
+            }
+        } else if (node.isArray()) {
+            for (TemplateNode member : ((TemplateArrayNode) node).getMembers()) {
+                shiftInPlace(member, editEnd, delta);
+            }
+        }
+    }
+
+    private static JsonLocation shift(JsonLocation location, int editEnd, int delta) {
+        if (location == null || location.getCharOffset() < editEnd) return location;
+        return new JsonLocation(location.getSourceRef(), location.getCharOffset() + delta,
+                location.getLineNr(), location.getColumnNr());
+    }
+
+    private void invalidateModel() {
+        model = null;
+        modelStamp = IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+    }
+
+    /**
+     * Returns the edits made since the last call coalesced into one, or null
+     * if there were none.
+     */
+    private DocumentEdit takePendingEdit() {
+        synchronized (editLock) {
+            DocumentEdit edit = pendingEdit;
+            pendingEdit = null;
+            return edit;
+        }
+    }
+
+    private long getModificationStamp() {
+        if (document instanceof IDocumentExtension4) {
+            return ((IDocumentExtension4) document).getModificationStamp();
+        }
+        return IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+    }
+
     /** Clears all annotations from the annotation model. */
     private void removeAllAnnotations() {
         IAnnotationModel annotationModel = sourceViewer.getAnnotationModel();
@@ -291,4 +515,38 @@ public class TemplateReconcilingStrategy implements IReconcilingStrategy, IRecon
     public void initialReconcile() {
         reconcile();
     }
-}
\ No newline at end of file
+
+    /**
+     * A change to the document text: the specified region of the text with
+     * the stamp before the change was replaced by textLength characters.
+     */
+    private static class DocumentEdit {
+        private final int offset;
+        private final int length;
+        private final int textLength;
+        private final long stampBefore;
+        private final long stampAfter;
+
+        DocumentEdit(int offset, int length, int textLength, long stampBefore, long stampAfter) {
+            this.offset = offset;
+            this.length = length;
+            this.textLength = textLength;
+            this.stampBefore = stampBefore;
+            this.stampAfter = stampAfter;
+        }
+
+        /**
+         * Returns a single edit covering this edit followed by the specified
+         * one, whose offsets are relative to the text after this edit. If the
+         * next edit wasn't made on top of this one, the result can't be
+         * related to any model and forces a full parse.
+         */
+        DocumentEdit followedBy(DocumentEdit next) {
+            int start = Math.min(offset, next.offset);
+            int end = Math.max(offset + textLength, next.offset + next.length);
+            long before = next.stampBefore == stampAfter ? stampBefore : IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
+            return new DocumentEdit(start, end - textLength + length - start,
+                    end + next.textLength - next.length - start, before, next.stampAfter);
+        }
+    }
+}
@@ -14,6 +14,7 @@
  */
 package com.amazonaws.eclipse.cloudformation.templates.schema;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -40,7 +41,7 @@ public class Schema {
     }
 
     public Set<String> getProperties() {
-        return properties.keySet();
+        return Collections.unmodifiableSet(properties.keySet());
     }
     
     public String toString() {
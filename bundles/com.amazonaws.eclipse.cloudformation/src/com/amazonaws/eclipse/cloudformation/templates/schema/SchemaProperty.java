@@ -71,7 +71,7 @@ public class SchemaProperty {
     }
     
     public Schema getChildSchema(String id) {
-        return childSchemas.get(id);
+        return childSchemas == null ? null : childSchemas.get(id);
     }
     
     public void setSchemaLookupProperty(String schemaLookupProperty) {
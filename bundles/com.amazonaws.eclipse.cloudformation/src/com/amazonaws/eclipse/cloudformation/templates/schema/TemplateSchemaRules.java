@@ -14,17 +14,44 @@
  */
 package com.amazonaws.eclipse.cloudformation.templates.schema;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeSet;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.amazonaws.eclipse.cloudformation.CloudFormationPlugin;
+import com.amazonaws.util.IOUtils;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-
+/**
+ * The CloudFormation template schema used for content assist and syntax
+ * highlighting.
+ * <p>
+ * The schema is cached in the plugin's state location, so it's available
+ * offline. The cached copy, or the copy bundled with the plugin until one has
+ * been downloaded, is used right away and refreshed in the background with a
+ * conditional request, so opening an editor never waits for the network. The
+ * schema is
+ * compiled once into Schema objects and lookup collections that are shared
+ * by all callers and must not be modified.
+ */
 public class TemplateSchemaRules {
 
     // JSON Keys
@@ -45,59 +72,53 @@ public class TemplateSchemaRules {
     // Template URL
     private static final String TEMPLATE_SCHEMA_LOCATION = "http://vstoolkit.amazonwebservices.com/CloudFormationSchema/CloudFormationV1.schema";
 
-    private JsonNode rootNode;
+    /** Schema shipped with the plugin, used when no other copy is available */
+    private static final String BUNDLED_SCHEMA = "etc/CloudFormationV1.schema";
+
+    /** Location of the cached schema, relative to the plugin state location */
+    private static final String CACHED_SCHEMA_DIRECTORY = "schema";
+    private static final String CACHED_SCHEMA_FILE = "CloudFormationV1.schema";
+
+    /** Timeouts (in milliseconds) for downloading the schema */
+    private static final int CONNECT_TIMEOUT = 5 * 1000;
+    private static final int READ_TIMEOUT = 15 * 1000;
+
     private static TemplateSchemaRules instance;
 
-    private void parse() throws Exception {
-        ObjectMapper mapper = new ObjectMapper();
-        rootNode = mapper.readValue(new URL(TEMPLATE_SCHEMA_LOCATION), JsonNode.class);
+    /** The compiled schema, replaced as a whole when a newer one is downloaded */
+    private volatile CompiledSchema compiledSchema;
+
+    private void load() {
+        File cachedSchema = getCachedSchemaFile();
+
+        if (cachedSchema != null && cachedSchema.exists()) {
+            compiledSchema = compileCachedSchema(cachedSchema);
+        }
+        if (compiledSchema == null) {
+            compiledSchema = compileBundledSchema();
+        }
+
+        if (cachedSchema != null) {
+            scheduleRefresh(cachedSchema);
+        }
     }
 
     public Set<String> getResourceTypeNames() {
-        return getTopLevelSchema().getProperty(RESOURCES).getChildSchemas().keySet();
+        return compiledSchema.resourceTypeNames;
     }
 
     public Schema getTopLevelSchema() {
-        Schema schema = parseSchema(this.rootNode.get(ROOT_SCHEMA_OBJECT));
-
-        return schema;
+        return compiledSchema.topLevelSchema;
     }
 
     public List<PseudoParameter> getPseudoParameters() {
-        // TODO: Caching
-
-        ArrayList<PseudoParameter> pseudoParameters = new ArrayList<PseudoParameter>();
-
-        Iterator<Entry<String, JsonNode>> iterator = rootNode.get(PSEUDO_PARAMETERS).fields();
-        while (iterator.hasNext()) {
-            Entry<String, JsonNode> entry = iterator.next();
-
-            pseudoParameters.add(new PseudoParameter(entry.getKey(),
-                entry.getValue().get(TYPE).asText(),
-                entry.getValue().get(DESCRIPTION).asText()));
-        }
-
-        return pseudoParameters;
+        return compiledSchema.pseudoParameters;
     }
 
     public List<IntrinsicFunction> getIntrinsicFuntions() {
-        // TODO: Caching
-
-        ArrayList<IntrinsicFunction> intrinsicFunctions = new ArrayList<IntrinsicFunction>();
-
-        Iterator<Entry<String, JsonNode>> iterator = rootNode.get(INTRINSIC_FUNCTIONS).fields();
-        while (iterator.hasNext()) {
-            Entry<String, JsonNode> entry = iterator.next();
-
-            intrinsicFunctions.add(new IntrinsicFunction(entry.getKey(),
-                entry.getValue().get(PARAMETER).asText(),
-                entry.getValue().get(DESCRIPTION).asText()));
-        }
-
-        return intrinsicFunctions;
+        return compiledSchema.intrinsicFunctions;
     }
 
-
     public Schema parseSchema(JsonNode schemaNode) {
         Schema schema = new Schema();
 
@@ -161,16 +182,182 @@ public class TemplateSchemaRules {
         return schema;
     }
 
-    public static TemplateSchemaRules getInstance() {
+    public static synchronized TemplateSchemaRules getInstance() {
         if (instance == null) {
             instance = new TemplateSchemaRules();
+            instance.load();
+        }
+
+        return instance;
+    }
+
+    private CompiledSchema compile(InputStream inputStream) throws IOException {
+        try {
+            JsonNode rootNode = new ObjectMapper().readValue(inputStream, JsonNode.class);
+            return new CompiledSchema(rootNode);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private CompiledSchema compile(File schemaFile) throws IOException {
+        return compile(new FileInputStream(schemaFile));
+    }
+
+    /**
+     * Compiles the cached schema. If it can't be read, it is deleted so that
+     * it gets downloaded again.
+     */
+    private CompiledSchema compileCachedSchema(File cachedSchema) {
+        try {
+            return compile(cachedSchema);
+        } catch (Exception e) {
+            CloudFormationPlugin.getDefault().logWarning(
+                    "Unable to read the cached CloudFormation template schema", e);
+            cachedSchema.delete();
+            return null;
+        }
+    }
+
+    private CompiledSchema compileBundledSchema() {
+        CloudFormationPlugin plugin = CloudFormationPlugin.getDefault();
+        URL entry = plugin == null ? null : plugin.getBundle().getEntry(BUNDLED_SCHEMA);
+        if (entry == null) {
+            throw new RuntimeException("Unable to find the bundled CloudFormation template schema");
+        }
+        try {
+            return compile(entry.openStream());
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to read the bundled CloudFormation template schema", e);
+        }
+    }
+
+    /**
+     * Downloads the schema to the cache file, unless the cached copy is up to
+     * date.
+     *
+     * @return The compiled schema if a newer schema was downloaded, otherwise
+     *         null.
+     */
+    private CompiledSchema downloadSchema(File cachedSchema) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(TEMPLATE_SCHEMA_LOCATION).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT);
+        connection.setReadTimeout(READ_TIMEOUT);
+        if (cachedSchema.exists()) {
+            connection.setIfModifiedSince(cachedSchema.lastModified());
+        }
+
+        try {
+            int responseCode = connection.getResponseCode();
+            if (responseCode == HttpURLConnection.HTTP_NOT_MODIFIED) {
+                return null;
+            }
+            if (responseCode != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response code " + responseCode
+                        + " from " + TEMPLATE_SCHEMA_LOCATION);
+            }
+
+            cachedSchema.getParentFile().mkdirs();
+            File downloadedSchema = new File(cachedSchema.getParentFile(), CACHED_SCHEMA_FILE + ".tmp");
+            InputStream inputStream = connection.getInputStream();
+            OutputStream outputStream = new FileOutputStream(downloadedSchema);
+            try {
+                IOUtils.copy(inputStream, outputStream);
+            } finally {
+                outputStream.close();
+                inputStream.close();
+            }
+
+            // Only replace the cached copy with a schema that can be compiled
+            CompiledSchema schema;
             try {
-                instance.parse();
-            } catch (Exception e) {
-                throw new RuntimeException("", e);
+                schema = compile(downloadedSchema);
+            } catch (IOException e) {
+                downloadedSchema.delete();
+                throw e;
             }
+
+            cachedSchema.delete();
+            if (!downloadedSchema.renameTo(cachedSchema)) {
+                throw new IOException("Unable to write " + cachedSchema);
+            }
+            if (connection.getLastModified() > 0) {
+                cachedSchema.setLastModified(connection.getLastModified());
+            }
+            return schema;
+        } finally {
+            connection.disconnect();
         }
+    }
 
-        return instance;
+    private void scheduleRefresh(final File cachedSchema) {
+        Job refreshJob = new Job("Refreshing CloudFormation template schema") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                try {
+                    CompiledSchema schema = downloadSchema(cachedSchema);
+                    if (schema != null) {
+                        compiledSchema = schema;
+                    }
+                } catch (Exception e) {
+                    CloudFormationPlugin.getDefault().logWarning(
+                            "Unable to refresh the CloudFormation template schema", e);
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        refreshJob.setSystem(true);
+        refreshJob.schedule();
+    }
+
+    private static File getCachedSchemaFile() {
+        CloudFormationPlugin plugin = CloudFormationPlugin.getDefault();
+        if (plugin == null) return null;
+
+        File schemaDirectory = new File(plugin.getStateLocation().toFile(), CACHED_SCHEMA_DIRECTORY);
+        return new File(schemaDirectory, CACHED_SCHEMA_FILE);
+    }
+
+    /**
+     * The lookup structures derived from one version of the schema.
+     */
+    private class CompiledSchema {
+        private final Schema topLevelSchema;
+        private final Set<String> resourceTypeNames;
+        private final List<PseudoParameter> pseudoParameters;
+        private final List<IntrinsicFunction> intrinsicFunctions;
+
+        CompiledSchema(JsonNode rootNode) {
+            topLevelSchema = parseSchema(rootNode.get(ROOT_SCHEMA_OBJECT));
+
+            Set<String> resourceTypes = new TreeSet<String>();
+            SchemaProperty resources = topLevelSchema.getProperty(RESOURCES);
+            if (resources != null && resources.getChildSchemas() != null) {
+                resourceTypes.addAll(resources.getChildSchemas().keySet());
+            }
+            resourceTypeNames = Collections.unmodifiableSet(resourceTypes);
+
+            List<PseudoParameter> parameters = new ArrayList<PseudoParameter>();
+            Iterator<Entry<String, JsonNode>> iterator = rootNode.get(PSEUDO_PARAMETERS).fields();
+            while (iterator.hasNext()) {
+                Entry<String, JsonNode> entry = iterator.next();
+
+                parameters.add(new PseudoParameter(entry.getKey(),
+                    entry.getValue().get(TYPE).asText(),
+                    entry.getValue().get(DESCRIPTION).asText()));
+            }
+            pseudoParameters = Collections.unmodifiableList(parameters);
+
+            List<IntrinsicFunction> functions = new ArrayList<IntrinsicFunction>();
+            iterator = rootNode.get(INTRINSIC_FUNCTIONS).fields();
+            while (iterator.hasNext()) {
+                Entry<String, JsonNode> entry = iterator.next();
+
+                functions.add(new IntrinsicFunction(entry.getKey(),
+                    entry.getValue().get(PARAMETER).asText(),
+                    entry.getValue().get(DESCRIPTION).asText()));
+            }
+            intrinsicFunctions = Collections.unmodifiableList(functions);
+        }
     }
 }
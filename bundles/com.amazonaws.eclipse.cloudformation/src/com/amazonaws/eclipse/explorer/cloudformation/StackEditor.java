@@ -46,15 +46,13 @@ import org.eclipse.ui.part.EditorPart;
 import org.eclipse.ui.statushandlers.StatusManager;
 
 import com.amazonaws.eclipse.cloudformation.CloudFormationPlugin;
-import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.Region;
 import com.amazonaws.eclipse.core.regions.RegionUtils;
 import com.amazonaws.eclipse.core.ui.WebLinkListener;
-import com.amazonaws.services.cloudformation.AmazonCloudFormation;
-import com.amazonaws.services.cloudformation.model.DescribeStackResourcesRequest;
-import com.amazonaws.services.cloudformation.model.DescribeStacksRequest;
+import com.amazonaws.eclipse.explorer.cloudformation.StackMonitor.StackListener;
 import com.amazonaws.services.cloudformation.model.Stack;
+import com.amazonaws.services.cloudformation.model.StackEvent;
 import com.amazonaws.services.cloudformation.model.StackResource;
 
 public class StackEditor extends EditorPart {
@@ -78,7 +76,9 @@ public class StackEditor extends EditorPart {
 
     private Link outputLink;
     private volatile boolean stackInStableState;
-    private Thread autoRefreshThread;
+
+    private StackMonitor stackMonitor;
+    private final StackListener stackListener = new StackChangeListener();
 
     private StackEventsTable stackEventsTable;
     private StackOutputsTable stackOutputsTable;
@@ -134,24 +134,9 @@ public class StackEditor extends EditorPart {
         form.getToolBarManager().add(refreshAction);
         form.getToolBarManager().update(true);
 
-        new LoadStackSummaryThread().start();
-
-        if (stackEditorInput.isAutoRefresh()) {
-            autoRefreshThread = new Thread(new Runnable() {
-                public void run() {
-                    while (!isStackInStableState()) {
-                        try {
-                            Thread.sleep(5 * 1000);
-                            refreshAction.run();
-                        } catch (InterruptedException e) {
-                            // When exception happens, we leave this thread.
-                            return;
-                        }
-                    }
-                }
-            });
-            autoRefreshThread.start();
-        }
+        // The monitor keeps the editor up to date until it is disposed
+        stackMonitor = StackMonitor.getMonitor(stackEditorInput.getAccountId(), stackEditorInput.getRegionEndpoint());
+        stackMonitor.addListener(stackEditorInput.getStackName(), stackListener);
     }
 
     private String getFormTitle() {
@@ -226,7 +211,7 @@ public class StackEditor extends EditorPart {
 
         TabItem eventsTab = new TabItem(tabFolder, SWT.NONE);
         eventsTab.setText("Events");
-        stackEventsTable = new StackEventsTable(tabFolder, toolkit, stackEditorInput);
+        stackEventsTable = new StackEventsTable(tabFolder, toolkit);
         eventsTab.setControl(stackEventsTable);
 
         TabItem resourcesTab = new TabItem(tabFolder, SWT.NONE);
@@ -253,16 +238,11 @@ public class StackEditor extends EditorPart {
     @Override
     public void dispose() {
         super.dispose();
-        if (autoRefreshThread != null) {
-            autoRefreshThread.interrupt();
+        if (stackMonitor != null) {
+            stackMonitor.removeListener(stackEditorInput.getStackName(), stackListener);
         }
     }
 
-    private AmazonCloudFormation getClient() {
-        AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory(stackEditorInput.getAccountId());
-        return clientFactory.getCloudFormationClientByEndpoint(stackEditorInput.getRegionEndpoint());
-    }
-
     public boolean isStackInStableState() {
         return stackInStableState;
     }
@@ -271,75 +251,75 @@ public class StackEditor extends EditorPart {
         this.stackInStableState = stackInStableState;
     }
 
-    private class LoadStackSummaryThread extends Thread {
+    private class StackChangeListener implements StackListener {
 
-        private Stack describeStack() {
-            DescribeStacksRequest request = new DescribeStacksRequest().withStackName(stackEditorInput.getStackName());
-            List<Stack> stacks = getClient().describeStacks(request).getStacks();
-
-            if (stacks.size() == 0) {
-                return new Stack();
-            } else  if (stacks.size() > 1) {
-                throw new RuntimeException("Unexpected number of stacks returned");
-            }
-
-            return stacks.get(0);
-        }
+        /** The resources last shown, to only update the table when they change */
+        private List<StackResource> shownResources;
+        private volatile boolean firstUpdateDone;
 
         private String createRestApiProdLink(String restApi, String region, String restApiProdStage) {
             return String.format("https://%s.execute-api.%s.amazonaws.com/%s", restApi, region, restApiProdStage);
         }
 
-        @Override
-        public void run() {
-            try {
-                final Stack stack = describeStack();
-                setStackInStableState(STABLE_STATE_LIST.contains(stack.getStackStatus()));
-                DescribeStackResourcesRequest request = new DescribeStackResourcesRequest().withStackName(stackEditorInput.getStackName());
-                final List<StackResource> stackResources = getClient().describeStackResources(request).getStackResources();
-
-                Display.getDefault().asyncExec(new Runnable() {
-                    public void run() {
-                        descriptionLabel.setText(valueOrDefault(stack.getDescription(), ""));
-                        lastUpdatedLabel.setText(valueOrDefault(stack.getLastUpdatedTime(), "N/A"));
-                        stackNameLabel.setText(stack.getStackName());
-                        statusLabel.setText(stack.getStackStatus());
-                        statusReasonLabel.setText(valueOrDefault(stack.getStackStatusReason(), ""));
-                        createdLabel.setText(valueOrDefault(stack.getCreationTime(), "N/A"));
-                        createTimeoutLabel.setText(valueOrDefault(stack.getTimeoutInMinutes(), "N/A"));
-
-                        Boolean disableRollback = stack.getDisableRollback();
-                        if (disableRollback != null) disableRollback = !disableRollback;
-                        rollbackOnFailureLabel.setText(booleanYesOrNo(disableRollback));
-
-                        String serverlessRestApi = null;
-                        String serverlessRestApiProdStage = null;
-                        for (StackResource resource : stackResources) {
-                            if (resource.getLogicalResourceId().equals(SERVERLESS_REST_API)) {
-                                serverlessRestApi = resource.getPhysicalResourceId();
-                            }
-                            if (resource.getLogicalResourceId().equals(SERVERLESS_REST_API_PROD_STAGE)) {
-                                serverlessRestApiProdStage = resource.getPhysicalResourceId();
-                            }
-                        }
+        public void stackChanged(final Stack stack, final List<StackResource> stackResources,
+                final List<StackEvent> stackEvents, final List<StackEvent> newStackEvents) {
+            firstUpdateDone = true;
+            setStackInStableState(STABLE_STATE_LIST.contains(stack.getStackStatus()));
 
-                        if (serverlessRestApi != null && serverlessRestApiProdStage != null) {
-                            String region = RegionUtils.getRegionByEndpoint(stackEditorInput.getRegionEndpoint()).getId();
-                            outputLink.setText(createLinkText(createRestApiProdLink(
-                                    serverlessRestApi, region, serverlessRestApiProdStage)));
-                        }
+            if (stackResources != shownResources) {
+                shownResources = stackResources;
+                stackResourcesTable.setStackResources(stackResources);
+            }
 
-                        stackNameLabel.getParent().layout();
-                        stackNameLabel.getParent().getParent().layout(true);
+            Display.getDefault().asyncExec(new Runnable() {
+                public void run() {
+                    if (statusLabel.isDisposed()) return;
+
+                    descriptionLabel.setText(valueOrDefault(stack.getDescription(), ""));
+                    lastUpdatedLabel.setText(valueOrDefault(stack.getLastUpdatedTime(), "N/A"));
+                    stackNameLabel.setText(stack.getStackName());
+                    statusLabel.setText(stack.getStackStatus());
+                    statusReasonLabel.setText(valueOrDefault(stack.getStackStatusReason(), ""));
+                    createdLabel.setText(valueOrDefault(stack.getCreationTime(), "N/A"));
+                    createTimeoutLabel.setText(valueOrDefault(stack.getTimeoutInMinutes(), "N/A"));
+
+                    Boolean disableRollback = stack.getDisableRollback();
+                    if (disableRollback != null) disableRollback = !disableRollback;
+                    rollbackOnFailureLabel.setText(booleanYesOrNo(disableRollback));
+
+                    String serverlessRestApi = null;
+                    String serverlessRestApiProdStage = null;
+                    for (StackResource resource : stackResources) {
+                        if (resource.getLogicalResourceId().equals(SERVERLESS_REST_API)) {
+                            serverlessRestApi = resource.getPhysicalResourceId();
+                        }
+                        if (resource.getLogicalResourceId().equals(SERVERLESS_REST_API_PROD_STAGE)) {
+                            serverlessRestApiProdStage = resource.getPhysicalResourceId();
+                        }
+                    }
 
-                        stackOutputsTable.setStackOutputs(stack.getOutputs());
-                        stackParametersTable.setStackParameters(stack.getParameters());
+                    if (serverlessRestApi != null && serverlessRestApiProdStage != null) {
+                        String region = RegionUtils.getRegionByEndpoint(stackEditorInput.getRegionEndpoint()).getId();
+                        outputLink.setText(createLinkText(createRestApiProdLink(
+                                serverlessRestApi, region, serverlessRestApiProdStage)));
                     }
-                });
-            } catch (Exception e) {
-                Status status = new Status(IStatus.WARNING, CloudFormationPlugin.PLUGIN_ID, "Unable to describe stack " + stackEditorInput.getStackName(), e);
-                StatusManager.getManager().handle(status, StatusManager.LOG | StatusManager.SHOW);
-            }
+
+                    stackNameLabel.getParent().layout();
+                    stackNameLabel.getParent().getParent().layout(true);
+
+                    stackOutputsTable.setStackOutputs(stack.getOutputs());
+                    stackParametersTable.setStackParameters(stack.getParameters());
+                    stackEventsTable.setStackEvents(stackEvents, newStackEvents);
+                }
+            });
+        }
+
+        public void stackMonitorFailed(Exception e) {
+            Status status = new Status(IStatus.WARNING, CloudFormationPlugin.PLUGIN_ID, "Unable to describe stack " + stackEditorInput.getStackName(), e);
+            // Only show the first failure; later ones happen in the background
+            int style = firstUpdateDone ? StatusManager.LOG : StatusManager.LOG | StatusManager.SHOW;
+            firstUpdateDone = true;
+            StatusManager.getManager().handle(status, style);
         }
 
         private String booleanYesOrNo(Boolean b) {
@@ -373,9 +353,8 @@ public class StackEditor extends EditorPart {
 
         @Override
         public void run() {
-            new LoadStackSummaryThread().start();
-            stackEventsTable.refresh();
-            stackResourcesTable.refresh();
+            stackMonitor.refresh(stackEditorInput.getStackName());
+            stackResourcesTable.refreshInstances();
         }
     }
 
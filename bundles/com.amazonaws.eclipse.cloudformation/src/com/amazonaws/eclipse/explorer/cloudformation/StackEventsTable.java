@@ -14,11 +14,8 @@
  */
 package com.amazonaws.eclipse.explorer.cloudformation;
 
-import java.util.LinkedList;
 import java.util.List;
 
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.layout.TreeColumnLayout;
 import org.eclipse.jface.viewers.ColumnWeightData;
 import org.eclipse.jface.viewers.ILabelProviderListener;
@@ -32,24 +29,16 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
-import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.ui.forms.widgets.FormToolkit;
-import org.eclipse.ui.statushandlers.StatusManager;
-
-import com.amazonaws.eclipse.cloudformation.CloudFormationPlugin;
-import com.amazonaws.eclipse.core.AWSClientFactory;
-import com.amazonaws.eclipse.core.AwsToolkitCore;
-import com.amazonaws.services.cloudformation.AmazonCloudFormation;
-import com.amazonaws.services.cloudformation.model.DescribeStackEventsRequest;
-import com.amazonaws.services.cloudformation.model.DescribeStackEventsResult;
+
 import com.amazonaws.services.cloudformation.model.StackEvent;
 
 public class StackEventsTable extends Composite {
 
     private TreeViewer viewer;
-    private final StackEditorInput stackEditorInput;
+    private StackEventsContentProvider contentProvider;
 
 
     private final class StackEventsContentProvider implements ITreePathContentProvider {
@@ -115,9 +104,8 @@ public class StackEventsTable extends Composite {
 
     }
 
-    public StackEventsTable(Composite parent, FormToolkit toolkit, StackEditorInput stackEditorInput) {
+    public StackEventsTable(Composite parent, FormToolkit toolkit) {
         super(parent, SWT.NONE);
-        this.stackEditorInput = stackEditorInput;
 
         this.setLayout(new GridLayout());
         
@@ -127,7 +115,7 @@ public class StackEventsTable extends Composite {
         TreeColumnLayout tableColumnLayout = new TreeColumnLayout();
         composite.setLayout(tableColumnLayout);
 
-        StackEventsContentProvider contentProvider = new StackEventsContentProvider();
+        contentProvider = new StackEventsContentProvider();
         StackEventsLabelProvider labelProvider = new StackEventsLabelProvider();
 
         viewer = new TreeViewer(composite, SWT.BORDER | SWT.MULTI);
@@ -137,12 +125,29 @@ public class StackEventsTable extends Composite {
         viewer.setContentProvider(contentProvider);
 
         createColumns(tableColumnLayout, viewer.getTree());
-        
-        refresh();
     }
-    
-    public void refresh() {
-        new LoadStackEventsThread().start();
+
+    /**
+     * Shows the events of the stack. Only the new events are added to the
+     * table once it shows the previous ones.
+     *
+     * @param events
+     *            All the events of the stack, most recent first.
+     * @param newEvents
+     *            The events added since the last call, at the head of the
+     *            full list.
+     */
+    public void setStackEvents(List<StackEvent> events, List<StackEvent> newEvents) {
+        StackEvent[] eventArray = events.toArray(new StackEvent[events.size()]);
+        if (viewer.getInput() == null || newEvents.size() == events.size()) {
+            viewer.setInput(eventArray);
+            return;
+        }
+
+        contentProvider.events = eventArray;
+        for (int i = 0; i < newEvents.size(); i++) {
+            viewer.insert(viewer.getInput(), newEvents.get(i), i);
+        }
     }
 
     private void createColumns(TreeColumnLayout columnLayout, Tree tree) {
@@ -162,35 +167,4 @@ public class StackEventsTable extends Composite {
 
         return column;
     }
-
-    private AmazonCloudFormation getClient() {
-        AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory(stackEditorInput.getAccountId());
-        return clientFactory.getCloudFormationClientByEndpoint(stackEditorInput.getRegionEndpoint());
-    }
-    
-    private class LoadStackEventsThread extends Thread {
-        @Override
-        public void run() {
-            try {
-                DescribeStackEventsRequest request = new DescribeStackEventsRequest().withStackName(stackEditorInput.getStackName());
-                final List<StackEvent> stackEvents = new LinkedList<StackEvent>();
-                DescribeStackEventsResult result = null;
-                do {
-                    if (result != null) request.setNextToken(result.getNextToken());
-                    result = getClient().describeStackEvents(request);
-    
-                    stackEvents.addAll(result.getStackEvents());
-                } while (result.getNextToken() != null);
-                
-                Display.getDefault().asyncExec(new Runnable() {
-                    public void run() {
-                        viewer.setInput(stackEvents.toArray(new StackEvent[stackEvents.size()]));
-                    }
-                });
-            } catch (Exception e) {
-                Status status = new Status(IStatus.WARNING, CloudFormationPlugin.PLUGIN_ID, "Unable to describe events for stack " + stackEditorInput.getStackName(), e);
-                StatusManager.getManager().handle(status, StatusManager.LOG);
-            }
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,330 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.cloudformation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.services.cloudformation.AmazonCloudFormation;
+import com.amazonaws.services.cloudformation.model.DescribeStackEventsRequest;
+import com.amazonaws.services.cloudformation.model.DescribeStackEventsResult;
+import com.amazonaws.services.cloudformation.model.DescribeStackResourcesRequest;
+import com.amazonaws.services.cloudformation.model.DescribeStacksRequest;
+import com.amazonaws.services.cloudformation.model.Stack;
+import com.amazonaws.services.cloudformation.model.StackEvent;
+import com.amazonaws.services.cloudformation.model.StackResource;
+
+/**
+ * Monitors the stacks of an account in a region, on behalf of the stack
+ * editors showing them. There is one monitor per account and region, and each
+ * stack is polled once no matter how many editors show it.
+ * <p>
+ * Stack events are fetched incrementally: DescribeStackEvents returns the most
+ * recent events first, so paging stops at the first event already seen. The
+ * resources of a stack are only described again when it has new events. The
+ * poll interval adapts to the stack: it is short while the stack is in
+ * progress, and long once it is stable, in which case only the stack itself is
+ * described until its status changes.
+ */
+class StackMonitor {
+
+    /** Poll interval of a stack in progress that just had new events */
+    private static final long MIN_POLL_INTERVAL_MILLIS = 2 * 1000;
+
+    /** Maximum poll interval of a stack in progress without new events */
+    private static final long MAX_IN_PROGRESS_POLL_INTERVAL_MILLIS = 10 * 1000;
+
+    /** Poll interval of a stable stack, or after a failure to poll it */
+    private static final long IDLE_POLL_INTERVAL_MILLIS = 60 * 1000;
+
+    /** Monitors by account ID and region endpoint */
+    private static final Map<String, StackMonitor> monitors = new HashMap<String, StackMonitor>();
+
+    /**
+     * Listener notified, from the monitor thread, of the changes of a stack.
+     */
+    interface StackListener {
+        /**
+         * @param stack
+         *            The latest description of the stack.
+         * @param resources
+         *            The resources of the stack.
+         * @param events
+         *            All the events of the stack, most recent first.
+         * @param newEvents
+         *            The events since the last notification of this listener,
+         *            most recent first; they are the head of the full list.
+         */
+        void stackChanged(Stack stack, List<StackResource> resources,
+                List<StackEvent> events, List<StackEvent> newEvents);
+
+        void stackMonitorFailed(Exception e);
+    }
+
+    private final String accountId;
+    private final String regionEndpoint;
+    private final ScheduledThreadPoolExecutor executor;
+
+    /** Watched stacks by stack name */
+    private final Map<String, WatchedStack> stacks = new HashMap<String, WatchedStack>();
+
+    private StackMonitor(String accountId, String regionEndpoint) {
+        this.accountId = accountId;
+        this.regionEndpoint = regionEndpoint;
+
+        // A single thread polls all the stacks, and exits when none is watched
+        this.executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "CloudFormation stack monitor");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        this.executor.setKeepAliveTime(IDLE_POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    public static synchronized StackMonitor getMonitor(String accountId, String regionEndpoint) {
+        String key = accountId + "/" + regionEndpoint;
+        StackMonitor monitor = monitors.get(key);
+        if (monitor == null) {
+            monitor = new StackMonitor(accountId, regionEndpoint);
+            monitors.put(key, monitor);
+        }
+        return monitor;
+    }
+
+    /**
+     * Starts notifying the listener of the changes of a stack. If the stack
+     * was already loaded, the listener is notified of its current state right
+     * away.
+     */
+    public synchronized void addListener(String stackName, final StackListener listener) {
+        WatchedStack stack = stacks.get(stackName);
+        if (stack == null) {
+            stack = new WatchedStack(stackName);
+            stacks.put(stackName, stack);
+            schedulePoll(stack, 0);
+        }
+        stack.listeners.add(listener);
+
+        final WatchedStack watchedStack = stack;
+        executor.execute(new Runnable() {
+            public void run() {
+                watchedStack.notifyCurrentState(listener);
+            }
+        });
+    }
+
+    /**
+     * Stops notifying the listener. A stack is no longer polled once it has
+     * no listener.
+     */
+    public synchronized void removeListener(String stackName, StackListener listener) {
+        WatchedStack stack = stacks.get(stackName);
+        if (stack == null) return;
+
+        stack.listeners.remove(listener);
+        if (stack.listeners.isEmpty()) {
+            stacks.remove(stackName);
+            if (stack.nextPoll != null) stack.nextPoll.cancel(false);
+        }
+    }
+
+    /**
+     * Polls a stack right away, describing its resources even if it has no
+     * new events.
+     */
+    public synchronized void refresh(String stackName) {
+        WatchedStack stack = stacks.get(stackName);
+        if (stack == null) return;
+
+        stack.forceRefresh = true;
+        if (stack.nextPoll != null) stack.nextPoll.cancel(false);
+        schedulePoll(stack, 0);
+    }
+
+    /**
+     * Schedules the next poll of a stack, replacing the one scheduled before.
+     * A poll already running when it's replaced doesn't schedule another one
+     * once it's done, so that each stack has a single chain of polls.
+     */
+    private synchronized void schedulePoll(final WatchedStack stack, long delayMillis) {
+        if (stacks.get(stack.stackName) != stack) return;
+
+        final int generation = ++stack.pollGeneration;
+        stack.nextPoll = executor.schedule(new Runnable() {
+            public void run() {
+                long interval = stack.poll();
+                scheduleNextPoll(stack, generation, interval);
+            }
+        }, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void scheduleNextPoll(WatchedStack stack, int generation, long delayMillis) {
+        if (stack.pollGeneration == generation) {
+            schedulePoll(stack, delayMillis);
+        }
+    }
+
+    private AmazonCloudFormation getClient() {
+        return AwsToolkitCore.getClientFactory(accountId).getCloudFormationClientByEndpoint(regionEndpoint);
+    }
+
+    private static boolean isInProgress(Stack stack) {
+        return stack.getStackStatus() != null && stack.getStackStatus().endsWith("_IN_PROGRESS");
+    }
+
+    /**
+     * The state of a watched stack. Except for the listeners and the next
+     * poll, which is guarded by the monitor, it is only accessed from the
+     * monitor thread.
+     */
+    private class WatchedStack {
+        private final String stackName;
+        private final List<StackListener> listeners = new CopyOnWriteArrayList<StackListener>();
+        private volatile boolean forceRefresh;
+        private ScheduledFuture<?> nextPoll;
+        /** Incremented each time a poll is scheduled */
+        private int pollGeneration;
+
+        private Stack stack;
+        private List<StackResource> resources = Collections.emptyList();
+        private List<StackEvent> events = Collections.emptyList();
+        private long pollIntervalMillis = MIN_POLL_INTERVAL_MILLIS;
+
+        WatchedStack(String stackName) {
+            this.stackName = stackName;
+        }
+
+        /**
+         * Polls the stack, notifies the listeners if it changed, and returns
+         * how long to wait before the next poll.
+         */
+        long poll() {
+            boolean refresh = forceRefresh;
+            forceRefresh = false;
+
+            try {
+                Stack latest = describeStack();
+                boolean stackChanged = !latest.equals(stack);
+
+                if (!refresh && !stackChanged && !isInProgress(latest)) {
+                    // A stable stack that did not change has no new events
+                    return IDLE_POLL_INTERVAL_MILLIS;
+                }
+
+                List<StackEvent> newEvents = describeNewEvents();
+                if (!newEvents.isEmpty() || refresh || stack == null) {
+                    resources = Collections.unmodifiableList(new ArrayList<StackResource>(
+                            getClient().describeStackResources(new DescribeStackResourcesRequest()
+                                    .withStackName(stackName)).getStackResources()));
+                }
+                if (!newEvents.isEmpty()) {
+                    List<StackEvent> allEvents = new ArrayList<StackEvent>(newEvents.size() + events.size());
+                    allEvents.addAll(newEvents);
+                    allEvents.addAll(events);
+                    events = Collections.unmodifiableList(allEvents);
+                }
+                stack = latest;
+
+                if (stackChanged || refresh || !newEvents.isEmpty()) {
+                    for (StackListener listener : listeners) {
+                        listener.stackChanged(stack, resources, events, newEvents);
+                    }
+                }
+
+                if (!isInProgress(stack)) {
+                    pollIntervalMillis = MIN_POLL_INTERVAL_MILLIS;
+                    return IDLE_POLL_INTERVAL_MILLIS;
+                }
+                if (newEvents.isEmpty()) {
+                    pollIntervalMillis = Math.min(pollIntervalMillis * 3 / 2, MAX_IN_PROGRESS_POLL_INTERVAL_MILLIS);
+                } else {
+                    pollIntervalMillis = MIN_POLL_INTERVAL_MILLIS;
+                }
+                return pollIntervalMillis;
+
+            } catch (Exception e) {
+                for (StackListener listener : listeners) {
+                    listener.stackMonitorFailed(e);
+                }
+                // Keep following a stack in progress, backing off as when
+                // it has no new events
+                if (stack == null || !isInProgress(stack)) {
+                    return IDLE_POLL_INTERVAL_MILLIS;
+                }
+                pollIntervalMillis = Math.min(pollIntervalMillis * 3 / 2, MAX_IN_PROGRESS_POLL_INTERVAL_MILLIS);
+                return pollIntervalMillis;
+            }
+        }
+
+        /**
+         * Notifies a new listener of the current state of the stack, if it
+         * was loaded already.
+         */
+        void notifyCurrentState(StackListener listener) {
+            if (stack != null && listeners.contains(listener)) {
+                listener.stackChanged(stack, resources, events, events);
+            }
+        }
+
+        private Stack describeStack() {
+            List<Stack> stacks = getClient().describeStacks(
+                    new DescribeStacksRequest().withStackName(stackName)).getStacks();
+
+            if (stacks.size() == 0) {
+                return new Stack();
+            } else if (stacks.size() > 1) {
+                throw new RuntimeException("Unexpected number of stacks returned");
+            }
+            return stacks.get(0);
+        }
+
+        /**
+         * Returns the events newer than the most recent event already known,
+         * most recent first.
+         */
+        private List<StackEvent> describeNewEvents() {
+            String lastSeenEventId = events.isEmpty() ? null : events.get(0).getEventId();
+
+            DescribeStackEventsRequest request = new DescribeStackEventsRequest().withStackName(stackName);
+            List<StackEvent> newEvents = new ArrayList<StackEvent>();
+            DescribeStackEventsResult result = null;
+            do {
+                if (result != null) request.setNextToken(result.getNextToken());
+                result = getClient().describeStackEvents(request);
+
+                for (StackEvent event : result.getStackEvents()) {
+                    if (event.getEventId().equals(lastSeenEventId)) {
+                        return newEvents;
+                    }
+                    newEvents.add(event);
+                }
+            } while (result.getNextToken() != null);
+
+            return newEvents;
+        }
+    }
+}
@@ -39,14 +39,10 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.statushandlers.StatusManager;
 
 import com.amazonaws.eclipse.cloudformation.CloudFormationPlugin;
-import com.amazonaws.eclipse.core.AWSClientFactory;
-import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.Region;
 import com.amazonaws.eclipse.core.regions.RegionUtils;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
 import com.amazonaws.eclipse.ec2.ui.views.instances.InstanceSelectionTable;
-import com.amazonaws.services.cloudformation.AmazonCloudFormation;
-import com.amazonaws.services.cloudformation.model.DescribeStackResourcesRequest;
 import com.amazonaws.services.cloudformation.model.StackResource;
 
 class StackResourcesTable extends Composite {
@@ -99,45 +95,33 @@ class StackResourcesTable extends Composite {
         viewer.setContentProvider(contentProvider);
 
         createColumns(tableColumnLayout, viewer.getTree());
-
-        refresh();
     }
 
-    public void refresh() {
-        new LoadStackResourcesThread().start();
+    /**
+     * Reloads the EC2 instances of the stack, which aren't monitored.
+     */
+    public void refreshInstances() {
         instanceSelectionTable.refreshData();
     }
 
-    private AmazonCloudFormation getClient() {
-        AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory(stackEditorInput.getAccountId());
-        return clientFactory.getCloudFormationClientByEndpoint(stackEditorInput.getRegionEndpoint());
-    }
-
-    private class LoadStackResourcesThread extends Thread {
-        @Override
-        public void run() {
-            try {
-                DescribeStackResourcesRequest request = new DescribeStackResourcesRequest().withStackName(stackEditorInput.getStackName());
-                final List<StackResource> stackResources = getClient().describeStackResources(request).getStackResources();
-
-                List<String> instances = new LinkedList<String>();
-                for (StackResource resource : stackResources) {
-                    if (resource.getResourceType().equalsIgnoreCase("AWS::EC2::Instance")) {
-                        instances.add(resource.getPhysicalResourceId());
-                    }
-                }
-                instanceSelectionTable.setInstancesToList(instances);
-
-                Display.getDefault().asyncExec(new Runnable() {
-                   public void run() {
-                       viewer.setInput(stackResources.toArray(new StackResource[stackResources.size()]));
-                   }
-                });
-            } catch (Exception e) {
-                Status status = new Status(IStatus.WARNING, CloudFormationPlugin.PLUGIN_ID, "Unable to describe resources for stack " + stackEditorInput.getStackName(), e);
-                StatusManager.getManager().handle(status, StatusManager.LOG);
+    /**
+     * Shows the resources of the stack. Can be called from any thread.
+     */
+    public void setStackResources(final List<StackResource> stackResources) {
+        List<String> instances = new LinkedList<String>();
+        for (StackResource resource : stackResources) {
+            if (resource.getResourceType().equalsIgnoreCase("AWS::EC2::Instance")) {
+                instances.add(resource.getPhysicalResourceId());
             }
         }
+        instanceSelectionTable.setInstancesToList(instances);
+
+        Display.getDefault().asyncExec(new Runnable() {
+           public void run() {
+               if (viewer.getTree().isDisposed()) return;
+               viewer.setInput(stackResources.toArray(new StackResource[stackResources.size()]));
+           }
+        });
     }
 
     private final class StackResourcesContentProvider implements ITreePathContentProvider {
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2011-2017 Amazon Technologies, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.eclipse.codecommit.explorer;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.amazonaws.services.codecommit.model.Commit;
+
+/**
+ * Cache of the commits fetched from a CodeCommit repository, keyed by commit
+ * ID. Commits never change once created, so cached entries don't expire;
+ * the least recently used ones are evicted once the cache is full. The cache
+ * is shared by all editors and branches of the same repository.
+ */
+class CommitCache {
+
+    /** Maximum number of commits cached per repository */
+    private static final int MAX_CACHED_COMMITS = 5000;
+
+    private static final Map<String, CommitCache> caches = new HashMap<String, CommitCache>();
+
+    private final Map<String, Commit> commits = new LinkedHashMap<String, Commit>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Entry<String, Commit> eldest) {
+            return size() > MAX_CACHED_COMMITS;
+        }
+    };
+
+    /**
+     * Returns the commit cache for the specified repository.
+     */
+    public static synchronized CommitCache forRepository(String accountId, String regionEndpoint,
+            String repositoryName) {
+        String key = accountId + "/" + regionEndpoint + "/" + repositoryName;
+        CommitCache cache = caches.get(key);
+        if (cache == null) {
+            cache = new CommitCache();
+            caches.put(key, cache);
+        }
+        return cache;
+    }
+
+    public synchronized Commit get(String commitId) {
+        return commits.get(commitId);
+    }
+
+    public synchronized void put(String commitId, Commit commit) {
+        commits.put(commitId, commit);
+    }
+}
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2011-2017 Amazon Technologies, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.eclipse.codecommit.explorer;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import com.amazonaws.services.codecommit.AWSCodeCommit;
+import com.amazonaws.services.codecommit.model.Commit;
+import com.amazonaws.services.codecommit.model.GetCommitRequest;
+
+/**
+ * Walks the commit history of a CodeCommit repository backwards from a head
+ * commit, newest commit first, following all parents of merge commits.
+ * <p>
+ * A commit's parents are requested as soon as the commit has been fetched,
+ * so the lookups of the next commits are in flight while the current ones
+ * are being displayed, and the histories merged into a commit are fetched in
+ * parallel. How far ahead of the walk commits are prefetched is bounded. All
+ * fetched commits go to the repository's {@link CommitCache}, so walking a
+ * branch that shares history with a branch walked before mostly hits the
+ * cache.
+ * <p>
+ * The walk methods must be called from a single thread.
+ */
+class CommitHistoryWalker {
+
+    /** Number of commits prefetched beyond the ones requested so far */
+    private static final int PREFETCH_AHEAD = 10;
+
+    private final AWSCodeCommit client;
+    private final String repositoryName;
+    private final CommitCache cache;
+    private final Executor executor;
+
+    /** All commit lookups started so far, keyed by commit ID */
+    private final ConcurrentMap<String, Future<Commit>> fetches = new ConcurrentHashMap<String, Future<Commit>>();
+
+    /** Commits found but not walked yet, one of them is the next newest */
+    private final List<String> frontier = new ArrayList<String>();
+
+    /** Commits that have been added to the frontier at some point */
+    private final Set<String> discovered = new HashSet<String>();
+
+    /** Prefetching stops once this many commits have been requested */
+    private volatile int prefetchLimit;
+
+    private int walkedCount;
+
+    /**
+     * @param client
+     *            The client for the repository's region.
+     * @param repositoryName
+     *            The repository to walk.
+     * @param cache
+     *            The commit cache of the repository.
+     * @param executor
+     *            The executor the commit lookups are run on.
+     * @param headCommitId
+     *            The commit to start the walk from, e.g. the tip of a branch.
+     */
+    public CommitHistoryWalker(AWSCodeCommit client, String repositoryName,
+            CommitCache cache, Executor executor, String headCommitId) {
+        this.client = client;
+        this.repositoryName = repositoryName;
+        this.cache = cache;
+        this.executor = executor;
+
+        discovered.add(headCommitId);
+        frontier.add(headCommitId);
+    }
+
+    /**
+     * Returns whether there are commits left to walk.
+     */
+    public boolean hasMore() {
+        return !frontier.isEmpty();
+    }
+
+    /**
+     * Walks up to the specified number of commits.
+     *
+     * @return The walked commits, newest first; fewer than requested if the
+     *         start of the history was reached.
+     * @throws OperationCanceledException
+     *             If the monitor was canceled.
+     */
+    public List<CommitRow> walk(int count, IProgressMonitor monitor) throws InterruptedException {
+        prefetchLimit = walkedCount + count + PREFETCH_AHEAD;
+
+        List<CommitRow> rows = new ArrayList<CommitRow>(count);
+        while (rows.size() < count && !frontier.isEmpty()) {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+
+            // Every commit in the frontier can be the next one, so all of
+            // them have to be fetched to pick the newest
+            for (String commitId : frontier) {
+                fetch(commitId);
+            }
+
+            String newestId = null;
+            Commit newest = null;
+            for (String commitId : frontier) {
+                Commit commit = waitForCommit(commitId);
+                prefetchParents(commit);
+                if (newest == null || isNewer(commit, commitId, newest, newestId)) {
+                    newest = commit;
+                    newestId = commitId;
+                }
+            }
+
+            frontier.remove(newestId);
+            if (newest.getParents() != null) {
+                for (String parentId : newest.getParents()) {
+                    if (discovered.add(parentId)) {
+                        frontier.add(parentId);
+                    }
+                }
+            }
+            rows.add(new CommitRow(newestId, newest));
+            walkedCount++;
+        }
+        return rows;
+    }
+
+    private Future<Commit> fetch(final String commitId) {
+        Future<Commit> fetch = fetches.get(commitId);
+        if (fetch != null) return fetch;
+
+        final Commit cachedCommit = cache.get(commitId);
+        FutureTask<Commit> task = new FutureTask<Commit>(new Callable<Commit>() {
+            public Commit call() {
+                Commit commit = cachedCommit;
+                if (commit == null) {
+                    commit = client.getCommit(new GetCommitRequest()
+                            .withRepositoryName(repositoryName)
+                            .withCommitId(commitId))
+                            .getCommit();
+                    cache.put(commitId, commit);
+                }
+                prefetchParents(commit);
+                return commit;
+            }
+        });
+
+        fetch = fetches.putIfAbsent(commitId, task);
+        if (fetch != null) return fetch;
+
+        if (cachedCommit != null) {
+            task.run();
+        } else {
+            executor.execute(task);
+        }
+        return task;
+    }
+
+    private void prefetchParents(Commit commit) {
+        if (commit.getParents() == null) return;
+
+        for (String parentId : commit.getParents()) {
+            if (fetches.size() >= prefetchLimit) return;
+            fetch(parentId);
+        }
+    }
+
+    private Commit waitForCommit(String commitId) throws InterruptedException {
+        Future<Commit> fetch = fetch(commitId);
+        try {
+            return fetch.get();
+        } catch (ExecutionException e) {
+            // Forget the failed lookup so that it is retried on the next walk
+            fetches.remove(commitId, fetch);
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Unable to get commit " + commitId, e.getCause());
+        }
+    }
+
+    /**
+     * Orders commits by committer date like git log does, falling back to
+     * the commit ID to keep the order stable.
+     */
+    private static boolean isNewer(Commit commit, String commitId, Commit other, String otherId) {
+        long time = getCommitTime(commit);
+        long otherTime = getCommitTime(other);
+        if (time != otherTime) return time > otherTime;
+        return commitId.compareTo(otherId) > 0;
+    }
+
+    /**
+     * Returns the committer date in seconds since the epoch. CodeCommit
+     * returns dates as "<seconds> <timezone offset>".
+     */
+    private static long getCommitTime(Commit commit) {
+        if (commit.getCommitter() == null || commit.getCommitter().getDate() == null) return 0;
+        String[] tokens = commit.getCommitter().getDate().split(" ");
+        try {
+            return Long.parseLong(tokens[0]);
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2011-2017 Amazon Technologies, Inc.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at:
+ *
+ *    http://aws.amazon.com/apache2.0
+ *
+ * This file is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES
+ * OR CONDITIONS OF ANY KIND, either express or implied. See the
+ * License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.amazonaws.eclipse.codecommit.explorer;
+
+import com.amazonaws.services.codecommit.model.Commit;
+
+/**
+ * POJO class acting as the row data model for the commit history table.
+ */
+final class CommitRow {
+    private final String commitId;
+    private final Commit commit;
+
+    public CommitRow(String commitId, Commit commit) {
+        this.commitId = commitId;
+        this.commit = commit;
+    }
+
+    public String getCommitId() {
+        return commitId;
+    }
+
+    public Commit getCommit() {
+        return commit;
+    }
+}
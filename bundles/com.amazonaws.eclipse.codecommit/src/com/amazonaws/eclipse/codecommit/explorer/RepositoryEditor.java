@@ -16,8 +16,14 @@ package com.amazonaws.eclipse.codecommit.explorer;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.layout.TreeColumnLayout;
 import org.eclipse.jface.resource.JFaceResources;
@@ -56,9 +62,7 @@ import com.amazonaws.eclipse.codecommit.CodeCommitUtil;
 import com.amazonaws.eclipse.codecommit.explorer.CodeCommitActionProvider.CloneRepositoryAction;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.services.codecommit.AWSCodeCommit;
-import com.amazonaws.services.codecommit.model.Commit;
 import com.amazonaws.services.codecommit.model.GetBranchRequest;
-import com.amazonaws.services.codecommit.model.GetCommitRequest;
 import com.amazonaws.services.codecommit.model.GetRepositoryRequest;
 import com.amazonaws.services.codecommit.model.ListBranchesRequest;
 import com.amazonaws.services.codecommit.model.RepositoryMetadata;
@@ -70,9 +74,23 @@ public class RepositoryEditor extends EditorPart {
 
     public final static String ID = "com.amazonaws.eclipse.codecommit.explorer.RepositoryEditor";
 
-    private static final int DEFAUT_COMMIT_HISTORY_COUNT = 10;
+    /** Number of commits loaded initially and by each "Load More" */
+    private static final int COMMIT_HISTORY_PAGE_SIZE = 25;
+
+    /** Number of commits added to the history table at a time while loading */
+    private static final int COMMIT_HISTORY_UPDATE_BATCH_SIZE = 5;
+
+    /** Number of commit lookups run in parallel */
+    private static final int COMMIT_FETCH_THREADS = 4;
+
     private RepositoryEditorInput repositoryEditorInput;
     private AWSCodeCommit client;
+    private CommitCache commitCache;
+    private ExecutorService commitFetchExecutor;
+
+    /** The walker of the branch shown, null until its first page is loaded */
+    private CommitHistoryWalker commitHistoryWalker;
+    private LoadCommitHistoryJob loadCommitHistoryJob;
 
     private Text lastModifiedDateText;
     private Text repositoryDescriptionText;
@@ -81,6 +99,8 @@ public class RepositoryEditor extends EditorPart {
 
     private Combo branchCombo;
     private TreeViewer viewer;
+    private CommitContentProvider contentProvider;
+    private Button loadMoreButton;
 
     @Override
     public void doSave(IProgressMonitor monitor) {}
@@ -96,9 +116,22 @@ public class RepositoryEditor extends EditorPart {
         repositoryEditorInput = (RepositoryEditorInput) input;
         client = AwsToolkitCore.getClientFactory(repositoryEditorInput.getAccountId())
                 .getCodeCommitClientByEndpoint(repositoryEditorInput.getRegionEndpoint());
+        commitCache = CommitCache.forRepository(repositoryEditorInput.getAccountId(),
+                repositoryEditorInput.getRegionEndpoint(),
+                repositoryEditorInput.getRepository().getRepositoryName());
+        commitFetchExecutor = Executors.newFixedThreadPool(COMMIT_FETCH_THREADS);
         setPartName(input.getName());
     }
 
+    @Override
+    public void dispose() {
+        if (loadCommitHistoryJob != null) {
+            loadCommitHistoryJob.cancel();
+        }
+        commitFetchExecutor.shutdownNow();
+        super.dispose();
+    }
+
     @Override
     public boolean isDirty() {
         return false;
@@ -191,7 +224,7 @@ public class RepositoryEditor extends EditorPart {
         TreeColumnLayout tableColumnLayout = new TreeColumnLayout();
         composite.setLayout(tableColumnLayout);
 
-        CommitContentProvider contentProvider = new CommitContentProvider();
+        contentProvider = new CommitContentProvider();
         CommitLabelProvider labelProvider = new CommitLabelProvider();
 
         viewer = new TreeViewer(composite, SWT.BORDER | SWT.MULTI);
@@ -201,7 +234,15 @@ public class RepositoryEditor extends EditorPart {
         viewer.setContentProvider(contentProvider);
 
         createColumns(tableColumnLayout, viewer.getTree());
-        viewer.setInput(new Object());
+        viewer.setInput(new ArrayList<CommitRow>());
+
+        loadMoreButton = toolkit.createButton(commitHistoryComposite, "Load More", SWT.PUSH);
+        loadMoreButton.setEnabled(false);
+        loadMoreButton.addSelectionListener(new SelectionAdapter() {
+            public void widgetSelected(SelectionEvent e) {
+                loadCommitHistory(commitHistoryWalker);
+            }
+        });
 
         new LoadBranchesThread().start();
     }
@@ -250,57 +291,123 @@ public class RepositoryEditor extends EditorPart {
     private class LoadBranchesThread extends Thread {
         @Override
         public void run() {
+            String repositoryName = repositoryEditorInput.getRepository().getRepositoryName();
+            final List<String> branches = client.listBranches(new ListBranchesRequest()
+                    .withRepositoryName(repositoryName))
+                .getBranches();
+            final String defautBranch = branches.isEmpty() ? null : client.getRepository(new GetRepositoryRequest()
+                    .withRepositoryName(repositoryName))
+                    .getRepositoryMetadata().getDefaultBranch();
+
             Display.getDefault().asyncExec(new Runnable() {
 
                 public void run() {
+                    if (branchCombo.isDisposed()) return;
                     branchCombo.removeAll();
-                    List<String> branches = client.listBranches(new ListBranchesRequest()
-                            .withRepositoryName(repositoryEditorInput.getRepository().getRepositoryName()))
-                        .getBranches();
                     if (!branches.isEmpty()) {
                         for (String branch : branches) {
                             branchCombo.add(branch);
                         }
-                        String defautBranch = client.getRepository(new GetRepositoryRequest()
-                                .withRepositoryName(repositoryEditorInput.getRepository().getRepositoryName()))
-                                .getRepositoryMetadata().getDefaultBranch();
                         branchCombo.select(branchCombo.indexOf(defautBranch));
                     }
-                    new LoadCommitHistoryThread().start();
+                    loadCommitHistory(null);
                 }
             });
         }
     }
 
-    private class LoadCommitHistoryThread extends Thread {
+    /**
+     * Loads the next page of the commit history of the selected branch in
+     * the background.
+     *
+     * @param walker
+     *            The walker to continue with, or null to start over from the
+     *            tip of the selected branch.
+     */
+    private void loadCommitHistory(CommitHistoryWalker walker) {
+        if (loadCommitHistoryJob != null) {
+            loadCommitHistoryJob.cancel();
+        }
+        if (walker == null) {
+            commitHistoryWalker = null;
+            viewer.setInput(new ArrayList<CommitRow>());
+        }
+        loadMoreButton.setEnabled(false);
+
+        loadCommitHistoryJob = new LoadCommitHistoryJob(branchCombo.getText(), walker);
+        loadCommitHistoryJob.schedule();
+    }
+
+    /**
+     * Walks the next page of the commit history, adding the commits to the
+     * table as they arrive.
+     */
+    private class LoadCommitHistoryJob extends Job {
+        private final String branchName;
+        private CommitHistoryWalker walker;
+
+        public LoadCommitHistoryJob(String branchName, CommitHistoryWalker walker) {
+            super("Loading commit history of " + branchName);
+            this.branchName = branchName;
+            this.walker = walker;
+            setSystem(true);
+        }
+
         @Override
-        public void run() {
+        protected IStatus run(IProgressMonitor monitor) {
+            try {
+                if (walker == null) {
+                    if (StringUtils.isNullOrEmpty(branchName)) return Status.OK_STATUS;
+
+                    String repositoryName = repositoryEditorInput.getRepository().getRepositoryName();
+                    String commitId = client.getBranch(new GetBranchRequest()
+                            .withRepositoryName(repositoryName)
+                            .withBranchName(branchName))
+                            .getBranch().getCommitId();
+                    if (commitId == null) return Status.OK_STATUS;
+                    walker = new CommitHistoryWalker(client, repositoryName,
+                            commitCache, commitFetchExecutor, commitId);
+                }
+
+                int remaining = COMMIT_HISTORY_PAGE_SIZE;
+                while (remaining > 0 && walker.hasMore()) {
+                    List<CommitRow> rows = walker.walk(
+                            Math.min(remaining, COMMIT_HISTORY_UPDATE_BATCH_SIZE), monitor);
+                    remaining -= rows.size();
+                    addCommitRows(rows);
+                }
+                return Status.OK_STATUS;
+            } catch (OperationCanceledException e) {
+                return Status.CANCEL_STATUS;
+            } catch (InterruptedException e) {
+                return Status.CANCEL_STATUS;
+            } catch (Exception e) {
+                if (monitor.isCanceled()) return Status.CANCEL_STATUS;
+                return new Status(IStatus.ERROR, CodeCommitPlugin.getDefault().getPluginId(),
+                        "Unable to load the commit history of " + branchName + ": " + e.getMessage(), e);
+            } finally {
+                loadFinished();
+            }
+        }
+
+        private void addCommitRows(final List<CommitRow> rows) {
             Display.getDefault().asyncExec(new Runnable() {
                 public void run() {
-                    String repositoryName = repositoryEditorInput.getRepository().getRepositoryName();
-                    String currentBranch = branchCombo.getText();
-                    List<CommitRow> row = new ArrayList<CommitRow>();
-                    if (!StringUtils.isNullOrEmpty(currentBranch)) {
-                        String commitId = client.getBranch(new GetBranchRequest()
-                                .withRepositoryName(repositoryName)
-                                .withBranchName(currentBranch))
-                                .getBranch().getCommitId();
-
-                        int count = DEFAUT_COMMIT_HISTORY_COUNT;
-                        while (count-- > 0 && commitId != null) {
-                            Commit commit = client.getCommit(new GetCommitRequest()
-                                    .withRepositoryName(repositoryName)
-                                    .withCommitId(commitId))
-                                    .getCommit();
-                            row.add(new CommitRow(commitId, commit));
-                            List<String> parent = commit.getParents();
-                            commitId = parent != null && !parent.isEmpty() ? parent.get(0) : null;
-                        }
-                    }
-                    viewer.setInput(row);
+                    if (loadCommitHistoryJob != LoadCommitHistoryJob.this || viewer.getTree().isDisposed()) return;
+                    contentProvider.addCommits(rows);
+                    viewer.add(viewer.getInput(), rows.toArray());
                 }
             });
+        }
 
+        private void loadFinished() {
+            Display.getDefault().asyncExec(new Runnable() {
+                public void run() {
+                    if (loadCommitHistoryJob != LoadCommitHistoryJob.this || loadMoreButton.isDisposed()) return;
+                    commitHistoryWalker = walker;
+                    loadMoreButton.setEnabled(walker != null && walker.hasMore());
+                }
+            });
         }
     }
 
@@ -321,16 +428,19 @@ public class RepositoryEditor extends EditorPart {
 
     private final class CommitContentProvider implements ITreePathContentProvider {
 
-        private CommitRow[] commits;
+        private final List<CommitRow> commits = new ArrayList<CommitRow>();
 
         public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+            commits.clear();
             if (newInput instanceof List) {
-                commits = ((List<CommitRow>)newInput).toArray(new CommitRow[0]);
-            } else {
-                commits = new CommitRow[0];
+                commits.addAll((List<CommitRow>)newInput);
             }
         }
 
+        public void addCommits(List<CommitRow> rows) {
+            commits.addAll(rows);
+        }
+
         public void dispose() {
 
         }
@@ -340,7 +450,7 @@ public class RepositoryEditor extends EditorPart {
         }
 
         public Object[] getElements(Object arg0) {
-            return commits;
+            return commits.toArray();
         }
 
         public TreePath[] getParents(Object arg0) {
@@ -388,25 +498,7 @@ public class RepositoryEditor extends EditorPart {
 
     }
 
-    // POJO class acting as the row data model for the commit history table.
-    private final class CommitRow {
-        private final String commitId;
-        private final Commit commit;
-
-        public CommitRow(String commitId, Commit commit) {
-            this.commitId = commitId;
-            this.commit = commit;
-        }
-
-        public String getCommitId() {
-            return commitId;
-        }
-        public Commit getCommit() {
-            return commit;
-        }
-    }
-
     private void onBranchSelected() {
-        new LoadCommitHistoryThread().start();
+        loadCommitHistory(null);
     }
 }
@@ -0,0 +1,200 @@
+package com.amazonaws.eclipse.codedeploy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import com.amazonaws.services.codedeploy.AmazonCodeDeploy;
+import com.amazonaws.services.codedeploy.model.BatchGetDeploymentsRequest;
+import com.amazonaws.services.codedeploy.model.DeploymentInfo;
+import com.amazonaws.services.codedeploy.model.DeploymentStatus;
+import com.amazonaws.services.codedeploy.model.InstanceSummary;
+import com.amazonaws.services.codedeploy.model.ListDeploymentsRequest;
+import com.amazonaws.services.codedeploy.model.ListDeploymentsResult;
+
+/**
+ * Cache of deployments and their instances, keyed by deployment ID.
+ * Deployments that reached a final status never change, so they are kept
+ * until evicted; deployments still in progress are fetched again once their
+ * entry is older than a few seconds.
+ *
+ * @ThreadSafe
+ */
+public class DeploymentCache {
+
+    /** How long the details of a deployment in progress are reused */
+    private static final long IN_PROGRESS_TTL_MILLIS = 10 * 1000;
+
+    /** Maximum number of deployments kept */
+    private static final int MAX_DEPLOYMENTS = 1000;
+
+    private static final DeploymentCache instance = new DeploymentCache();
+
+    private final Map<String, CachedDeployment> deployments =
+            new LinkedHashMap<String, CachedDeployment>(16, 0.75f, true) {
+                private static final long serialVersionUID = 1L;
+
+                @Override
+                protected boolean removeEldestEntry(Entry<String, CachedDeployment> eldest) {
+                    return size() > MAX_DEPLOYMENTS;
+                }
+            };
+
+    public static DeploymentCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns one page of the deployments of a deployment group, most recent
+     * first, together with the token of the next page.
+     */
+    public DeploymentsPage getDeploymentsPage(AmazonCodeDeploy client,
+            String applicationName, String deploymentGroupName, String nextToken) {
+
+        ListDeploymentsResult result = client.listDeployments(
+                new ListDeploymentsRequest()
+                        .withApplicationName(applicationName)
+                        .withDeploymentGroupName(deploymentGroupName)
+                        .withNextToken(nextToken));
+
+        List<String> deploymentIds = result.getDeployments();
+        List<DeploymentInfo> page = deploymentIds == null
+                ? new ArrayList<DeploymentInfo>()
+                : getDeployments(client, deploymentIds);
+
+        // Sort by creation data
+        Collections.sort(page, new Comparator<DeploymentInfo>() {
+            public int compare(DeploymentInfo a, DeploymentInfo b) {
+                int a_to_b = a.getCreateTime().compareTo(b.getCreateTime());
+                // In descending order
+                return - a_to_b;
+            }
+        });
+
+        return new DeploymentsPage(page, result.getNextToken());
+    }
+
+    /**
+     * Returns the details of the specified deployments, only requesting the
+     * ones that are not cached or whose cached details may be stale.
+     */
+    public List<DeploymentInfo> getDeployments(AmazonCodeDeploy client, List<String> deploymentIds) {
+        Map<String, DeploymentInfo> found = new LinkedHashMap<String, DeploymentInfo>();
+        List<String> missingIds = new ArrayList<String>();
+
+        synchronized (deployments) {
+            for (String deploymentId : deploymentIds) {
+                CachedDeployment cached = deployments.get(deploymentId);
+                if (cached != null && cached.isFresh()) {
+                    found.put(deploymentId, cached.deployment);
+                } else {
+                    missingIds.add(deploymentId);
+                }
+            }
+        }
+
+        for (int i = 0; i < missingIds.size(); i += ServiceAPIUtils.MAX_BATCH_GET_DEPLOYMENTS) {
+            List<String> chunk = missingIds.subList(i,
+                    Math.min(missingIds.size(), i + ServiceAPIUtils.MAX_BATCH_GET_DEPLOYMENTS));
+            List<DeploymentInfo> infos = client.batchGetDeployments(
+                    new BatchGetDeploymentsRequest()
+                            .withDeploymentIds(chunk))
+                    .getDeploymentsInfo();
+            if (infos == null) continue;
+
+            synchronized (deployments) {
+                for (DeploymentInfo info : infos) {
+                    CachedDeployment previous = deployments.get(info.getDeploymentId());
+                    CachedDeployment cached = new CachedDeployment(info);
+                    if (previous != null && previous.deployment.equals(info)) {
+                        // Nothing changed, so the instances are still valid
+                        cached.instances = previous.instances;
+                    }
+                    deployments.put(info.getDeploymentId(), cached);
+                    found.put(info.getDeploymentId(), info);
+                }
+            }
+        }
+
+        List<DeploymentInfo> result = new ArrayList<DeploymentInfo>();
+        for (String deploymentId : deploymentIds) {
+            DeploymentInfo info = found.get(deploymentId);
+            if (info != null) result.add(info);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the instances of the specified deployment.
+     */
+    public List<InstanceSummary> getDeploymentInstances(AmazonCodeDeploy client, DeploymentInfo deployment) {
+        String deploymentId = deployment.getDeploymentId();
+        synchronized (deployments) {
+            CachedDeployment cached = deployments.get(deploymentId);
+            if (cached != null && cached.isFresh() && cached.instances != null) {
+                return cached.instances;
+            }
+        }
+
+        List<InstanceSummary> instances = Collections.unmodifiableList(
+                ServiceAPIUtils.getAllDeploymentInstances(client, deploymentId));
+
+        synchronized (deployments) {
+            CachedDeployment cached = deployments.get(deploymentId);
+            if (cached == null || !cached.isFresh()) {
+                cached = new CachedDeployment(deployment);
+                deployments.put(deploymentId, cached);
+            }
+            cached.instances = instances;
+        }
+        return instances;
+    }
+
+    private static boolean isFinal(DeploymentInfo deployment) {
+        String status = deployment.getStatus();
+        return DeploymentStatus.Succeeded.toString().equals(status)
+                || DeploymentStatus.Failed.toString().equals(status)
+                || DeploymentStatus.Stopped.toString().equals(status);
+    }
+
+    private static class CachedDeployment {
+        private final DeploymentInfo deployment;
+        private final long loadedAt = System.currentTimeMillis();
+        private List<InstanceSummary> instances;
+
+        CachedDeployment(DeploymentInfo deployment) {
+            this.deployment = deployment;
+        }
+
+        boolean isFresh() {
+            return isFinal(deployment)
+                    || System.currentTimeMillis() - loadedAt < IN_PROGRESS_TTL_MILLIS;
+        }
+    }
+
+    /**
+     * A page of deployments, most recent first.
+     */
+    public static class DeploymentsPage {
+        private final List<DeploymentInfo> deployments;
+        private final String nextToken;
+
+        DeploymentsPage(List<DeploymentInfo> deployments, String nextToken) {
+            this.deployments = deployments;
+            this.nextToken = nextToken;
+        }
+
+        public List<DeploymentInfo> getDeployments() {
+            return deployments;
+        }
+
+        /** The token of the next page, or null if this is the last page */
+        public String getNextToken() {
+            return nextToken;
+        }
+    }
+}
@@ -1,20 +1,27 @@
 package com.amazonaws.eclipse.codedeploy;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
 
 import com.amazonaws.services.codedeploy.AmazonCodeDeploy;
 import com.amazonaws.services.codedeploy.model.ApplicationInfo;
 import com.amazonaws.services.codedeploy.model.BatchGetApplicationsRequest;
 import com.amazonaws.services.codedeploy.model.BatchGetApplicationsResult;
+import com.amazonaws.services.codedeploy.model.BatchGetDeploymentGroupsRequest;
+import com.amazonaws.services.codedeploy.model.BatchGetDeploymentInstancesRequest;
 import com.amazonaws.services.codedeploy.model.BatchGetDeploymentsRequest;
 import com.amazonaws.services.codedeploy.model.BatchGetDeploymentsResult;
 import com.amazonaws.services.codedeploy.model.DeploymentGroupInfo;
 import com.amazonaws.services.codedeploy.model.DeploymentInfo;
-import com.amazonaws.services.codedeploy.model.GetDeploymentGroupRequest;
-import com.amazonaws.services.codedeploy.model.GetDeploymentInstanceRequest;
 import com.amazonaws.services.codedeploy.model.InstanceSummary;
 import com.amazonaws.services.codedeploy.model.LifecycleEvent;
 import com.amazonaws.services.codedeploy.model.ListApplicationsRequest;
@@ -30,6 +37,24 @@ import com.amazonaws.services.codedeploy.model.ListDeploymentsResult;
 
 public class ServiceAPIUtils {
 
+    /** The maximum number of instances in a BatchGetDeploymentInstances request */
+    public static final int MAX_BATCH_GET_DEPLOYMENT_INSTANCES = 25;
+
+    /** The maximum number of groups in a BatchGetDeploymentGroups request */
+    public static final int MAX_BATCH_GET_DEPLOYMENT_GROUPS = 100;
+
+    /** The maximum number of deployments in a BatchGetDeployments request */
+    public static final int MAX_BATCH_GET_DEPLOYMENTS = 100;
+
+    /** Runs the batch requests that hydrate pages of names */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "CodeDeploy batch request");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
     public static List<String> getAllApplicationNames(AmazonCodeDeploy client) {
 
         List<String> allAppNames = new LinkedList<String>();
@@ -77,10 +102,7 @@ public class ServiceAPIUtils {
         String nextToken = null;
 
         do {
-            ListDeploymentGroupsResult result = client.listDeploymentGroups(
-                    new ListDeploymentGroupsRequest()
-                        .withApplicationName(applicationName)
-                        .withNextToken(nextToken));
+            ListDeploymentGroupsResult result = listDeploymentGroups(client, applicationName, nextToken);
 
            List<String> deployGroupNames = result.getDeploymentGroups();
            if (deployGroupNames != null) {
@@ -94,22 +116,64 @@ public class ServiceAPIUtils {
         return allDeployGroupNames;
     }
 
+    /**
+     * Returns the details of all the deployment groups of an application.
+     * Each page of group names is hydrated with BatchGetDeploymentGroups in
+     * the background while the next page is listed.
+     */
     public static List<DeploymentGroupInfo> getAllDeploymentGroupInfos(
-            AmazonCodeDeploy client, String applicationName) {
+            final AmazonCodeDeploy client, final String applicationName) {
+
+        List<Future<List<DeploymentGroupInfo>>> batches = new LinkedList<Future<List<DeploymentGroupInfo>>>();
+        String nextToken = null;
 
-        List<DeploymentGroupInfo> allDeployGroupInfos = new LinkedList<DeploymentGroupInfo>();
+        try {
+            do {
+                ListDeploymentGroupsResult result = listDeploymentGroups(client, applicationName, nextToken);
+
+                List<String> deployGroupNames = result.getDeploymentGroups();
+                if (deployGroupNames != null) {
+                    for (int i = 0; i < deployGroupNames.size(); i += MAX_BATCH_GET_DEPLOYMENT_GROUPS) {
+                        final List<String> chunk = new ArrayList<String>(deployGroupNames.subList(i,
+                                Math.min(deployGroupNames.size(), i + MAX_BATCH_GET_DEPLOYMENT_GROUPS)));
+                        batches.add(EXECUTOR.submit(new Callable<List<DeploymentGroupInfo>>() {
+                            public List<DeploymentGroupInfo> call() {
+                                return client.batchGetDeploymentGroups(
+                                        new BatchGetDeploymentGroupsRequest()
+                                                .withApplicationName(applicationName)
+                                                .withDeploymentGroupNames(chunk))
+                                        .getDeploymentGroupsInfo();
+                            }
+                        }));
+                    }
+                }
 
-        List<String> allDeployGroupNames = getAllDeploymentGroupNames(client, applicationName);
-        for (String deployGroupName : allDeployGroupNames) {
-            DeploymentGroupInfo group = client.getDeploymentGroup(
-                    new GetDeploymentGroupRequest()
-                            .withApplicationName(applicationName)
-                            .withDeploymentGroupName(deployGroupName))
-                    .getDeploymentGroupInfo();
-            allDeployGroupInfos.add(group);
+                nextToken = result.getNextToken();
+
+            } while (nextToken != null);
+
+            List<DeploymentGroupInfo> allDeployGroupInfos = new LinkedList<DeploymentGroupInfo>();
+            for (Future<List<DeploymentGroupInfo>> batch : batches) {
+                List<DeploymentGroupInfo> groups = getResult(batch);
+                if (groups != null) {
+                    allDeployGroupInfos.addAll(groups);
+                }
+            }
+            return allDeployGroupInfos;
+
+        } finally {
+            for (Future<List<DeploymentGroupInfo>> batch : batches) {
+                batch.cancel(true);
+            }
         }
+    }
 
-        return allDeployGroupInfos;
+    private static ListDeploymentGroupsResult listDeploymentGroups(
+            AmazonCodeDeploy client, String applicationName, String nextToken) {
+        return client.listDeploymentGroups(
+                new ListDeploymentGroupsRequest()
+                    .withApplicationName(applicationName)
+                    .withNextToken(nextToken));
     }
 
     public static List<String> getAllDeploymentConfigNames(AmazonCodeDeploy client) {
@@ -208,6 +272,20 @@ public class ServiceAPIUtils {
             AmazonCodeDeploy client, String deploymentId) {
 
         List<InstanceSummary> allDeploymentInstances = new LinkedList<InstanceSummary>();
+
+        List<String> instanceIds = getAllDeploymentInstanceIds(client, deploymentId);
+        for (int i = 0; i < instanceIds.size(); i += MAX_BATCH_GET_DEPLOYMENT_INSTANCES) {
+            allDeploymentInstances.addAll(batchGetDeploymentInstances(client, deploymentId,
+                    instanceIds.subList(i, Math.min(instanceIds.size(), i + MAX_BATCH_GET_DEPLOYMENT_INSTANCES))));
+        }
+
+        return allDeploymentInstances;
+    }
+
+    public static List<String> getAllDeploymentInstanceIds(
+            AmazonCodeDeploy client, String deploymentId) {
+
+        List<String> allInstanceIds = new LinkedList<String>();
         String nextToken = null;
 
         do {
@@ -218,23 +296,51 @@ public class ServiceAPIUtils {
                             );
 
             List<String> instanceIds = result.getInstancesList();
-
             if (instanceIds != null) {
-                for (String instanceId : instanceIds) {
-                    allDeploymentInstances.add(client.getDeploymentInstance(
-                            new GetDeploymentInstanceRequest()
-                                    .withDeploymentId(deploymentId)
-                                    .withInstanceId(instanceId)
-                                    )
-                            .getInstanceSummary());
-                }
+                allInstanceIds.addAll(instanceIds);
             }
 
             nextToken = result.getNextToken();
 
         } while (nextToken != null);
 
-        return allDeploymentInstances;
+        return new ArrayList<String>(allInstanceIds);
+    }
+
+    /**
+     * Returns the summaries of the specified instances of a deployment, at
+     * most {@link #MAX_BATCH_GET_DEPLOYMENT_INSTANCES} of them.
+     */
+    public static List<InstanceSummary> batchGetDeploymentInstances(
+            AmazonCodeDeploy client, String deploymentId, List<String> instanceIds) {
+
+        List<InstanceSummary> summaries = client.batchGetDeploymentInstances(
+                new BatchGetDeploymentInstancesRequest()
+                        .withDeploymentId(deploymentId)
+                        .withInstanceIds(instanceIds)
+                        ).getInstancesSummary();
+
+        if (summaries == null) {
+            return new LinkedList<InstanceSummary>();
+        }
+        return summaries;
+    }
+
+    /**
+     * Returns the result of a background request, rethrowing its exception
+     * in the calling thread.
+     */
+    private static <T> T getResult(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted when waiting for CodeDeploy", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        }
     }
 
     public static LifecycleEvent findLifecycleEventByEventName(InstanceSummary instanceSummary, String eventName) {
@@ -0,0 +1,186 @@
+package com.amazonaws.eclipse.codedeploy.deploy.progress;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.codedeploy.ServiceAPIUtils;
+import com.amazonaws.retry.RetryUtils;
+import com.amazonaws.services.codedeploy.AmazonCodeDeploy;
+import com.amazonaws.services.codedeploy.model.InstanceStatus;
+import com.amazonaws.services.codedeploy.model.InstanceSummary;
+
+/**
+ * Tracks the status of the instances of a deployment. Pending instances are
+ * polled with BatchGetDeploymentInstances, in chunks of the maximum batch size
+ * issued concurrently. The poll interval adapts to the deployment: it is
+ * short while instances are changing, grows while nothing changes, and backs
+ * off when requests are throttled.
+ */
+class DeploymentInstanceTracker {
+
+    private static final int MIN_POLL_INTERVAL_MS = 2 * 1000;
+    private static final int INITIAL_POLL_INTERVAL_MS = 5 * 1000;
+    private static final int MAX_IDLE_POLL_INTERVAL_MS = 15 * 1000;
+    private static final int MAX_THROTTLED_POLL_INTERVAL_MS = 60 * 1000;
+
+    private static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    private final AmazonCodeDeploy client;
+    private final String deploymentId;
+    private final ExecutorService executor;
+
+    /** Latest summary of each instance, by instance ID, in deployment order */
+    private final Map<String, InstanceSummary> instances = new LinkedHashMap<String, InstanceSummary>();
+
+    private long pollIntervalMillis = INITIAL_POLL_INTERVAL_MS;
+
+    DeploymentInstanceTracker(AmazonCodeDeploy client, String deploymentId) {
+        this.client = client;
+        this.deploymentId = deploymentId;
+        this.executor = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "CodeDeploy instance status");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Loads the summaries of all the instances of the deployment.
+     */
+    synchronized List<InstanceSummary> loadInstances() {
+        List<String> instanceIds = ServiceAPIUtils.getAllDeploymentInstanceIds(client, deploymentId);
+        instances.clear();
+        for (String instanceId : instanceIds) {
+            instances.put(instanceId, null);
+        }
+        for (InstanceSummary summary : getInstanceSummaries(instanceIds)) {
+            instances.put(summary.getInstanceId(), summary);
+        }
+        return getInstances();
+    }
+
+    /**
+     * Returns the latest summaries of all the instances, in deployment order.
+     */
+    synchronized List<InstanceSummary> getInstances() {
+        List<InstanceSummary> summaries = new ArrayList<InstanceSummary>();
+        for (InstanceSummary summary : instances.values()) {
+            if (summary != null) summaries.add(summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * Returns the number of instances that have not reached a final status.
+     */
+    synchronized int getPendingInstanceCount() {
+        return getPendingInstanceIds().size();
+    }
+
+    /**
+     * Polls the instances that have not reached a final status, and returns
+     * the summaries that changed since the last poll. If the requests are
+     * throttled, nothing is returned and the poll interval is increased.
+     */
+    synchronized List<InstanceSummary> pollPendingInstances() {
+        List<String> pendingInstanceIds = getPendingInstanceIds();
+        if (pendingInstanceIds.isEmpty()) {
+            return new ArrayList<InstanceSummary>();
+        }
+
+        List<InstanceSummary> latestSummaries;
+        try {
+            latestSummaries = getInstanceSummaries(pendingInstanceIds);
+        } catch (AmazonServiceException e) {
+            if (!RetryUtils.isThrottlingException(e)) throw e;
+            pollIntervalMillis = Math.min(pollIntervalMillis * 2, MAX_THROTTLED_POLL_INTERVAL_MS);
+            return new ArrayList<InstanceSummary>();
+        }
+
+        List<InstanceSummary> changedSummaries = new ArrayList<InstanceSummary>();
+        for (InstanceSummary latest : latestSummaries) {
+            InstanceSummary previous = instances.put(latest.getInstanceId(), latest);
+            if (!latest.equals(previous)) {
+                changedSummaries.add(latest);
+            }
+        }
+
+        if (changedSummaries.isEmpty()) {
+            pollIntervalMillis = Math.min(pollIntervalMillis * 3 / 2, MAX_IDLE_POLL_INTERVAL_MS);
+        } else {
+            pollIntervalMillis = MIN_POLL_INTERVAL_MS;
+        }
+        return changedSummaries;
+    }
+
+    /**
+     * Returns how long to wait before the next poll.
+     */
+    synchronized long getPollIntervalMillis() {
+        return pollIntervalMillis;
+    }
+
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private List<String> getPendingInstanceIds() {
+        List<String> pendingInstanceIds = new ArrayList<String>();
+        for (Map.Entry<String, InstanceSummary> entry : instances.entrySet()) {
+            InstanceSummary summary = entry.getValue();
+            if (summary == null
+                    || InstanceStatus.InProgress.toString().equals(summary.getStatus())
+                    || InstanceStatus.Pending.toString().equals(summary.getStatus())) {
+                pendingInstanceIds.add(entry.getKey());
+            }
+        }
+        return pendingInstanceIds;
+    }
+
+    /**
+     * Fetches the summaries of the specified instances, one batch request per
+     * chunk of IDs, issued concurrently.
+     */
+    private List<InstanceSummary> getInstanceSummaries(List<String> instanceIds) {
+        List<Future<List<InstanceSummary>>> batches = new ArrayList<Future<List<InstanceSummary>>>();
+        for (int i = 0; i < instanceIds.size(); i += ServiceAPIUtils.MAX_BATCH_GET_DEPLOYMENT_INSTANCES) {
+            final List<String> chunk = new ArrayList<String>(instanceIds.subList(i,
+                    Math.min(instanceIds.size(), i + ServiceAPIUtils.MAX_BATCH_GET_DEPLOYMENT_INSTANCES)));
+            batches.add(executor.submit(new Callable<List<InstanceSummary>>() {
+                public List<InstanceSummary> call() {
+                    return ServiceAPIUtils.batchGetDeploymentInstances(client, deploymentId, chunk);
+                }
+            }));
+        }
+
+        List<InstanceSummary> summaries = new ArrayList<InstanceSummary>();
+        try {
+            for (Future<List<InstanceSummary>> batch : batches) {
+                summaries.addAll(batch.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted when polling deployment instances", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new RuntimeException(cause);
+        } finally {
+            for (Future<List<InstanceSummary>> batch : batches) {
+                batch.cancel(true);
+            }
+        }
+        return summaries;
+    }
+}
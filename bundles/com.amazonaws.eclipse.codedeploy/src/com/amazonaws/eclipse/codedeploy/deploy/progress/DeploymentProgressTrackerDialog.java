@@ -1,6 +1,8 @@
 package com.amazonaws.eclipse.codedeploy.deploy.progress;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IDialogConstants;
@@ -10,6 +12,7 @@ import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.ColumnLabelProvider;
 import org.eclipse.jface.viewers.DoubleClickEvent;
 import org.eclipse.jface.viewers.IDoubleClickListener;
+import org.eclipse.jface.viewers.IElementComparer;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TableViewerColumn;
@@ -38,9 +41,7 @@ import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
 import com.amazonaws.services.codedeploy.AmazonCodeDeploy;
 import com.amazonaws.services.codedeploy.model.DeploymentInfo;
 import com.amazonaws.services.codedeploy.model.DeploymentStatus;
-import com.amazonaws.services.codedeploy.model.GetDeploymentInstanceRequest;
 import com.amazonaws.services.codedeploy.model.GetDeploymentRequest;
-import com.amazonaws.services.codedeploy.model.InstanceStatus;
 import com.amazonaws.services.codedeploy.model.InstanceSummary;
 import com.amazonaws.services.codedeploy.model.LifecycleEvent;
 import com.amazonaws.services.codedeploy.model.LifecycleEventStatus;
@@ -52,11 +53,17 @@ public class DeploymentProgressTrackerDialog extends Dialog {
     private final String applicationName;
     private final AmazonCodeDeploy client;
 
+    private final DeploymentInstanceTracker instanceTracker;
+
     /**
-     * Used as the direct input for the instance table view
+     * Used as the direct input for the instance table view; only accessed
+     * from the UI thread
      */
     private InstanceSummary[] instanceSummaries;
 
+    /** Index of each instance in the table input, by instance ID */
+    private final Map<String, Integer> instanceRows = new HashMap<String, Integer>();
+
     /*
      * UI widgets
      */
@@ -95,6 +102,7 @@ public class DeploymentProgressTrackerDialog extends Dialog {
                 .get(ServiceAbbreviations.CODE_DEPLOY);
         this.client = AwsToolkitCore.getClientFactory()
                 .getCodeDeployClientByEndpoint(endpoint);
+        this.instanceTracker = new DeploymentInstanceTracker(client, deploymentId);
     }
 
     /**
@@ -290,30 +298,43 @@ public class DeploymentProgressTrackerDialog extends Dialog {
 
                 updateLatestEventLabel("Loading all the deployment instances...");
 
-                List<InstanceSummary> instances = ServiceAPIUtils
-                        .getAllDeploymentInstances(client, deploymentId);
+                final List<InstanceSummary> instances;
+                try {
+                    instances = instanceTracker.loadInstances();
+                } catch (Exception e) {
+                    CodeDeployPlugin.getDefault().reportException(
+                            "Error when loading the deployment instances.", e);
+                    instanceTracker.shutdown();
+                    return;
+                }
                 CodeDeployPlugin.getDefault().logInfo(
                         instances.size() + " instances are being deployed.");
 
-                synchronized (DeploymentProgressTrackerDialog.this) {
-                    instanceSummaries = instances.toArray(
-                            new InstanceSummary[instances.size()]);
+                Display.getDefault().syncExec(new Runnable() {
+                    public void run() {
+                        instanceSummaries = instances.toArray(
+                                new InstanceSummary[instances.size()]);
+                        for (int i = 0; i < instanceSummaries.length; i++) {
+                            instanceRows.put(instanceSummaries[i].getInstanceId(), i);
+                        }
 
-                    Display.getDefault().syncExec(new Runnable() {
-                        public void run() {
+                        if ( !instancesTableViewer.getTable().isDisposed() ) {
                             instancesTableViewer.setInput(instanceSummaries);
-                            instancesTableViewer.refresh();
+                        }
 
-                            if ( !viewDiagnosticLabel.isDisposed() ) {
-                                viewDiagnosticLabel.setVisible(true);
-                            }
+                        if ( !viewDiagnosticLabel.isDisposed() ) {
+                            viewDiagnosticLabel.setVisible(true);
                         }
-                    });
-                }
+                    }
+                });
 
                 updateLatestEventLabel("Updating deployment lifecycle events...");
 
-                updateInstanceLifecycleEvents();
+                try {
+                    updateInstanceLifecycleEvents();
+                } finally {
+                    instanceTracker.shutdown();
+                }
 
                 updateLatestEventLabel("All instances have reached final status... " +
                         "Waiting for the deployment to finish...");
@@ -329,51 +350,41 @@ public class DeploymentProgressTrackerDialog extends Dialog {
             while ( this.getContents() != null
                     && !this.getContents().isDisposed() ) {
 
-                int pendingInstances = 0;
-
-                synchronized (DeploymentProgressTrackerDialog.this) {
-                    if (instanceSummaries == null) {
-                        continue;
-                    }
-
-                    for (int i = 0; i < instanceSummaries.length; i++) {
-                        InstanceSummary instance = instanceSummaries[i];
-
-                        if (InstanceStatus.InProgress.toString().equals(instance.getStatus())
-                                || InstanceStatus.Pending.toString().equals(instance.getStatus())) {
-                            InstanceSummary latestSummary = client.getDeploymentInstance(
-                                    new GetDeploymentInstanceRequest()
-                                            .withDeploymentId(deploymentId)
-                                            .withInstanceId(instance.getInstanceId()))
-                                    .getInstanceSummary();
-                            instanceSummaries[i] = latestSummary;
-                            pendingInstances++;
-                        }
-                    }
-                }
+                final List<InstanceSummary> changedInstances = instanceTracker.pollPendingInstances();
+                int pendingInstances = instanceTracker.getPendingInstanceCount();
+                int totalInstances = instanceTracker.getInstances().size();
 
                 updateLatestEventLabel(String.format(
                         "Waiting for %d instances to complete...(%d done)",
-                        pendingInstances, instanceSummaries.length - pendingInstances));
+                        pendingInstances, totalInstances - pendingInstances));
 
-                if (pendingInstances > 0) {
+                if ( !changedInstances.isEmpty() ) {
                     Display.getDefault().syncExec(new Runnable() {
                         public void run() {
+                            for (InstanceSummary instance : changedInstances) {
+                                Integer row = instanceRows.get(instance.getInstanceId());
+                                if (row != null) {
+                                    instanceSummaries[row] = instance;
+                                }
+                            }
                             if ( !instancesTableViewer.getTable().isDisposed() ) {
-                                instancesTableViewer.refresh();
+                                instancesTableViewer.update(changedInstances.toArray(), null);
                             }
                         }
                     });
-                } else {
+                }
+
+                if (pendingInstances == 0) {
                     // All instances have reached the final states
                     return;
                 }
 
                 try {
-                    Thread.sleep(REFRESH_INTERVAL_MS);
+                    Thread.sleep(instanceTracker.getPollIntervalMillis());
                 } catch (InterruptedException e) {
-                    System.err.println("Interrupted when polling " +
-                            "lifecycle events from deployment instances.");
+                    CodeDeployPlugin.getDefault().logInfo(
+                            "Interrupted when polling lifecycle events from deployment instances.");
+                    return;
                 }
             }
 
@@ -470,6 +481,17 @@ public class DeploymentProgressTrackerDialog extends Dialog {
         }
 
         instancesTableViewer.setContentProvider(ArrayContentProvider.getInstance());
+        // Rows are identified by instance, so that updated summaries replace
+        // the ones displayed
+        instancesTableViewer.setComparer(new IElementComparer() {
+            public boolean equals(Object a, Object b) {
+                return ((InstanceSummary) a).getInstanceId().equals(((InstanceSummary) b).getInstanceId());
+            }
+
+            public int hashCode(Object element) {
+                return ((InstanceSummary) element).getInstanceId().hashCode();
+            }
+        });
 
         instancesTableViewer.addDoubleClickListener(new IDoubleClickListener() {
             public void doubleClick(DoubleClickEvent event) {
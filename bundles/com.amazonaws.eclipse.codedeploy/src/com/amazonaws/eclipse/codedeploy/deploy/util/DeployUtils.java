@@ -2,6 +2,7 @@ package com.amazonaws.eclipse.codedeploy.deploy.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.UUID;
@@ -9,12 +10,14 @@ import java.util.UUID;
 import org.apache.commons.io.FileUtils;
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.Path;
 
 import com.amazonaws.eclipse.codedeploy.CodeDeployPlugin;
 import com.amazonaws.eclipse.codedeploy.deploy.wizard.model.DeployProjectToCodeDeployWizardDataModel;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
+import com.amazonaws.eclipse.core.s3.S3ArtifactUploader;
+import com.amazonaws.eclipse.core.s3.S3ArtifactUploader.ArtifactWriter;
+import com.amazonaws.eclipse.core.util.ZipArchiveBuilder;
 import com.amazonaws.services.codedeploy.AmazonCodeDeploy;
 import com.amazonaws.services.codedeploy.model.BundleType;
 import com.amazonaws.services.codedeploy.model.CreateDeploymentRequest;
@@ -58,11 +61,23 @@ public class DeployUtils {
         String warFileRelativePath = dataModel.getTemplateModel()
                 .getWarFileExportLocationWithinDeploymentArchive();
 
+        File warFile = new File(archiveContentDir, warFileRelativePath);
         CodeDeployPlugin.getDefault().logInfo(
                 "Preparing to export project [" + project.getName() +
-                "] to a WAR file [" + new File(archiveContentDir, warFileRelativePath).getAbsolutePath() + "].");
-        File warFile = WTPWarUtils.exportProjectToWar(
-                project, new Path(archiveContentDir.getAbsolutePath()), warFileRelativePath).toFile();
+                "] to a WAR file [" + warFile.getAbsolutePath() + "].");
+        /*
+         * The WAR is exported to the plugin's state location, where it is kept
+         * between deployments so that only the files changed since the last
+         * deployment are compressed, and then copied to the archive content.
+         */
+        File exportedWar = WTPWarUtils.exportProjectToWarIncrementally(
+                project, CodeDeployPlugin.getDefault().getStateLocation().append("wars")).toFile();
+        try {
+            FileUtils.copyFile(exportedWar, warFile);
+        } catch (IOException e) {
+            CodeDeployPlugin.getDefault().reportException(
+                    "Error when copying the WAR file to the deployment archive.", e);
+        }
         CodeDeployPlugin.getDefault().logInfo(
                 "WAR file created at [" + warFile.getAbsolutePath() + "]");
 
@@ -79,43 +94,29 @@ public class DeployUtils {
 
         progressMonitor.worked(5);
 
-        progressMonitor.subTask("Create the ZIP file including all the deployment artifacts...");
-
-        File zipArchive = new File(tempDir, zipFileName);
-        CodeDeployPlugin.getDefault().logInfo(
-                "Preparing to bundle project artifacts into a zip file [" +
-                zipArchive.getAbsolutePath() + "].");
-        try {
-            ZipUtils.createZipFileOfDirectory(archiveContentDir, zipArchive);
-        } catch (IOException e) {
-            CodeDeployPlugin.getDefault().reportException(
-                    "Error when creating zip archive file for the deployment.", e);
-        }
-        CodeDeployPlugin.getDefault().logInfo(
-                "Zip file created at [" +
-                zipArchive.getAbsolutePath() + "].");
-
-        progressMonitor.worked(15);
-
-
         /*
-         * (2) Upload to S3
+         * (2) Zip the deployment artifacts straight into S3
          */
         String bucketName = dataModel.getBucketName();
-        String keyName = zipArchive.getName();
+        String keyName = zipFileName;
         AmazonS3 s3Client = AwsToolkitCore.getClientFactory()
                 .getS3ClientByEndpoint("https://s3.amazonaws.com/");
 
         progressMonitor.subTask("Upload ZIP file to S3...");
 
+        final File zipContentDir = archiveContentDir;
         CodeDeployPlugin.getDefault().logInfo(
-                "Uploading zip file to S3 bucket [" + bucketName + "].");
-        s3Client.putObject(bucketName, keyName, zipArchive);
+                "Uploading zip archive of [" + zipContentDir.getAbsolutePath() +
+                "] to S3 bucket [" + bucketName + "].");
+        new S3ArtifactUploader(s3Client).upload(bucketName, keyName, null,
+                new ArtifactWriter() {
+                    public void writeTo(OutputStream out) throws IOException {
+                        new ZipArchiveBuilder().addDirectory(zipContentDir).writeTo(out);
+                    }
+                }, progressMonitor, 45);
         CodeDeployPlugin.getDefault().logInfo(
                 "Upload succeed. [s3://" + bucketName + "/" + keyName + "]");
 
-        progressMonitor.worked(30);
-
         /*
          * (3) CreateDeployment
          */
@@ -14,10 +14,15 @@
  */
 package com.amazonaws.eclipse.codedeploy.explorer.editor.table;
 
+import java.util.List;
+
 import org.eclipse.jface.layout.TreeColumnLayout;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.viewers.ColumnPixelData;
 import org.eclipse.jface.viewers.ColumnWeightData;
+import org.eclipse.jface.viewers.DoubleClickEvent;
+import org.eclipse.jface.viewers.IDoubleClickListener;
+import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.swt.SWT;
@@ -32,7 +37,9 @@ import org.eclipse.swt.widgets.TreeColumn;
 import org.eclipse.ui.forms.IFormColors;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 
+import com.amazonaws.eclipse.codedeploy.CodeDeployPlugin;
 import com.amazonaws.eclipse.codedeploy.explorer.editor.DeploymentGroupEditorInput;
+import com.amazonaws.services.codedeploy.model.DeploymentInfo;
 
 /**
  * S3 object listing with virtual directory support.
@@ -98,7 +105,20 @@ public class DeploymentsTableView extends Composite {
         viewer.getTree().setHeaderVisible(true);
         viewer.setUseHashlookup(true);
         viewer.setLabelProvider(new DeploymentsTableViewLabelProvider());
-        viewer.setContentProvider(new DeploymentsTableViewContentProvider(this.viewer, this.contentCache));
+        viewer.setContentProvider(new DeploymentsTableViewContentProvider(this.viewer, this.contentCache,
+                new Runnable() {
+                    public void run() {
+                        loadMoreDeploymentsAsync();
+                    }
+                }));
+        viewer.addDoubleClickListener(new IDoubleClickListener() {
+            public void doubleClick(DoubleClickEvent event) {
+                Object element = ((IStructuredSelection) event.getSelection()).getFirstElement();
+                if (element == DeploymentsTableViewTreePathContentCache.LOADING_DEPLOYMENTS_FAILED) {
+                    loadMoreDeploymentsAsync();
+                }
+            }
+        });
 
         Tree tree = viewer.getTree();
 
@@ -211,16 +231,75 @@ public class DeploymentsTableView extends Composite {
         }).start();
     }
 
+    /**
+     * Loads the next page of older deployments, when the user scrolls to the
+     * end of the ones loaded so far, or retries loading a page that failed.
+     */
+    private void loadMoreDeploymentsAsync() {
+        if (isRefreshing || !contentCache.hasMoreDeployments()) {
+            return;
+        }
+        isRefreshing = true;
+
+        new Thread(new Runnable() {
+
+            public void run() {
+                try {
+                    updateRefreshProgress(0, true);
+
+                    List<DeploymentInfo> deployments = contentCache.loadMoreDeployments();
+                    loadChildren(deployments.toArray());
+                } catch (Exception e) {
+                    CodeDeployPlugin.getDefault().reportException(
+                            "Unable to load more deployments.", e);
+                } finally {
+                    isRefreshing = false;
+                }
+
+                // Shows either the new deployments, or the row to retry
+                Display.getDefault().syncExec(new Runnable() {
+                    public void run() {
+                        if ( !viewer.getTree().isDisposed() ) {
+                            tableTitleLabel.setText("Deployments");
+                            tableTitleLabel.pack();
+                            viewer.refresh();
+                        }
+                    }
+                });
+            }
+
+        }).start();
+    }
+
     private void loadAllTopLevelElements() {
 
+        try {
+            contentCache.loadFirstPage();
+        } catch (Exception e) {
+            // The table shows a row to retry instead
+            CodeDeployPlugin.getDefault().reportException(
+                    "Unable to load deployments.", e);
+        }
         Object[] topLevelElements = contentCache
                 .getChildren(new TreePath(new Object[0]));
 
+        loadChildren(topLevelElements);
+    }
+
+    /**
+     * Caches the children of the specified top-level elements, so that the
+     * tree view doesn't have to load them when they are displayed.
+     */
+    private void loadChildren(Object[] topLevelElements) {
+
         int progressPerElement = 100 / (topLevelElements.length + 1);
         int loadedElements = 1;
         updateRefreshProgress(loadedElements++ * progressPerElement, true);
 
         for (Object topLevelElement : topLevelElements) {
+            if (topLevelElement == DeploymentsTableViewTreePathContentCache.MORE_DEPLOYMENTS) {
+                continue;
+            }
             contentCache.getChildren(new TreePath(
                     new Object[] { topLevelElement }));
             updateRefreshProgress(loadedElements++ * progressPerElement, true);
@@ -251,4 +330,4 @@ public class DeploymentsTableView extends Composite {
         }
 
     }
-}
+}
@@ -10,10 +10,14 @@ class DeploymentsTableViewContentProvider implements ILazyTreePathContentProvide
     private TreePathContentProvider input;
     private TreeViewer viewer;
 
+    /** Called when the placeholder for older deployments becomes visible */
+    private final Runnable moreDeploymentsLoader;
+
     public DeploymentsTableViewContentProvider(TreeViewer viewer,
-            TreePathContentProvider input) {
+            TreePathContentProvider input, Runnable moreDeploymentsLoader) {
         this.viewer = viewer;
         this.input = input;
+        this.moreDeploymentsLoader = moreDeploymentsLoader;
     }
 
     public void dispose() {
@@ -42,6 +46,13 @@ class DeploymentsTableViewContentProvider implements ILazyTreePathContentProvide
         }
 
         viewer.replace(parentPath, index, children[index]);
+
+        if (children[index] == DeploymentsTableViewTreePathContentCache.MORE_DEPLOYMENTS) {
+            // The user scrolled to the end of the loaded deployments
+            viewer.setHasChildren(parentPath.createChildPath(children[index]), false);
+            moreDeploymentsLoader.run();
+            return;
+        }
         updateHasChildren(parentPath.createChildPath(children[index]));
     }
 
@@ -36,7 +36,9 @@ class DeploymentsTableViewLabelProvider extends StyledCellLabelProvider {
                 cell.setForeground(Display.getDefault().getSystemColor(SWT.COLOR_DARK_GREEN));
             } else if ("Failed".equals(text)) {
                 cell.setForeground(Display.getDefault().getSystemColor(SWT.COLOR_RED));
-            } else if (cell.getElement() != LoadingContentProvider.LOADING ){
+            } else if (cell.getElement() != LoadingContentProvider.LOADING
+                    && cell.getElement() != DeploymentsTableViewTreePathContentCache.MORE_DEPLOYMENTS
+                    && cell.getElement() != DeploymentsTableViewTreePathContentCache.LOADING_DEPLOYMENTS_FAILED) {
                 cell.setForeground(Display.getDefault().getSystemColor(SWT.COLOR_BLUE));
             }
         }
@@ -48,6 +50,12 @@ class DeploymentsTableViewLabelProvider extends StyledCellLabelProvider {
         if ( element == LoadingContentProvider.LOADING ) {
             return "Loading...";
         }
+        if ( element == DeploymentsTableViewTreePathContentCache.MORE_DEPLOYMENTS ) {
+            return columnIndex == DEPLOYMENT_ID_COL ? "Loading older deployments..." : "";
+        }
+        if ( element == DeploymentsTableViewTreePathContentCache.LOADING_DEPLOYMENTS_FAILED ) {
+            return columnIndex == DEPLOYMENT_ID_COL ? "Unable to load deployments. Double-click to retry." : "";
+        }
 
         try {
             if (element instanceof DeploymentInfo) {
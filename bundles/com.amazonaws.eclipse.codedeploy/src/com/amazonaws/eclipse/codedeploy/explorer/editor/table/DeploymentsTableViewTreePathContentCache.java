@@ -1,7 +1,6 @@
 package com.amazonaws.eclipse.codedeploy.explorer.editor.table;
 
-import java.util.Collections;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
@@ -9,20 +8,41 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.jface.viewers.TreePath;
 
-import com.amazonaws.eclipse.codedeploy.ServiceAPIUtils;
+import com.amazonaws.eclipse.codedeploy.DeploymentCache;
+import com.amazonaws.eclipse.codedeploy.DeploymentCache.DeploymentsPage;
 import com.amazonaws.eclipse.codedeploy.explorer.editor.DeploymentGroupEditorInput;
 import com.amazonaws.services.codedeploy.model.DeploymentInfo;
 import com.amazonaws.services.codedeploy.model.InstanceSummary;
 import com.amazonaws.services.codedeploy.model.LifecycleEvent;
 
 /**
+ * Deployments are listed lazily, most recent first, one page at a time: the
+ * last top-level child is {@link #MORE_DEPLOYMENTS} while older pages remain,
+ * or {@link #LOADING_DEPLOYMENTS_FAILED} if the last page failed to load.
+ * The deployments and their instances come from the shared
+ * {@link DeploymentCache}, so a refresh only requests the deployments that
+ * are new or still in progress.
+ *
  * @ThreadSafe
  */
 class DeploymentsTableViewTreePathContentCache implements TreePathContentProvider {
 
+    /** Placeholder for the deployments of the pages not loaded yet */
+    static final Object MORE_DEPLOYMENTS = new Object();
+    /** Placeholder for the deployments of a page that failed to load */
+    static final Object LOADING_DEPLOYMENTS_FAILED = new Object();
+
     private final Map<TreePath, Object[]> cache;
     private final DeploymentGroupEditorInput editorInput;
 
+    /** The deployments of the pages loaded so far; guarded by this */
+    private final List<DeploymentInfo> loadedDeployments = new ArrayList<DeploymentInfo>();
+    private boolean firstPageLoaded;
+    private String nextToken;
+    private boolean loadingFailed;
+    /** Incremented by each refresh, to discard the pages requested before it */
+    private int generation;
+
     public DeploymentsTableViewTreePathContentCache(DeploymentGroupEditorInput editorInput) {
         this.editorInput = editorInput;
 
@@ -30,56 +50,124 @@ class DeploymentsTableViewTreePathContentCache implements TreePathContentProvide
     }
 
     public Object[] getChildren(TreePath parent) {
+        if (parent.getSegmentCount() == 0) {
+            return getTopLevelElements();
+        }
         if ( !cache.containsKey(parent) ) {
             cache.put(parent, loadChildren(parent));
         }
         return cache.get(parent);
     }
 
-    public void refresh() {
+    public synchronized void refresh() {
         cache.clear();
+        loadedDeployments.clear();
+        firstPageLoaded = false;
+        nextToken = null;
+        loadingFailed = false;
+        generation++;
     }
 
-    private Object[] loadChildren(TreePath parent) {
-        if (parent.getSegmentCount() == 0) {
-            // root
-            List<DeploymentInfo> deployments = ServiceAPIUtils.getAllDeployments(
+    /**
+     * Returns whether older deployments remain to be loaded.
+     */
+    public synchronized boolean hasMoreDeployments() {
+        return !firstPageLoaded || nextToken != null;
+    }
+
+    /**
+     * Loads the first page of deployments, unless it's already loaded.
+     */
+    public void loadFirstPage() {
+        synchronized (this) {
+            if (firstPageLoaded) return;
+        }
+        loadMoreDeployments();
+    }
+
+    /**
+     * Loads the next page of deployments, and returns the deployments it
+     * contains. The page is requested without holding the lock, so the tree
+     * can still read the deployments loaded so far; it is discarded if the
+     * cache was refreshed, or the same page was loaded, in the meantime. If
+     * it fails to load, the deployments end with
+     * {@link #LOADING_DEPLOYMENTS_FAILED} until the page is loaded again.
+     */
+    public List<DeploymentInfo> loadMoreDeployments() {
+        String token;
+        int requestGeneration;
+        synchronized (this) {
+            if ( !hasMoreDeployments() ) {
+                return new ArrayList<DeploymentInfo>();
+            }
+            token = nextToken;
+            requestGeneration = generation;
+        }
+
+        DeploymentsPage page;
+        try {
+            page = DeploymentCache.getInstance().getDeploymentsPage(
                     editorInput.getCodeDeployClient(),
                     editorInput.getApplicationName(),
-                    editorInput.getDeploymentGroupName());
-
-            // Sort by creation data
-            Collections.sort(deployments, new Comparator<DeploymentInfo>() {
-                public int compare(DeploymentInfo a, DeploymentInfo b) {
-                    int a_to_b = a.getCreateTime().compareTo(b.getCreateTime());
-                    // In descending order
-                    return - a_to_b;
+                    editorInput.getDeploymentGroupName(),
+                    token);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                if (requestGeneration == generation) {
+                    loadingFailed = true;
                 }
-            });
+            }
+            throw e;
+        }
 
-            return deployments.toArray(new DeploymentInfo[deployments.size()]);
+        synchronized (this) {
+            boolean samePage = token == null ? !firstPageLoaded : token.equals(nextToken);
+            if (requestGeneration != generation || !samePage) {
+                return new ArrayList<DeploymentInfo>();
+            }
+            loadedDeployments.addAll(page.getDeployments());
+            firstPageLoaded = true;
+            nextToken = page.getNextToken();
+            loadingFailed = false;
+        }
+        return page.getDeployments();
+    }
 
-        } else {
-            Object lastSegment = parent.getLastSegment();
+    /**
+     * Returns the deployments loaded so far, without requesting any: pages
+     * are only loaded by {@link #loadFirstPage()} and
+     * {@link #loadMoreDeployments()}, off the UI thread.
+     */
+    private synchronized Object[] getTopLevelElements() {
+        List<Object> elements = new ArrayList<Object>(loadedDeployments);
+        if (loadingFailed) {
+            elements.add(LOADING_DEPLOYMENTS_FAILED);
+        } else if (nextToken != null) {
+            elements.add(MORE_DEPLOYMENTS);
+        }
+        return elements.toArray();
+    }
 
-            if (lastSegment instanceof DeploymentInfo) {
-                DeploymentInfo deployment = (DeploymentInfo) lastSegment;
+    private Object[] loadChildren(TreePath parent) {
+        Object lastSegment = parent.getLastSegment();
 
-                List<InstanceSummary> instances = ServiceAPIUtils.getAllDeploymentInstances(
-                        editorInput.getCodeDeployClient(),
-                        deployment.getDeploymentId());
-                return instances.toArray(new InstanceSummary[instances.size()]);
+        if (lastSegment instanceof DeploymentInfo) {
+            DeploymentInfo deployment = (DeploymentInfo) lastSegment;
 
-            } else if (lastSegment instanceof InstanceSummary) {
-                InstanceSummary deploymentInstance = (InstanceSummary) lastSegment;
+            List<InstanceSummary> instances = DeploymentCache.getInstance().getDeploymentInstances(
+                    editorInput.getCodeDeployClient(),
+                    deployment);
+            return instances.toArray(new InstanceSummary[instances.size()]);
 
-                List<LifecycleEvent> events = deploymentInstance.getLifecycleEvents();
-                if (events == null) {
-                    events = new LinkedList<LifecycleEvent>();
-                }
-                return events.toArray(new LifecycleEvent[events.size()]);
+        } else if (lastSegment instanceof InstanceSummary) {
+            InstanceSummary deploymentInstance = (InstanceSummary) lastSegment;
 
+            List<LifecycleEvent> events = deploymentInstance.getLifecycleEvents();
+            if (events == null) {
+                events = new LinkedList<LifecycleEvent>();
             }
+            return events.toArray(new LifecycleEvent[events.size()]);
+
         }
 
         return new Object[0];
@@ -42,6 +42,7 @@ import com.amazonaws.eclipse.core.regions.Region;
 import com.amazonaws.eclipse.core.regions.RegionUtils;
 import com.amazonaws.eclipse.core.regions.Service;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
 import com.amazonaws.services.autoscaling.AmazonAutoScaling;
 import com.amazonaws.services.autoscaling.AmazonAutoScalingClient;
 import com.amazonaws.services.cloudformation.AmazonCloudFormation;
@@ -67,6 +68,8 @@ import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagementClient;
 import com.amazonaws.services.lambda.AWSLambda;
 import com.amazonaws.services.lambda.AWSLambdaClient;
+import com.amazonaws.services.logs.AWSLogs;
+import com.amazonaws.services.logs.AWSLogsClient;
 import com.amazonaws.services.opsworks.AWSOpsWorks;
 import com.amazonaws.services.opsworks.AWSOpsWorksClient;
 import com.amazonaws.services.rds.AmazonRDS;
@@ -164,8 +167,11 @@ public class AWSClientFactory {
     }
 
     /**
-     * Returns a client for the region where the given bucket resides. No
-     * caching is performed on the region lookup.
+     * Returns a client for the region where the given bucket resides. The
+     * region of the bucket is only looked up the first time. If a request is
+     * then rejected because the bucket is in another region, see
+     * {@link BucketRegionCache#isWrongRegionError(Exception)}, callers get a
+     * client for its actual region with {@link #refreshS3ClientForBucket(String)}.
      */
     public AmazonS3 getS3ClientForBucket(String bucketName) {
         String serviceEndpoint = getS3BucketEndpoint(bucketName);
@@ -173,19 +179,35 @@ public class AWSClientFactory {
     }
 
     /**
-     * Returns the endpoint appropriate to the given bucket.
+     * Looks up again the region of the given bucket, after a request was
+     * rejected because the cached region was wrong, and returns a client for
+     * that region.
+     */
+    public AmazonS3 refreshS3ClientForBucket(String bucketName) {
+        String region = getBucketRegionCache().refreshBucketRegion(getS3Client(), bucketName);
+        return getS3ClientByEndpoint(RegionUtils.getRegion(region).getServiceEndpoint(ServiceAbbreviations.S3));
+    }
+
+    /**
+     * Returns the endpoint appropriate to the given bucket, using the cached
+     * region of the bucket when it is known.
+     *
+     * @see BucketRegionCache
      */
     public String getS3BucketEndpoint(String bucketName) {
-        AmazonS3 globalS3Client = getS3Client();
-        String bucketLocation = globalS3Client.getBucketLocation(bucketName);
-        String region = bucketLocation;
-        if ( bucketLocation == null || bucketLocation.equals("US") ) {
-            region = "us-east-1";
-        }
+        String region = getBucketRegionCache().getBucketRegion(getS3Client(), bucketName);
         String serviceEndpoint = RegionUtils.getRegion(region).getServiceEndpoint(ServiceAbbreviations.S3);
         return serviceEndpoint;
     }
 
+    /**
+     * Returns the cache of the regions of the buckets of this factory's
+     * account.
+     */
+    public BucketRegionCache getBucketRegionCache() {
+        return BucketRegionCache.getInstance(accountId);
+    }
+
     public AmazonSimpleDB getSimpleDBClient() {
         return getSimpleDBClientByEndpoint(RegionUtils.getCurrentRegion().getServiceEndpoint(ServiceAbbreviations.SIMPLEDB));
     }
@@ -322,6 +344,10 @@ public class AWSClientFactory {
         return getOrCreateClient(endpoint, AWSLambdaClient.class);
     }
 
+    public AWSLogs getLogsClientByEndpoint(String endpoint) {
+        return getOrCreateClient(endpoint, AWSLogsClient.class);
+    }
+
     public AWSCodeCommit getCodeCommitClientByEndpoint(String endpoint) {
         return getOrCreateClient(endpoint, AWSCodeCommitClient.class);
     }
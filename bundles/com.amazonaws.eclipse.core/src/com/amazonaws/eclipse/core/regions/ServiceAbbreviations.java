@@ -36,6 +36,7 @@ public final class ServiceAbbreviations {
     public static final String CODE_DEPLOY     = "CodeDeploy";
     public static final String OPSWORKS        = "OpsWorks";
     public static final String LAMBDA          = "Lambda";
+    public static final String LOGS            = "Logs";
     public static final String CODECOMMIT      = "CodeCommit";
     public static final String CODESTAR        = "CodeStar";
 }
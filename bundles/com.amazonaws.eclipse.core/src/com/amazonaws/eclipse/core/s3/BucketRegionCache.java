@@ -0,0 +1,280 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.core.s3;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.explorer.ExplorerOperations;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Operation;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.Bucket;
+
+/**
+ * Cache of the regions of the S3 buckets of an account, persisted in the
+ * toolkit's state location so that opening a bucket goes straight to its
+ * regional endpoint, even after restarting Eclipse.
+ * <p>
+ * Along with its region, the creation date of each bucket is recorded: a
+ * bucket listed with a different creation date was deleted and created again,
+ * maybe in another region, so its region is looked up again.
+ *
+ * @ThreadSafe
+ */
+public class BucketRegionCache {
+
+    /** The region of buckets whose location is reported as null or "US" */
+    private static final String US_STANDARD_REGION = "us-east-1";
+
+    /** Error codes S3 returns when a bucket is addressed in the wrong region */
+    private static final Set<String> WRONG_REGION_ERROR_CODES = new HashSet<String>(Arrays.asList(
+            "PermanentRedirect", "AuthorizationHeaderMalformed", "IllegalLocationConstraintException"));
+
+    private static final Map<String, BucketRegionCache> instancesByAccountId =
+            new ConcurrentHashMap<String, BucketRegionCache>();
+
+    private final String accountId;
+    private final Map<String, BucketInfo> bucketsByName = new ConcurrentHashMap<String, BucketInfo>();
+
+    /**
+     * Returns the cache of the specified account, loading it from disk the
+     * first time.
+     */
+    public static BucketRegionCache getInstance(String accountId) {
+        synchronized (instancesByAccountId) {
+            BucketRegionCache cache = instancesByAccountId.get(accountId);
+            if (cache == null) {
+                cache = new BucketRegionCache(accountId);
+                cache.load();
+                instancesByAccountId.put(accountId, cache);
+            }
+            return cache;
+        }
+    }
+
+    private BucketRegionCache(String accountId) {
+        this.accountId = accountId;
+    }
+
+    /**
+     * Returns the region of the specified bucket, looking up its location only
+     * if it isn't known yet.
+     *
+     * @param s3
+     *            The client used to look up the location of the bucket.
+     */
+    public String getBucketRegion(AmazonS3 s3, String bucketName) {
+        BucketInfo info = bucketsByName.get(bucketName);
+        if (info != null) return info.region;
+
+        String region = lookUpRegion(s3, bucketName, null);
+        save();
+        return region;
+    }
+
+    /**
+     * Returns the cached region of the specified bucket, or null if it isn't
+     * known yet. Never sends any request.
+     */
+    public String getCachedBucketRegion(String bucketName) {
+        BucketInfo info = bucketsByName.get(bucketName);
+        return info == null ? null : info.region;
+    }
+
+    /**
+     * Looks up concurrently the regions of the listed buckets that aren't
+     * known yet, or whose creation date changed, and forgets the buckets that
+     * aren't listed anymore.
+     *
+     * @param s3
+     *            The client used to look up the location of the buckets.
+     * @param buckets
+     *            All the buckets of the account.
+     */
+    public void resolveBucketRegions(final AmazonS3 s3, Collection<Bucket> buckets) throws InterruptedException {
+        Set<String> bucketNames = new HashSet<String>();
+        List<Bucket> unresolvedBuckets = new ArrayList<Bucket>();
+        for (Bucket bucket : buckets) {
+            bucketNames.add(bucket.getName());
+            BucketInfo info = bucketsByName.get(bucket.getName());
+            if (info == null || info.creationTime != getCreationTime(bucket)) {
+                unresolvedBuckets.add(bucket);
+            }
+        }
+        boolean removedBuckets = bucketsByName.keySet().retainAll(bucketNames);
+
+        if (!unresolvedBuckets.isEmpty()) {
+            Map<Bucket, Exception> failures = ExplorerOperations.runAll(unresolvedBuckets, new Operation<Bucket, String>() {
+                public String run(Bucket bucket) {
+                    return lookUpRegion(s3, bucket.getName(), getCreationTime(bucket));
+                }
+            }).getFailures();
+
+            for (Map.Entry<Bucket, Exception> failure : failures.entrySet()) {
+                AwsToolkitCore.getDefault().logWarning(
+                        "Unable to look up the region of bucket " + failure.getKey().getName(), failure.getValue());
+            }
+        }
+
+        if (removedBuckets || !unresolvedBuckets.isEmpty()) {
+            save();
+        }
+    }
+
+    /**
+     * Forgets the region of the specified bucket and looks it up again, after
+     * a request failed because the cached region was wrong.
+     *
+     * @see #isWrongRegionError(Exception)
+     */
+    public String refreshBucketRegion(AmazonS3 s3, String bucketName) {
+        bucketsByName.remove(bucketName);
+        return getBucketRegion(s3, bucketName);
+    }
+
+    /**
+     * Returns whether the specified exception means that the bucket was
+     * addressed in the wrong region, e.g. because it was deleted and created
+     * again elsewhere since its region was cached.
+     */
+    public static boolean isWrongRegionError(Exception e) {
+        if (!(e instanceof AmazonServiceException)) return false;
+
+        AmazonServiceException ase = (AmazonServiceException) e;
+        return ase.getStatusCode() == 301 || WRONG_REGION_ERROR_CODES.contains(ase.getErrorCode());
+    }
+
+    /**
+     * Forgets the region of the specified bucket, for instance after it was
+     * deleted.
+     */
+    public void invalidate(String bucketName) {
+        if (bucketsByName.remove(bucketName) != null) {
+            save();
+        }
+    }
+
+    private String lookUpRegion(AmazonS3 s3, String bucketName, Long creationTime) {
+        String location = s3.getBucketLocation(bucketName);
+        String region = location == null || location.equals("US") ? US_STANDARD_REGION : location;
+
+        BucketInfo previous = bucketsByName.get(bucketName);
+        long knownCreationTime = creationTime != null ? creationTime
+                : previous != null ? previous.creationTime : 0;
+        bucketsByName.put(bucketName, new BucketInfo(region, knownCreationTime));
+        return region;
+    }
+
+    private static long getCreationTime(Bucket bucket) {
+        return bucket.getCreationDate() == null ? 0 : bucket.getCreationDate().getTime();
+    }
+
+    /*
+     * Persistence: one properties file per account in the state location of
+     * the plugin, mapping each bucket name to its region and creation time.
+     */
+
+    private File getCacheFile() {
+        AwsToolkitCore plugin = AwsToolkitCore.getDefault();
+        if (plugin == null) return null;
+
+        return new File(plugin.getStateLocation().toFile(), "bucketRegions." + accountId + ".properties");
+    }
+
+    private void load() {
+        File file = getCacheFile();
+        if (file == null || !file.exists()) return;
+
+        Properties properties = new Properties();
+        InputStream inputStream = null;
+        try {
+            inputStream = new FileInputStream(file);
+            properties.load(inputStream);
+        } catch (IOException e) {
+            AwsToolkitCore.getDefault().logWarning("Unable to load the cached regions of S3 buckets", e);
+            return;
+        } finally {
+            IOUtils.closeQuietly(inputStream);
+        }
+
+        for (String bucketName : properties.stringPropertyNames()) {
+            BucketInfo info = BucketInfo.parse(properties.getProperty(bucketName));
+            if (info != null) bucketsByName.put(bucketName, info);
+        }
+    }
+
+    private synchronized void save() {
+        File file = getCacheFile();
+        if (file == null) return;
+
+        Properties properties = new Properties();
+        for (Map.Entry<String, BucketInfo> entry : bucketsByName.entrySet()) {
+            properties.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+
+        OutputStream outputStream = null;
+        try {
+            outputStream = new FileOutputStream(file);
+            properties.store(outputStream, null);
+        } catch (IOException e) {
+            AwsToolkitCore.getDefault().logWarning("Unable to save the cached regions of S3 buckets", e);
+        } finally {
+            IOUtils.closeQuietly(outputStream);
+        }
+    }
+
+    private static class BucketInfo {
+        private final String region;
+        private final long creationTime;
+
+        BucketInfo(String region, long creationTime) {
+            this.region = region;
+            this.creationTime = creationTime;
+        }
+
+        /** Parses the value stored in the properties file, or returns null if it is invalid */
+        static BucketInfo parse(String value) {
+            String[] fields = value.split(" ");
+            if (fields.length != 2) return null;
+            try {
+                return new BucketInfo(fields[0], Long.parseLong(fields[1]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        @Override
+        public String toString() {
+            return region + " " + creationTime;
+        }
+    }
+}
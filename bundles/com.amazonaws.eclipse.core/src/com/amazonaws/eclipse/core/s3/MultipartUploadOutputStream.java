@@ -0,0 +1,217 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.core.s3;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+
+/**
+ * Output stream uploading what is written to it to an S3 object, one part at
+ * a time. Parts are uploaded in the background while the next one is being
+ * written; writes block once the maximum number of parts are in flight, so at
+ * most that many parts, plus the one being written, are held in memory.
+ * Content smaller than one part is sent with a single PutObject request when
+ * the stream is closed.
+ * <p>
+ * The object is only created once the stream is closed successfully. After
+ * any failure, {@link #abort()} must be called so the parts already uploaded
+ * are deleted.
+ */
+class MultipartUploadOutputStream extends OutputStream {
+
+    private final AmazonS3 s3;
+    private final String bucketName;
+    private final String key;
+    private final CannedAccessControlList cannedAcl;
+    private final int partSize;
+    private final ExecutorService executor;
+    private final Semaphore partsInFlight;
+
+    private final List<Future<PartETag>> parts = new ArrayList<Future<PartETag>>();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+    private String uploadId;
+    private byte[] buffer;
+    private int bufferLength;
+    private boolean closed;
+
+    /**
+     * @param cannedAcl
+     *            The ACL of the object, or null for the default.
+     * @param maxPartsInFlight
+     *            The maximum number of parts uploaded at the same time.
+     */
+    MultipartUploadOutputStream(AmazonS3 s3, String bucketName, String key, CannedAccessControlList cannedAcl,
+            int partSize, int maxPartsInFlight, ExecutorService executor) {
+        this.s3 = s3;
+        this.bucketName = bucketName;
+        this.key = key;
+        this.cannedAcl = cannedAcl;
+        this.partSize = partSize;
+        this.executor = executor;
+        this.partsInFlight = new Semaphore(maxPartsInFlight);
+        this.buffer = new byte[partSize];
+    }
+
+    /** The number of bytes that made it to S3 so far */
+    long getUploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int off, int len) throws IOException {
+        if (closed) throw new IOException("Stream closed");
+
+        while (len > 0) {
+            int copied = Math.min(len, buffer.length - bufferLength);
+            System.arraycopy(bytes, off, buffer, bufferLength, copied);
+            bufferLength += copied;
+            off += copied;
+            len -= copied;
+
+            if (bufferLength == buffer.length) {
+                uploadPart();
+            }
+        }
+    }
+
+    /**
+     * Uploads the last part and completes the upload.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) return;
+        closed = true;
+
+        if (uploadId == null) {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(bufferLength);
+            PutObjectRequest request = new PutObjectRequest(bucketName, key,
+                    new ByteArrayInputStream(buffer, 0, bufferLength), metadata);
+            if (cannedAcl != null) request.setCannedAcl(cannedAcl);
+            s3.putObject(request);
+            uploadedBytes.addAndGet(bufferLength);
+            return;
+        }
+
+        if (bufferLength > 0) {
+            uploadPart();
+        }
+        List<PartETag> partETags = new ArrayList<PartETag>(parts.size());
+        for (Future<PartETag> part : parts) {
+            partETags.add(getPartETag(part));
+        }
+        s3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucketName, key, uploadId, partETags));
+    }
+
+    /**
+     * Cancels the parts not uploaded yet and deletes the ones already
+     * uploaded.
+     */
+    void abort() {
+        closed = true;
+        for (Future<PartETag> part : parts) {
+            part.cancel(true);
+        }
+        if (uploadId != null) {
+            try {
+                s3.abortMultipartUpload(new AbortMultipartUploadRequest(bucketName, key, uploadId));
+            } catch (AmazonClientException e) {
+                AwsToolkitCore.getDefault().logWarning("Unable to abort upload of s3://" + bucketName + "/" + key, e);
+            }
+        }
+    }
+
+    private void uploadPart() throws IOException {
+        if (uploadId == null) {
+            InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(bucketName, key);
+            if (cannedAcl != null) request.setCannedACL(cannedAcl);
+            uploadId = s3.initiateMultipartUpload(request).getUploadId();
+        }
+
+        // Fail fast rather than writing the rest of the content for nothing
+        for (Future<PartETag> part : parts) {
+            if (part.isDone()) getPartETag(part);
+        }
+
+        try {
+            partsInFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a part to be uploaded");
+        }
+
+        final UploadPartRequest request = new UploadPartRequest()
+                .withBucketName(bucketName)
+                .withKey(key)
+                .withUploadId(uploadId)
+                .withPartNumber(parts.size() + 1)
+                .withInputStream(new ByteArrayInputStream(buffer, 0, bufferLength))
+                .withPartSize(bufferLength);
+        parts.add(executor.submit(new Callable<PartETag>() {
+            public PartETag call() {
+                try {
+                    PartETag partETag = s3.uploadPart(request).getPartETag();
+                    uploadedBytes.addAndGet(request.getPartSize());
+                    return partETag;
+                } finally {
+                    partsInFlight.release();
+                }
+            }
+        }));
+
+        buffer = new byte[partSize];
+        bufferLength = 0;
+    }
+
+    private static PartETag getPartETag(Future<PartETag> part) throws IOException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a part to be uploaded");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new AmazonClientException("Unable to upload part", cause);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.core.s3;
+
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.client.builder.ExecutorFactory;
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.CannedAccessControlList;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.transfer.PersistableTransfer;
+import com.amazonaws.services.s3.transfer.PersistableUpload;
+import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
+import com.amazonaws.services.s3.transfer.Upload;
+import com.amazonaws.services.s3.transfer.internal.S3SyncProgressListener;
+import com.amazonaws.services.s3.transfer.model.UploadResult;
+
+/**
+ * Uploads deployment artifacts (Lambda function jars, Elastic Beanstalk WARs,
+ * CodeDeploy and OpsWorks bundles) to Amazon S3.
+ * <p>
+ * Files larger than the part size are sent as a multipart upload with parts
+ * transferred concurrently. The S3 client verifies the MD5 checksum of every
+ * part against the ETag returned by S3. If a part fails with a transient
+ * client error, the upload is resumed from the parts that already made it to
+ * S3 instead of being restarted. Artifacts can also be streamed to S3 as
+ * they are produced, without a temporary file, see
+ * {@link #upload(String, String, CannedAccessControlList, ArtifactWriter, IProgressMonitor, int)}.
+ * Progress and throughput are reported to the given {@link IProgressMonitor}.
+ */
+public class S3ArtifactUploader {
+
+    /** Default size (in bytes) of each part of a multipart upload */
+    public static final long DEFAULT_PART_SIZE = 8 * 1024 * 1024;
+
+    /** Default number of parts uploaded at the same time */
+    public static final int DEFAULT_CONCURRENCY = 8;
+
+    /**
+     * Maximum size (in bytes) of the parts of a streamed upload being uploaded
+     * at the same time, which are held in memory until they make it to S3
+     */
+    private static final long MAX_STREAMED_BYTES_IN_FLIGHT = 32 * 1024 * 1024;
+
+    /** Number of times a failed multipart upload is resumed before giving up */
+    private static final int MAX_RESUME_ATTEMPTS = 3;
+
+    /** Period (in milliseconds) between progress monitor updates */
+    private static final long PROGRESS_POLL_INTERVAL = 500;
+
+    private static final double BYTES_PER_MB = 1024 * 1024;
+
+    private final AmazonS3 s3;
+    private final long partSize;
+    private final int concurrency;
+
+    public S3ArtifactUploader(AmazonS3 s3) {
+        this(s3, DEFAULT_PART_SIZE, DEFAULT_CONCURRENCY);
+    }
+
+    /**
+     * @param s3
+     *            The client used to upload the artifact.
+     * @param partSize
+     *            The size in bytes of each part; also the threshold above
+     *            which a multipart upload is used. S3 requires at least 5 MB.
+     * @param concurrency
+     *            The maximum number of parts uploaded in parallel.
+     */
+    public S3ArtifactUploader(AmazonS3 s3, long partSize, int concurrency) {
+        if (partSize < 5 * 1024 * 1024) {
+            throw new IllegalArgumentException("Part size must be at least 5 MB");
+        }
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("Concurrency must be at least 1");
+        }
+        this.s3 = s3;
+        this.partSize = partSize;
+        this.concurrency = concurrency;
+    }
+
+    /**
+     * Uploads the specified file and blocks until the upload completes.
+     *
+     * @see #upload(PutObjectRequest, IProgressMonitor, int)
+     */
+    public UploadResult upload(String bucketName, String key, File file,
+            IProgressMonitor monitor, int totalUnitOfWork) {
+        return upload(new PutObjectRequest(bucketName, key, file), monitor, totalUnitOfWork);
+    }
+
+    /**
+     * Uploads the file in the specified request and blocks until the upload
+     * completes.
+     *
+     * @param request
+     *            The request describing the file to upload. Must reference a
+     *            file rather than an input stream so that failed uploads can
+     *            be resumed.
+     * @param monitor
+     *            The monitor to report progress to; the sub task is updated
+     *            with the transferred bytes and the current throughput.
+     * @param totalUnitOfWork
+     *            The units of work to report on the monitor once all bytes
+     *            have been transferred.
+     * @return The result of the completed upload.
+     * @throws OperationCanceledException
+     *             If the monitor was canceled before the upload completed.
+     * @throws AmazonClientException
+     *             If the upload failed and could not be resumed.
+     */
+    public UploadResult upload(PutObjectRequest request, IProgressMonitor monitor, int totalUnitOfWork) {
+        if (request.getFile() == null) {
+            throw new IllegalArgumentException("Only file uploads are supported");
+        }
+
+        TransferManager transferManager = TransferManagerBuilder.standard()
+                .withS3Client(s3)
+                .withMinimumUploadPartSize(partSize)
+                .withMultipartUploadThreshold(partSize)
+                .withExecutorFactory(new ExecutorFactory() {
+                    public ExecutorService newExecutor() {
+                        return Executors.newFixedThreadPool(concurrency, new UploadThreadFactory());
+                    }
+                })
+                .build();
+
+        UploadProgressReporter reporter = new UploadProgressReporter(
+                monitor, request.getFile().length(), totalUnitOfWork);
+        PersistableUploadCapture capture = new PersistableUploadCapture();
+
+        Upload upload = transferManager.upload(request, capture);
+        try {
+            int attempt = 0;
+            while (true) {
+                try {
+                    waitForCompletion(upload, reporter);
+                    UploadResult result = upload.waitForUploadResult();
+                    reporter.finish();
+                    return result;
+                } catch (AmazonClientException e) {
+                    PersistableUpload persistableUpload = capture.getPersistableUpload();
+                    if (persistableUpload == null || !isResumable(e) || ++attempt > MAX_RESUME_ATTEMPTS) {
+                        abort(upload);
+                        throw e;
+                    }
+                    AwsToolkitCore.getDefault().logWarning("Upload of s3://" + request.getBucketName()
+                            + "/" + request.getKey() + " failed, resuming (attempt " + attempt + ")", e);
+                    upload = transferManager.resumeUpload(persistableUpload);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            abort(upload);
+            throw new OperationCanceledException();
+        } finally {
+            transferManager.shutdownNow(false);
+        }
+    }
+
+    /**
+     * Produces the content of an artifact streamed to S3.
+     */
+    public interface ArtifactWriter {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Uploads an artifact while it is being produced, e.g. a zip archive
+     * being built, and blocks until the upload completes. Each part is
+     * uploaded as soon as it has been written, concurrently with the next
+     * ones, so the artifact never goes through a temporary file; at most 32
+     * MB of parts, or one part if they are larger, are uploaded at the same
+     * time, in addition to the part being written. Unlike file
+     * uploads, a streamed upload cannot be resumed; its parts are only
+     * retried by the client.
+     *
+     * @param cannedAcl
+     *            The ACL of the uploaded object, or null for the default.
+     * @param writer
+     *            Writes the content of the artifact.
+     * @param monitor
+     *            The monitor to report progress to; the sub task is updated
+     *            with the uploaded bytes and the current throughput.
+     * @param totalUnitOfWork
+     *            The units of work to report on the monitor once the upload
+     *            completes.
+     * @throws OperationCanceledException
+     *             If the monitor was canceled before the upload completed.
+     * @throws AmazonClientException
+     *             If the artifact could not be written or uploaded.
+     */
+    public void upload(String bucketName, String key, CannedAccessControlList cannedAcl, ArtifactWriter writer,
+            IProgressMonitor monitor, int totalUnitOfWork) {
+        int maxPartsInFlight = (int) Math.max(1, Math.min(concurrency, MAX_STREAMED_BYTES_IN_FLIGHT / partSize));
+        ExecutorService executor = Executors.newFixedThreadPool(maxPartsInFlight, new UploadThreadFactory());
+        MultipartUploadOutputStream upload = new MultipartUploadOutputStream(s3, bucketName, key, cannedAcl,
+                (int) Math.min(partSize, Integer.MAX_VALUE), maxPartsInFlight, executor);
+
+        boolean completed = false;
+        try {
+            writer.writeTo(new StreamProgressReporter(upload, monitor));
+            upload.close();
+            monitor.worked(totalUnitOfWork);
+            completed = true;
+        } catch (IOException e) {
+            throw new AmazonClientException("Unable to upload s3://" + bucketName + "/" + key + ": " + e.getMessage(), e);
+        } finally {
+            if (!completed) upload.abort();
+            executor.shutdownNow();
+        }
+    }
+
+    private void waitForCompletion(Upload upload, UploadProgressReporter reporter)
+            throws InterruptedException {
+        while (!upload.isDone()) {
+            if (reporter.isCanceled()) {
+                upload.abort();
+                throw new OperationCanceledException();
+            }
+            reporter.update(upload.getProgress().getBytesTransferred());
+            Thread.sleep(PROGRESS_POLL_INTERVAL);
+        }
+        reporter.update(upload.getProgress().getBytesTransferred());
+    }
+
+    /**
+     * Service errors other than server side failures (e.g. access denied, no
+     * such bucket) won't go away by retrying, so only client side errors such
+     * as dropped connections and 5xx responses are resumed.
+     */
+    private static boolean isResumable(AmazonClientException e) {
+        if (e instanceof AmazonServiceException) {
+            return ((AmazonServiceException) e).getStatusCode() >= 500;
+        }
+        return e.isRetryable();
+    }
+
+    /**
+     * Multipart uploads that failed part way are left open by the transfer
+     * manager so they can be resumed; once we give up, abort them so the
+     * uploaded parts don't keep accruing storage charges.
+     */
+    private static void abort(Upload upload) {
+        try {
+            upload.abort();
+        } catch (AmazonClientException e) {
+            AwsToolkitCore.getDefault().logWarning("Unable to abort upload", e);
+        }
+    }
+
+    /**
+     * Remembers the state of the multipart upload, which the transfer manager
+     * publishes once the upload has been initiated.
+     */
+    private static class PersistableUploadCapture extends S3SyncProgressListener {
+        private volatile PersistableUpload persistableUpload;
+
+        @Override
+        public void onPersistableTransfer(PersistableTransfer persistableTransfer) {
+            if (persistableTransfer instanceof PersistableUpload) {
+                persistableUpload = (PersistableUpload) persistableTransfer;
+            }
+        }
+
+        public PersistableUpload getPersistableUpload() {
+            return persistableUpload;
+        }
+    }
+
+    /**
+     * Translates transferred bytes into units of work and a throughput
+     * message on the progress monitor.
+     */
+    private static class UploadProgressReporter {
+        private final IProgressMonitor monitor;
+        private final long totalBytes;
+        private final int totalUnitOfWork;
+        private final long startTime = System.currentTimeMillis();
+        private int reportedUnitOfWork;
+
+        UploadProgressReporter(IProgressMonitor monitor, long totalBytes, int totalUnitOfWork) {
+            this.monitor = monitor;
+            this.totalBytes = totalBytes;
+            this.totalUnitOfWork = totalUnitOfWork;
+        }
+
+        boolean isCanceled() {
+            return monitor.isCanceled();
+        }
+
+        void update(long bytesTransferred) {
+            long elapsed = Math.max(1, System.currentTimeMillis() - startTime);
+            double throughput = (bytesTransferred / BYTES_PER_MB) / (elapsed / 1000.0);
+            monitor.subTask(String.format("Uploading to Amazon S3: %.1f of %.1f MB (%.2f MB/s)",
+                    bytesTransferred / BYTES_PER_MB, totalBytes / BYTES_PER_MB, throughput));
+
+            int unitOfWork = totalBytes == 0 ? 0
+                    : (int) (totalUnitOfWork * Math.min(1.0, (double) bytesTransferred / totalBytes));
+            if (unitOfWork > reportedUnitOfWork) {
+                monitor.worked(unitOfWork - reportedUnitOfWork);
+                reportedUnitOfWork = unitOfWork;
+            }
+        }
+
+        void finish() {
+            if (totalUnitOfWork > reportedUnitOfWork) {
+                monitor.worked(totalUnitOfWork - reportedUnitOfWork);
+                reportedUnitOfWork = totalUnitOfWork;
+            }
+        }
+    }
+
+    /**
+     * Reports the progress of a streamed upload, whose size isn't known in
+     * advance, and stops it when the monitor is canceled.
+     */
+    private static class StreamProgressReporter extends FilterOutputStream {
+        private final MultipartUploadOutputStream upload;
+        private final IProgressMonitor monitor;
+        private final long startTime = System.currentTimeMillis();
+        private long lastUpdateTime;
+
+        StreamProgressReporter(MultipartUploadOutputStream upload, IProgressMonitor monitor) {
+            super(upload);
+            this.upload = upload;
+            this.monitor = monitor;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            if (monitor.isCanceled()) {
+                throw new OperationCanceledException();
+            }
+            out.write(bytes, off, len);
+
+            long now = System.currentTimeMillis();
+            if (now - lastUpdateTime >= PROGRESS_POLL_INTERVAL) {
+                lastUpdateTime = now;
+                long uploadedBytes = upload.getUploadedBytes();
+                double throughput = (uploadedBytes / BYTES_PER_MB) / (Math.max(1, now - startTime) / 1000.0);
+                monitor.subTask(String.format("Uploading to Amazon S3: %.1f MB (%.2f MB/s)",
+                        uploadedBytes / BYTES_PER_MB, throughput));
+            }
+        }
+
+        @Override
+        public void close() {
+            // The upload is completed, or aborted, by the uploader
+        }
+    }
+
+    private static class UploadThreadFactory implements ThreadFactory {
+        private final AtomicInteger threadCount = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "s3-artifact-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
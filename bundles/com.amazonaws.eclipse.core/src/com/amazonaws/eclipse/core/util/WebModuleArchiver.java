@@ -0,0 +1,136 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.core.util;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.jst.server.core.IJ2EEModule;
+import org.eclipse.jst.server.core.IWebModule;
+import org.eclipse.wst.server.core.IModule;
+import org.eclipse.wst.server.core.ServerUtil;
+import org.eclipse.wst.server.core.model.IModuleFile;
+import org.eclipse.wst.server.core.model.IModuleFolder;
+import org.eclipse.wst.server.core.model.IModuleResource;
+import org.eclipse.wst.server.core.model.ModuleDelegate;
+
+/**
+ * Archives Web Tools Platform web modules to WAR files kept between exports,
+ * using {@link ZipArchiveBuilder#update(File)} so that only the files changed
+ * since the previous export are compressed again.
+ * <p>
+ * The WTP server bundles are optional dependencies of this plugin, so this
+ * class must only be used by plugins requiring them.
+ */
+public class WebModuleArchiver {
+
+    /**
+     * Updates the WAR file of the specified project's web module, creating it
+     * if needed. The jars of its utility projects are kept, also updated
+     * incrementally, in a directory next to the WAR file.
+     *
+     * @return The number of entries of the WAR file that were compressed
+     *         again.
+     * @throws IOException
+     *             If the project isn't a web module, or its resources can't be
+     *             located or archived.
+     */
+    public static int updateWar(IProject project, File warFile) throws CoreException, IOException {
+        File directory = warFile.getAbsoluteFile().getParentFile();
+        if (!directory.exists() && !directory.mkdirs()) {
+            throw new IOException("Unable to create directory " + directory.getAbsolutePath());
+        }
+
+        IModule module = ServerUtil.getModule(project);
+        if (module == null) {
+            throw new IOException(project.getName() + " is not a web module");
+        }
+
+        ZipArchiveBuilder war = new ZipArchiveBuilder();
+        addModule(war, module, new File(directory, project.getName() + "-lib"));
+        return war.update(warFile);
+    }
+
+    /**
+     * Adds the resources of a web module and its child modules, archived in
+     * the specified directory, to a WAR file.
+     */
+    private static void addModule(ZipArchiveBuilder war, IModule module, File libDirectory)
+            throws CoreException, IOException {
+        ModuleDelegate delegate = getModuleDelegate(module);
+        addResources(war, delegate.members(), "");
+
+        IWebModule webModule = (IWebModule) module.loadAdapter(IWebModule.class, null);
+        for (IModule child : delegate.getChildModules()) {
+            String uri = webModule == null ? null : webModule.getURI(child);
+            if (uri == null) {
+                throw new IOException("Unable to locate module " + child.getName() + " in the web application");
+            }
+
+            IModuleResource[] members = getModuleDelegate(child).members();
+            IJ2EEModule j2eeModule = (IJ2EEModule) child.loadAdapter(IJ2EEModule.class, null);
+            if (j2eeModule != null && j2eeModule.isBinary()) {
+                // Binary modules are jars added as they are
+                if (members.length != 1 || !(members[0] instanceof IModuleFile)) {
+                    throw new IOException("Unexpected content of binary module " + child.getName());
+                }
+                war.addFile(getFile((IModuleFile) members[0]), uri);
+            } else {
+                // Utility projects are archived on their own, also incrementally
+                File jarFile = new File(libDirectory, uri);
+                if (!jarFile.getParentFile().exists() && !jarFile.getParentFile().mkdirs()) {
+                    throw new IOException("Unable to create directory " + jarFile.getParent());
+                }
+                ZipArchiveBuilder jar = new ZipArchiveBuilder();
+                addResources(jar, members, "");
+                jar.update(jarFile);
+                war.addFile(jarFile, uri);
+            }
+        }
+    }
+
+    private static void addResources(ZipArchiveBuilder archive, IModuleResource[] resources, String prefix)
+            throws IOException {
+        for (IModuleResource resource : resources) {
+            if (resource instanceof IModuleFolder) {
+                addResources(archive, ((IModuleFolder) resource).members(), prefix + resource.getName() + "/");
+            } else if (resource instanceof IModuleFile) {
+                archive.addFile(getFile((IModuleFile) resource), prefix + resource.getName());
+            }
+        }
+    }
+
+    private static ModuleDelegate getModuleDelegate(IModule module) throws IOException {
+        ModuleDelegate delegate = (ModuleDelegate) module.loadAdapter(ModuleDelegate.class, null);
+        if (delegate == null) {
+            throw new IOException("Unable to list the resources of module " + module.getName());
+        }
+        return delegate;
+    }
+
+    private static File getFile(IModuleFile moduleFile) throws IOException {
+        File file = (File) moduleFile.getAdapter(File.class);
+        if (file != null) return file;
+
+        IFile workspaceFile = (IFile) moduleFile.getAdapter(IFile.class);
+        if (workspaceFile != null && workspaceFile.getLocation() != null) {
+            return workspaceFile.getLocation().toFile();
+        }
+        throw new IOException("Unable to locate " + moduleFile.getModuleRelativePath().append(moduleFile.getName()));
+    }
+}
@@ -0,0 +1,976 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.core.util;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Builds zip archives, such as CodeDeploy and OpsWorks deployment bundles,
+ * compressing their entries in parallel.
+ * <p>
+ * Worker threads read and deflate the next few files, up to a bounded total
+ * size, while the previous ones are written, in order, to the output, so the
+ * archive can be streamed directly to its destination (e.g. an S3 upload)
+ * instead of a temporary file.
+ * Files that are already compressed (jars, wars, images...) are stored as
+ * they are, and so are files that deflating would not make smaller. Files too
+ * large to be buffered in memory are compressed by the writing thread.
+ * <p>
+ * Archives rebuilt again and again, such as the WARs exported on every
+ * publish, can be written with {@link #update(File)}, which copies the
+ * entries of the files that didn't change from the previous version of the
+ * archive instead of compressing them again.
+ * <p>
+ * Archives with more than 65535 entries, or larger than 4 GB, use the Zip64
+ * format, but a single file must be smaller than 4 GB.
+ */
+public class ZipArchiveBuilder {
+
+    /** Extensions of the files stored without compression, as they are already compressed */
+    private static final Set<String> COMPRESSED_EXTENSIONS = new HashSet<String>(Arrays.asList(
+            "jar", "war", "ear", "zip", "gz", "tgz", "bz2", "xz", "7z",
+            "png", "jpg", "jpeg", "gif", "ico", "woff", "woff2", "mp3", "mp4"));
+
+    /** Files larger than this are compressed while being written rather than buffered by a worker */
+    private static final long MAX_BUFFERED_FILE_SIZE = 16 * 1024 * 1024;
+
+    /** The number of files read and compressed ahead of the one being written, per thread */
+    private static final int FILES_AHEAD_PER_THREAD = 2;
+
+    /**
+     * The maximum total size of the files read and compressed ahead of the one
+     * being written, whatever their number, as each of them is held in memory
+     * along with its compressed content until it is written.
+     */
+    private static final long MAX_BUFFERED_BYTES = 32 * 1024 * 1024;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** Suffix of the manifest recording the entries of the archives written by {@link #update(File)} */
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    /**
+     * Key of the manifest property recording the length and modification time
+     * of the archive itself; entry names never start with a '/'.
+     */
+    private static final String ARCHIVE_PROPERTY = "/archive";
+
+    private final int compressionLevel;
+    private final int threads;
+    private final List<Source> sources = new ArrayList<Source>();
+
+    /**
+     * Creates a builder compressing at the default level with one thread per
+     * processor.
+     */
+    public ZipArchiveBuilder() {
+        this(Deflater.DEFAULT_COMPRESSION, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * @param compressionLevel
+     *            The {@link Deflater} compression level, from 0 (all the
+     *            files are stored) to 9, or -1 for the default.
+     * @param threads
+     *            The number of threads compressing files.
+     */
+    public ZipArchiveBuilder(int compressionLevel, int threads) {
+        if (compressionLevel < Deflater.DEFAULT_COMPRESSION || compressionLevel > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Invalid compression level: " + compressionLevel);
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.compressionLevel = compressionLevel;
+        this.threads = threads;
+    }
+
+    /**
+     * Adds all the files in the specified directory and its subdirectories,
+     * named by their path relative to the directory.
+     */
+    public ZipArchiveBuilder addDirectory(File directory) {
+        if (!directory.isDirectory()) {
+            throw new IllegalArgumentException(directory.getAbsolutePath() + " is not a directory!");
+        }
+        addDirectory(directory, "");
+        return this;
+    }
+
+    private void addDirectory(File directory, String prefix) {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+
+        for (File file : files) {
+            if (file.isDirectory()) {
+                addDirectory(file, prefix + file.getName() + "/");
+            } else {
+                addFile(file, prefix + file.getName());
+            }
+        }
+    }
+
+    /**
+     * Adds a file to the archive under the specified entry name, which uses
+     * '/' as separator.
+     */
+    public ZipArchiveBuilder addFile(File file, String entryName) {
+        sources.add(new Source(file, entryName));
+        return this;
+    }
+
+    /**
+     * Writes the archive to the specified file, replacing its content.
+     */
+    public void writeTo(File zipFile) throws IOException {
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(zipFile), BUFFER_SIZE);
+        try {
+            writeTo(out);
+            out.close();
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    /**
+     * Writes the archive to the specified stream, which is not closed.
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        for (Source source : sources) {
+            source.previous = null;
+            source.unchanged = false;
+        }
+        write(out, null);
+    }
+
+    /**
+     * Writes the archive to the specified file, reusing the previous version
+     * of the file written by this method: the entries of the files whose size
+     * and modification time, or else checksum, didn't change since then are
+     * copied byte for byte instead of being compressed again, and the file is
+     * left untouched if no file changed at all. The size, modification time
+     * and checksum of each entry are recorded in a manifest next to the
+     * archive; without a valid manifest, all the files are compressed.
+     *
+     * @return The number of entries that were compressed again.
+     */
+    public int update(File zipFile) throws IOException {
+        File manifestFile = new File(zipFile.getPath() + MANIFEST_SUFFIX);
+        Map<String, PreviousEntry> previousEntries = readPreviousEntries(zipFile, manifestFile);
+
+        boolean unchanged = previousEntries.size() == sources.size();
+        Iterator<String> previousNames = previousEntries.keySet().iterator();
+        for (Source source : sources) {
+            // Recorded before the file is read, so a later modification is picked up by the next update
+            source.lastModified = source.file.lastModified();
+            source.previous = previousEntries.get(source.entryName);
+            source.unchanged = source.previous != null
+                    && source.previous.size == source.file.length()
+                    && source.previous.lastModified == source.lastModified;
+            // Files added since the previous archive have no previous name to compare to
+            unchanged &= source.unchanged && previousNames.hasNext()
+                    && previousNames.next().equals(source.entryName);
+        }
+        if (unchanged) return 0;
+
+        File tempFile = File.createTempFile(zipFile.getName(), ".tmp", zipFile.getAbsoluteFile().getParentFile());
+        RandomAccessFile previousArchive = previousEntries.isEmpty() ? null : new RandomAccessFile(zipFile, "r");
+        OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile), BUFFER_SIZE);
+        int compressedEntries;
+        List<CentralDirectoryEntry> centralDirectory;
+        try {
+            ZipWriter zip = write(out, previousArchive);
+            out.close();
+            if (previousArchive != null) previousArchive.close();
+            compressedEntries = zip.compressedEntries;
+            centralDirectory = zip.centralDirectory;
+
+            Files.move(tempFile.toPath(), zipFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            IOUtils.closeQuietly(out);
+            IOUtils.closeQuietly(previousArchive);
+            tempFile.delete();
+        }
+
+        writeManifest(zipFile, manifestFile, centralDirectory);
+        return compressedEntries;
+    }
+
+    /**
+     * Writes the archive, copying the unchanged entries from the previous
+     * archive if there is one.
+     */
+    private ZipWriter write(OutputStream out, RandomAccessFile previousArchive) throws IOException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "Zip archive compression");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        ZipWriter zip = new ZipWriter(out);
+        try {
+            LinkedList<PendingEntry> pendingEntries = new LinkedList<PendingEntry>();
+            int maxPendingEntries = threads * FILES_AHEAD_PER_THREAD;
+            int nextSource = 0;
+            long bufferedBytes = 0;
+
+            while (nextSource < sources.size() || !pendingEntries.isEmpty()) {
+                while (pendingEntries.size() < maxPendingEntries && nextSource < sources.size()) {
+                    final Source source = sources.get(nextSource);
+                    long size = source.file.length();
+                    boolean buffered = !source.unchanged && size <= MAX_BUFFERED_FILE_SIZE;
+                    // The entry being written next is always read, however large the budget it takes
+                    if (buffered && !pendingEntries.isEmpty() && bufferedBytes + size > MAX_BUFFERED_BYTES) {
+                        break;
+                    }
+                    nextSource++;
+
+                    Future<CompressedEntry> future = null;
+                    if (buffered) {
+                        future = executor.submit(new Callable<CompressedEntry>() {
+                            public CompressedEntry call() throws IOException {
+                                return compress(source);
+                            }
+                        });
+                        bufferedBytes += size;
+                    }
+                    pendingEntries.add(new PendingEntry(source, future, buffered ? size : 0));
+                }
+
+                PendingEntry entry = pendingEntries.removeFirst();
+                bufferedBytes -= entry.bufferedBytes;
+                Source source = entry.source;
+                if (entry.future != null) {
+                    CompressedEntry compressed = getResult(entry.future);
+                    if (compressed != null) {
+                        zip.writeCompressed(compressed);
+                    } else {
+                        zip.copy(source, previousArchive);
+                    }
+                } else if (source.unchanged || hasPreviousContent(source)) {
+                    zip.copy(source, previousArchive);
+                } else {
+                    zip.writeStreamed(source, isStored(source) ? null : newDeflater());
+                }
+            }
+            zip.finish();
+            return zip;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Returns whether a file too large to be compressed in memory has the
+     * same content as its entry in the previous archive.
+     */
+    private static boolean hasPreviousContent(Source source) throws IOException {
+        return source.previous != null
+                && source.previous.size == source.file.length()
+                && source.previous.crc == computeCrc(source.file);
+    }
+
+    private static CompressedEntry getResult(Future<CompressedEntry> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while compressing files");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            throw new IOException(cause);
+        }
+    }
+
+    private boolean isStored(Source source) {
+        if (compressionLevel == Deflater.NO_COMPRESSION) return true;
+
+        String name = source.entryName;
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && COMPRESSED_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ENGLISH));
+    }
+
+    private Deflater newDeflater() {
+        return new Deflater(compressionLevel, true);
+    }
+
+    /**
+     * Reads and compresses a file in memory, run by the worker threads.
+     *
+     * @return The compressed entry, or null if the file has the same content
+     *         as its entry in the previous archive, which is copied instead.
+     */
+    private CompressedEntry compress(Source source) throws IOException {
+        byte[] data = FileUtils.readFileToByteArray(source.file);
+        CRC32 crc = new CRC32();
+        crc.update(data);
+
+        if (source.previous != null && source.previous.size == data.length
+                && source.previous.crc == crc.getValue()) {
+            return null;
+        }
+
+        if (!isStored(source)) {
+            Deflater deflater = newDeflater();
+            try {
+                deflater.setInput(data);
+                deflater.finish();
+                byte[] compressed = new byte[Math.max(BUFFER_SIZE, data.length / 2)];
+                int compressedLength = 0;
+                while (!deflater.finished()) {
+                    if (compressedLength == compressed.length) {
+                        compressed = Arrays.copyOf(compressed, compressed.length * 2);
+                    }
+                    compressedLength += deflater.deflate(compressed, compressedLength, compressed.length - compressedLength);
+                }
+                if (compressedLength < data.length) {
+                    return new CompressedEntry(source, true, crc.getValue(), data.length, compressed, compressedLength);
+                }
+            } finally {
+                deflater.end();
+            }
+        }
+        return new CompressedEntry(source, false, crc.getValue(), data.length, data, data.length);
+    }
+
+    private static long computeCrc(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        InputStream in = new FileInputStream(file);
+        try {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
+            }
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+        return crc.getValue();
+    }
+
+    /*
+     * Manifest of the archives written by update(File): a properties file
+     * mapping each entry name to the checksum, size and modification time of
+     * its file.
+     */
+
+    /**
+     * Returns the entries of the previous version of the archive, in order,
+     * or an empty map if the archive or its manifest are missing, or if the
+     * archive was modified since the manifest was written.
+     */
+    private static Map<String, PreviousEntry> readPreviousEntries(File zipFile, File manifestFile) {
+        if (!zipFile.isFile() || !manifestFile.isFile()) return Collections.emptyMap();
+
+        Properties manifest = new Properties();
+        InputStream in = null;
+        RandomAccessFile archive = null;
+        try {
+            in = new FileInputStream(manifestFile);
+            manifest.load(in);
+
+            long archiveLastModified = zipFile.lastModified();
+            String expectedArchive = zipFile.length() + " " + archiveLastModified;
+            if (!expectedArchive.equals(manifest.getProperty(ARCHIVE_PROPERTY))) {
+                return Collections.emptyMap();
+            }
+
+            archive = new RandomAccessFile(zipFile, "r");
+            Map<String, PreviousEntry> entries = ZipReader.readCentralDirectory(archive);
+            for (Iterator<PreviousEntry> it = entries.values().iterator(); it.hasNext();) {
+                PreviousEntry entry = it.next();
+                String[] fields = manifest.getProperty(entry.name, "").split(" ");
+                if (fields.length != 3
+                        || Long.parseLong(fields[0]) != entry.crc
+                        || Long.parseLong(fields[1]) != entry.size) {
+                    it.remove();
+                    continue;
+                }
+                /*
+                 * A file modified right after being archived, within the
+                 * resolution of modification times, may still have the
+                 * recorded one; its checksum has to be compared instead.
+                 */
+                long lastModified = Long.parseLong(fields[2]);
+                entry.lastModified = lastModified < archiveLastModified ? lastModified : -1;
+            }
+            return entries;
+        } catch (IOException e) {
+            return Collections.emptyMap();
+        } catch (NumberFormatException e) {
+            return Collections.emptyMap();
+        } finally {
+            IOUtils.closeQuietly(in);
+            IOUtils.closeQuietly(archive);
+        }
+    }
+
+    private void writeManifest(File zipFile, File manifestFile, List<CentralDirectoryEntry> centralDirectory)
+            throws IOException {
+        Properties manifest = new Properties();
+        manifest.setProperty(ARCHIVE_PROPERTY, zipFile.length() + " " + zipFile.lastModified());
+        for (int i = 0; i < sources.size(); i++) {
+            Source source = sources.get(i);
+            CentralDirectoryEntry header = centralDirectory.get(i);
+            manifest.setProperty(source.entryName,
+                    header.crc + " " + header.size + " " + source.lastModified);
+        }
+
+        OutputStream out = new FileOutputStream(manifestFile);
+        try {
+            manifest.store(out, null);
+        } finally {
+            IOUtils.closeQuietly(out);
+        }
+    }
+
+    private static class Source {
+        private final File file;
+        private final String entryName;
+
+        /** The entry of the file in the previous archive, if any */
+        private PreviousEntry previous;
+        /** Whether the file's size and modification time didn't change since the previous archive */
+        private boolean unchanged;
+        private long lastModified;
+
+        Source(File file, String entryName) {
+            this.file = file;
+            this.entryName = entryName;
+        }
+    }
+
+    private static class PendingEntry {
+        private final Source source;
+        /** The compressed entry, or null if the file is too large to be compressed in memory */
+        private final Future<CompressedEntry> future;
+        /** The size of the file counted against {@link #MAX_BUFFERED_BYTES} */
+        private final long bufferedBytes;
+
+        PendingEntry(Source source, Future<CompressedEntry> future, long bufferedBytes) {
+            this.source = source;
+            this.future = future;
+            this.bufferedBytes = bufferedBytes;
+        }
+    }
+
+    private static class CompressedEntry {
+        private final Source source;
+        private final boolean deflated;
+        private final long crc;
+        private final long size;
+        private final byte[] data;
+        private final int dataLength;
+
+        CompressedEntry(Source source, boolean deflated, long crc, long size, byte[] data, int dataLength) {
+            this.source = source;
+            this.deflated = deflated;
+            this.crc = crc;
+            this.size = size;
+            this.data = data;
+            this.dataLength = dataLength;
+        }
+    }
+
+    /**
+     * Writes the entries and central directory of a zip archive, as described
+     * in PKWARE's APPNOTE.TXT.
+     */
+    private static class ZipWriter {
+        private static final int LOCAL_FILE_HEADER_SIGNATURE = 0x04034b50;
+        private static final int DATA_DESCRIPTOR_SIGNATURE = 0x08074b50;
+        private static final int CENTRAL_FILE_HEADER_SIGNATURE = 0x02014b50;
+        private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06064b50;
+        private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE = 0x07064b50;
+        private static final int END_OF_CENTRAL_DIRECTORY_SIGNATURE = 0x06054b50;
+
+        private static final int VERSION = 20;
+        private static final int ZIP64_VERSION = 45;
+        private static final int ZIP64_EXTRA_FIELD_ID = 0x0001;
+
+        private static final int FLAG_DATA_DESCRIPTOR = 1 << 3;
+        private static final int FLAG_UTF8_NAMES = 1 << 11;
+
+        private static final int METHOD_STORED = 0;
+        private static final int METHOD_DEFLATED = 8;
+
+        private static final long MAX_32_BIT_VALUE = 0xFFFFFFFFL;
+        private static final int MAX_16_BIT_VALUE = 0xFFFF;
+
+        private static final Charset UTF8 = Charset.forName("UTF-8");
+
+        private final OutputStream out;
+        private final List<CentralDirectoryEntry> centralDirectory = new ArrayList<CentralDirectoryEntry>();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private long offset;
+        /** The number of entries compressed rather than copied from a previous archive */
+        private int compressedEntries;
+
+        ZipWriter(OutputStream out) {
+            this.out = out;
+        }
+
+        void writeCompressed(CompressedEntry entry) throws IOException {
+            checkSize(entry.source, entry.size);
+
+            CentralDirectoryEntry header = new CentralDirectoryEntry(entry.source, offset);
+            header.method = entry.deflated ? METHOD_DEFLATED : METHOD_STORED;
+            header.crc = entry.crc;
+            header.size = entry.size;
+            header.compressedSize = entry.dataLength;
+
+            writeLocalFileHeader(header);
+            write(entry.data, 0, entry.dataLength);
+            centralDirectory.add(header);
+            compressedEntries++;
+        }
+
+        /**
+         * Copies the entry of an unchanged file from the previous archive,
+         * without decompressing it.
+         */
+        void copy(Source source, RandomAccessFile previousArchive) throws IOException {
+            PreviousEntry previous = source.previous;
+
+            CentralDirectoryEntry header = new CentralDirectoryEntry(source, offset, previous.dosTime);
+            header.method = previous.method;
+            header.crc = previous.crc;
+            header.size = previous.size;
+            header.compressedSize = previous.compressedSize;
+            writeLocalFileHeader(header);
+
+            previousArchive.seek(previous.localHeaderOffset + ZipReader.LOCAL_FILE_HEADER_NAME_LENGTH_OFFSET);
+            int nameLength = Short.reverseBytes(previousArchive.readShort()) & MAX_16_BIT_VALUE;
+            int extraLength = Short.reverseBytes(previousArchive.readShort()) & MAX_16_BIT_VALUE;
+            previousArchive.skipBytes(nameLength + extraLength);
+
+            long remaining = previous.compressedSize;
+            while (remaining > 0) {
+                int read = previousArchive.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read == -1) {
+                    throw new IOException("Unexpected end of the previous archive");
+                }
+                write(buffer, 0, read);
+                remaining -= read;
+            }
+            centralDirectory.add(header);
+        }
+
+        /**
+         * Writes a file too large to be buffered, deflating it on the fly if a
+         * deflater is given. Deflated files are followed by a data descriptor
+         * as their sizes aren't known beforehand; stored files are read twice,
+         * since readers expect the CRC of stored files in their header.
+         */
+        void writeStreamed(Source source, Deflater deflater) throws IOException {
+            long size = source.file.length();
+            checkSize(source, size);
+
+            CentralDirectoryEntry header = new CentralDirectoryEntry(source, offset);
+            header.size = size;
+
+            if (deflater == null) {
+                header.method = METHOD_STORED;
+                header.crc = computeCrc(source.file);
+                header.compressedSize = size;
+                writeLocalFileHeader(header);
+                InputStream in = new FileInputStream(source.file);
+                try {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        write(buffer, 0, read);
+                    }
+                } finally {
+                    IOUtils.closeQuietly(in);
+                }
+            } else {
+                header.method = METHOD_DEFLATED;
+                header.flags |= FLAG_DATA_DESCRIPTOR;
+                writeLocalFileHeader(header);
+
+                long dataStart = offset;
+                CRC32 crc = new CRC32();
+                byte[] compressed = new byte[BUFFER_SIZE];
+                InputStream in = new FileInputStream(source.file);
+                try {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        crc.update(buffer, 0, read);
+                        deflater.setInput(buffer, 0, read);
+                        while (!deflater.needsInput()) {
+                            write(compressed, 0, deflater.deflate(compressed));
+                        }
+                    }
+                    deflater.finish();
+                    while (!deflater.finished()) {
+                        write(compressed, 0, deflater.deflate(compressed));
+                    }
+                } finally {
+                    deflater.end();
+                    IOUtils.closeQuietly(in);
+                }
+
+                header.crc = crc.getValue();
+                header.compressedSize = offset - dataStart;
+                checkSize(source, header.compressedSize);
+                writeInt(DATA_DESCRIPTOR_SIGNATURE);
+                writeInt(header.crc);
+                writeInt(header.compressedSize);
+                writeInt(header.size);
+            }
+            centralDirectory.add(header);
+            compressedEntries++;
+        }
+
+        void finish() throws IOException {
+            long centralDirectoryOffset = offset;
+            for (CentralDirectoryEntry header : centralDirectory) {
+                writeCentralFileHeader(header);
+            }
+            long centralDirectorySize = offset - centralDirectoryOffset;
+
+            boolean zip64 = centralDirectory.size() >= MAX_16_BIT_VALUE
+                    || centralDirectoryOffset >= MAX_32_BIT_VALUE
+                    || centralDirectorySize >= MAX_32_BIT_VALUE;
+            if (zip64) {
+                long zip64EndOffset = offset;
+                writeInt(ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+                writeLong(44); // Size of the rest of the record
+                writeShort(ZIP64_VERSION);
+                writeShort(ZIP64_VERSION);
+                writeInt(0); // Number of this disk
+                writeInt(0); // Disk of the central directory
+                writeLong(centralDirectory.size());
+                writeLong(centralDirectory.size());
+                writeLong(centralDirectorySize);
+                writeLong(centralDirectoryOffset);
+
+                writeInt(ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE);
+                writeInt(0); // Disk of the zip64 end of central directory record
+                writeLong(zip64EndOffset);
+                writeInt(1); // Total number of disks
+            }
+
+            writeInt(END_OF_CENTRAL_DIRECTORY_SIGNATURE);
+            writeShort(0); // Number of this disk
+            writeShort(0); // Disk of the central directory
+            writeShort(Math.min(centralDirectory.size(), MAX_16_BIT_VALUE));
+            writeShort(Math.min(centralDirectory.size(), MAX_16_BIT_VALUE));
+            writeInt(Math.min(centralDirectorySize, MAX_32_BIT_VALUE));
+            writeInt(Math.min(centralDirectoryOffset, MAX_32_BIT_VALUE));
+            writeShort(0); // Comment length
+            out.flush();
+        }
+
+        private void writeLocalFileHeader(CentralDirectoryEntry header) throws IOException {
+            boolean hasDataDescriptor = (header.flags & FLAG_DATA_DESCRIPTOR) != 0;
+
+            writeInt(LOCAL_FILE_HEADER_SIGNATURE);
+            writeShort(VERSION);
+            writeShort(header.flags);
+            writeShort(header.method);
+            writeInt(header.dosTime);
+            writeInt(hasDataDescriptor ? 0 : header.crc);
+            writeInt(hasDataDescriptor ? 0 : header.compressedSize);
+            writeInt(hasDataDescriptor ? 0 : header.size);
+            writeShort(header.name.length);
+            writeShort(0); // Extra field length
+            write(header.name, 0, header.name.length);
+        }
+
+        private void writeCentralFileHeader(CentralDirectoryEntry header) throws IOException {
+            // Only the offset of an entry can overflow, as files larger than 4 GB are rejected
+            boolean zip64 = header.offset >= MAX_32_BIT_VALUE;
+
+            writeInt(CENTRAL_FILE_HEADER_SIGNATURE);
+            writeShort(zip64 ? ZIP64_VERSION : VERSION); // Version made by
+            writeShort(zip64 ? ZIP64_VERSION : VERSION); // Version needed to extract
+            writeShort(header.flags);
+            writeShort(header.method);
+            writeInt(header.dosTime);
+            writeInt(header.crc);
+            writeInt(header.compressedSize);
+            writeInt(header.size);
+            writeShort(header.name.length);
+            writeShort(zip64 ? 12 : 0); // Extra field length
+            writeShort(0); // Comment length
+            writeShort(0); // Disk number
+            writeShort(0); // Internal attributes
+            writeInt(0); // External attributes
+            writeInt(zip64 ? MAX_32_BIT_VALUE : header.offset);
+            write(header.name, 0, header.name.length);
+            if (zip64) {
+                writeShort(ZIP64_EXTRA_FIELD_ID);
+                writeShort(8);
+                writeLong(header.offset);
+            }
+        }
+
+        private static void checkSize(Source source, long size) throws IOException {
+            if (size >= MAX_32_BIT_VALUE) {
+                throw new IOException(source.file.getAbsolutePath() + " is too large to be added to a zip archive");
+            }
+        }
+
+        private void write(byte[] bytes, int off, int len) throws IOException {
+            out.write(bytes, off, len);
+            offset += len;
+        }
+
+        private void writeShort(int value) throws IOException {
+            out.write(value & 0xFF);
+            out.write((value >>> 8) & 0xFF);
+            offset += 2;
+        }
+
+        private void writeInt(long value) throws IOException {
+            writeShort((int) (value & 0xFFFF));
+            writeShort((int) ((value >>> 16) & 0xFFFF));
+        }
+
+        private void writeLong(long value) throws IOException {
+            writeInt(value & MAX_32_BIT_VALUE);
+            writeInt(value >>> 32);
+        }
+    }
+
+    private static class CentralDirectoryEntry {
+        private final byte[] name;
+        private final long dosTime;
+        private final long offset;
+        private int flags = ZipWriter.FLAG_UTF8_NAMES;
+        private int method;
+        private long crc;
+        private long size;
+        private long compressedSize;
+
+        CentralDirectoryEntry(Source source, long offset) {
+            this(source, offset, toDosTime(source.file.lastModified()));
+        }
+
+        CentralDirectoryEntry(Source source, long offset, long dosTime) {
+            this.name = source.entryName.getBytes(ZipWriter.UTF8);
+            this.dosTime = dosTime;
+            this.offset = offset;
+        }
+
+        /**
+         * Converts a time to the MS-DOS date and time format used by zip
+         * archives, with the date in the high 16 bits.
+         */
+        private static long toDosTime(long time) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTimeInMillis(time);
+            int year = calendar.get(Calendar.YEAR);
+            if (year < 1980) {
+                return (1 << 21) | (1 << 16); // January 1st, 1980
+            }
+            return ((long) (year - 1980) << 25)
+                    | ((calendar.get(Calendar.MONTH) + 1) << 21)
+                    | (calendar.get(Calendar.DAY_OF_MONTH) << 16)
+                    | (calendar.get(Calendar.HOUR_OF_DAY) << 11)
+                    | (calendar.get(Calendar.MINUTE) << 5)
+                    | (calendar.get(Calendar.SECOND) >> 1);
+        }
+    }
+
+    /**
+     * An entry of the previous version of an archive written by
+     * {@link ZipArchiveBuilder#update(File)}.
+     */
+    private static class PreviousEntry {
+        private final String name;
+        private int method;
+        private long dosTime;
+        private long crc;
+        private long size;
+        private long compressedSize;
+        private long localHeaderOffset;
+        /** The modification time of the file, or -1 if its checksum has to be compared */
+        private long lastModified = -1;
+
+        PreviousEntry(String name) {
+            this.name = name;
+        }
+    }
+
+    /**
+     * Reads the central directory of the archives written by
+     * {@link ZipWriter}.
+     */
+    private static class ZipReader {
+        private static final int LOCAL_FILE_HEADER_NAME_LENGTH_OFFSET = 26;
+        private static final int CENTRAL_FILE_HEADER_LENGTH = 46;
+        private static final int END_OF_CENTRAL_DIRECTORY_LENGTH = 22;
+        private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH = 20;
+        private static final int ZIP64_END_OF_CENTRAL_DIRECTORY_LENGTH = 56;
+
+        /**
+         * Returns the entries of the archive by name, in the order of the
+         * central directory.
+         */
+        static Map<String, PreviousEntry> readCentralDirectory(RandomAccessFile archive) throws IOException {
+            // The end of central directory record is followed by a comment of up to 64 KB
+            long length = archive.length();
+            int tailLength = (int) Math.min(length, END_OF_CENTRAL_DIRECTORY_LENGTH + ZipWriter.MAX_16_BIT_VALUE);
+            byte[] tail = read(archive, length - tailLength, tailLength);
+            int end = tailLength - END_OF_CENTRAL_DIRECTORY_LENGTH;
+            while (end >= 0 && readInt(tail, end) != ZipWriter.END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                end--;
+            }
+            if (end < 0) throw new IOException("Not a zip archive");
+
+            long entryCount = readShort(tail, end + 10);
+            long centralDirectorySize = readInt(tail, end + 12);
+            long centralDirectoryOffset = readInt(tail, end + 16);
+            if (entryCount == ZipWriter.MAX_16_BIT_VALUE
+                    || centralDirectorySize == ZipWriter.MAX_32_BIT_VALUE
+                    || centralDirectoryOffset == ZipWriter.MAX_32_BIT_VALUE) {
+                long locatorOffset = length - tailLength + end - ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH;
+                byte[] locator = read(archive, locatorOffset, ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_LENGTH);
+                if (readInt(locator, 0) != ZipWriter.ZIP64_END_OF_CENTRAL_DIRECTORY_LOCATOR_SIGNATURE) {
+                    throw new IOException("Missing zip64 end of central directory locator");
+                }
+                byte[] zip64End = read(archive, readLong(locator, 8), ZIP64_END_OF_CENTRAL_DIRECTORY_LENGTH);
+                if (readInt(zip64End, 0) != ZipWriter.ZIP64_END_OF_CENTRAL_DIRECTORY_SIGNATURE) {
+                    throw new IOException("Missing zip64 end of central directory record");
+                }
+                entryCount = readLong(zip64End, 32);
+                centralDirectorySize = readLong(zip64End, 40);
+                centralDirectoryOffset = readLong(zip64End, 48);
+            }
+            if (centralDirectorySize > Integer.MAX_VALUE) {
+                throw new IOException("Central directory too large");
+            }
+
+            byte[] centralDirectory = read(archive, centralDirectoryOffset, (int) centralDirectorySize);
+            Map<String, PreviousEntry> entries = new LinkedHashMap<String, PreviousEntry>();
+            int position = 0;
+            for (long i = 0; i < entryCount; i++) {
+                if (position + CENTRAL_FILE_HEADER_LENGTH > centralDirectory.length
+                        || readInt(centralDirectory, position) != ZipWriter.CENTRAL_FILE_HEADER_SIGNATURE) {
+                    throw new IOException("Invalid central directory");
+                }
+                int nameLength = readShort(centralDirectory, position + 28);
+                int extraLength = readShort(centralDirectory, position + 30);
+                int commentLength = readShort(centralDirectory, position + 32);
+
+                PreviousEntry entry = new PreviousEntry(new String(centralDirectory,
+                        position + CENTRAL_FILE_HEADER_LENGTH, nameLength, ZipWriter.UTF8));
+                entry.method = readShort(centralDirectory, position + 10);
+                entry.dosTime = readInt(centralDirectory, position + 12);
+                entry.crc = readInt(centralDirectory, position + 16);
+                entry.compressedSize = readInt(centralDirectory, position + 20);
+                entry.size = readInt(centralDirectory, position + 24);
+                entry.localHeaderOffset = readInt(centralDirectory, position + 42);
+                readZip64ExtraField(entry, centralDirectory,
+                        position + CENTRAL_FILE_HEADER_LENGTH + nameLength, extraLength);
+                entries.put(entry.name, entry);
+
+                position += CENTRAL_FILE_HEADER_LENGTH + nameLength + extraLength + commentLength;
+            }
+            return entries;
+        }
+
+        /**
+         * Reads the 64-bit values of the fields set to 0xFFFFFFFF, which are
+         * listed in the zip64 extra field in this order.
+         */
+        private static void readZip64ExtraField(PreviousEntry entry, byte[] bytes, int offset, int length) {
+            int end = offset + length;
+            while (offset + 4 <= end) {
+                int id = readShort(bytes, offset);
+                int dataLength = readShort(bytes, offset + 2);
+                offset += 4;
+                if (id == ZipWriter.ZIP64_EXTRA_FIELD_ID) {
+                    if (entry.size == ZipWriter.MAX_32_BIT_VALUE) {
+                        entry.size = readLong(bytes, offset);
+                        offset += 8;
+                    }
+                    if (entry.compressedSize == ZipWriter.MAX_32_BIT_VALUE) {
+                        entry.compressedSize = readLong(bytes, offset);
+                        offset += 8;
+                    }
+                    if (entry.localHeaderOffset == ZipWriter.MAX_32_BIT_VALUE) {
+                        entry.localHeaderOffset = readLong(bytes, offset);
+                    }
+                    return;
+                }
+                offset += dataLength;
+            }
+        }
+
+        private static byte[] read(RandomAccessFile archive, long offset, int length) throws IOException {
+            if (offset < 0 || offset + length > archive.length()) {
+                throw new IOException("Truncated zip archive");
+            }
+            byte[] bytes = new byte[length];
+            archive.seek(offset);
+            archive.readFully(bytes);
+            return bytes;
+        }
+
+        private static int readShort(byte[] bytes, int offset) {
+            return (bytes[offset] & 0xFF) | ((bytes[offset + 1] & 0xFF) << 8);
+        }
+
+        private static long readInt(byte[] bytes, int offset) {
+            return readShort(bytes, offset) | ((long) readShort(bytes, offset + 2) << 16);
+        }
+
+        private static long readLong(byte[] bytes, int offset) {
+            return readInt(bytes, offset) | (readInt(bytes, offset + 4) << 32);
+        }
+    }
+}
@@ -14,7 +14,9 @@
  */
 package com.amazonaws.eclipse.explorer;
 
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -179,6 +181,56 @@ public abstract class AbstractContentProvider implements ITreeContentProvider, I
         refresh();
     }
 
+    /**
+     * Reloads the children of the specified element, leaving the cached
+     * children of the other elements, and the rest of the tree, as they are.
+     */
+    public void refreshChildren(final Object parentElement) {
+        cachedResponses.remove(parentElement);
+        Display.getDefault().asyncExec(new Runnable() {
+            public void run() {
+                if (viewer == null || viewer.getTree().isDisposed()) return;
+                viewer.refresh(parentElement);
+            }
+        });
+    }
+
+    /**
+     * Removes the specified children of an element from the cache and from
+     * the tree, without reloading anything; used once the resources they
+     * represent have been deleted.
+     */
+    public void removeChildren(final Object parentElement, Collection<?> children) {
+        Object[] cachedChildren = cachedResponses.get(parentElement);
+        if (cachedChildren != null) {
+            List<Object> remainingChildren = new ArrayList<Object>(Arrays.asList(cachedChildren));
+            remainingChildren.removeAll(children);
+            cachedResponses.put(parentElement, remainingChildren.toArray());
+        }
+
+        final Object[] removedChildren = children.toArray();
+        Display.getDefault().asyncExec(new Runnable() {
+            public void run() {
+                if (viewer == null || viewer.getTree().isDisposed()) return;
+                viewer.remove(parentElement, removedChildren);
+            }
+        });
+    }
+
+    /**
+     * Updates the labels of the specified elements, after their nodes changed,
+     * without refreshing the rest of the tree.
+     */
+    public void updateElements(Collection<?> elements) {
+        final Object[] updatedElements = elements.toArray();
+        Display.getDefault().asyncExec(new Runnable() {
+            public void run() {
+                if (viewer == null || viewer.getTree().isDisposed()) return;
+                viewer.update(updatedElements, null);
+            }
+        });
+    }
+
     public Object[] getElements(Object inputElement) {
         return getChildren(inputElement);
     }
@@ -14,15 +14,18 @@
  */
 package com.amazonaws.eclipse.explorer;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CopyOnWriteArraySet;
 
 /**
  * Registry of content providers which are providing content for the AWS Explorer view.
  */
 public class ContentProviderRegistry {
 
-    private static Set<AbstractContentProvider> contentProviders = new HashSet<AbstractContentProvider>();
+    /** Also read from jobs, which update the nodes of the resources they changed */
+    private static Set<AbstractContentProvider> contentProviders = new CopyOnWriteArraySet<AbstractContentProvider>();
 
     private ContentProviderRegistry() {}
 
@@ -34,6 +37,20 @@ public class ContentProviderRegistry {
         contentProviders.remove(contentProvider);
     }
 
+    /**
+     * Returns the registered content providers of the specified type, so the
+     * nodes of one service can be updated after its resources changed.
+     */
+    public static <T extends AbstractContentProvider> List<T> getContentProviders(Class<T> type) {
+        List<T> matchingProviders = new ArrayList<T>();
+        for (AbstractContentProvider contentProvider : contentProviders) {
+            if (type.isInstance(contentProvider)) {
+                matchingProviders.add(type.cast(contentProvider));
+            }
+        }
+        return matchingProviders;
+    }
+
     public static void refreshAllContentProviders() {
         for (AbstractContentProvider contentProvider : contentProviders) {
             contentProvider.refresh();
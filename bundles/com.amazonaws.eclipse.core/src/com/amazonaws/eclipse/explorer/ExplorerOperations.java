@@ -0,0 +1,145 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the same AWS Explorer operation on many resources at once (deleting
+ * the selected queues, loading the attributes of every topic...) with bounded
+ * concurrency. All the explorers share the same threads, so a bulk operation
+ * never issues more than a few requests at a time, whatever the number of
+ * resources.
+ * <p>
+ * Operations must not themselves call {@link #runAll}, as they would wait for
+ * threads of the same pool.
+ */
+public class ExplorerOperations {
+
+    /** The maximum number of requests issued at the same time by all the explorers */
+    public static final int MAX_CONCURRENT_REQUESTS = 8;
+
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+            MAX_CONCURRENT_REQUESTS, MAX_CONCURRENT_REQUESTS, 30, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "AWS Explorer operation");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+
+    static {
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    private ExplorerOperations() {}
+
+    /**
+     * An operation on one resource.
+     */
+    public interface Operation<T, R> {
+        R run(T resource) throws Exception;
+    }
+
+    /**
+     * Runs the operation on all the resources, and waits for all of them to
+     * complete. A failure on one resource does not stop the others.
+     *
+     * @throws InterruptedException
+     *             If the calling thread is interrupted while waiting; the
+     *             operations not started yet are then canceled.
+     */
+    public static <T, R> Results<T, R> runAll(Collection<T> resources, Operation<T, R> operation)
+            throws InterruptedException {
+        return runAll(resources, operation, null);
+    }
+
+    /**
+     * Runs the operation on all the resources like
+     * {@link #runAll(Collection, Operation)}, but starts them no faster than
+     * the rate limiter allows. The calling thread waits for the rate limiter
+     * before submitting each operation, so the shared threads are never held
+     * up waiting.
+     *
+     * @param rateLimiter
+     *            The rate limiter of the API called by the operation, or null
+     *            to start all the operations right away.
+     */
+    public static <T, R> Results<T, R> runAll(Collection<T> resources, final Operation<T, R> operation,
+            RequestRateLimiter rateLimiter) throws InterruptedException {
+        Map<T, Future<R>> futures = new LinkedHashMap<T, Future<R>>();
+        Results<T, R> results = new Results<T, R>();
+        try {
+            for (final T resource : resources) {
+                if (rateLimiter != null) rateLimiter.acquire();
+                futures.put(resource, executor.submit(new Callable<R>() {
+                    public R call() throws Exception {
+                        return operation.run(resource);
+                    }
+                }));
+            }
+
+            for (Map.Entry<T, Future<R>> entry : futures.entrySet()) {
+                try {
+                    results.successes.put(entry.getKey(), entry.getValue().get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    results.failures.put(entry.getKey(),
+                            cause instanceof Exception ? (Exception) cause : new RuntimeException(cause));
+                }
+            }
+        } finally {
+            for (Future<R> future : futures.values()) {
+                future.cancel(false);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * The results of an operation run on many resources, in the order of the
+     * resources.
+     */
+    public static class Results<T, R> {
+        private final Map<T, R> successes = new LinkedHashMap<T, R>();
+        private final Map<T, Exception> failures = new LinkedHashMap<T, Exception>();
+
+        /** The result of each resource the operation succeeded on */
+        public Map<T, R> getSuccesses() {
+            return successes;
+        }
+
+        /** The error of each resource the operation failed on */
+        public Map<T, Exception> getFailures() {
+            return failures;
+        }
+
+        public List<T> getSucceededResources() {
+            return new ArrayList<T>(successes.keySet());
+        }
+    }
+}
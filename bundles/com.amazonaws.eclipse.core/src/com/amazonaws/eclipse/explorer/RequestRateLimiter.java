@@ -0,0 +1,74 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Spaces out requests evenly to stay under an API's rate limit, without
+ * letting unused capacity accumulate into bursts.
+ * <p>
+ * Callers wait for their turn on their own thread, before handing the request
+ * to a shared pool, so that waiting never ties up the pool's threads.
+ *
+ * @ThreadSafe
+ */
+public class RequestRateLimiter {
+
+    private final long nanosPerRequest;
+    private long nextRequestNanos = System.nanoTime();
+
+    /**
+     * @param requestsPerSecond
+     *            The maximum number of requests allowed per second.
+     */
+    public RequestRateLimiter(int requestsPerSecond) {
+        if (requestsPerSecond <= 0) {
+            throw new IllegalArgumentException("requestsPerSecond must be positive: " + requestsPerSecond);
+        }
+        this.nanosPerRequest = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+    }
+
+    /**
+     * Waits until the next request may be sent.
+     *
+     * @throws InterruptedException
+     *             If the calling thread is interrupted while waiting; the slot
+     *             it reserved is then lost.
+     */
+    public void acquire() throws InterruptedException {
+        acquire(1);
+    }
+
+    /**
+     * Waits until the specified number of requests may be sent at once, for
+     * instance the entries of a batch request; the following requests then
+     * wait for all of them.
+     *
+     * @throws InterruptedException
+     *             If the calling thread is interrupted while waiting; the
+     *             slots it reserved are then lost.
+     */
+    public void acquire(int requests) throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextRequestNanos);
+            nextRequestNanos = start + nanosPerRequest * requests;
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+}
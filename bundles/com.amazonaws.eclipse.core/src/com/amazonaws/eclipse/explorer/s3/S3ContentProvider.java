@@ -15,14 +15,21 @@
 package com.amazonaws.eclipse.explorer.s3;
 
 import java.util.Iterator;
+import java.util.List;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.viewers.IOpenListener;
 import org.eclipse.jface.viewers.OpenEvent;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.Viewer;
 
+import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
 import com.amazonaws.eclipse.explorer.AWSResourcesRootElement;
 import com.amazonaws.eclipse.explorer.AbstractContentProvider;
 import com.amazonaws.eclipse.explorer.Loading;
@@ -84,8 +91,11 @@ public class S3ContentProvider extends AbstractContentProvider {
             new DataLoaderThread(parentElement) {
                 @Override
                 public Object[] loadData() {
-                    AmazonS3 s3 = AwsToolkitCore.getClientFactory().getS3Client();
-                    return s3.listBuckets().toArray();
+                    AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory();
+                    AmazonS3 s3 = clientFactory.getS3Client();
+                    List<Bucket> buckets = s3.listBuckets();
+                    resolveBucketRegions(clientFactory.getBucketRegionCache(), s3, buckets);
+                    return buckets.toArray();
                 }
             }.start();
         }
@@ -93,6 +103,27 @@ public class S3ContentProvider extends AbstractContentProvider {
         return Loading.LOADING;
     }
 
+    /**
+     * Looks up the regions of the listed buckets in the background, so that
+     * opening any of them later doesn't have to.
+     */
+    private void resolveBucketRegions(final BucketRegionCache bucketRegionCache, final AmazonS3 s3,
+            final List<Bucket> buckets) {
+        Job job = new Job("Resolving the regions of Amazon S3 buckets") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                try {
+                    bucketRegionCache.resolveBucketRegions(s3, buckets);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Status.OK_STATUS;
+            }
+        };
+        job.setSystem(true);
+        job.schedule();
+    }
+
     @Override
     public String getServiceAbbreviation() {
         return ServiceAbbreviations.S3;
@@ -17,8 +17,10 @@ package com.amazonaws.eclipse.explorer.s3.acls;
 import java.util.ArrayList;
 import java.util.List;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
-import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
 import com.amazonaws.services.s3.model.AccessControlList;
 import com.amazonaws.services.s3.model.Bucket;
 import com.amazonaws.services.s3.model.Permission;
@@ -50,7 +52,13 @@ public class EditBucketPermissionsDialog extends EditPermissionsDialog {
 
     @Override
     protected AccessControlList getAcl() {
-        AmazonS3 s3 = AwsToolkitCore.getClientFactory().getS3ClientForBucket(bucket.getName());
-        return s3.getBucketAcl(bucket.getName());
+        AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory();
+        try {
+            return clientFactory.getS3ClientForBucket(bucket.getName()).getBucketAcl(bucket.getName());
+        } catch (AmazonServiceException ase) {
+            if (!BucketRegionCache.isWrongRegionError(ase)) throw ase;
+            // The bucket is no longer in its cached region
+            return clientFactory.refreshS3ClientForBucket(bucket.getName()).getBucketAcl(bucket.getName());
+        }
     }
 }
@@ -18,8 +18,10 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
-import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
 import com.amazonaws.services.s3.model.AccessControlList;
 import com.amazonaws.services.s3.model.Permission;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
@@ -54,7 +56,13 @@ public class EditObjectPermissionsDialog extends EditPermissionsDialog {
         S3ObjectSummary firstObject = objects.iterator().next();
 
         String bucket = objects.iterator().next().getBucketName();
-        AmazonS3 s3 = AwsToolkitCore.getClientFactory().getS3ClientForBucket(bucket);
-        return s3.getObjectAcl(firstObject.getBucketName(), firstObject.getKey());
+        AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory();
+        try {
+            return clientFactory.getS3ClientForBucket(bucket).getObjectAcl(bucket, firstObject.getKey());
+        } catch (AmazonServiceException ase) {
+            if (!BucketRegionCache.isWrongRegionError(ase)) throw ase;
+            // The bucket is no longer in its cached region
+            return clientFactory.refreshS3ClientForBucket(bucket).getObjectAcl(bucket, firstObject.getKey());
+        }
     }
 }
@@ -37,8 +37,10 @@ import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.ui.navigator.CommonDropAdapter;
 import org.eclipse.ui.navigator.CommonDropAdapterAssistant;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
-import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 
@@ -150,8 +152,16 @@ public class DownloadDropAssistant extends CommonDropAdapterAssistant {
         protected IStatus run(final IProgressMonitor monitor) {
             FileOutputStream fos = null;
             try {
-                AmazonS3 client = AwsToolkitCore.getClientFactory().getS3ClientForBucket(s3object.getBucketName());
-                S3Object object = client.getObject(s3object.getBucketName(), s3object.getKey());
+                String bucket = s3object.getBucketName();
+                AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory();
+                S3Object object;
+                try {
+                    object = clientFactory.getS3ClientForBucket(bucket).getObject(bucket, s3object.getKey());
+                } catch (AmazonServiceException ase) {
+                    if (!BucketRegionCache.isWrongRegionError(ase)) throw ase;
+                    // The bucket is no longer in its cached region
+                    object = clientFactory.refreshS3ClientForBucket(bucket).getObject(bucket, s3object.getKey());
+                }
 
                 // This number is used for reporting only; the download
                 // will appear to complete early if the file is bigger
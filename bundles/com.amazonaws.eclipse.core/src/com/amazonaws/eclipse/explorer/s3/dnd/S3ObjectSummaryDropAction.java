@@ -21,8 +21,10 @@ import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.ui.part.IDropActionDelegate;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
-import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectSummary;
 
@@ -106,8 +108,15 @@ public class S3ObjectSummaryDropAction implements IDropActionDelegate {
             FileOutputStream fos = null;
             try {
                 // TODO: this won't work if the current account doesn't have read permission for the bucket and key
-                AmazonS3 client = AwsToolkitCore.getClientFactory().getS3ClientForBucket(bucket);
-                S3Object object = client.getObject(bucket, key);
+                AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory();
+                S3Object object;
+                try {
+                    object = clientFactory.getS3ClientForBucket(bucket).getObject(bucket, key);
+                } catch (AmazonServiceException ase) {
+                    if (!BucketRegionCache.isWrongRegionError(ase)) throw ase;
+                    // The bucket is no longer in its cached region
+                    object = clientFactory.refreshS3ClientForBucket(bucket).getObject(bucket, key);
+                }
 
                 // This number is used for reporting only; the download
                 // will appear to complete early if the file is bigger
@@ -23,6 +23,7 @@ import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.swt.widgets.Display;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
 import com.amazonaws.services.s3.transfer.TransferManager;
 import com.amazonaws.services.s3.transfer.Upload;
 import com.amazonaws.services.s3.transfer.Transfer.TransferState;
@@ -87,6 +88,11 @@ public class UploadFileJob extends Job {
             if ( e == null ) {
                 e = new RuntimeException("Unhandled exception");
             }
+            if ( BucketRegionCache.isWrongRegionError(e) ) {
+                // The upload may have been partly sent, so it isn't retried
+                // here; the next one goes to the bucket's actual region
+                AwsToolkitCore.getClientFactory().getBucketRegionCache().invalidate(bucketName);
+            }
             return new Status(Status.ERROR, AwsToolkitCore.getDefault().getPluginId(), e.getMessage(), e);
         }
 
@@ -96,4 +102,4 @@ public class UploadFileJob extends Job {
 
         return Status.OK_STATUS;
     }
-}
+}
@@ -29,6 +29,7 @@ import com.amazonaws.eclipse.core.ui.wizards.InputValidator;
 import com.amazonaws.eclipse.core.ui.wizards.TextWizardPageInput;
 import com.amazonaws.eclipse.core.ui.wizards.WizardPageInput;
 import com.amazonaws.eclipse.explorer.ContentProviderRegistry;
+import com.amazonaws.eclipse.explorer.sns.SNSContentProvider.SNSRootElement;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.CreateTopicRequest;
 import com.amazonaws.services.sns.model.CreateTopicResult;
@@ -127,7 +128,9 @@ public class CreateTopicWizard extends Wizard {
             }
         }
 
-        ContentProviderRegistry.refreshAllContentProviders();
+        for (SNSContentProvider contentProvider : ContentProviderRegistry.getContentProviders(SNSContentProvider.class)) {
+            contentProvider.refreshChildren(SNSRootElement.ROOT_ELEMENT);
+        }
         return true;
     }
 
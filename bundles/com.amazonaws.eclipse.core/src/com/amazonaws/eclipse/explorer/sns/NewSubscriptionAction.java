@@ -147,6 +147,7 @@ class NewSubscriptionAction extends Action {
 
             try {
                 sns.subscribe(new SubscribeRequest(topic.getTopicArn(), protocol, endpoint));
+                SubscriptionCache.getInstance().invalidate(topic.getTopicArn());
             } catch (Exception e) {
                 AwsToolkitCore.getDefault().reportException("Unable to subscribe to topic", e);
             }
@@ -17,7 +17,12 @@ package com.amazonaws.eclipse.explorer.sns;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.Separator;
@@ -30,10 +35,13 @@ import org.eclipse.ui.navigator.CommonActionProvider;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.ContentProviderRegistry;
+import com.amazonaws.eclipse.explorer.ExplorerOperations;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Operation;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Results;
+import com.amazonaws.eclipse.explorer.sns.SNSContentProvider.SNSRootElement;
 import com.amazonaws.eclipse.explorer.sns.SNSContentProvider.TopicNode;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.DeleteTopicRequest;
-import com.amazonaws.services.sns.model.Topic;
 
 public class SNSActionProvider extends CommonActionProvider {
 
@@ -44,12 +52,12 @@ public class SNSActionProvider extends CommonActionProvider {
         menu.add(new CreateTopicAction());
 
         boolean showDeleteMenuItem = true;
-        List<Topic> selectedTopics = new ArrayList<Topic>();
+        List<TopicNode> selectedTopics = new ArrayList<TopicNode>();
         Iterator iterator = selection.iterator();
         while (iterator.hasNext()) {
             Object next = iterator.next();
             if (next instanceof TopicNode) {
-                selectedTopics.add(((TopicNode)next).getTopic());
+                selectedTopics.add((TopicNode)next);
             } else {
                 showDeleteMenuItem = false;
             }
@@ -62,8 +70,8 @@ public class SNSActionProvider extends CommonActionProvider {
 
         if (selectedTopics.size() == 1) {
             AmazonSNS sns = AwsToolkitCore.getClientFactory().getSNSClient();
-            menu.add(new PublishMessageAction(sns, selectedTopics.get(0)));
-            menu.add(new NewSubscriptionAction(sns, selectedTopics.get(0), null));
+            menu.add(new PublishMessageAction(sns, selectedTopics.get(0).getTopic()));
+            menu.add(new NewSubscriptionAction(sns, selectedTopics.get(0).getTopic(), null));
         }
     }
 
@@ -72,9 +80,9 @@ public class SNSActionProvider extends CommonActionProvider {
     }
 
     public class DeleteTopicAction extends Action {
-        private final List<Topic> topics;
+        private final List<TopicNode> topics;
 
-        public DeleteTopicAction(List<Topic> topics) {
+        public DeleteTopicAction(List<TopicNode> topics) {
             this.topics = topics;
 
             this.setText("Delete Topic" + (topics.size() > 1 ? "s" : ""));
@@ -87,16 +95,35 @@ public class SNSActionProvider extends CommonActionProvider {
             Dialog dialog = newConfirmationDialog("Delete selected topics?", "Are you sure you want to delete the selected Amazon SNS topics?");
             if (dialog.open() != 0) return;
 
-            AmazonSNS sns = AwsToolkitCore.getClientFactory().getSNSClient();
-            for (Topic topic : topics) {
-                try {
-                    sns.deleteTopic(new DeleteTopicRequest(topic.getTopicArn()));
-                } catch (Exception e) {
-                    AwsToolkitCore.getDefault().reportException("Unable to delete Amazon SNS topic", e);
+            new Job("Deleting topics") {
+                @Override
+                protected IStatus run(IProgressMonitor monitor) {
+                    final AmazonSNS sns = AwsToolkitCore.getClientFactory().getSNSClient();
+                    Results<TopicNode, Void> results;
+                    try {
+                        results = ExplorerOperations.runAll(topics, new Operation<TopicNode, Void>() {
+                            public Void run(TopicNode topic) {
+                                sns.deleteTopic(new DeleteTopicRequest(topic.getTopic().getTopicArn()));
+                                return null;
+                            }
+                        });
+                    } catch (InterruptedException e) {
+                        return Status.CANCEL_STATUS;
+                    }
+
+                    for (SNSContentProvider contentProvider : ContentProviderRegistry.getContentProviders(SNSContentProvider.class)) {
+                        contentProvider.removeChildren(SNSRootElement.ROOT_ELEMENT, results.getSucceededResources());
+                    }
+
+                    if (!results.getFailures().isEmpty()) {
+                        Map.Entry<TopicNode, Exception> failure = results.getFailures().entrySet().iterator().next();
+                        return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                                "Unable to delete " + results.getFailures().size() + " Amazon SNS topics, including "
+                                + failure.getKey().getName() + ": " + failure.getValue().getMessage(), failure.getValue());
+                    }
+                    return Status.OK_STATUS;
                 }
-            }
-
-            ContentProviderRegistry.refreshAllContentProviders();
+            }.schedule();
         }
     }
 
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.sns;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.amazonaws.services.sns.AmazonSNS;
+import com.amazonaws.services.sns.model.ListSubscriptionsByTopicRequest;
+import com.amazonaws.services.sns.model.ListSubscriptionsByTopicResult;
+import com.amazonaws.services.sns.model.Subscription;
+
+/**
+ * Cache of the subscriptions of topics, keyed by topic ARN, so reopening or
+ * refreshing a topic editor does not page through all its subscriptions
+ * again. The subscriptions of a topic are listed again once their entry is
+ * older than 30 seconds, or as soon as they are changed from the toolkit.
+ *
+ * @ThreadSafe
+ */
+class SubscriptionCache {
+
+    /** How long the subscriptions of a topic are reused */
+    private static final long TTL_MILLIS = 30 * 1000;
+
+    private static final SubscriptionCache instance = new SubscriptionCache();
+
+    private final Map<String, CachedSubscriptions> subscriptionsByTopicArn =
+            new ConcurrentHashMap<String, CachedSubscriptions>();
+
+    static SubscriptionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns all the subscriptions of the specified topic, listing them only
+     * if they are not cached or their entry expired.
+     */
+    List<Subscription> getSubscriptions(AmazonSNS sns, String topicArn) {
+        CachedSubscriptions cached = subscriptionsByTopicArn.get(topicArn);
+        if (cached != null && System.currentTimeMillis() - cached.loadedAt < TTL_MILLIS) {
+            return cached.subscriptions;
+        }
+
+        List<Subscription> subscriptions = new ArrayList<Subscription>();
+        ListSubscriptionsByTopicResult result = null;
+        do {
+            String nextToken = result == null ? null : result.getNextToken();
+            result = sns.listSubscriptionsByTopic(new ListSubscriptionsByTopicRequest(topicArn, nextToken));
+            subscriptions.addAll(result.getSubscriptions());
+        } while (result.getNextToken() != null);
+
+        List<Subscription> unmodifiableSubscriptions = Collections.unmodifiableList(subscriptions);
+        subscriptionsByTopicArn.put(topicArn, new CachedSubscriptions(unmodifiableSubscriptions));
+        return unmodifiableSubscriptions;
+    }
+
+    /**
+     * Forgets the subscriptions of the specified topic, after they changed.
+     */
+    void invalidate(String topicArn) {
+        subscriptionsByTopicArn.remove(topicArn);
+    }
+
+    private static class CachedSubscriptions {
+        private final List<Subscription> subscriptions;
+        private final long loadedAt = System.currentTimeMillis();
+
+        CachedSubscriptions(List<Subscription> subscriptions) {
+            this.subscriptions = subscriptions;
+        }
+    }
+}
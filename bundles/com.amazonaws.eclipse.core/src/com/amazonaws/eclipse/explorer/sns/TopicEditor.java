@@ -14,12 +14,15 @@
  */
 package com.amazonaws.eclipse.explorer.sns;
 
+import java.util.ArrayList;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
@@ -58,10 +61,11 @@ import org.eclipse.ui.part.EditorPart;
 import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.eclipse.explorer.ExplorerOperations;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Operation;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Results;
 import com.amazonaws.services.sns.AmazonSNS;
 import com.amazonaws.services.sns.model.GetTopicAttributesRequest;
-import com.amazonaws.services.sns.model.ListSubscriptionsByTopicRequest;
-import com.amazonaws.services.sns.model.ListSubscriptionsByTopicResult;
 import com.amazonaws.services.sns.model.Subscription;
 import com.amazonaws.services.sns.model.UnsubscribeRequest;
 
@@ -180,18 +184,40 @@ public class TopicEditor extends EditorPart implements IRefreshable {
                 MessageDialog.QUESTION, new String[] {"OK", "Cancel"}, 0);
 
             if (confirmationDialog.open() == 0) {
-                StructuredSelection selection = (StructuredSelection)viewer.getSelection();
-                Iterator<Subscription> iterator = selection.iterator();
+                final List<Subscription> subscriptions = new ArrayList<Subscription>();
+                Iterator<?> iterator = ((StructuredSelection)viewer.getSelection()).iterator();
                 while (iterator.hasNext()) {
-                    Subscription subscription = iterator.next();
-                    try {
-                        getClient().unsubscribe(new UnsubscribeRequest(subscription.getSubscriptionArn()));
-                    } catch (Exception e) {
-                        AwsToolkitCore.getDefault().reportException("Unable to delete subscription", e);
-                    }
+                    subscriptions.add((Subscription)iterator.next());
                 }
 
-                new RefreshAction().run();
+                new Job("Deleting subscriptions") {
+                    @Override
+                    protected IStatus run(IProgressMonitor monitor) {
+                        final AmazonSNS sns = getClient();
+                        Results<Subscription, Void> results;
+                        try {
+                            results = ExplorerOperations.runAll(subscriptions, new Operation<Subscription, Void>() {
+                                public Void run(Subscription subscription) {
+                                    sns.unsubscribe(new UnsubscribeRequest(subscription.getSubscriptionArn()));
+                                    return null;
+                                }
+                            });
+                        } catch (InterruptedException e) {
+                            return Status.CANCEL_STATUS;
+                        }
+
+                        refreshData();
+                        new LoadTopicAttributesThread().start();
+
+                        if (!results.getFailures().isEmpty()) {
+                            Exception failure = results.getFailures().values().iterator().next();
+                            return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                                    "Unable to delete " + results.getFailures().size() + " subscriptions: "
+                                    + failure.getMessage(), failure);
+                        }
+                        return Status.OK_STATUS;
+                    }
+                }.schedule();
             }
         }
     }
@@ -206,7 +232,7 @@ public class TopicEditor extends EditorPart implements IRefreshable {
         @Override
         public void run() {
             new LoadTopicAttributesThread().start();
-            new LoadSubscriptionsThread().start();
+            refreshData();
         }
     }
 
@@ -351,7 +377,7 @@ public class TopicEditor extends EditorPart implements IRefreshable {
         viewer.getTree().setMenu(menu);
         getSite().registerContextMenu(menuManager, viewer);
 
-        refreshData();
+        new LoadSubscriptionsThread().start();
     }
 
     private void createColumns(TreeColumnLayout columnLayout, Tree tree) {
@@ -371,6 +397,7 @@ public class TopicEditor extends EditorPart implements IRefreshable {
     }
 
     public void refreshData() {
+        SubscriptionCache.getInstance().invalidate(topicEditorInput.getTopic().getTopicArn());
         new LoadSubscriptionsThread().start();
     }
 
@@ -381,14 +408,7 @@ public class TopicEditor extends EditorPart implements IRefreshable {
 
             try {
                 String topicArn = topicEditorInput.getTopic().getTopicArn();
-                String nextToken = null;
-                ListSubscriptionsByTopicResult subscriptionsByTopic = null;
-                final List<Subscription> subscriptions = new LinkedList<Subscription>();
-                do {
-                    if (subscriptionsByTopic != null) nextToken = subscriptionsByTopic.getNextToken();
-                    subscriptionsByTopic = sns.listSubscriptionsByTopic(new ListSubscriptionsByTopicRequest(topicArn, nextToken));
-                    subscriptions.addAll(subscriptionsByTopic.getSubscriptions());
-                } while (subscriptionsByTopic.getNextToken() != null);
+                final List<Subscription> subscriptions = SubscriptionCache.getInstance().getSubscriptions(sns, topicArn);
 
                 Display.getDefault().asyncExec(new Runnable() {
                     public void run() {
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.sqs;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.UUID;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Source of the bodies of the messages sent by a {@link BulkSendJob}. Bodies
+ * are produced on demand, so sources of millions of messages are never held in
+ * memory. Sources are not thread safe.
+ */
+abstract class BulkMessageSource {
+
+    /** Placeholder replaced by the sequence number of the message, starting at 1 */
+    static final String SEQUENCE_NUMBER_PLACEHOLDER = "${n}";
+
+    /** Placeholder replaced by a random UUID */
+    static final String UUID_PLACEHOLDER = "${uuid}";
+
+    /**
+     * Returns the body of the next message, or null once all the messages were
+     * returned.
+     */
+    abstract String next() throws IOException;
+
+    /**
+     * Returns the total number of messages, or -1 if it is not known in
+     * advance.
+     */
+    abstract long getMessageCount();
+
+    void close() {}
+
+    /**
+     * Returns a source sending each non-empty line of a file as a message.
+     */
+    static BulkMessageSource fromFile(File file) throws IOException {
+        return new FileSource(file);
+    }
+
+    /**
+     * Returns a source sending the specified number of messages generated
+     * from a template, in which the sequence number and UUID placeholders are
+     * replaced for each message.
+     */
+    static BulkMessageSource fromTemplate(String template, long count) {
+        return new TemplateSource(template, count);
+    }
+
+    private static class FileSource extends BulkMessageSource {
+        private final BufferedReader reader;
+
+        FileSource(File file) throws IOException {
+            this.reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        }
+
+        @Override
+        String next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.trim().length() > 0) return line;
+            }
+            return null;
+        }
+
+        @Override
+        long getMessageCount() {
+            return -1;
+        }
+
+        @Override
+        void close() {
+            IOUtils.closeQuietly(reader);
+        }
+    }
+
+    private static class TemplateSource extends BulkMessageSource {
+        private final String template;
+        private final long count;
+        private final boolean hasSequenceNumber;
+        private final boolean hasUuid;
+        private long sequenceNumber;
+
+        TemplateSource(String template, long count) {
+            this.template = template;
+            this.count = count;
+            this.hasSequenceNumber = template.contains(SEQUENCE_NUMBER_PLACEHOLDER);
+            this.hasUuid = template.contains(UUID_PLACEHOLDER);
+        }
+
+        @Override
+        String next() {
+            if (sequenceNumber >= count) return null;
+            sequenceNumber++;
+
+            String body = template;
+            if (hasSequenceNumber) body = body.replace(SEQUENCE_NUMBER_PLACEHOLDER, Long.toString(sequenceNumber));
+            if (hasUuid) body = body.replace(UUID_PLACEHOLDER, UUID.randomUUID().toString());
+            return body;
+        }
+
+        @Override
+        long getMessageCount() {
+            return count;
+        }
+    }
+}
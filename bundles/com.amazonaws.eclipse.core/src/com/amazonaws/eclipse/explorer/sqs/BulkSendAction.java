@@ -0,0 +1,277 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.sqs;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.eclipse.jface.action.Action;
+import org.eclipse.jface.dialogs.MessageDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.ModifyEvent;
+import org.eclipse.swt.events.ModifyListener;
+import org.eclipse.swt.events.SelectionAdapter;
+import org.eclipse.swt.events.SelectionEvent;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.FileDialog;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Spinner;
+import org.eclipse.swt.widgets.Text;
+
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.services.sqs.AmazonSQS;
+
+/**
+ * Sends many messages to a queue at once, from the lines of a file or from a
+ * template, to seed a queue for a load test.
+ */
+public class BulkSendAction extends Action {
+    private final AmazonSQS sqs;
+    private final String queueUrl;
+    private final IRefreshable refreshable;
+
+    public BulkSendAction(AmazonSQS sqs, String queueUrl, IRefreshable refreshable) {
+        this.sqs = sqs;
+        this.queueUrl = queueUrl;
+        this.refreshable = refreshable;
+
+        this.setText("Send Messages in Bulk");
+        this.setToolTipText("Sends many messages to this queue, from a file or a template");
+        this.setImageDescriptor(AwsToolkitCore.getDefault().getImageRegistry().getDescriptor(AwsToolkitCore.IMAGE_PUBLISH));
+    }
+
+    @Override
+    public void run() {
+        BulkSendDialog dialog = new BulkSendDialog();
+        if (dialog.open() != 0) return;
+
+        BulkMessageSource source;
+        try {
+            if (dialog.isFromFile()) {
+                source = BulkMessageSource.fromFile(new File(dialog.getFilePath()));
+            } else {
+                source = BulkMessageSource.fromTemplate(dialog.getTemplate(), dialog.getMessageCount());
+            }
+        } catch (IOException e) {
+            AwsToolkitCore.getDefault().reportException("Unable to read messages from " + dialog.getFilePath(), e);
+            return;
+        }
+
+        BulkSendJob job = new BulkSendJob(sqs, queueUrl, source,
+                dialog.getSenderCount(), dialog.getMessagesPerSecond(), dialog.getDelay());
+        if (refreshable != null) {
+            job.setRefreshRunnable(new Runnable() {
+                public void run() {
+                    refreshable.refreshData();
+                }
+            });
+        }
+        job.schedule();
+    }
+
+    private static class BulkSendDialog extends MessageDialog {
+        private boolean fromFile = true;
+        private String filePath = "";
+        private String template = "";
+        private int messageCount = 1000;
+        private int senderCount = 4;
+        private int messagesPerSecond = 0;
+        private Integer delay;
+
+        private Text fileText;
+        private Button browseButton;
+        private Text templateText;
+        private Spinner messageCountSpinner;
+
+        public BulkSendDialog() {
+            super(Display.getDefault().getActiveShell(), "Send Messages in Bulk",
+                AwsToolkitCore.getDefault().getImageRegistry().get(AwsToolkitCore.IMAGE_AWS_ICON),
+                "Send one message per line of a file, or a number of messages generated from a template.",
+                MessageDialog.NONE, new String[] { "Send", "Cancel" }, 0);
+        }
+
+        @Override
+        protected Control createCustomArea(Composite parent) {
+            Composite composite = new Composite(parent, SWT.NONE);
+            GridData gridData = new GridData(SWT.FILL, SWT.FILL, true, true);
+            gridData.widthHint = 500;
+            composite.setLayoutData(gridData);
+            composite.setLayout(new GridLayout(3, false));
+
+            final Button fileButton = new Button(composite, SWT.RADIO);
+            fileButton.setText("Lines of a file:");
+            fileButton.setSelection(true);
+            fileText = new Text(composite, SWT.BORDER);
+            fileText.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false));
+            fileText.addModifyListener(new ModifyListener() {
+                public void modifyText(ModifyEvent e) {
+                    filePath = fileText.getText();
+                    updateControls();
+                }
+            });
+            browseButton = new Button(composite, SWT.PUSH);
+            browseButton.setText("Browse...");
+            browseButton.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    FileDialog fileDialog = new FileDialog(getShell(), SWT.OPEN);
+                    String path = fileDialog.open();
+                    if (path != null) fileText.setText(path);
+                }
+            });
+
+            final Button templateButton = new Button(composite, SWT.RADIO);
+            templateButton.setText("Template:");
+            templateButton.setLayoutData(new GridData(SWT.LEFT, SWT.TOP, false, false));
+            templateText = new Text(composite, SWT.MULTI | SWT.BORDER | SWT.WRAP | SWT.V_SCROLL);
+            gridData = new GridData(SWT.FILL, SWT.FILL, true, true, 2, 1);
+            gridData.heightHint = 60;
+            templateText.setLayoutData(gridData);
+            templateText.addModifyListener(new ModifyListener() {
+                public void modifyText(ModifyEvent e) {
+                    template = templateText.getText();
+                    updateControls();
+                }
+            });
+
+            new Label(composite, SWT.NONE);
+            Label templateHelp = new Label(composite, SWT.WRAP);
+            templateHelp.setText(BulkMessageSource.SEQUENCE_NUMBER_PLACEHOLDER + " is replaced by the number of the message, and "
+                    + BulkMessageSource.UUID_PLACEHOLDER + " by a random UUID.");
+            templateHelp.setLayoutData(new GridData(SWT.FILL, SWT.CENTER, true, false, 2, 1));
+
+            new Label(composite, SWT.NONE).setText("Number of messages:");
+            messageCountSpinner = newSpinner(composite, 1, Integer.MAX_VALUE, messageCount);
+            messageCountSpinner.addModifyListener(new ModifyListener() {
+                public void modifyText(ModifyEvent e) {
+                    messageCount = messageCountSpinner.getSelection();
+                }
+            });
+
+            SelectionAdapter sourceListener = new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    fromFile = fileButton.getSelection();
+                    updateControls();
+                }
+            };
+            fileButton.addSelectionListener(sourceListener);
+            templateButton.addSelectionListener(sourceListener);
+
+            new Label(composite, SWT.NONE).setText("Concurrent senders:");
+            final Spinner senderCountSpinner = newSpinner(composite, 1, 32, senderCount);
+            senderCountSpinner.addModifyListener(new ModifyListener() {
+                public void modifyText(ModifyEvent e) {
+                    senderCount = senderCountSpinner.getSelection();
+                }
+            });
+
+            new Label(composite, SWT.NONE).setText("Messages per second (0 for no limit):");
+            final Spinner rateSpinner = newSpinner(composite, 0, 1000000, messagesPerSecond);
+            rateSpinner.addModifyListener(new ModifyListener() {
+                public void modifyText(ModifyEvent e) {
+                    messagesPerSecond = rateSpinner.getSelection();
+                }
+            });
+
+            final Button delayCheckButton = new Button(composite, SWT.CHECK);
+            delayCheckButton.setText("Message delay (seconds):");
+            final Spinner delaySpinner = newSpinner(composite, 0, 900, 0);
+            delaySpinner.setEnabled(false);
+            delayCheckButton.addSelectionListener(new SelectionAdapter() {
+                @Override
+                public void widgetSelected(SelectionEvent e) {
+                    delaySpinner.setEnabled(delayCheckButton.getSelection());
+                    delay = delayCheckButton.getSelection() ? delaySpinner.getSelection() : null;
+                }
+            });
+            // Typed values only fire modify events
+            delaySpinner.addModifyListener(new ModifyListener() {
+                public void modifyText(ModifyEvent e) {
+                    delay = delayCheckButton.getSelection() ? delaySpinner.getSelection() : null;
+                }
+            });
+
+            updateControls();
+            return composite;
+        }
+
+        private Spinner newSpinner(Composite parent, int minimum, int maximum, int selection) {
+            Spinner spinner = new Spinner(parent, SWT.BORDER);
+            spinner.setMinimum(minimum);
+            spinner.setMaximum(maximum);
+            spinner.setSelection(selection);
+            spinner.setLayoutData(new GridData(SWT.LEFT, SWT.CENTER, false, false, 2, 1));
+            return spinner;
+        }
+
+        private void updateControls() {
+            if (fileText == null) return;
+
+            fileText.setEnabled(fromFile);
+            browseButton.setEnabled(fromFile);
+            templateText.setEnabled(!fromFile);
+            messageCountSpinner.setEnabled(!fromFile);
+
+            boolean isValid = fromFile
+                    ? new File(filePath.trim()).isFile()
+                    : template.length() > 0;
+
+            Button sendButton = this.getButton(0);
+            if (sendButton != null) sendButton.setEnabled(isValid);
+        }
+
+        @Override
+        protected void createButtonsForButtonBar(Composite parent) {
+            super.createButtonsForButtonBar(parent);
+            updateControls();
+        }
+
+        public boolean isFromFile() {
+            return fromFile;
+        }
+
+        public String getFilePath() {
+            return filePath.trim();
+        }
+
+        public String getTemplate() {
+            return template;
+        }
+
+        public int getMessageCount() {
+            return messageCount;
+        }
+
+        public int getSenderCount() {
+            return senderCount;
+        }
+
+        public int getMessagesPerSecond() {
+            return messagesPerSecond;
+        }
+
+        /** The delay of the messages, or null for the queue's default */
+        public Integer getDelay() {
+            return delay;
+        }
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.sqs;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.explorer.RequestRateLimiter;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequest;
+import com.amazonaws.services.sqs.model.SendMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.SendMessageRequest;
+
+/**
+ * Background job that sends many messages to a queue. Messages are packed
+ * into SendMessageBatch requests of up to ten entries, sent by several
+ * concurrent senders, optionally throttled to a target rate. Entries that
+ * fail because of SQS are retried individually; entries rejected because of
+ * their content, and messages too large to send, are counted as errors. The progress shows the throughput and
+ * the error count as the job runs.
+ */
+public class BulkSendJob extends Job {
+
+    /** The maximum total size of the message bodies of a batch */
+    private static final int MAX_BATCH_PAYLOAD_BYTES = 256 * 1024;
+
+    /** The maximum size of the body of a single message */
+    private static final int MAX_MESSAGE_BYTES = 256 * 1024;
+
+    /** Attempts to send a message individually after its batch entry failed */
+    private static final int MAX_SEND_ATTEMPTS = 3;
+
+    private static final long RETRY_DELAY_MILLIS = 200;
+
+    private static final long PROGRESS_INTERVAL_MILLIS = 500;
+
+    private final AmazonSQS sqs;
+    private final String queueUrl;
+    private final BulkMessageSource source;
+    private final int senderCount;
+    private final RequestRateLimiter rateLimiter;
+    private final Integer delaySeconds;
+
+    private final AtomicLong sentMessages = new AtomicLong();
+    private final AtomicLong failedMessages = new AtomicLong();
+    private final AtomicLong retriedMessages = new AtomicLong();
+    private volatile boolean stopped;
+    private volatile Exception failure;
+
+    /** The body that did not fit in the previous batch; guarded by the source */
+    private String pendingBody;
+
+    private Runnable refreshRunnable;
+
+    /**
+     * @param senderCount
+     *            The number of batch requests in flight at the same time.
+     * @param messagesPerSecond
+     *            The target send rate, or zero to send as fast as possible.
+     * @param delaySeconds
+     *            The delay of the messages, or null for the queue's default.
+     */
+    public BulkSendJob(AmazonSQS sqs, String queueUrl, BulkMessageSource source,
+            int senderCount, int messagesPerSecond, Integer delaySeconds) {
+        super("Sending messages");
+        this.sqs = sqs;
+        this.queueUrl = queueUrl;
+        this.source = source;
+        this.senderCount = senderCount;
+        this.rateLimiter = messagesPerSecond > 0 ? new RequestRateLimiter(messagesPerSecond) : null;
+        this.delaySeconds = delaySeconds;
+    }
+
+    /**
+     * Sets a runnable to refresh a UI element after the messages have been
+     * sent.
+     */
+    public void setRefreshRunnable(Runnable refreshRunnable) {
+        this.refreshRunnable = refreshRunnable;
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        long messageCount = source.getMessageCount();
+        monitor.beginTask("Sending messages",
+                messageCount > 0 && messageCount < Integer.MAX_VALUE ? (int) messageCount : IProgressMonitor.UNKNOWN);
+
+        ExecutorService executor = Executors.newFixedThreadPool(senderCount, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SQS bulk send");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        long startTime = System.currentTimeMillis();
+        long lastTime = startTime;
+        long lastProcessed = 0;
+        try {
+            for (int i = 0; i < senderCount; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        send();
+                    }
+                });
+            }
+            executor.shutdown();
+
+            while (!executor.awaitTermination(PROGRESS_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (monitor.isCanceled()) {
+                    stopped = true;
+                }
+
+                long now = System.currentTimeMillis();
+                long processed = sentMessages.get() + failedMessages.get();
+                long messagesPerSecond = (processed - lastProcessed) * 1000 / Math.max(1, now - lastTime);
+                monitor.worked((int) (processed - lastProcessed));
+                monitor.subTask(describeProgress() + ", " + messagesPerSecond + " messages/sec");
+                lastTime = now;
+                lastProcessed = processed;
+            }
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+            source.close();
+            monitor.done();
+        }
+
+        if (refreshRunnable != null) {
+            Display.getDefault().asyncExec(refreshRunnable);
+        }
+
+        long elapsedSeconds = Math.max(1, (System.currentTimeMillis() - startTime) / 1000);
+        String summary = describeProgress() + " in " + elapsedSeconds + " seconds";
+        if (failure != null) {
+            return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                    "Unable to send messages after " + summary + ": " + failure.getMessage(), failure);
+        } else if (failedMessages.get() > 0) {
+            return new Status(IStatus.WARNING, AwsToolkitCore.getDefault().getPluginId(), summary);
+        } else if (monitor.isCanceled()) {
+            return Status.CANCEL_STATUS;
+        }
+        return new Status(IStatus.OK, AwsToolkitCore.getDefault().getPluginId(), summary);
+    }
+
+    private String describeProgress() {
+        return sentMessages.get() + " messages sent, "
+                + failedMessages.get() + " failed, "
+                + retriedMessages.get() + " retried";
+    }
+
+    private void send() {
+        try {
+            List<String> batch;
+            while (!stopped && !(batch = nextBatch()).isEmpty()) {
+                if (rateLimiter != null) rateLimiter.acquire(batch.size());
+                sendBatch(batch);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            if (!stopped) {
+                failure = e;
+                stopped = true;
+            }
+        }
+    }
+
+    /**
+     * Returns the next bodies to send, as many as fit in a batch request; the
+     * returned list is empty once the source is exhausted. Bodies too large
+     * for any request are counted as failed rather than returned, since they
+     * would fail their whole batch.
+     */
+    private List<String> nextBatch() throws IOException {
+        List<String> batch = new ArrayList<String>(QueueMessageBatches.MAX_BATCH_SIZE);
+        int payloadBytes = 0;
+
+        synchronized (source) {
+            while (batch.size() < QueueMessageBatches.MAX_BATCH_SIZE) {
+                String body = pendingBody != null ? pendingBody : source.next();
+                pendingBody = null;
+                if (body == null) break;
+
+                int bodyBytes = body.getBytes("UTF-8").length;
+                if (bodyBytes > MAX_MESSAGE_BYTES) {
+                    failedMessages.incrementAndGet();
+                    AwsToolkitCore.getDefault().logWarning("Unable to send message of " + bodyBytes
+                            + " bytes: messages can't be larger than " + MAX_MESSAGE_BYTES + " bytes", null);
+                    continue;
+                }
+                if (!batch.isEmpty() && payloadBytes + bodyBytes > MAX_BATCH_PAYLOAD_BYTES) {
+                    pendingBody = body;
+                    break;
+                }
+                batch.add(body);
+                payloadBytes += bodyBytes;
+            }
+        }
+        return batch;
+    }
+
+    private void sendBatch(List<String> batch) throws InterruptedException {
+        List<SendMessageBatchRequestEntry> entries = new ArrayList<SendMessageBatchRequestEntry>(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            entries.add(new SendMessageBatchRequestEntry(Integer.toString(i), batch.get(i))
+                    .withDelaySeconds(delaySeconds));
+        }
+
+        List<BatchResultErrorEntry> errors = sqs.sendMessageBatch(
+                new SendMessageBatchRequest(queueUrl, entries)).getFailed();
+        int failedEntries = errors == null ? 0 : errors.size();
+        sentMessages.addAndGet(batch.size() - failedEntries);
+        if (failedEntries == 0) return;
+
+        for (BatchResultErrorEntry error : errors) {
+            String body = batch.get(Integer.parseInt(error.getId()));
+            if (error.getSenderFault() != null && error.getSenderFault()) {
+                // The message itself is invalid, so sending it again won't help
+                failedMessages.incrementAndGet();
+                AwsToolkitCore.getDefault().logWarning("Unable to send message: "
+                        + error.getCode() + " - " + error.getMessage(), null);
+            } else {
+                retriedMessages.incrementAndGet();
+                sendIndividually(body);
+            }
+        }
+    }
+
+    private void sendIndividually(String body) throws InterruptedException {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                sqs.sendMessage(new SendMessageRequest(queueUrl, body).withDelaySeconds(delaySeconds));
+                sentMessages.incrementAndGet();
+                return;
+            } catch (RuntimeException e) {
+                if (attempt >= MAX_SEND_ATTEMPTS || stopped) {
+                    failedMessages.incrementAndGet();
+                    AwsToolkitCore.getDefault().logWarning("Unable to send message", e);
+                    return;
+                }
+                Thread.sleep(RETRY_DELAY_MILLIS * attempt);
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.sqs;
+
+import static com.amazonaws.eclipse.explorer.sqs.QueueAttributes.ALL;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.io.IOUtils;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.swt.widgets.Display;
+
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.explorer.sqs.QueueMessageBatches.BatchFailure;
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.MessageAttributeValue;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+import com.amazonaws.util.BinaryUtils;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Background job that drains a queue to a file: messages are received by
+ * several concurrent receivers, written to the file as one JSON object per
+ * line, and deleted from the queue once the file has been flushed. Draining
+ * stops when the queue is empty, or when the job is canceled.
+ * <p>
+ * Messages are received with a visibility timeout long enough to write and
+ * delete them, so a message whose delete fails, or that was received when the
+ * job was canceled, becomes visible again in the queue; it may then be written
+ * a second time by a later drain.
+ */
+public class DrainQueueJob extends Job {
+
+    /** Number of receive requests in flight at the same time */
+    private static final int RECEIVER_COUNT = 8;
+
+    /** How long a receive waits for messages when the queue looks empty */
+    private static final int WAIT_TIME_SECONDS = 5;
+
+    /** Consecutive empty receives, per receiver, after which the queue is considered empty */
+    private static final int EMPTY_RECEIVES_BEFORE_STOP = 2;
+
+    /** How long received messages stay hidden from other consumers */
+    private static final int VISIBILITY_TIMEOUT_SECONDS = 300;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final AmazonSQS sqs;
+    private final String queueUrl;
+    private final File file;
+
+    private final AtomicLong drainedMessages = new AtomicLong();
+    private final AtomicLong failedDeletes = new AtomicLong();
+    private volatile boolean stopped;
+    private volatile Exception failure;
+
+    private Runnable refreshRunnable;
+
+    public DrainQueueJob(AmazonSQS sqs, String queueUrl, File file) {
+        super("Draining queue to " + file.getName());
+        this.sqs = sqs;
+        this.queueUrl = queueUrl;
+        this.file = file;
+    }
+
+    /**
+     * Sets a runnable to refresh a UI element after the queue has been
+     * drained.
+     */
+    public void setRefreshRunnable(Runnable refreshRunnable) {
+        this.refreshRunnable = refreshRunnable;
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        monitor.beginTask("Draining queue", IProgressMonitor.UNKNOWN);
+
+        Writer writer = null;
+        ExecutorService executor = Executors.newFixedThreadPool(RECEIVER_COUNT, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SQS queue drain");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), "UTF-8"));
+            final Writer output = writer;
+            for (int i = 0; i < RECEIVER_COUNT; i++) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        drain(output);
+                    }
+                });
+            }
+            executor.shutdown();
+
+            while (!executor.awaitTermination(500, TimeUnit.MILLISECONDS)) {
+                if (monitor.isCanceled()) {
+                    stopped = true;
+                }
+                monitor.subTask(drainedMessages.get() + " messages drained");
+            }
+        } catch (InterruptedException e) {
+            stopped = true;
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            executor.shutdownNow();
+            IOUtils.closeQuietly(writer);
+            monitor.done();
+        }
+
+        if (refreshRunnable != null) {
+            Display.getDefault().asyncExec(refreshRunnable);
+        }
+
+        String summary = drainedMessages.get() + " messages drained to " + file.getAbsolutePath();
+        if (failure != null) {
+            return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                    "Unable to drain queue after " + summary + ": " + failure.getMessage(), failure);
+        } else if (failedDeletes.get() > 0) {
+            return new Status(IStatus.WARNING, AwsToolkitCore.getDefault().getPluginId(),
+                    summary + "; " + failedDeletes.get() + " messages could not be deleted and will be received again");
+        } else if (monitor.isCanceled()) {
+            return Status.CANCEL_STATUS;
+        }
+        return new Status(IStatus.OK, AwsToolkitCore.getDefault().getPluginId(), summary);
+    }
+
+    private void drain(Writer output) {
+        int emptyReceives = 0;
+        try {
+            while (!stopped && emptyReceives < EMPTY_RECEIVES_BEFORE_STOP) {
+                ReceiveMessageRequest request = new ReceiveMessageRequest(queueUrl)
+                        .withVisibilityTimeout(VISIBILITY_TIMEOUT_SECONDS)
+                        .withWaitTimeSeconds(WAIT_TIME_SECONDS)
+                        .withMaxNumberOfMessages(QueueMessageBatches.MAX_BATCH_SIZE)
+                        .withAttributeNames(ALL)
+                        .withMessageAttributeNames(ALL);
+                List<Message> messages = sqs.receiveMessage(request).getMessages();
+                if (messages.isEmpty()) {
+                    emptyReceives++;
+                    continue;
+                }
+                emptyReceives = 0;
+
+                // Never delete a message before it is safely in the file
+                synchronized (output) {
+                    for (Message message : messages) {
+                        output.write(MAPPER.writeValueAsString(toJson(message)));
+                        output.write('\n');
+                    }
+                    output.flush();
+                }
+
+                List<BatchFailure> failures = QueueMessageBatches.deleteMessages(sqs, queueUrl, messages);
+                if (!failures.isEmpty()) {
+                    failedDeletes.addAndGet(failures.size());
+                    AwsToolkitCore.getDefault().logWarning(QueueMessageBatches.describe(failures), null);
+                }
+                drainedMessages.addAndGet(messages.size() - failures.size());
+            }
+        } catch (Exception e) {
+            if (!stopped) {
+                failure = e;
+                stopped = true;
+            }
+        }
+    }
+
+    private static Map<String, Object> toJson(Message message) {
+        Map<String, Object> json = new LinkedHashMap<String, Object>();
+        json.put("MessageId", message.getMessageId());
+        json.put("MD5OfBody", message.getMD5OfBody());
+        json.put("Body", message.getBody());
+        json.put("Attributes", message.getAttributes());
+
+        if (message.getMessageAttributes() != null && !message.getMessageAttributes().isEmpty()) {
+            Map<String, Object> messageAttributes = new LinkedHashMap<String, Object>();
+            for (Map.Entry<String, MessageAttributeValue> entry : message.getMessageAttributes().entrySet()) {
+                MessageAttributeValue value = entry.getValue();
+                Map<String, Object> attribute = new LinkedHashMap<String, Object>();
+                attribute.put("DataType", value.getDataType());
+                if (value.getStringValue() != null) {
+                    attribute.put("StringValue", value.getStringValue());
+                }
+                if (value.getBinaryValue() != null) {
+                    attribute.put("BinaryValue", BinaryUtils.toBase64(BinaryUtils.copyBytesFrom(value.getBinaryValue())));
+                }
+                messageAttributes.put(entry.getKey(), attribute);
+            }
+            json.put("MessageAttributes", messageAttributes);
+        }
+        return json;
+    }
+
+}
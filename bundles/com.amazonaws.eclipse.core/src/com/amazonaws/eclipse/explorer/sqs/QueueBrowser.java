@@ -0,0 +1,184 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.sqs;
+
+import static com.amazonaws.eclipse.explorer.sqs.QueueAttributes.ALL;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.Message;
+import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
+
+/**
+ * Browses the messages of a queue without consuming them. Several receivers
+ * long-poll the queue concurrently with a visibility timeout of zero, so the
+ * messages stay available to the queue's consumers, and each message is
+ * streamed to the listener the first time it is received.
+ * <p>
+ * SQS returns a sample of the messages on each receive, so the same messages
+ * come back many times; browsing stops once the message limit is reached, or
+ * once the receivers keep getting only messages they have already seen.
+ */
+class QueueBrowser {
+
+    /** Number of receive requests in flight at the same time */
+    private static final int RECEIVER_COUNT = 4;
+
+    /** How long a receive waits for messages when the queue looks empty */
+    private static final int WAIT_TIME_SECONDS = 2;
+
+    /** Consecutive receives without new messages, per receiver, before browsing stops */
+    private static final int RECEIVES_WITHOUT_NEW_MESSAGES = 5;
+
+    /**
+     * Listener notified, from the receiver threads, of the messages received.
+     */
+    interface MessageListener {
+        /**
+         * @param messages
+         *            Messages that were not received before by this browser.
+         */
+        void messagesReceived(List<Message> messages);
+
+        /**
+         * @param messages
+         *            Messages received again, whose receipt handle replaces
+         *            the one of the message with the same ID passed to
+         *            {@link #messagesReceived(List)}. The browser doesn't
+         *            modify the messages it has passed to the listener, so
+         *            the listener applies the new handles on its own thread.
+         */
+        void messagesReceivedAgain(List<Message> messages);
+
+        /**
+         * @param failure
+         *            The error that stopped browsing, or null if browsing
+         *            completed or was stopped.
+         */
+        void browsingFinished(Exception failure);
+    }
+
+    private final AmazonSQS sqs;
+    private final String queueUrl;
+    private final int maxMessages;
+    private final MessageListener listener;
+    private final ExecutorService executor;
+
+    /** Messages received so far, by message ID */
+    private final ConcurrentMap<String, Message> messagesById = new ConcurrentHashMap<String, Message>();
+
+    private final AtomicInteger receivesWithoutNewMessages = new AtomicInteger();
+    private final AtomicInteger activeReceivers = new AtomicInteger();
+    private volatile boolean stopped;
+    private volatile Exception failure;
+
+    /**
+     * @param maxMessages
+     *            The number of distinct messages after which browsing stops.
+     */
+    QueueBrowser(AmazonSQS sqs, String queueUrl, int maxMessages, MessageListener listener) {
+        this.sqs = sqs;
+        this.queueUrl = queueUrl;
+        this.maxMessages = maxMessages;
+        this.listener = listener;
+        this.executor = Executors.newFixedThreadPool(RECEIVER_COUNT, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SQS queue browser");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    void start() {
+        activeReceivers.set(RECEIVER_COUNT);
+        for (int i = 0; i < RECEIVER_COUNT; i++) {
+            executor.execute(new Runnable() {
+                public void run() {
+                    receive();
+                }
+            });
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Stops browsing; requests in flight are abandoned and the listener is not
+     * notified of their messages.
+     */
+    void stop() {
+        stopped = true;
+        executor.shutdownNow();
+    }
+
+    private void receive() {
+        try {
+            while (!isDone()) {
+                ReceiveMessageRequest request = new ReceiveMessageRequest(queueUrl)
+                        .withVisibilityTimeout(0)
+                        .withWaitTimeSeconds(WAIT_TIME_SECONDS)
+                        .withMaxNumberOfMessages(QueueMessageBatches.MAX_BATCH_SIZE)
+                        .withAttributeNames(ALL);
+                List<Message> received = sqs.receiveMessage(request).getMessages();
+                if (stopped) return;
+
+                List<Message> newMessages = new ArrayList<Message>();
+                List<Message> repeatedMessages = new ArrayList<Message>();
+                for (Message message : received) {
+                    Message previous = messagesById.putIfAbsent(message.getMessageId(), message);
+                    if (previous == null) {
+                        newMessages.add(message);
+                    } else {
+                        // Only the latest receipt handle of a message is valid
+                        repeatedMessages.add(message);
+                    }
+                }
+
+                if (!repeatedMessages.isEmpty()) {
+                    listener.messagesReceivedAgain(repeatedMessages);
+                }
+                if (newMessages.isEmpty()) {
+                    receivesWithoutNewMessages.incrementAndGet();
+                } else {
+                    receivesWithoutNewMessages.set(0);
+                    listener.messagesReceived(newMessages);
+                }
+            }
+        } catch (Exception e) {
+            if (!stopped) {
+                failure = e;
+                stopped = true;
+            }
+        } finally {
+            if (activeReceivers.decrementAndGet() == 0) {
+                listener.browsingFinished(failure);
+            }
+        }
+    }
+
+    private boolean isDone() {
+        return stopped
+                || messagesById.size() >= maxMessages
+                || receivesWithoutNewMessages.get() >= RECEIVER_COUNT * RECEIVES_WITHOUT_NEW_MESSAGES;
+    }
+}
@@ -25,29 +25,38 @@ import static com.amazonaws.eclipse.explorer.sqs.QueueAttributes.SENDER_ID;
 import static com.amazonaws.eclipse.explorer.sqs.QueueAttributes.SENT;
 import static com.amazonaws.eclipse.explorer.sqs.QueueAttributes.VISIBILITY_TIMEOUT;
 
+import java.io.File;
 import java.text.DateFormat;
-import java.util.Collection;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.MenuManager;
 import org.eclipse.jface.action.Separator;
 import org.eclipse.jface.layout.GridDataFactory;
+import org.eclipse.jface.dialogs.IInputValidator;
+import org.eclipse.jface.dialogs.InputDialog;
+import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.layout.TreeColumnLayout;
 import org.eclipse.jface.resource.JFaceResources;
 import org.eclipse.jface.viewers.ColumnWeightData;
 import org.eclipse.jface.viewers.ILabelProviderListener;
+import org.eclipse.jface.viewers.ILazyTreeContentProvider;
 import org.eclipse.jface.viewers.ITableLabelProvider;
-import org.eclipse.jface.viewers.ITreePathContentProvider;
 import org.eclipse.jface.viewers.StructuredSelection;
-import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.TreeViewer;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.swt.SWT;
@@ -56,6 +65,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Menu;
 import org.eclipse.swt.widgets.Tree;
@@ -71,15 +81,20 @@ import org.eclipse.ui.part.EditorPart;
 import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.eclipse.explorer.sqs.QueueMessageBatches.BatchFailure;
 import com.amazonaws.services.sqs.AmazonSQS;
-import com.amazonaws.services.sqs.model.DeleteMessageRequest;
 import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
 import com.amazonaws.services.sqs.model.Message;
-import com.amazonaws.services.sqs.model.ReceiveMessageRequest;
 
 
 public class QueueEditor extends EditorPart implements IRefreshable {
 
+    /** The maximum number of messages shown when browsing a queue */
+    private static final int MAX_BROWSED_MESSAGES = 10000;
+
+    /** The maximum visibility timeout accepted by SQS, in seconds */
+    private static final int MAX_VISIBILITY_TIMEOUT_SECONDS = 12 * 60 * 60;
+
     private QueueEditorInput queueEditorInput;
     private Label retentionPeriodLabel;
     private Label maxMessageSizeLabel;
@@ -89,6 +104,19 @@ public class QueueEditor extends EditorPart implements IRefreshable {
     private Label numberOfMessagesLabel;
     private TreeViewer viewer;
     private Label queueDelayLabel;
+    private Label messagesLabel;
+
+    /** The messages shown, in the order they were received; only accessed from the UI thread */
+    private final List<Message> messages = new ArrayList<Message>();
+    /** The same messages, by message ID; only accessed from the UI thread */
+    private final Map<String, Message> messagesById = new HashMap<String, Message>();
+    private QueueBrowser browser;
+    /**
+     * Incremented whenever browsing stops, so that the callbacks of a stopped
+     * browser still queued on the UI thread are ignored; only accessed from
+     * the UI thread
+     */
+    private int browsingGeneration;
 
     @Override
     public void doSave(IProgressMonitor arg0) {}
@@ -139,10 +167,28 @@ public class QueueEditor extends EditorPart implements IRefreshable {
         form.getToolBarManager().add(new RefreshAction());
         form.getToolBarManager().add(new Separator());
         form.getToolBarManager().add(new AddMessageAction(getClient(), queueEditorInput.getQueueUrl(), this));
+        form.getToolBarManager().add(new BulkSendAction(getClient(), queueEditorInput.getQueueUrl(), this));
+        form.getToolBarManager().add(new DrainQueueAction());
 
         form.getToolBarManager().update(true);
     }
 
+    @Override
+    public void dispose() {
+        stopBrowsing();
+        super.dispose();
+    }
+
+    private List<Message> getSelectedMessages() {
+        List<Message> selectedMessages = new ArrayList<Message>();
+        Iterator<?> iterator = ((StructuredSelection)viewer.getSelection()).iterator();
+        while (iterator.hasNext()) {
+            Object element = iterator.next();
+            if (element instanceof Message) selectedMessages.add((Message)element);
+        }
+        return selectedMessages;
+    }
+
     private class DeleteMessageAction extends Action {
         public DeleteMessageAction() {
             this.setText("Delete");
@@ -157,15 +203,120 @@ public class QueueEditor extends EditorPart implements IRefreshable {
 
         @Override
         public void run() {
-            StructuredSelection selection = (StructuredSelection)viewer.getSelection();
-            Iterator<Message> iterator = (Iterator<Message>)selection.iterator();
+            final List<Message> selectedMessages = getSelectedMessages();
+
+            new Job("Deleting messages") {
+                @Override
+                protected IStatus run(IProgressMonitor monitor) {
+                    try {
+                        final List<BatchFailure> failures = QueueMessageBatches.deleteMessages(
+                                getClient(), queueEditorInput.getQueueUrl(), selectedMessages);
+
+                        Display.getDefault().asyncExec(new Runnable() {
+                            public void run() {
+                                // Messages are compared by identity, as the browser updates their receipt handles
+                                Set<Message> deletedMessages = Collections.newSetFromMap(new IdentityHashMap<Message, Boolean>());
+                                deletedMessages.addAll(selectedMessages);
+                                for (BatchFailure failure : failures) {
+                                    deletedMessages.remove(failure.getMessage());
+                                }
+                                removeMessages(deletedMessages);
+                            }
+                        });
+
+                        if (!failures.isEmpty()) {
+                            return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                                    "Unable to delete messages: " + QueueMessageBatches.describe(failures));
+                        }
+                        return Status.OK_STATUS;
+                    } catch (Exception e) {
+                        return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                                "Unable to delete messages: " + e.getMessage(), e);
+                    }
+                }
+            }.schedule();
+        }
+    }
 
-            while (iterator.hasNext()) {
-                Message message = iterator.next();
-                getClient().deleteMessage(new DeleteMessageRequest(queueEditorInput.getQueueUrl(), message.getReceiptHandle()));
-            }
+    private class ChangeVisibilityAction extends Action {
+        public ChangeVisibilityAction() {
+            this.setText("Change Visibility Timeout...");
+            this.setToolTipText("Hide the selected messages from the queue's consumers for a while");
+        }
+
+        @Override
+        public boolean isEnabled() {
+            return !viewer.getSelection().isEmpty();
+        }
 
-            new RefreshAction().run();
+        @Override
+        public void run() {
+            final List<Message> selectedMessages = getSelectedMessages();
+
+            InputDialog dialog = new InputDialog(Display.getDefault().getActiveShell(),
+                    "Change Visibility Timeout",
+                    "Number of seconds before the selected messages are visible again in the queue:",
+                    "0", new IInputValidator() {
+                        public String isValid(String newText) {
+                            try {
+                                int seconds = Integer.parseInt(newText.trim());
+                                if (seconds >= 0 && seconds <= MAX_VISIBILITY_TIMEOUT_SECONDS) return null;
+                            } catch (NumberFormatException e) {
+                            }
+                            return "Enter a number of seconds between 0 and " + MAX_VISIBILITY_TIMEOUT_SECONDS;
+                        }
+                    });
+            if (dialog.open() != InputDialog.OK) return;
+            final int visibilityTimeout = Integer.parseInt(dialog.getValue().trim());
+
+            new Job("Changing message visibility") {
+                @Override
+                protected IStatus run(IProgressMonitor monitor) {
+                    try {
+                        List<BatchFailure> failures = QueueMessageBatches.changeMessageVisibility(
+                                getClient(), queueEditorInput.getQueueUrl(), selectedMessages, visibilityTimeout);
+                        if (!failures.isEmpty()) {
+                            return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                                    "Unable to change message visibility: " + QueueMessageBatches.describe(failures));
+                        }
+                        return Status.OK_STATUS;
+                    } catch (Exception e) {
+                        return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                                "Unable to change message visibility: " + e.getMessage(), e);
+                    }
+                }
+            }.schedule();
+        }
+    }
+
+    private class DrainQueueAction extends Action {
+        public DrainQueueAction() {
+            this.setText("Drain to File");
+            this.setToolTipText("Save all the messages of the queue to a file and delete them from the queue");
+            this.setImageDescriptor(AwsToolkitCore.getDefault().getImageRegistry().getDescriptor(AwsToolkitCore.IMAGE_EXPORT));
+        }
+
+        @Override
+        public void run() {
+            FileDialog fileDialog = new FileDialog(Display.getDefault().getActiveShell(), SWT.SAVE);
+            fileDialog.setFileName(queueEditorInput.getName() + ".json");
+            fileDialog.setOverwrite(true);
+            String path = fileDialog.open();
+            if (path == null) return;
+
+            boolean confirmed = MessageDialog.openConfirm(Display.getDefault().getActiveShell(), "Drain Queue",
+                    "All the messages of the queue will be saved to " + path + " and deleted from the queue. Continue?");
+            if (!confirmed) return;
+
+            stopBrowsing();
+
+            DrainQueueJob job = new DrainQueueJob(getClient(), queueEditorInput.getQueueUrl(), new File(path));
+            job.setRefreshRunnable(new Runnable() {
+                public void run() {
+                    refreshData();
+                }
+            });
+            job.schedule();
         }
     }
 
@@ -178,7 +329,7 @@ public class QueueEditor extends EditorPart implements IRefreshable {
 
         @Override
         public void run() {
-            new LoadMessagesThread().start();
+            startBrowsing();
             new LoadQueueAttributesThread().start();
         }
     }
@@ -253,56 +404,121 @@ public class QueueEditor extends EditorPart implements IRefreshable {
         }
     }
 
-    private class LoadMessagesThread extends Thread {
-        @Override
-        public void run() {
-            final Map<String, Message> messagesById = new HashMap<String, Message>();
+    /**
+     * Starts browsing the queue from scratch; the messages are added to the
+     * table as they are received.
+     */
+    private void startBrowsing() {
+        stopBrowsing();
+        final int generation = browsingGeneration;
+
+        messages.clear();
+        messagesById.clear();
+        updateMessageCount(false);
+
+        browser = new QueueBrowser(getClient(), queueEditorInput.getQueueUrl(),
+                MAX_BROWSED_MESSAGES, new QueueBrowser.MessageListener() {
+            public void messagesReceived(final List<Message> receivedMessages) {
+                Display.getDefault().asyncExec(new Runnable() {
+                    public void run() {
+                        if (viewer.getTree().isDisposed() || generation != browsingGeneration) return;
+                        messages.addAll(receivedMessages);
+                        for (Message message : receivedMessages) {
+                            messagesById.put(message.getMessageId(), message);
+                        }
+                        updateMessageCount(false);
+                    }
+                });
+            }
 
-            for (int i = 0; i < 5; i++) {
-                ReceiveMessageRequest request = new ReceiveMessageRequest(queueEditorInput.getQueueUrl()).withVisibilityTimeout(0).withMaxNumberOfMessages(10).withAttributeNames(ALL);
-                List<Message> messages = getClient().receiveMessage(request).getMessages();
+            public void messagesReceivedAgain(final List<Message> receivedMessages) {
+                Display.getDefault().asyncExec(new Runnable() {
+                    public void run() {
+                        if (viewer.getTree().isDisposed() || generation != browsingGeneration) return;
+                        updateReceiptHandles(receivedMessages);
+                    }
+                });
+            }
 
-                for (Message message : messages) {
-                    messagesById.put(message.getMessageId(), message);
+            public void browsingFinished(final Exception failure) {
+                if (failure != null) {
+                    AwsToolkitCore.getDefault().reportException("Unable to browse queue messages", failure);
                 }
+                Display.getDefault().asyncExec(new Runnable() {
+                    public void run() {
+                        if (viewer.getTree().isDisposed() || generation != browsingGeneration) return;
+                        updateMessageCount(true);
+                    }
+                });
             }
+        });
+        browser.start();
+    }
 
-            Display.getDefault().asyncExec(new Runnable() {
-                public void run() {
-                    viewer.setInput(messagesById.values());
-                }
-            });
+    /**
+     * Stops the current browser, if any, and ignores the messages it received
+     * but that weren't added to the table yet.
+     */
+    private void stopBrowsing() {
+        if (browser != null) browser.stop();
+        browser = null;
+        browsingGeneration++;
+    }
+
+    /**
+     * Replaces the receipt handles of the messages shown with the ones they
+     * were received again with; only the latest handle of a message is valid.
+     */
+    private void updateReceiptHandles(List<Message> receivedMessages) {
+        for (Message received : receivedMessages) {
+            Message message = messagesById.get(received.getMessageId());
+            if (message != null) message.setReceiptHandle(received.getReceiptHandle());
         }
     }
 
-    private final class MessageContentProvider implements ITreePathContentProvider {
+    private void removeMessages(Set<Message> removedMessages) {
+        if (viewer.getTree().isDisposed()) return;
+        messages.removeAll(removedMessages);
+        for (Message message : removedMessages) {
+            messagesById.remove(message.getMessageId());
+        }
+        updateMessageCount(true);
+        viewer.refresh();
+    }
 
-        private Message[] messages;
+    private void updateMessageCount(boolean finished) {
+        viewer.setChildCount(viewer.getInput(), messages.size());
+        messagesLabel.setText(messages.size() + (finished ? " messages" : " messages, receiving..."));
+        messagesLabel.getParent().layout();
+    }
+
+    /**
+     * Content provider for the virtual message table, backed by the messages
+     * received so far.
+     */
+    private final class MessageContentProvider implements ILazyTreeContentProvider {
 
         public void dispose() {}
 
-        public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
-            if (newInput instanceof Collection) {
-                messages = ((Collection<Message>)newInput).toArray(new Message[0]);
-            } else {
-                messages = new Message[0];
-            }
-        }
+        public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {}
 
-        public Object[] getChildren(TreePath arg0) {
+        public Object getParent(Object element) {
             return null;
         }
 
-        public Object[] getElements(Object arg0) {
-            return messages;
-        }
-
-        public TreePath[] getParents(Object arg0) {
-            return new TreePath[0];
+        public void updateChildCount(Object element, int currentChildCount) {
+            if (element instanceof Message) {
+                viewer.setChildCount(element, 0);
+            } else {
+                viewer.setChildCount(element, messages.size());
+            }
         }
 
-        public boolean hasChildren(TreePath arg0) {
-            return false;
+        public void updateElement(Object parent, int index) {
+            if (index >= messages.size()) return;
+            Message message = messages.get(index);
+            viewer.replace(parent, index, message);
+            viewer.setChildCount(message, 0);
         }
     }
 
@@ -356,12 +572,13 @@ public class QueueEditor extends EditorPart implements IRefreshable {
         parent.setLayout(new GridLayout());
         parent.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
 
-        Label label = toolkit.createLabel(parent, "Message Sampling");
+        Label label = toolkit.createLabel(parent, "Messages");
         label.setFont(JFaceResources.getHeaderFont());
         label.setForeground(toolkit.getColors().getColor(IFormColors.TITLE));
         label.setLayoutData(new GridData(SWT.FILL, SWT.DEFAULT, true, false));
 
-
+        messagesLabel = toolkit.createLabel(parent, "");
+        messagesLabel.setLayoutData(new GridData(SWT.FILL, SWT.DEFAULT, true, false));
 
         Composite composite = toolkit.createComposite(parent);
         composite.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, true));
@@ -372,7 +589,7 @@ public class QueueEditor extends EditorPart implements IRefreshable {
         MessageContentProvider contentProvider = new MessageContentProvider();
         MessageLabelProvider labelProvider = new MessageLabelProvider();
 
-        viewer = new TreeViewer(composite, SWT.BORDER | SWT.MULTI);
+        viewer = new TreeViewer(composite, SWT.BORDER | SWT.MULTI | SWT.VIRTUAL);
         viewer.getTree().setLinesVisible(true);
         viewer.getTree().setHeaderVisible(true);
         viewer.setLabelProvider(labelProvider);
@@ -387,6 +604,7 @@ public class QueueEditor extends EditorPart implements IRefreshable {
         menuManager.addMenuListener(new IMenuListener() {
             public void menuAboutToShow(IMenuManager manager) {
                 manager.add(new DeleteMessageAction());
+                manager.add(new ChangeVisibilityAction());
             }
         });
 
@@ -394,7 +612,7 @@ public class QueueEditor extends EditorPart implements IRefreshable {
         viewer.getTree().setMenu(menu);
         getSite().registerContextMenu(menuManager, viewer);
 
-        new LoadMessagesThread().start();
+        startBrowsing();
     }
 
     private void createColumns(TreeColumnLayout columnLayout, Tree tree) {
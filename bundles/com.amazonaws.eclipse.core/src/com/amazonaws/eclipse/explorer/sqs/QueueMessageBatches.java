@@ -0,0 +1,126 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.sqs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.BatchResultErrorEntry;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequest;
+import com.amazonaws.services.sqs.model.ChangeMessageVisibilityBatchRequestEntry;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequest;
+import com.amazonaws.services.sqs.model.DeleteMessageBatchRequestEntry;
+import com.amazonaws.services.sqs.model.Message;
+
+/**
+ * Deletes messages and changes their visibility with the batch APIs, in
+ * batches of the maximum size accepted by SQS. The entries of a batch are
+ * identified by their index in the batch, so failures are mapped back to the
+ * messages they belong to.
+ */
+class QueueMessageBatches {
+
+    /** The maximum number of entries in an SQS batch request */
+    static final int MAX_BATCH_SIZE = 10;
+
+    /**
+     * Deletes the specified messages, and returns the failures; the returned
+     * list is empty if all the messages were deleted.
+     */
+    static List<BatchFailure> deleteMessages(AmazonSQS sqs, String queueUrl, List<Message> messages) {
+        List<BatchFailure> failures = new ArrayList<BatchFailure>();
+        for (int i = 0; i < messages.size(); i += MAX_BATCH_SIZE) {
+            List<Message> batch = messages.subList(i, Math.min(messages.size(), i + MAX_BATCH_SIZE));
+
+            List<DeleteMessageBatchRequestEntry> entries = new ArrayList<DeleteMessageBatchRequestEntry>();
+            for (int j = 0; j < batch.size(); j++) {
+                entries.add(new DeleteMessageBatchRequestEntry(Integer.toString(j), batch.get(j).getReceiptHandle()));
+            }
+
+            List<BatchResultErrorEntry> errors = sqs.deleteMessageBatch(
+                    new DeleteMessageBatchRequest(queueUrl, entries)).getFailed();
+            addFailures(failures, batch, errors);
+        }
+        return failures;
+    }
+
+    /**
+     * Changes the visibility timeout of the specified messages, and returns
+     * the failures; the returned list is empty if all the messages were
+     * changed.
+     */
+    static List<BatchFailure> changeMessageVisibility(AmazonSQS sqs, String queueUrl,
+            List<Message> messages, int visibilityTimeoutSeconds) {
+        List<BatchFailure> failures = new ArrayList<BatchFailure>();
+        for (int i = 0; i < messages.size(); i += MAX_BATCH_SIZE) {
+            List<Message> batch = messages.subList(i, Math.min(messages.size(), i + MAX_BATCH_SIZE));
+
+            List<ChangeMessageVisibilityBatchRequestEntry> entries = new ArrayList<ChangeMessageVisibilityBatchRequestEntry>();
+            for (int j = 0; j < batch.size(); j++) {
+                entries.add(new ChangeMessageVisibilityBatchRequestEntry(Integer.toString(j), batch.get(j).getReceiptHandle())
+                        .withVisibilityTimeout(visibilityTimeoutSeconds));
+            }
+
+            List<BatchResultErrorEntry> errors = sqs.changeMessageVisibilityBatch(
+                    new ChangeMessageVisibilityBatchRequest(queueUrl, entries)).getFailed();
+            addFailures(failures, batch, errors);
+        }
+        return failures;
+    }
+
+    /**
+     * Returns a message describing the specified failures, for error dialogs
+     * and logs.
+     */
+    static String describe(List<BatchFailure> failures) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(failures.size()).append(failures.size() == 1 ? " message" : " messages").append(" failed");
+        for (BatchFailure failure : failures) {
+            builder.append("\n").append(failure.getMessage().getMessageId())
+                    .append(": ").append(failure.getError().getCode())
+                    .append(" - ").append(failure.getError().getMessage());
+        }
+        return builder.toString();
+    }
+
+    private static void addFailures(List<BatchFailure> failures, List<Message> batch, List<BatchResultErrorEntry> errors) {
+        if (errors == null) return;
+        for (BatchResultErrorEntry error : errors) {
+            failures.add(new BatchFailure(batch.get(Integer.parseInt(error.getId())), error));
+        }
+    }
+
+    /**
+     * A message that could not be processed, with the error returned by SQS.
+     */
+    static class BatchFailure {
+        private final Message message;
+        private final BatchResultErrorEntry error;
+
+        BatchFailure(Message message, BatchResultErrorEntry error) {
+            this.message = message;
+            this.error = error;
+        }
+
+        Message getMessage() {
+            return message;
+        }
+
+        BatchResultErrorEntry getError() {
+            return error;
+        }
+    }
+}
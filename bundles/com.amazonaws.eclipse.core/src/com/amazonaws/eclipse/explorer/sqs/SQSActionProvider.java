@@ -20,6 +20,10 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuManager;
 import org.eclipse.jface.action.Separator;
@@ -42,7 +46,11 @@ import org.eclipse.ui.navigator.CommonActionProvider;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.ContentProviderRegistry;
+import com.amazonaws.eclipse.explorer.ExplorerOperations;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Operation;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Results;
 import com.amazonaws.eclipse.explorer.sqs.SQSContentProvider.QueueNode;
+import com.amazonaws.eclipse.explorer.sqs.SQSContentProvider.SQSRootElement;
 import com.amazonaws.services.sqs.AmazonSQS;
 import com.amazonaws.services.sqs.model.CreateQueueRequest;
 import com.amazonaws.services.sqs.model.DeleteQueueRequest;
@@ -57,12 +65,12 @@ public class SQSActionProvider extends CommonActionProvider {
         menu.add(new CreateQueueAction());
 
         boolean onlyQueuesSelected = true;
-        List<String> selectedQueues = new ArrayList<String>();
+        List<QueueNode> selectedQueues = new ArrayList<QueueNode>();
         Iterator<?> iterator = selection.iterator();
         while (iterator.hasNext()) {
             Object next = iterator.next();
             if (next instanceof QueueNode) {
-                selectedQueues.add(((QueueNode)next).getQueueUrl());
+                selectedQueues.add((QueueNode)next);
             } else {
                 onlyQueuesSelected = false;
             }
@@ -70,11 +78,20 @@ public class SQSActionProvider extends CommonActionProvider {
 
         if (selectedQueues.size() > 0 && onlyQueuesSelected) {
             menu.add(new DeleteQueueAction(selectedQueues));
+            menu.add(new RefreshMessageCountsAction(selectedQueues));
         }
 
         if (selectedQueues.size() == 1 && onlyQueuesSelected) {
+            String queueUrl = selectedQueues.get(0).getQueueUrl();
             menu.add(new Separator());
-            menu.add(new AddMessageAction(AwsToolkitCore.getClientFactory().getSQSClient(), selectedQueues.get(0), null));
+            menu.add(new AddMessageAction(AwsToolkitCore.getClientFactory().getSQSClient(), queueUrl, null));
+            menu.add(new BulkSendAction(AwsToolkitCore.getClientFactory().getSQSClient(), queueUrl, null));
+        }
+    }
+
+    private static void refreshQueues() {
+        for (SQSContentProvider contentProvider : ContentProviderRegistry.getContentProviders(SQSContentProvider.class)) {
+            contentProvider.refreshChildren(SQSRootElement.ROOT_ELEMENT);
         }
     }
 
@@ -97,7 +114,7 @@ public class SQSActionProvider extends CommonActionProvider {
                         attributes.put(QueueAttributeName.DelaySeconds.toString(), Integer.toString(createQueueDialog.getQueueDelay()));
                     }
                     sqs.createQueue(new CreateQueueRequest(createQueueDialog.getQueueName()).withAttributes(attributes));
-                    ContentProviderRegistry.refreshAllContentProviders();
+                    refreshQueues();
                 } catch (Exception e) {
                     AwsToolkitCore.getDefault().reportException("Unable to create SQS Queue", e);
                 }
@@ -105,6 +122,25 @@ public class SQSActionProvider extends CommonActionProvider {
         }
     }
 
+    private static class RefreshMessageCountsAction extends Action {
+        private final List<QueueNode> queues;
+
+        public RefreshMessageCountsAction(List<QueueNode> queues) {
+            this.queues = queues;
+
+            this.setText("Refresh Message Count" + (queues.size() > 1 ? "s" : ""));
+            this.setToolTipText("Reload the approximate number of messages of the selected queues");
+            this.setImageDescriptor(AwsToolkitCore.getDefault().getImageRegistry().getDescriptor(AwsToolkitCore.IMAGE_REFRESH));
+        }
+
+        @Override
+        public void run() {
+            for (SQSContentProvider contentProvider : ContentProviderRegistry.getContentProviders(SQSContentProvider.class)) {
+                contentProvider.loadMessageCounts(queues);
+            }
+        }
+    }
+
     private static class CreateQueueDialog extends MessageDialog {
 
         private String queueName;
@@ -179,12 +215,12 @@ public class SQSActionProvider extends CommonActionProvider {
     }
 
     private static class DeleteQueueAction extends Action {
-        private final List<String> queues;
+        private final List<QueueNode> queues;
 
-        public DeleteQueueAction(List<String> queueUrls) {
-            this.queues = queueUrls;
+        public DeleteQueueAction(List<QueueNode> queues) {
+            this.queues = queues;
 
-            this.setText("Delete Queue" + (queueUrls.size() > 1 ? "s" : ""));
+            this.setText("Delete Queue" + (queues.size() > 1 ? "s" : ""));
             this.setToolTipText("Delete the selected Amazon SQS queues");
             this.setImageDescriptor(AwsToolkitCore.getDefault().getImageRegistry().getDescriptor(AwsToolkitCore.IMAGE_REMOVE));
         }
@@ -194,16 +230,36 @@ public class SQSActionProvider extends CommonActionProvider {
             Dialog dialog = newConfirmationDialog("Delete selected queues?", "Are you sure you want to delete the selected Amazon SQS queues?");
             if (dialog.open() != 0) return;
 
-            AmazonSQS sqs = AwsToolkitCore.getClientFactory().getSQSClient();
-            for (String queueUrl : queues) {
-                try {
-                    sqs.deleteQueue(new DeleteQueueRequest(queueUrl));
-                } catch (Exception e) {
-                    AwsToolkitCore.getDefault().reportException("Unable to delete Amazon SQS queue", e);
-                }
-            }
+            new Job("Deleting queues") {
+                @Override
+                protected IStatus run(IProgressMonitor monitor) {
+                    final AmazonSQS sqs = AwsToolkitCore.getClientFactory().getSQSClient();
+                    Results<QueueNode, Void> results;
+                    try {
+                        results = ExplorerOperations.runAll(queues, new Operation<QueueNode, Void>() {
+                            public Void run(QueueNode queue) {
+                                sqs.deleteQueue(new DeleteQueueRequest(queue.getQueueUrl()));
+                                return null;
+                            }
+                        });
+                    } catch (InterruptedException e) {
+                        return Status.CANCEL_STATUS;
+                    }
+
+                    // Deleted queues keep being listed for a while, so they are removed from the tree directly
+                    for (SQSContentProvider contentProvider : ContentProviderRegistry.getContentProviders(SQSContentProvider.class)) {
+                        contentProvider.removeChildren(SQSRootElement.ROOT_ELEMENT, results.getSucceededResources());
+                    }
 
-            ContentProviderRegistry.refreshAllContentProviders();
+                    if (!results.getFailures().isEmpty()) {
+                        Map.Entry<QueueNode, Exception> failure = results.getFailures().entrySet().iterator().next();
+                        return new Status(IStatus.ERROR, AwsToolkitCore.getDefault().getPluginId(),
+                                "Unable to delete " + results.getFailures().size() + " Amazon SQS queues, including "
+                                + failure.getKey().getName() + ": " + failure.getValue().getMessage(), failure.getValue());
+                    }
+                    return Status.OK_STATUS;
+                }
+            }.schedule();
         }
 
         private Dialog newConfirmationDialog(String title, String message) {
@@ -15,15 +15,27 @@
 package com.amazonaws.eclipse.explorer.sqs;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
 import com.amazonaws.eclipse.explorer.AWSResourcesRootElement;
 import com.amazonaws.eclipse.explorer.AbstractContentProvider;
 import com.amazonaws.eclipse.explorer.ExplorerNode;
+import com.amazonaws.eclipse.explorer.ExplorerOperations;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Operation;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Results;
 import com.amazonaws.eclipse.explorer.Loading;
 import com.amazonaws.services.sqs.AmazonSQS;
+import com.amazonaws.services.sqs.model.GetQueueAttributesRequest;
+import com.amazonaws.services.sqs.model.QueueAttributeName;
 
 public class SQSContentProvider extends AbstractContentProvider {
 
@@ -34,6 +46,7 @@ public class SQSContentProvider extends AbstractContentProvider {
     public static class QueueNode extends ExplorerNode {
 
         private final String queueUrl;
+        private volatile String approximateNumberOfMessages;
 
         public QueueNode(String queueUrl) {
             super(parseQueueName(queueUrl), 0,
@@ -46,6 +59,11 @@ public class SQSContentProvider extends AbstractContentProvider {
             return queueUrl;
         }
 
+        /** The approximate number of messages in the queue, or null if it is not loaded yet */
+        public String getApproximateNumberOfMessages() {
+            return approximateNumberOfMessages;
+        }
+
         private static String parseQueueName(String queueUrl) {
             int position = queueUrl.lastIndexOf('/');
             if (position > 0) return queueUrl.substring(position + 1);
@@ -75,6 +93,8 @@ public class SQSContentProvider extends AbstractContentProvider {
                         queueNodes.add(new QueueNode(queueUrl));
                     }
 
+                    // The queues are shown right away, and their counts as they are loaded
+                    loadMessageCounts(queueNodes);
                     return queueNodes.toArray();
                 }
             }.start();
@@ -83,6 +103,47 @@ public class SQSContentProvider extends AbstractContentProvider {
         return Loading.LOADING;
     }
 
+    /**
+     * Loads the approximate number of messages of the specified queues, all at
+     * once, and updates their nodes.
+     */
+    public void loadMessageCounts(final Collection<QueueNode> queueNodes) {
+        if (queueNodes.isEmpty()) return;
+
+        new Job("Loading queue message counts") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                final AmazonSQS sqs = AwsToolkitCore.getClientFactory().getSQSClient();
+                Results<QueueNode, String> results;
+                try {
+                    results = ExplorerOperations.runAll(queueNodes, new Operation<QueueNode, String>() {
+                        public String run(QueueNode queueNode) {
+                            Map<String, String> attributes = sqs.getQueueAttributes(
+                                    new GetQueueAttributesRequest(queueNode.getQueueUrl())
+                                            .withAttributeNames(QueueAttributeName.ApproximateNumberOfMessages))
+                                    .getAttributes();
+                            return attributes.get(QueueAttributeName.ApproximateNumberOfMessages.toString());
+                        }
+                    });
+                } catch (InterruptedException e) {
+                    return Status.CANCEL_STATUS;
+                }
+
+                for (Map.Entry<QueueNode, String> entry : results.getSuccesses().entrySet()) {
+                    entry.getKey().approximateNumberOfMessages = entry.getValue();
+                }
+                updateElements(results.getSucceededResources());
+
+                if (!results.getFailures().isEmpty()) {
+                    AwsToolkitCore.getDefault().logWarning("Unable to load the message counts of "
+                            + results.getFailures().size() + " queues",
+                            results.getFailures().values().iterator().next());
+                }
+                return Status.OK_STATUS;
+            }
+        }.schedule();
+    }
+
     @Override
     public String getServiceAbbreviation() {
         return ServiceAbbreviations.SQS;
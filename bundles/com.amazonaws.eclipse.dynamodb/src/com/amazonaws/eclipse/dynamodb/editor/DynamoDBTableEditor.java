@@ -109,6 +109,7 @@ import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.AbstractTableLabelProvider;
 import com.amazonaws.eclipse.dynamodb.AbstractAddNewAttributeDialog;
 import com.amazonaws.eclipse.dynamodb.DynamoDBPlugin;
+import com.amazonaws.eclipse.explorer.dynamodb.TableDescriptionCache;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
 import com.amazonaws.services.dynamodbv2.model.AttributeAction;
 import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
@@ -116,8 +117,6 @@ import com.amazonaws.services.dynamodbv2.model.AttributeValue;
 import com.amazonaws.services.dynamodbv2.model.AttributeValueUpdate;
 import com.amazonaws.services.dynamodbv2.model.Condition;
 import com.amazonaws.services.dynamodbv2.model.DeleteItemRequest;
-import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
-import com.amazonaws.services.dynamodbv2.model.DescribeTableResult;
 import com.amazonaws.services.dynamodbv2.model.ExpectedAttributeValue;
 import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
 import com.amazonaws.services.dynamodbv2.model.KeyType;
@@ -700,11 +699,8 @@ public class DynamoDBTableEditor extends EditorPart {
             @Override
             public void run() {
                 if ( tableKey == null ) {
-                    DescribeTableResult describeTable = AwsToolkitCore
-                            .getClientFactory(DynamoDBTableEditor.this.tableEditorInput.getAccountId())
-                            .getDynamoDBV2Client()
-                            .describeTable(new DescribeTableRequest().withTableName(tableEditorInput.getTableName()));
-                    TableDescription tableDescription = describeTable.getTable();
+                    TableDescription tableDescription = TableDescriptionCache.getInstance()
+                            .getTable(tableEditorInput.getAccountId(), tableEditorInput.getTableName());
                     tableKey = convertToKeySchemaWithAttributeType(tableDescription);
                 }
 
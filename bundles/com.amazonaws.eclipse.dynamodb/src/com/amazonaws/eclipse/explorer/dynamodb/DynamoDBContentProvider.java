@@ -1,21 +1,23 @@
 package com.amazonaws.eclipse.explorer.dynamodb;
 
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.swt.widgets.Display;
 
 import com.amazonaws.AmazonClientException;
-import com.amazonaws.AmazonServiceException;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
 import com.amazonaws.eclipse.explorer.AWSResourcesRootElement;
 import com.amazonaws.eclipse.explorer.AbstractContentProvider;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Results;
 import com.amazonaws.eclipse.explorer.Loading;
 import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
 import com.amazonaws.services.dynamodbv2.model.ListTablesRequest;
 import com.amazonaws.services.dynamodbv2.model.ListTablesResult;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.amazonaws.services.dynamodbv2.model.TableStatus;
 
 
@@ -35,49 +37,60 @@ public class DynamoDBContentProvider extends AbstractContentProvider {
                     return false;
                 }
                 
-                AmazonDynamoDB dynamoDBClient = AwsToolkitCore.getClientFactory().getDynamoDBV2Client();
                 Object[] nodes = cachedResponses.get(parentElement);
                 
+                /* Describe all the tables whose status may still change in one pass */
+                Map<String, DynamoDBTableNode> pendingNodes = new LinkedHashMap<String, DynamoDBTableNode>();
+                for ( Object node : nodes ) {
+                    if ( node instanceof DynamoDBTableNode
+                            && ((DynamoDBTableNode) node).getTableStatus() != TableStatus.ACTIVE ) {
+                        pendingNodes.put(((DynamoDBTableNode) node).getTableName(), (DynamoDBTableNode) node);
+                    }
+                }
+                if ( pendingNodes.isEmpty() ) {
+                    return false;
+                }
+                
+                Results<String, TableDescription> results;
+                try {
+                    results = TableDescriptionCache.getInstance().getTables(null, pendingNodes.keySet());
+                } catch ( InterruptedException e ) {
+                    Thread.currentThread().interrupt();
+                    return false;
+                }
+                
+                for ( Exception e : results.getFailures().values() ) {
+                    if ( TableDescriptionCache.isTableNotFound(e) ) {
+                        /* Refresh both the cache and UI when a table node has already been deleted. */
+                        refresh();
+                        return false;
+                    }
+                }
+                if ( !results.getFailures().isEmpty() ) {
+                    Exception e = results.getFailures().values().iterator().next();
+                    throw e instanceof AmazonClientException ? (AmazonClientException) e
+                            : new AmazonClientException("Unable to describe tables", e);
+                }
+                
                 boolean refreshUI = false;
                 boolean shouldKeepRunning = false;
                 
-                for ( Object node : nodes ) {
-                    DynamoDBTableNode dynamoDBNode;
-                    if ( node instanceof DynamoDBTableNode ) {
-                        dynamoDBNode = (DynamoDBTableNode) node;
-                    } else {
-                        continue;
+                for ( Map.Entry<String, TableDescription> entry : results.getSuccesses().entrySet() ) {
+                    DynamoDBTableNode dynamoDBNode = pendingNodes.get(entry.getKey());
+                    TableStatus updatedStatus;
+                    try {
+                        updatedStatus = TableStatus.fromValue(entry.getValue().getTableStatus());
+                    } catch ( IllegalArgumentException iae ) {
+                        throw new AmazonClientException("Unrecognized table status string.", iae);
                     }
-                    if ( dynamoDBNode.getTableStatus() != TableStatus.ACTIVE ) {
-                        TableStatus updatedStatus;
-                        try {
-                            updatedStatus = TableStatus.valueOf(dynamoDBClient
-                                    .describeTable(
-                                            new DescribeTableRequest()
-                                                    .withTableName(dynamoDBNode
-                                                            .getTableName())).getTable()
-                                    .getTableStatus());
-                        } catch ( AmazonServiceException ase ) {
-                            if (ase.getErrorCode().equalsIgnoreCase(
-                                    "ResourceNotFoundException") == true) {
-                                /* Refresh both the cache and UI when a table node has already been deleted. */
-                                refresh();
-                                return false;
-                            } else {
-                                throw ase;
-                            }
-                        } catch ( IllegalArgumentException iae ) {
-                            throw new AmazonClientException("Unrecognized table status string.", iae);
-                        }
-                        
-                        /* Only refresh UI when some status has changed */
-                        if ( updatedStatus != dynamoDBNode.getTableStatus() ) {
-                            dynamoDBNode.setTableStatus(updatedStatus);
-                            refreshUI = true;
-                        }
-                        if ( updatedStatus != TableStatus.ACTIVE ) {
-                            shouldKeepRunning = true;
-                        }
+                    
+                    /* Only refresh UI when some status has changed */
+                    if ( updatedStatus != dynamoDBNode.getTableStatus() ) {
+                        dynamoDBNode.setTableStatus(updatedStatus);
+                        refreshUI = true;
+                    }
+                    if ( updatedStatus != TableStatus.ACTIVE ) {
+                        shouldKeepRunning = true;
                     }
                 }
                 if ( refreshUI ) {
@@ -21,6 +21,7 @@ import com.amazonaws.eclipse.dynamodb.DynamoDBPlugin;
 import com.amazonaws.eclipse.dynamodb.testtool.StartTestToolWizard;
 import com.amazonaws.eclipse.dynamodb.testtool.TestToolManager;
 import com.amazonaws.services.dynamodbv2.model.DeleteTableRequest;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
 
 /**
  * Provides right-click context actions for items in the DynamoDB section of the
@@ -197,6 +198,7 @@ public class DynamoDBExplorerActionProvider extends CommonActionProvider {
                         } catch ( AmazonClientException e ) {
                             return new Status(IStatus.ERROR, DynamoDBPlugin.PLUGIN_ID, "Failed to delete table", e);
                         }
+                        TableDescriptionCache.getInstance().invalidate(accountId, tableName);
 
                         if ( null != DynamoDBContentProvider.getInstance() ) {
                             DynamoDBContentProvider.getInstance().refresh();
@@ -233,9 +235,31 @@ public class DynamoDBExplorerActionProvider extends CommonActionProvider {
 
         @Override
         public void run() {
-            final TablePropertiesDialog tablePropertiesDialog = new TablePropertiesDialog(tableName);
+            final String accountId = AwsToolkitCore.getDefault().getCurrentAccountId();
+            new Job("Loading table " + tableName) {
+
+                @Override
+                protected IStatus run(IProgressMonitor monitor) {
+                    final TableDescription tableDescription;
+                    try {
+                        tableDescription = TableDescriptionCache.getInstance().getTable(accountId, tableName);
+                    } catch ( AmazonClientException e ) {
+                        return new Status(IStatus.ERROR, DynamoDBPlugin.PLUGIN_ID, "Failed to describe table", e);
+                    }
+
+                    Display.getDefault().asyncExec(new Runnable() {
+                        public void run() {
+                            openDialog(accountId, tableDescription);
+                        }
+                    });
+                    return Status.OK_STATUS;
+                }
+            }.schedule();
+        }
+
+        private void openDialog(final String accountId, TableDescription tableDescription) {
+            final TablePropertiesDialog tablePropertiesDialog = new TablePropertiesDialog(tableName, tableDescription);
             if (tablePropertiesDialog.open() == 0) {
-                final String accountId = AwsToolkitCore.getDefault().getCurrentAccountId();
                 new Job("Updating table " + tableName) {
 
                     @Override
@@ -246,6 +270,7 @@ public class DynamoDBExplorerActionProvider extends CommonActionProvider {
                         } catch ( AmazonClientException e ) {
                             return new Status(IStatus.ERROR, DynamoDBPlugin.PLUGIN_ID, "Failed to update table", e);
                         }
+                        TableDescriptionCache.getInstance().invalidate(accountId, tableName);
 
                         return Status.OK_STATUS;
                     }
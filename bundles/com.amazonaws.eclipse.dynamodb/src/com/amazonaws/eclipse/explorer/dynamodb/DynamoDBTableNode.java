@@ -14,17 +14,20 @@
  */
 package com.amazonaws.eclipse.explorer.dynamodb;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.swt.widgets.Display;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.AmazonServiceException;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.dynamodb.DynamoDBPlugin;
 import com.amazonaws.eclipse.dynamodb.editor.OpenTableEditorAction;
 import com.amazonaws.eclipse.explorer.ExplorerNode;
-import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
-import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
 import com.amazonaws.services.dynamodbv2.model.TableStatus;
 
 public class DynamoDBTableNode extends ExplorerNode {
@@ -54,57 +57,57 @@ public class DynamoDBTableNode extends ExplorerNode {
                     /*
                      * Update the table status immediately when the node is
                      * being opened, but has not been set with table status.
+                     * The table is described in the background, so a slow
+                     * response doesn't freeze the explorer.
                      */
-                    AmazonDynamoDB dynamoDBClient = AwsToolkitCore.getClientFactory().getDynamoDBV2Client();
-                    boolean describeTableError = false;
-                    TableStatus updatedStatus = null;
-                    try {
-                        updatedStatus = TableStatus.valueOf(dynamoDBClient
-                                .describeTable(
-                                        new DescribeTableRequest()
-                                                .withTableName(tableName)).getTable()
-                                .getTableStatus());
-                    } catch ( AmazonServiceException ase ) {
-                        if (ase.getErrorCode().equalsIgnoreCase(
-                                "ResourceNotFoundException") == true) {
-                            /* Show warning that the table has already been deleted */
-                            MessageDialog dialog = new MessageDialog(
-                                    Display.getCurrent().getActiveShell(),
-                                    "Cannot open this table",
-                                    AwsToolkitCore.getDefault().getImageRegistry().get(AwsToolkitCore.IMAGE_AWS_ICON),
-                                    "Table has been deleted.", 
-                                    MessageDialog.ERROR,
-                                    new String[] { "OK" }, 0);
-                            dialog.open();
-                            
-                            /*
-                             * We need to explicitly refresh the tree view if a
-                             * table node has already been deleted in DynamoDB
-                             */
-                            DynamoDBContentProvider.getInstance().refresh();
-                            return;
-                        } else {
-                            describeTableError = true;
+                    new Job("Loading table " + tableName) {
+
+                        @Override
+                        protected IStatus run(IProgressMonitor monitor) {
+                            boolean describeTableError = false;
+                            TableStatus updatedStatus = null;
+                            try {
+                                updatedStatus = TableStatus.fromValue(TableDescriptionCache.getInstance()
+                                        .getTable(null, tableName).getTableStatus());
+                            } catch ( AmazonServiceException ase ) {
+                                if ( TableDescriptionCache.isTableNotFound(ase) ) {
+                                    Display.getDefault().asyncExec(new Runnable() {
+                                        public void run() {
+                                            showTableDeletedDialog();
+                                        }
+                                    });
+                                    return Status.OK_STATUS;
+                                } else {
+                                    describeTableError = true;
+                                }
+                            } catch ( AmazonClientException ace ) {
+                                describeTableError = true;
+                            } catch ( IllegalArgumentException iae ) {
+                                /* Unrecognized table status */
+                                describeTableError = true;
+                            }
+
+                            final TableStatus status = updatedStatus;
+                            final boolean error = describeTableError;
+                            Display.getDefault().asyncExec(new Runnable() {
+                                public void run() {
+                                    if ( error ) {
+                                        /*
+                                         * Still allow the user to open the table editor if we
+                                         * cannot get the table status now. (But the background
+                                         * job will still keep trying to update the table
+                                         * status).
+                                         */
+                                        setOpenAction(new OpenTableEditorAction(tableName));
+                                    } else {
+                                        setTableStatus(status);
+                                    }
+                                    DynamoDBTableNode.this.getOpenAction().run();
+                                }
+                            });
+                            return Status.OK_STATUS;
                         }
-                    } catch ( IllegalArgumentException iae ) {
-                        /* Unrecognized table status */
-                        describeTableError = true;
-                    }
-                    
-                    if ( describeTableError ) {
-                        /*
-                         * Still allow the user to open the table editor if we
-                         * cannot get the table status now. (But the background
-                         * job will still keep trying to update the table
-                         * status).
-                         */
-                        setOpenAction(new OpenTableEditorAction(tableName));
-                        return;
-                    }
-                    
-                    /* assert: updatedStatus != null */
-                    setTableStatus(updatedStatus);
-                    DynamoDBTableNode.this.getOpenAction().run();
+                    }.schedule();
                 }
             });
         } else if ( tableStatus == TableStatus.ACTIVE ) {
@@ -137,6 +140,24 @@ public class DynamoDBTableNode extends ExplorerNode {
         }
     }
     
+    private void showTableDeletedDialog() {
+        /* Show warning that the table has already been deleted */
+        MessageDialog dialog = new MessageDialog(
+                Display.getDefault().getActiveShell(),
+                "Cannot open this table",
+                AwsToolkitCore.getDefault().getImageRegistry().get(AwsToolkitCore.IMAGE_AWS_ICON),
+                "Table has been deleted.",
+                MessageDialog.ERROR,
+                new String[] { "OK" }, 0);
+        dialog.open();
+
+        /*
+         * We need to explicitly refresh the tree view if a
+         * table node has already been deleted in DynamoDB
+         */
+        DynamoDBContentProvider.getInstance().refresh();
+    }
+
     public DynamoDBTableNode(String tableName) {
         this(tableName, null);
     }
@@ -18,6 +18,7 @@ import org.eclipse.jface.viewers.IDecoration;
 import org.eclipse.jface.viewers.ILabelProviderListener;
 import org.eclipse.jface.viewers.ILightweightLabelDecorator;
 
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
 import com.amazonaws.services.dynamodbv2.model.TableStatus;
 
 public class DynamoDBTableNodeDecorator implements ILightweightLabelDecorator {
@@ -36,7 +37,14 @@ public class DynamoDBTableNodeDecorator implements ILightweightLabelDecorator {
 
             TableStatus tableStatus = dynamoDBTableNode.getTableStatus();
             if ( null != tableStatus ) {
-                decoration.addSuffix(" (" + tableStatus.toString() + ")");
+                /* Never describe the table here, decorating must not wait for DynamoDB */
+                TableDescription table = TableDescriptionCache.getInstance()
+                        .getCachedTable(null, dynamoDBTableNode.getTableName());
+                if ( null != table && null != table.getItemCount() ) {
+                    decoration.addSuffix(" (" + tableStatus.toString() + ", " + table.getItemCount() + " items)");
+                } else {
+                    decoration.addSuffix(" (" + tableStatus.toString() + ")");
+                }
             }
         }
     }
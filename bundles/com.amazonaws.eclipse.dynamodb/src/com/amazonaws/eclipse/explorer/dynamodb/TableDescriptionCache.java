@@ -0,0 +1,243 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.dynamodb;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.amazonaws.AbortedException;
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.core.regions.RegionUtils;
+import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
+import com.amazonaws.eclipse.explorer.ExplorerOperations;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Operation;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Results;
+import com.amazonaws.eclipse.explorer.RequestRateLimiter;
+import com.amazonaws.services.dynamodbv2.AmazonDynamoDB;
+import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
+import com.amazonaws.services.dynamodbv2.model.TableDescription;
+import com.amazonaws.services.dynamodbv2.model.TableStatus;
+
+/**
+ * Cache of the descriptions of DynamoDB tables (status, item count, size,
+ * indexes...), shared by the explorer nodes, their decorators, the table
+ * properties dialog and the table editor, so they don't each describe the same
+ * tables again.
+ * <p>
+ * Descriptions of ACTIVE tables are reused for a minute; descriptions of
+ * tables being created, updated or deleted only for a couple of seconds, so
+ * status changes are still picked up on the next status refresh. Many tables
+ * are described concurrently, but never faster than DescribeTable's rate
+ * limit allows.
+ *
+ * @ThreadSafe
+ */
+public class TableDescriptionCache {
+
+    /** How long the description of an ACTIVE table is reused */
+    private static final long ACTIVE_TTL_MILLIS = 60 * 1000;
+
+    /** How long the description of a table changing status is reused */
+    private static final long TRANSITIONING_TTL_MILLIS = 2 * 1000;
+
+    /** The maximum number of DescribeTable requests sent per second */
+    private static final int MAX_DESCRIBE_REQUESTS_PER_SECOND = 10;
+
+    private static final String RESOURCE_NOT_FOUND_ERROR_CODE = "ResourceNotFoundException";
+
+    private static final TableDescriptionCache instance = new TableDescriptionCache();
+
+    private final Map<TableKey, CachedDescription> descriptions = new ConcurrentHashMap<TableKey, CachedDescription>();
+
+    private final RequestRateLimiter describeRateLimiter = new RequestRateLimiter(MAX_DESCRIBE_REQUESTS_PER_SECOND);
+
+    public static TableDescriptionCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the description of a table, describing it only if it isn't
+     * cached or its entry expired. May wait for DescribeTable's rate limit, so
+     * must not be called from the UI thread.
+     *
+     * @param accountId
+     *            The account owning the table, or null for the currently
+     *            selected account.
+     */
+    public TableDescription getTable(String accountId, String tableName) {
+        TableKey key = new TableKey(accountId, tableName);
+        TableDescription table = getFreshTable(key);
+        if (table != null) return table;
+
+        try {
+            describeRateLimiter.acquire();
+            return describe(key);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new AbortedException("Interrupted while waiting to describe table " + tableName, e);
+        }
+    }
+
+    /**
+     * Returns the descriptions of many tables at once, describing
+     * concurrently the ones that aren't cached or whose entry expired. Tables
+     * that couldn't be described are returned in the failures of the results.
+     *
+     * @param accountId
+     *            The account owning the tables, or null for the currently
+     *            selected account.
+     */
+    public Results<String, TableDescription> getTables(String accountId, Collection<String> tableNames)
+            throws InterruptedException {
+        final String resolvedAccountId = resolveAccountId(accountId);
+        final String endpoint = getEndpoint();
+
+        Map<String, TableDescription> freshTables = new LinkedHashMap<String, TableDescription>();
+        List<String> staleTableNames = new ArrayList<String>();
+        for (String tableName : tableNames) {
+            TableDescription table = getFreshTable(new TableKey(resolvedAccountId, endpoint, tableName));
+            if (table != null) freshTables.put(tableName, table);
+            else staleTableNames.add(tableName);
+        }
+
+        // Waits for the rate limit here, rather than in the shared explorer threads
+        Results<String, TableDescription> results = ExplorerOperations.runAll(staleTableNames,
+                new Operation<String, TableDescription>() {
+                    public TableDescription run(String tableName) throws Exception {
+                        return describe(new TableKey(resolvedAccountId, endpoint, tableName));
+                    }
+                }, describeRateLimiter);
+        results.getSuccesses().putAll(freshTables);
+        return results;
+    }
+
+    /**
+     * Returns the last description of a table, however old, without ever
+     * describing it; or null if the table was never described. Safe to call
+     * from the UI thread.
+     *
+     * @param accountId
+     *            The account owning the table, or null for the currently
+     *            selected account.
+     */
+    public TableDescription getCachedTable(String accountId, String tableName) {
+        CachedDescription cached = descriptions.get(new TableKey(accountId, tableName));
+        return cached == null ? null : cached.table;
+    }
+
+    /**
+     * Forgets the description of a table, after it was changed.
+     */
+    public void invalidate(String accountId, String tableName) {
+        descriptions.remove(new TableKey(accountId, tableName));
+    }
+
+    /**
+     * Returns whether the specified exception means that the table doesn't
+     * exist anymore.
+     */
+    public static boolean isTableNotFound(Exception e) {
+        return e instanceof AmazonServiceException
+                && RESOURCE_NOT_FOUND_ERROR_CODE.equalsIgnoreCase(((AmazonServiceException) e).getErrorCode());
+    }
+
+    private TableDescription getFreshTable(TableKey key) {
+        CachedDescription cached = descriptions.get(key);
+        if (cached == null) return null;
+
+        long ttl = TableStatus.ACTIVE.toString().equals(cached.table.getTableStatus())
+                ? ACTIVE_TTL_MILLIS : TRANSITIONING_TTL_MILLIS;
+        return System.currentTimeMillis() - cached.loadedAt < ttl ? cached.table : null;
+    }
+
+    /**
+     * Describes a table; callers wait for the rate limiter first.
+     */
+    private TableDescription describe(TableKey key) {
+        AmazonDynamoDB dynamoDB = AwsToolkitCore.getClientFactory(key.accountId).getDynamoDBV2Client();
+        try {
+            TableDescription table = dynamoDB.describeTable(
+                    new DescribeTableRequest().withTableName(key.tableName)).getTable();
+            descriptions.put(key, new CachedDescription(table));
+            return table;
+        } catch (AmazonServiceException e) {
+            if (isTableNotFound(e)) descriptions.remove(key);
+            throw e;
+        }
+    }
+
+    private static String resolveAccountId(String accountId) {
+        return accountId != null ? accountId : AwsToolkitCore.getDefault().getCurrentAccountId();
+    }
+
+    private static String getEndpoint() {
+        return RegionUtils.getCurrentRegion().getServiceEndpoint(ServiceAbbreviations.DYNAMODB);
+    }
+
+    /**
+     * Identifies a table by its account, its region's endpoint (which also
+     * tells apart the tables of DynamoDB Local) and its name.
+     */
+    private static class TableKey {
+        private final String accountId;
+        private final String endpoint;
+        private final String tableName;
+
+        TableKey(String accountId, String tableName) {
+            this(resolveAccountId(accountId), getEndpoint(), tableName);
+        }
+
+        TableKey(String accountId, String endpoint, String tableName) {
+            this.accountId = accountId;
+            this.endpoint = endpoint;
+            this.tableName = tableName;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TableKey)) return false;
+            TableKey other = (TableKey) obj;
+            return equal(accountId, other.accountId)
+                    && equal(endpoint, other.endpoint)
+                    && tableName.equals(other.tableName);
+        }
+
+        @Override
+        public int hashCode() {
+            int hash = tableName.hashCode();
+            hash = 31 * hash + (accountId == null ? 0 : accountId.hashCode());
+            hash = 31 * hash + (endpoint == null ? 0 : endpoint.hashCode());
+            return hash;
+        }
+
+        private static boolean equal(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+    }
+
+    private static class CachedDescription {
+        private final TableDescription table;
+        private final long loadedAt = System.currentTimeMillis();
+
+        CachedDescription(TableDescription table) {
+            this.table = table;
+        }
+    }
+}
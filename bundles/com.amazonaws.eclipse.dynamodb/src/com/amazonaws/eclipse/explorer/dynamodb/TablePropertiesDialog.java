@@ -40,7 +40,6 @@ import org.eclipse.swt.widgets.Text;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.services.dynamodbv2.model.AttributeDefinition;
-import com.amazonaws.services.dynamodbv2.model.DescribeTableRequest;
 import com.amazonaws.services.dynamodbv2.model.KeySchemaElement;
 import com.amazonaws.services.dynamodbv2.model.KeyType;
 import com.amazonaws.services.dynamodbv2.model.LocalSecondaryIndexDescription;
@@ -62,13 +61,17 @@ public class TablePropertiesDialog extends MessageDialog {
     private Long readCapacity;
     private Long writeCapacity;
 
-    protected TablePropertiesDialog(String tableName) {
+    /**
+     * @param tableDescription
+     *            The description of the table, loaded beforehand so the UI
+     *            thread never waits for DescribeTable.
+     */
+    protected TablePropertiesDialog(String tableName, TableDescription tableDescription) {
         super(Display.getCurrent().getActiveShell(), "Table properties for " + tableName, AwsToolkitCore.getDefault().getImageRegistry()
                 .get(AwsToolkitCore.IMAGE_AWS_ICON), null,
                 MessageDialog.NONE, new String[] { "Update", "Cancel" }, 1);
         this.tableName = tableName;
-        tableDescription = AwsToolkitCore.getClientFactory().getDynamoDBV2Client()
-                .describeTable(new DescribeTableRequest().withTableName(tableName)).getTable();
+        this.tableDescription = tableDescription;
         readCapacity = tableDescription.getProvisionedThroughput().getReadCapacityUnits();
         writeCapacity = tableDescription.getProvisionedThroughput().getWriteCapacityUnits();
         setShellStyle(getShellStyle() | SWT.RESIZE);
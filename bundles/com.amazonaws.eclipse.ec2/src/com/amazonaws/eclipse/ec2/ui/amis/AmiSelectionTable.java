@@ -327,27 +327,7 @@ public class AmiSelectionTable extends SelectionTable implements IMenu {
             }
 
             // We filter based on Text filter and Drop down Filters
-            String[] searchTerms = (filter == null ? null : filter.split(" "));
-
-            List<Image> tempFilteredImages = new ArrayList<Image>(unfilteredImages.size());
-            for (Image image : unfilteredImages) {
-
-                boolean containsAllTerms = true;
-                if(searchTerms != null) {
-                    for (String searchTerm : searchTerms) {
-                        String imageDescription = image.getImageId() + " " + image.getImageLocation() + image.getOwnerId() + image.getState();
-                        if (!imageDescription.toLowerCase().contains(searchTerm.toLowerCase())) {
-                            containsAllTerms = false;
-                        }
-                    }
-                }
-
-                if (containsAllTerms) {
-                    tempFilteredImages.add(image);
-                }
-            }
-
-            filteredImages = tempFilteredImages;
+            filteredImages = new ImageFilter(filter).filter(unfilteredImages);
 
             noOfAMIs = filteredImages.size();
             viewer.getTree().setItemCount(filteredImages.size());
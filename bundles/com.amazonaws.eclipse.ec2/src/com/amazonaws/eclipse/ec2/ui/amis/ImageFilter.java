@@ -0,0 +1,66 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.ec2.ui.amis;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import com.amazonaws.services.ec2.model.Image;
+
+/**
+ * Text filter of the AMI selection table. An image matches when its ID,
+ * location, owner and state contain every space-separated search term,
+ * ignoring case.
+ */
+public class ImageFilter {
+
+    /** The lower case search terms, or null to match all images */
+    private final String[] searchTerms;
+
+    public ImageFilter(String filter) {
+        if (filter == null) {
+            searchTerms = null;
+        } else {
+            searchTerms = filter.toLowerCase(Locale.ENGLISH).split(" ");
+        }
+    }
+
+    public boolean matches(Image image) {
+        if (searchTerms == null) return true;
+
+        String imageDescription = (image.getImageId() + " " + image.getImageLocation()
+                + image.getOwnerId() + image.getState()).toLowerCase(Locale.ENGLISH);
+        for (String searchTerm : searchTerms) {
+            if (!imageDescription.contains(searchTerm)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the images that match the filter, in the same order.
+     */
+    public List<Image> filter(List<Image> images) {
+        List<Image> filteredImages = new ArrayList<Image>(images.size());
+        for (Image image : images) {
+            if (matches(image)) {
+                filteredImages.add(image);
+            }
+        }
+        return filteredImages;
+    }
+}
@@ -128,6 +128,7 @@ public class ElasticBeanstalkPlugin extends AbstractAwsPlugin implements IStartu
     public void stop(BundleContext context) throws Exception {
         plugin = null;
         syncEnvironmentsJob.cancel();
+        EnvironmentMonitor.cancelAll();
         ServerCore.removeServerLifecycleListener(newServerListener);
         super.stop(context);
         if (subtleDialogFont != null) subtleDialogFont.dispose();
@@ -142,7 +143,7 @@ public class ElasticBeanstalkPlugin extends AbstractAwsPlugin implements IStartu
 
     public void syncEnvironments() {
         if ( syncEnvironmentsJob != null )
-            syncEnvironmentsJob.wakeUp();
+            syncEnvironmentsJob.schedule();
     }
 
     @Override
@@ -299,8 +300,8 @@ public class ElasticBeanstalkPlugin extends AbstractAwsPlugin implements IStartu
     }
 
     /**
-     * Listens for the creation of new elastic beanstalk servers and syncs all
-     * environments' status.
+     * Listens for the creation and removal of elastic beanstalk servers and
+     * syncs all environments' status.
      */
     private class NewServerListener implements IServerLifecycleListener {
 
@@ -314,6 +315,9 @@ public class ElasticBeanstalkPlugin extends AbstractAwsPlugin implements IStartu
         }
 
         public void serverRemoved(IServer server) {
+            if ( server.getServerType() != null && SERVER_TYPE_IDS.contains(server.getServerType().getId()) ) {
+                ElasticBeanstalkPlugin.getDefault().syncEnvironments();
+            }
         }
     }
 
@@ -24,11 +24,15 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.wst.server.core.IModule;
@@ -40,6 +44,9 @@ import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.Region;
 import com.amazonaws.eclipse.core.regions.RegionUtils;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
+import com.amazonaws.eclipse.core.s3.S3ArtifactUploader;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor.EnvironmentListener;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor.EnvironmentUpdate;
 import com.amazonaws.eclipse.elasticbeanstalk.resources.BeanstalkResourceProvider;
 import com.amazonaws.eclipse.elasticbeanstalk.solutionstacks.SolutionStacks;
 import com.amazonaws.eclipse.elasticbeanstalk.util.ElasticBeanstalkClientExtensions;
@@ -50,7 +57,6 @@ import com.amazonaws.services.elasticbeanstalk.model.ConfigurationOptionSetting;
 import com.amazonaws.services.elasticbeanstalk.model.CreateApplicationRequest;
 import com.amazonaws.services.elasticbeanstalk.model.CreateApplicationVersionRequest;
 import com.amazonaws.services.elasticbeanstalk.model.CreateEnvironmentRequest;
-import com.amazonaws.services.elasticbeanstalk.model.DescribeEventsRequest;
 import com.amazonaws.services.elasticbeanstalk.model.EnvironmentDescription;
 import com.amazonaws.services.elasticbeanstalk.model.EnvironmentHealth;
 import com.amazonaws.services.elasticbeanstalk.model.EnvironmentStatus;
@@ -75,8 +81,11 @@ public class ElasticBeanstalkPublishingUtils {
     /** Duration (in milliseconds) before we give up polling for deployment status */
     private static final int POLLING_TIMEOUT = 1000 * 60 * 20;
 
-    /** Period (in milliseconds) between attempts to poll */
-    private static final int PAUSE = 1000 * 15;
+    /** Period (in milliseconds) between checks for cancellation while waiting for the environment */
+    private static final int PAUSE = 1000;
+
+    /** Duration (in milliseconds) before trusting that an environment reported as ready isn't about to update */
+    private static final int UPDATE_GRACE_PERIOD = 1000 * 15;
 
     private final BeanstalkResourceProvider resourceProvider = new BeanstalkResourceProvider();
     private final AWSElasticBeanstalk beanstalkClient;
@@ -126,13 +135,14 @@ public class ElasticBeanstalkPublishingUtils {
             monitor.setTaskName("Uploading application to Amazon S3");
 
             long startTime = System.currentTimeMillis();
-            s3.putObject(bucketName, key, war.toFile());
+            new S3ArtifactUploader(s3).upload(bucketName, key, war.toFile(), monitor, 40);
             long endTime = System.currentTimeMillis();
 
             ElasticBeanstalkAnalytics.trackUploadMetrics(endTime - startTime, war.toFile().length());
 
             checkForCancellation(monitor);
-            monitor.worked(40);
+        } catch (OperationCanceledException oce) {
+            throw new CoreException(new Status(Status.CANCEL, ElasticBeanstalkPlugin.PLUGIN_ID, "Canceled"));
         } catch (AmazonClientException ace) {
             throw new CoreException(new Status(IStatus.ERROR, ElasticBeanstalkPlugin.PLUGIN_ID,
                     "Unable to upload application to Amazon S3: " + ace.getMessage(), ace));
@@ -487,82 +497,106 @@ public class ElasticBeanstalkPublishingUtils {
         monitor.beginTask("Waiting for environment to become available", POLLING_TIMEOUT);
         monitor.setTaskName("Waiting for environment to become available");
 
-        while (System.currentTimeMillis() - startTime < POLLING_TIMEOUT) {
-            List<EventDescription> events = beanstalkClient.describeEvents(
-                    new DescribeEventsRequest().withEnvironmentName(environmentName).withStartTime(eventStartTime))
-                    .getEvents();
-            if (events.size() > 0) {
-                String status = "Latest Event: " + events.get(0).getMessage();
-                if (launchingNewEnvironment) {
-                    status += "  (Note: Launching a new environment may take several minutes)";
-                } else {
-                    status += "  (Note: Updating an environment may take several minutes)";
-                }
-                monitor.setTaskName(status);
-            }
-
-            try {
-                Thread.sleep(PAUSE);
-            } catch (Exception e) {
-            }
-            if (monitor.isCanceled()) {
-                return;
+        // The environment is polled along with all the others of the
+        // region, faster while it's updating
+        final BlockingQueue<EnvironmentUpdate> updates = new LinkedBlockingQueue<EnvironmentUpdate>();
+        EnvironmentListener listener = new EnvironmentListener() {
+            public void environmentPolled(EnvironmentUpdate update) {
+                updates.add(update);
             }
+        };
+        EnvironmentMonitor environmentMonitor = EnvironmentMonitor.getInstance(environment);
+        environmentMonitor.subscribe(environmentName, listener, true);
 
-            if (runnable != null) {
+        try {
+            while (System.currentTimeMillis() - startTime < POLLING_TIMEOUT) {
+                EnvironmentUpdate update;
                 try {
-                    runnable.run();
-                } catch (Exception e) {
-                    Status status = new Status(Status.INFO, ElasticBeanstalkPlugin.PLUGIN_ID, e.getMessage(), e);
-                    StatusManager.getManager().handle(status, StatusManager.LOG);
+                    update = updates.poll(PAUSE, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                if (monitor.isCanceled()) {
+                    return;
+                }
+                if (update == null) {
+                    continue;
                 }
-            }
 
-            try {
-                trace("Polling environment for status...");
-                EnvironmentDescription environmentDesc = beanstalkClientExtensions
-                        .getEnvironmentDescription(environmentName);
-                if (environmentDesc != null) {
-                    trace(" - " + environmentDesc.getStatus());
+                List<EventDescription> events = update.getNewEvents();
+                if (events.size() > 0 && events.get(0).getEventDate().after(eventStartTime)) {
+                    String status = "Latest Event: " + events.get(0).getMessage();
+                    if (launchingNewEnvironment) {
+                        status += "  (Note: Launching a new environment may take several minutes)";
+                    } else {
+                        status += "  (Note: Updating an environment may take several minutes)";
+                    }
+                    monitor.setTaskName(status);
+                }
 
-                    EnvironmentStatus environmentStatus = null;
+                if (runnable != null) {
                     try {
-                        environmentStatus = EnvironmentStatus.fromValue(environmentDesc.getStatus());
-                    } catch (IllegalArgumentException e) {
-                        Status status = new Status(Status.INFO, ElasticBeanstalkPlugin.PLUGIN_ID,
-                                "Unknown environment status: " + environmentDesc.getStatus());
+                        runnable.run();
+                    } catch (Exception e) {
+                        Status status = new Status(Status.INFO, ElasticBeanstalkPlugin.PLUGIN_ID, e.getMessage(), e);
                         StatusManager.getManager().handle(status, StatusManager.LOG);
-                        continue;
                     }
+                }
 
-                    switch (environmentStatus) {
-                    case Ready:
-                        trace("   - Health: " + environmentDesc.getHealth());
-                        if (EnvironmentHealth.Green.toString().equalsIgnoreCase(environmentDesc.getHealth())) {
-                            trace("**Server started**");
-                            Status status = new Status(Status.INFO, ElasticBeanstalkPlugin.PLUGIN_ID,
-                                    "Deployed application '" + applicationName + "' " + "to environment '"
-                                            + environmentName + "' " + "\nApplication available at: "
-                                            + environmentDesc.getCNAME());
-                            StatusManager.getManager().handle(status, StatusManager.LOG);
-                            return;
-                        }
-                        break;
-                    case Terminated:
-                    case Terminating:
+                if (update.getError() != null) {
+                    if (errorCount++ > 4) {
                         throw new CoreException(new Status(Status.ERROR, ElasticBeanstalkPlugin.PLUGIN_ID,
-                                "Environment failed to deploy.  Check environment events for more details."));
+                                "Unable to detect application deployment: " + update.getError().getMessage(),
+                                update.getError()));
                     }
+                    continue;
                 }
 
                 // reset error count so that we only count consecutive errors
                 errorCount = 0;
-            } catch (AmazonClientException ace) {
-                if (errorCount++ > 4) {
+
+                EnvironmentDescription environmentDesc = update.getDescription();
+                if (environmentDesc == null) {
+                    continue;
+                }
+                trace(" - " + environmentDesc.getStatus());
+
+                EnvironmentStatus environmentStatus = null;
+                try {
+                    environmentStatus = EnvironmentStatus.fromValue(environmentDesc.getStatus());
+                } catch (IllegalArgumentException e) {
+                    Status status = new Status(Status.INFO, ElasticBeanstalkPlugin.PLUGIN_ID,
+                            "Unknown environment status: " + environmentDesc.getStatus());
+                    StatusManager.getManager().handle(status, StatusManager.LOG);
+                    continue;
+                }
+
+                switch (environmentStatus) {
+                case Ready:
+                    // The environment may not be reported as updating yet
+                    if (System.currentTimeMillis() - startTime < UPDATE_GRACE_PERIOD) {
+                        break;
+                    }
+                    trace("   - Health: " + environmentDesc.getHealth());
+                    if (EnvironmentHealth.Green.toString().equalsIgnoreCase(environmentDesc.getHealth())) {
+                        trace("**Server started**");
+                        Status status = new Status(Status.INFO, ElasticBeanstalkPlugin.PLUGIN_ID,
+                                "Deployed application '" + applicationName + "' " + "to environment '"
+                                        + environmentName + "' " + "\nApplication available at: "
+                                        + environmentDesc.getCNAME());
+                        StatusManager.getManager().handle(status, StatusManager.LOG);
+                        return;
+                    }
+                    break;
+                case Terminated:
+                case Terminating:
                     throw new CoreException(new Status(Status.ERROR, ElasticBeanstalkPlugin.PLUGIN_ID,
-                            "Unable to detect application deployment: " + ace.getMessage(), ace));
+                            "Environment failed to deploy.  Check environment events for more details."));
                 }
             }
+        } finally {
+            environmentMonitor.unsubscribe(environmentName, listener);
         }
 
         throw new CoreException(new Status(Status.ERROR, ElasticBeanstalkPlugin.PLUGIN_ID,
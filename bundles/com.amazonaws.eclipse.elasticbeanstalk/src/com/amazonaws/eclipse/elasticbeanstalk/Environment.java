@@ -586,6 +586,15 @@ public class Environment extends ServerDelegate {
      * Returns a client for this environment.
      */
     public AWSElasticBeanstalk getClient() {
+        return AwsToolkitCore.getClientFactory(getClientAccountId())
+                .getElasticBeanstalkClientByEndpoint(getRegionEndpoint());
+    }
+
+    /**
+     * Returns the ID of the account whose credentials are used to access this
+     * environment: its own account, or the current one if it was removed.
+     */
+    public String getClientAccountId() {
         AccountInfo account = AwsToolkitCore.getDefault()
                 .getAccountManager()
                     .getAccountInfo(getAccountId());
@@ -596,8 +605,7 @@ public class Environment extends ServerDelegate {
             account = AwsToolkitCore.getDefault().getAccountInfo();
         }
 
-        return AwsToolkitCore.getClientFactory(account.getInternalAccountId())
-                .getElasticBeanstalkClientByEndpoint(getRegionEndpoint());
+        return account.getInternalAccountId();
     }
 
     /**
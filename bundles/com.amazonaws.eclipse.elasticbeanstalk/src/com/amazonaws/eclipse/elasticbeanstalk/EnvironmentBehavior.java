@@ -121,7 +121,8 @@ public class EnvironmentBehavior extends ServerBehaviourDelegate {
         if (deltaKind == REMOVED) return;
 
         // TODO: If we can ask the job what module its uploading, we can check and not export twice
-        IPath exportedWar = WTPWarUtils.exportProjectToWar(moduleTree[0].getProject(), getTempDirectory());
+        // The WAR is kept in the server's temp directory, so only the files changed since the last publish are compressed
+        IPath exportedWar = WTPWarUtils.exportProjectToWarIncrementally(moduleTree[0].getProject(), getTempDirectory());
         monitor.worked(100);
         trace("Created war: " + exportedWar.toOSString());
         currentUpdateEnvironmentJob.setModuleToPublish(moduleTree[0], exportedWar);
@@ -0,0 +1,615 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.elasticbeanstalk;
+
+import static com.amazonaws.eclipse.elasticbeanstalk.ElasticBeanstalkPlugin.trace;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.amazonaws.AmazonClientException;
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.services.elasticbeanstalk.AWSElasticBeanstalk;
+import com.amazonaws.services.elasticbeanstalk.model.DescribeEnvironmentsRequest;
+import com.amazonaws.services.elasticbeanstalk.model.DescribeEventsRequest;
+import com.amazonaws.services.elasticbeanstalk.model.DescribeEventsResult;
+import com.amazonaws.services.elasticbeanstalk.model.EnvironmentDescription;
+import com.amazonaws.services.elasticbeanstalk.model.EnvironmentStatus;
+import com.amazonaws.services.elasticbeanstalk.model.EventDescription;
+
+/**
+ * Polls the status and events of the AWS Elastic Beanstalk environments of an
+ * account in a region on behalf of all the parts of the toolkit interested in
+ * them (servers, publishing jobs, editors...), so the same environments aren't
+ * described again by each of them.
+ * <p>
+ * Each poll describes all the subscribed environments with a single
+ * DescribeEnvironments request, and, if anyone subscribed to events, fetches
+ * the events of the whole region published since the last poll with a single
+ * DescribeEvents request. Polls are five seconds apart while an environment is
+ * launching, updating or terminating, and back off up to four minutes when
+ * they are all stable; or to thirty seconds when someone is watching events.
+ *
+ * @ThreadSafe
+ */
+public class EnvironmentMonitor {
+
+    /** The delay between polls while an environment is changing status */
+    private static final long MIN_DELAY = 1000 * 5;
+
+    /** The longest delay between polls while someone is watching events */
+    private static final long WATCHED_MAX_DELAY = 1000 * 30;
+
+    /** The longest delay between polls when all environments are stable */
+    private static final long MAX_DELAY = 1000 * 60 * 4;
+
+    /**
+     * How far back events are fetched again, in case they became visible
+     * after newer events were already fetched.
+     */
+    private static final long EVENT_OVERLAP = 1000 * 60;
+
+    /** How far back events are fetched the first time, if none were seen yet */
+    private static final long INITIAL_EVENT_WINDOW = 1000 * 60 * 30;
+
+    /** The maximum number of events kept for each environment */
+    private static final int MAX_EVENTS = 1000;
+
+    private static final Map<String, EnvironmentMonitor> instances = new HashMap<String, EnvironmentMonitor>();
+
+    private final String accountId;
+    private final String regionEndpoint;
+    private final PollJob job = new PollJob();
+
+    // Guarded by this
+    private final List<Subscription> subscriptions = new ArrayList<Subscription>();
+    private final Map<String, EnvironmentState> environments = new HashMap<String, EnvironmentState>();
+    private Date lastEventDate;
+    private long delay = MIN_DELAY;
+    private boolean pollRequested;
+    private String previousErrorMessage;
+
+    /**
+     * Receives the results of the polls of an environment.
+     */
+    public interface EnvironmentListener {
+
+        /**
+         * Called from the polling job after each poll of the environment,
+         * whether it succeeded or not.
+         */
+        void environmentPolled(EnvironmentUpdate update);
+    }
+
+    /**
+     * What a poll found out about an environment.
+     */
+    public static class EnvironmentUpdate {
+        private final String environmentName;
+        private final EnvironmentDescription description;
+        private final boolean descriptionChanged;
+        private final List<EventDescription> newEvents;
+        private final AmazonClientException error;
+
+        EnvironmentUpdate(String environmentName, EnvironmentDescription description, boolean descriptionChanged,
+                List<EventDescription> newEvents, AmazonClientException error) {
+            this.environmentName = environmentName;
+            this.description = description;
+            this.descriptionChanged = descriptionChanged;
+            this.newEvents = newEvents;
+            this.error = error;
+        }
+
+        public String getEnvironmentName() {
+            return environmentName;
+        }
+
+        /**
+         * Returns the latest description of the environment, or null if it
+         * doesn't exist or the poll failed.
+         */
+        public EnvironmentDescription getDescription() {
+            return description;
+        }
+
+        /**
+         * Returns whether the description changed since it was last passed to
+         * this listener. Always true for the first update after subscribing,
+         * or after {@link EnvironmentMonitor#pollNow()}.
+         */
+        public boolean isDescriptionChanged() {
+            return descriptionChanged;
+        }
+
+        /**
+         * Returns the events not passed to this listener yet, newest first:
+         * all the known events of the environment for the first update after
+         * subscribing. Always empty for listeners that didn't subscribe to
+         * events.
+         */
+        public List<EventDescription> getNewEvents() {
+            return newEvents;
+        }
+
+        /**
+         * Returns the error that made the poll fail, or null if it succeeded.
+         */
+        public AmazonClientException getError() {
+            return error;
+        }
+    }
+
+    /**
+     * Returns the monitor of the environments of the specified account in the
+     * region with the specified AWS Elastic Beanstalk endpoint.
+     */
+    public static EnvironmentMonitor getInstance(String accountId, String regionEndpoint) {
+        String key = accountId + " " + regionEndpoint;
+        synchronized (instances) {
+            EnvironmentMonitor monitor = instances.get(key);
+            if (monitor == null) {
+                monitor = new EnvironmentMonitor(accountId, regionEndpoint);
+                instances.put(key, monitor);
+            }
+            return monitor;
+        }
+    }
+
+    /**
+     * Returns the monitor of the account and region of the environment given.
+     */
+    public static EnvironmentMonitor getInstance(Environment environment) {
+        return getInstance(environment.getClientAccountId(), environment.getRegionEndpoint());
+    }
+
+    /**
+     * Stops polling for all the monitors, when the plugin is stopped.
+     */
+    static void cancelAll() {
+        synchronized (instances) {
+            for (EnvironmentMonitor monitor : instances.values()) {
+                monitor.job.cancel();
+            }
+        }
+    }
+
+    /**
+     * Only used directly by unit tests, which override {@link #getClient()};
+     * monitors are otherwise shared through {@link #getInstance(String, String)}.
+     */
+    EnvironmentMonitor(String accountId, String regionEndpoint) {
+        this.accountId = accountId;
+        this.regionEndpoint = regionEndpoint;
+    }
+
+    /**
+     * Starts polling the specified environment for the listener given. The
+     * listener receives its first update right after the next poll, which
+     * happens immediately.
+     *
+     * @param withEvents
+     *            Whether the listener is interested in the events of the
+     *            environment, and not only its description.
+     */
+    public synchronized void subscribe(String environmentName, EnvironmentListener listener, boolean withEvents) {
+        subscriptions.add(new Subscription(environmentName, listener, withEvents));
+        requestPoll();
+    }
+
+    /**
+     * Stops polling the specified environment for the listener given. It may
+     * still receive the update of a poll in progress.
+     */
+    public synchronized void unsubscribe(String environmentName, EnvironmentListener listener) {
+        for (Iterator<Subscription> iterator = subscriptions.iterator(); iterator.hasNext();) {
+            Subscription subscription = iterator.next();
+            if (subscription.environmentName.equals(environmentName) && subscription.listener == listener) {
+                iterator.remove();
+                break;
+            }
+        }
+
+        boolean watchingEvents = false;
+        Set<String> environmentNames = new HashSet<String>();
+        for (Subscription subscription : subscriptions) {
+            environmentNames.add(subscription.environmentName);
+            watchingEvents |= subscription.withEvents;
+        }
+        environments.keySet().retainAll(environmentNames);
+        if (!watchingEvents) {
+            // Events will be loaded again from scratch, rather than since the last poll
+            lastEventDate = null;
+            for (EnvironmentState state : environments.values()) {
+                state.events = null;
+            }
+        }
+    }
+
+    /**
+     * Polls all the subscribed environments right away, for instance after
+     * starting to change one of them, and passes their description to all
+     * the listeners even if it didn't change.
+     */
+    public synchronized void pollNow() {
+        for (Subscription subscription : subscriptions) {
+            subscription.descriptionVersion = -1;
+        }
+        delay = MIN_DELAY;
+        requestPoll();
+    }
+
+    /**
+     * Returns the latest description of the specified environment, or null if
+     * it wasn't polled yet or doesn't exist. Never sends any request.
+     */
+    public synchronized EnvironmentDescription getEnvironmentDescription(String environmentName) {
+        EnvironmentState state = environments.get(environmentName);
+        return state == null ? null : state.description;
+    }
+
+    /**
+     * Returns the known events of the specified environment, newest first.
+     * Never sends any request.
+     */
+    public synchronized List<EventDescription> getEvents(String environmentName) {
+        EnvironmentState state = environments.get(environmentName);
+        if (state == null || state.events == null) return new ArrayList<EventDescription>();
+        return new ArrayList<EventDescription>(state.events);
+    }
+
+    /**
+     * Returns the delay until the next poll, if no poll is requested before.
+     */
+    synchronized long getDelay() {
+        return delay;
+    }
+
+    // Called with the lock held
+    private void requestPoll() {
+        pollRequested = true;
+        if (job.getState() == Job.SLEEPING) {
+            job.wakeUp();
+        } else {
+            job.schedule();
+        }
+    }
+
+    AWSElasticBeanstalk getClient() {
+        return AwsToolkitCore.getClientFactory(accountId).getElasticBeanstalkClientByEndpoint(regionEndpoint);
+    }
+
+    private class PollJob extends Job {
+
+        PollJob() {
+            super("Monitoring AWS Elastic Beanstalk environments");
+            setSystem(true);
+            setPriority(LONG);
+        }
+
+        @Override
+        protected IStatus run(IProgressMonitor monitor) {
+            Set<String> environmentNames = new HashSet<String>();
+            Set<String> eventEnvironmentNames = new HashSet<String>();
+            Set<String> environmentsWithoutHistory = new HashSet<String>();
+            Date eventStartDate;
+            synchronized (EnvironmentMonitor.this) {
+                pollRequested = false;
+                for (Subscription subscription : subscriptions) {
+                    environmentNames.add(subscription.environmentName);
+                    if (subscription.withEvents) {
+                        eventEnvironmentNames.add(subscription.environmentName);
+                        EnvironmentState state = environments.get(subscription.environmentName);
+                        if (state == null || state.events == null) {
+                            environmentsWithoutHistory.add(subscription.environmentName);
+                        }
+                    }
+                }
+                eventStartDate = lastEventDate;
+            }
+            if (environmentNames.isEmpty()) return Status.OK_STATUS;
+
+            trace("Polling environments " + environmentNames + " (" + regionEndpoint + ")");
+            Map<String, EnvironmentDescription> descriptions = null;
+            Map<String, List<EventDescription>> histories = new HashMap<String, List<EventDescription>>();
+            List<EventDescription> recentEvents = new ArrayList<EventDescription>();
+            AmazonClientException error = null;
+            try {
+                AWSElasticBeanstalk client = getClient();
+                descriptions = describeEnvironments(client, environmentNames);
+
+                // Events of newly subscribed environments are loaded once
+                // each, then all environments get the events of the region
+                // published since the latest one seen
+                for (String environmentName : environmentsWithoutHistory) {
+                    List<EventDescription> history = client.describeEvents(
+                            new DescribeEventsRequest().withEnvironmentName(environmentName)).getEvents();
+                    histories.put(environmentName, history);
+                    eventStartDate = max(eventStartDate, getLatestEventDate(history));
+                }
+                if (!eventEnvironmentNames.isEmpty()) {
+                    if (eventStartDate == null) {
+                        eventStartDate = new Date(System.currentTimeMillis() - INITIAL_EVENT_WINDOW);
+                    }
+                    recentEvents = describeEventsSince(client,
+                            new Date(eventStartDate.getTime() - EVENT_OVERLAP));
+                }
+            } catch (AmazonClientException ace) {
+                error = ace;
+            }
+
+            List<Delivery> deliveries = new ArrayList<Delivery>();
+            IStatus status = Status.OK_STATUS;
+            synchronized (EnvironmentMonitor.this) {
+                if (error == null) {
+                    previousErrorMessage = null;
+                    Map<String, List<EventDescription>> newEvents = updateEnvironments(
+                            environmentNames, descriptions, histories, recentEvents);
+
+                    for (Subscription subscription : subscriptions) {
+                        EnvironmentState state = environments.get(subscription.environmentName);
+                        if (state == null) continue;
+                        deliveries.add(new Delivery(subscription.listener, subscription.update(state, newEvents)));
+                    }
+                } else {
+                    for (Subscription subscription : subscriptions) {
+                        deliveries.add(new Delivery(subscription.listener, new EnvironmentUpdate(
+                                subscription.environmentName, null, false,
+                                Collections.<EventDescription>emptyList(), error)));
+                    }
+
+                    // Don't keep complaining about being unable to poll
+                    if (!equal(error.getMessage(), previousErrorMessage)) {
+                        previousErrorMessage = error.getMessage();
+                        status = new Status(Status.WARNING, ElasticBeanstalkPlugin.PLUGIN_ID,
+                                "Unable to synchronize AWS Elastic Beanstalk environments", error);
+                    }
+                }
+
+                // A failed poll keeps the pace set by the last known state of
+                // the environments, so that one throttled request doesn't
+                // delay the next status of an environment being updated
+                boolean transitioning = false;
+                boolean watchingEvents = false;
+                for (Subscription subscription : subscriptions) {
+                    watchingEvents |= subscription.withEvents;
+                }
+                for (EnvironmentState state : environments.values()) {
+                    transitioning |= isTransitioning(state.description);
+                }
+                delay = nextDelay(delay, transitioning, watchingEvents);
+                if (pollRequested) {
+                    schedule();
+                } else if (!subscriptions.isEmpty()) {
+                    schedule(delay);
+                }
+            }
+
+            for (Delivery delivery : deliveries) {
+                try {
+                    delivery.listener.environmentPolled(delivery.update);
+                } catch (RuntimeException e) {
+                    ElasticBeanstalkPlugin.getDefault().getLog().log(new Status(Status.WARNING,
+                            ElasticBeanstalkPlugin.PLUGIN_ID, "Unable to process the status of environment "
+                                    + delivery.update.getEnvironmentName(), e));
+                }
+            }
+            return status;
+        }
+    }
+
+    /**
+     * Records the results of a successful poll, and returns the events of
+     * each environment that weren't known before.
+     */
+    // Called with the lock held
+    private Map<String, List<EventDescription>> updateEnvironments(Set<String> environmentNames,
+            Map<String, EnvironmentDescription> descriptions, Map<String, List<EventDescription>> histories,
+            List<EventDescription> recentEvents) {
+        Set<String> subscribedNames = new HashSet<String>();
+        for (Subscription subscription : subscriptions) {
+            subscribedNames.add(subscription.environmentName);
+        }
+
+        for (String environmentName : environmentNames) {
+            // Skip environments unsubscribed during the poll
+            if (!subscribedNames.contains(environmentName)) continue;
+
+            EnvironmentState state = environments.get(environmentName);
+            if (state == null) {
+                state = new EnvironmentState();
+                environments.put(environmentName, state);
+            }
+            EnvironmentDescription description = descriptions.get(environmentName);
+            if (state.version == 0 || !equal(description, state.description)) {
+                state.description = description;
+                state.version++;
+            }
+            if (histories.containsKey(environmentName)) {
+                state.events = new LinkedList<EventDescription>(histories.get(environmentName));
+            }
+        }
+
+        Map<String, List<EventDescription>> newEvents = new HashMap<String, List<EventDescription>>();
+        for (EventDescription event : recentEvents) {
+            lastEventDate = max(lastEventDate, event.getEventDate());
+
+            EnvironmentState state = environments.get(event.getEnvironmentName());
+            if (state == null || state.events == null || state.events.contains(event)) continue;
+
+            List<EventDescription> events = newEvents.get(event.getEnvironmentName());
+            if (events == null) {
+                events = new ArrayList<EventDescription>();
+                newEvents.put(event.getEnvironmentName(), events);
+            }
+            events.add(event);
+        }
+        for (Map.Entry<String, List<EventDescription>> entry : newEvents.entrySet()) {
+            sortNewestFirst(entry.getValue());
+            LinkedList<EventDescription> events = environments.get(entry.getKey()).events;
+            events.addAll(0, entry.getValue());
+            while (events.size() > MAX_EVENTS) {
+                events.removeLast();
+            }
+        }
+        return newEvents;
+    }
+
+    /**
+     * Returns the delay until the poll following the one that just completed:
+     * the shortest while an environment is changing status, or else twice the
+     * previous one, up to a limit.
+     */
+    static long nextDelay(long delay, boolean transitioning, boolean watchingEvents) {
+        if (transitioning) return MIN_DELAY;
+        return Math.min(delay * 2, watchingEvents ? WATCHED_MAX_DELAY : MAX_DELAY);
+    }
+
+    /**
+     * Describes all the environments given at once, and returns their
+     * descriptions by name. Environments that don't exist are left out.
+     */
+    private static Map<String, EnvironmentDescription> describeEnvironments(AWSElasticBeanstalk client,
+            Set<String> environmentNames) {
+        List<EnvironmentDescription> environments = client.describeEnvironments(
+                new DescribeEnvironmentsRequest().withEnvironmentNames(environmentNames)).getEnvironments();
+
+        // Environments terminated recently are still described, alongside
+        // any new environment with the same name
+        Map<String, EnvironmentDescription> descriptions = new HashMap<String, EnvironmentDescription>();
+        for (EnvironmentDescription environment : environments) {
+            EnvironmentDescription previous = descriptions.get(environment.getEnvironmentName());
+            if (previous == null || EnvironmentStatus.Terminated.toString().equals(previous.getStatus())) {
+                descriptions.put(environment.getEnvironmentName(), environment);
+            }
+        }
+        return descriptions;
+    }
+
+    /**
+     * Returns all the events of the region published since the date given.
+     */
+    private static List<EventDescription> describeEventsSince(AWSElasticBeanstalk client, Date startDate) {
+        List<EventDescription> events = new ArrayList<EventDescription>();
+        DescribeEventsRequest request = new DescribeEventsRequest().withStartTime(startDate);
+        do {
+            DescribeEventsResult result = client.describeEvents(request);
+            events.addAll(result.getEvents());
+            request.setNextToken(result.getNextToken());
+        } while (request.getNextToken() != null);
+        return events;
+    }
+
+    private static boolean isTransitioning(EnvironmentDescription description) {
+        if (description == null) return false;
+        String status = description.getStatus();
+        return EnvironmentStatus.Launching.toString().equals(status)
+                || EnvironmentStatus.Updating.toString().equals(status)
+                || EnvironmentStatus.Terminating.toString().equals(status);
+    }
+
+    private static Date getLatestEventDate(List<EventDescription> events) {
+        Date latest = null;
+        for (EventDescription event : events) {
+            latest = max(latest, event.getEventDate());
+        }
+        return latest;
+    }
+
+    private static Date max(Date a, Date b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        return a.after(b) ? a : b;
+    }
+
+    private static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private static void sortNewestFirst(List<EventDescription> events) {
+        Collections.sort(events, new Comparator<EventDescription>() {
+            public int compare(EventDescription a, EventDescription b) {
+                return b.getEventDate().compareTo(a.getEventDate());
+            }
+        });
+    }
+
+    /** What's known about a subscribed environment */
+    private static class EnvironmentState {
+        private EnvironmentDescription description;
+
+        /** Incremented whenever the description changes; 0 until first polled */
+        private int version;
+
+        /** The known events, newest first, or null if not loaded yet */
+        private LinkedList<EventDescription> events;
+    }
+
+    private static class Subscription {
+        private final String environmentName;
+        private final EnvironmentListener listener;
+        private final boolean withEvents;
+
+        /** The version of the description last passed to the listener */
+        private int descriptionVersion = -1;
+        private boolean eventsDelivered;
+
+        Subscription(String environmentName, EnvironmentListener listener, boolean withEvents) {
+            this.environmentName = environmentName;
+            this.listener = listener;
+            this.withEvents = withEvents;
+        }
+
+        /** Returns the update to pass to the listener, and records it as passed */
+        EnvironmentUpdate update(EnvironmentState state, Map<String, List<EventDescription>> newEvents) {
+            boolean descriptionChanged = descriptionVersion != state.version;
+            descriptionVersion = state.version;
+
+            List<EventDescription> events = Collections.emptyList();
+            if (withEvents && state.events != null) {
+                if (!eventsDelivered) {
+                    events = new ArrayList<EventDescription>(state.events);
+                    eventsDelivered = true;
+                } else if (newEvents.containsKey(environmentName)) {
+                    events = newEvents.get(environmentName);
+                }
+            }
+            return new EnvironmentUpdate(environmentName, state.description, descriptionChanged, events, null);
+        }
+    }
+
+    private static class Delivery {
+        private final EnvironmentListener listener;
+        private final EnvironmentUpdate update;
+
+        Delivery(EnvironmentListener listener, EnvironmentUpdate update) {
+            this.listener = listener;
+            this.update = update;
+        }
+    }
+}
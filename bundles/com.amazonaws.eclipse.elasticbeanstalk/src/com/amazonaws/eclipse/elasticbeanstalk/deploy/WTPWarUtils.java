@@ -22,12 +22,16 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jst.j2ee.datamodel.properties.IJ2EEComponentExportDataModelProperties;
 import org.eclipse.jst.j2ee.internal.web.archive.operations.WebComponentExportDataModelProvider;
 import org.eclipse.wst.common.frameworks.datamodel.DataModelFactory;
 import org.eclipse.wst.common.frameworks.datamodel.IDataModel;
 import org.eclipse.wst.common.frameworks.datamodel.IDataModelOperation;
 
+import com.amazonaws.eclipse.core.util.WebModuleArchiver;
+import com.amazonaws.eclipse.elasticbeanstalk.ElasticBeanstalkPlugin;
+
 /**
  * Utilities for exporting Web Tools Platform Java web application projects to
  * WAR files.
@@ -70,4 +74,26 @@ public class WTPWarUtils {
 
         return new Path(filename);
     }
+
+    /**
+     * Exports the project to a WAR file kept in the specified directory
+     * between exports, so that only the files changed since the previous
+     * export are compressed again; the entries of the other files are copied
+     * from the previous WAR file. Falls back to a full export to the same file
+     * if the project's web module can't be archived that way.
+     */
+    public static IPath exportProjectToWarIncrementally(IProject project, IPath directory) {
+        File warFile = new File(directory.toFile(), project.getName() + ".war");
+        try {
+            int compressedEntries = WebModuleArchiver.updateWar(project, warFile);
+            ElasticBeanstalkPlugin.trace("Exported " + project.getName() + " to " + warFile.getAbsolutePath()
+                    + ", compressing " + compressedEntries + " changed file(s)");
+            return new Path(warFile.getAbsolutePath());
+        } catch (Exception e) {
+            ElasticBeanstalkPlugin.getDefault().getLog().log(new Status(Status.WARNING, ElasticBeanstalkPlugin.PLUGIN_ID,
+                    "Unable to export " + project.getName() + " incrementally, exporting the whole project", e));
+            warFile.delete();
+            return exportProjectToWar(project, directory, warFile.getName());
+        }
+    }
 }
@@ -14,27 +14,45 @@
  */
 package com.amazonaws.eclipse.elasticbeanstalk.git;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.Date;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.zip.CRC32;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.io.IOUtils;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.PushCommand;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.dircache.DirCache;
+import org.eclipse.jgit.dircache.DirCacheEditor;
+import org.eclipse.jgit.dircache.DirCacheEditor.DeletePath;
+import org.eclipse.jgit.dircache.DirCacheEditor.PathEdit;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.FileMode;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.ObjectInserter;
+import org.eclipse.jgit.lib.ProgressMonitor;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.lib.RepositoryBuilder;
 import org.eclipse.jgit.transport.PushResult;
@@ -67,22 +85,33 @@ public class AWSGitPushCommand {
 
     private static final Logger log = Logger.getLogger(AWSGitPushCommand.class.getCanonicalName());
 
+    private static final int BUFFER_SIZE = 64 * 1024;
+
     public void execute() throws CoreException {
+        execute(new NullProgressMonitor());
+    }
+
+    /**
+     * Commits the content of the archive to the local repository and pushes
+     * it to AWS Elastic Beanstalk, reporting progress to the specified
+     * monitor.
+     */
+    public void execute(IProgressMonitor monitor) throws CoreException {
+        ProgressMonitor progressMonitor = new GitProgressMonitor(monitor);
         Iterable<PushResult> pushResults = null;
         try {
             Repository repository = initializeRepository();
 
-            // Add the new files
-            clearOutRepository(repository);
-            extractZipFile(archiveFile, repoLocation);
+            // Only write and stage the files that changed since the last deployment
+            updateRepository(repository, progressMonitor);
             commitChanges(repository, "Incremental Deployment: " + new Date().toString());
 
             // Push to AWS
             String remoteUrl = getRemoteUrl();
 
             if (log.isLoggable(Level.FINE)) log.fine("Pushing to: " + remoteUrl);
-            PushCommand pushCommand = new Git(repository).push().setRemote(remoteUrl).setForce(true).add("master");
-            // TODO: we could use a ProgressMonitor here for reporting status back to the UI
+            PushCommand pushCommand = new Git(repository).push().setRemote(remoteUrl).setForce(true).add("master")
+                    .setProgressMonitor(progressMonitor);
             pushResults = pushCommand.call();
         } catch (Throwable t) {
             throwCoreException(null, t);
@@ -154,23 +183,6 @@ public class AWSGitPushCommand {
         return regionEndpoint;
     }
 
-    private void clearOutRepository(Repository repository) throws IOException {
-        // Delete all the old files before copying the new files
-        final File gitMetadataDirectory = repository.getIndexFile().getParentFile();
-
-        FileFilter fileFilter = new FileFilter() {
-            public boolean accept(final File file) {
-                if (file.equals(gitMetadataDirectory)) return false;
-                if (!file.getParentFile().equals(repoLocation)) return false;
-                return true;
-            }
-        };
-
-        for (File f : repoLocation.listFiles(fileFilter)) {
-            FileUtils.delete(f, FileUtils.RECURSIVE);
-        }
-    }
-
     private Repository initializeRepository() throws IOException {
         if (repoLocation == null) {
             throw new RuntimeException("No repository location specified");
@@ -189,48 +201,193 @@ public class AWSGitPushCommand {
         return repository;
     }
 
-    // TODO: We could use a better util for this
-    private void extractZipFile(File zipFile, File destination) throws IOException {
-        int BUFFER = 2048;
+    /**
+     * Updates the working tree and the index of the repository to match the
+     * content of the archive, like rsync: a file is only written if its size
+     * or checksum differ from its archive entry; and only the files written,
+     * or whose size or modification time differ from the index, are hashed
+     * and staged again. Files missing from the archive are deleted.
+     */
+    private void updateRepository(Repository repository, ProgressMonitor progressMonitor) throws IOException {
+        ZipFile zipFile = new ZipFile(archiveFile);
+        DirCache index = repository.lockDirCache();
+        ObjectInserter inserter = repository.newObjectInserter();
+        try {
+            Map<String, DirCacheEntry> indexEntries = new HashMap<String, DirCacheEntry>();
+            for (int i = 0; i < index.getEntryCount(); i++) {
+                DirCacheEntry indexEntry = index.getEntry(i);
+                indexEntries.put(indexEntry.getPathString(), indexEntry);
+            }
+
+            DirCacheEditor editor = index.editor();
+            Set<String> archivedPaths = new HashSet<String>();
+            progressMonitor.beginTask("Updating changed files", zipFile.size());
+            for (Enumeration<? extends ZipEntry> entries = zipFile.entries(); entries.hasMoreElements();) {
+                if (progressMonitor.isCancelled()) throw new OperationCanceledException();
+
+                ZipEntry entry = entries.nextElement();
+                progressMonitor.update(1);
+                if (entry.isDirectory()) continue;
+
+                String path = entry.getName();
+                if (("/" + path + "/").contains("/../") || path.startsWith("/")) {
+                    throw new IOException("Invalid entry in " + archiveFile.getName() + ": " + path);
+                }
+                if (path.equals(Constants.DOT_GIT) || path.startsWith(Constants.DOT_GIT + "/")) continue;
+                archivedPaths.add(path);
+
+                File file = new File(repoLocation, path);
+                boolean written = false;
+                if (!isUnchanged(file, entry)) {
+                    extractEntry(zipFile, entry, file);
+                    written = true;
+                }
+
+                if (needsStaging(indexEntries.get(path), file, written)) {
+                    editor.add(new StageFile(path, file, insertBlob(inserter, file)));
+                }
+            }
+            progressMonitor.endTask();
+
+            for (String path : indexEntries.keySet()) {
+                if (!archivedPaths.contains(path)) editor.add(new DeletePath(path));
+            }
+            deleteFilesNotIn(archivedPaths, repoLocation, "", repository.getDirectory());
+
+            inserter.flush();
+            editor.commit();
+        } finally {
+            index.unlock();
+            inserter.release();
+            zipFile.close();
+        }
+    }
+
+    /**
+     * Returns whether the file has the same content as the archive entry. The
+     * checksums are compared whenever the sizes match: entry times only have
+     * a two second resolution, so a file extracted with the time of an entry
+     * may have the same time as a different version of it.
+     */
+    static boolean isUnchanged(File file, ZipEntry entry) throws IOException {
+        if (!file.isFile() || file.length() != entry.getSize()) return false;
+        return entry.getCrc() != -1 && computeCrc(file) == entry.getCrc();
+    }
+
+    /**
+     * Returns whether a file has to be hashed and staged again: if it was
+     * just written, or if it doesn't match its index entry, if any.
+     */
+    static boolean needsStaging(DirCacheEntry indexEntry, File file, boolean written) {
+        return written || indexEntry == null
+                || indexEntry.getLength() != (int) file.length()
+                || indexEntry.getLastModified() != file.lastModified();
+    }
 
-        FileInputStream fis = new FileInputStream(zipFile);
-        ZipInputStream zis = new ZipInputStream(new BufferedInputStream(fis));
-        BufferedOutputStream dest = null;
+    private static long computeCrc(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        InputStream in = new FileInputStream(file);
         try {
-            ZipEntry entry;
-            while((entry = zis.getNextEntry()) != null) {
-               int count;
-               byte data[] = new byte[BUFFER];
-               // write the files to the disk
-
-               if (entry.isDirectory()) continue;
-
-               File entryFile = new File(destination, entry.getName());
-               if (!entryFile.getParentFile().exists()) {
-                   entryFile.getParentFile().mkdirs();
-               }
-            FileOutputStream fos = new FileOutputStream(entryFile);
-               dest = new BufferedOutputStream(fos, BUFFER);
-               while ((count = zis.read(data, 0, BUFFER)) != -1) {
-                  dest.write(data, 0, count);
-               }
-               dest.flush();
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                crc.update(buffer, 0, read);
             }
         } finally {
-            IOUtils.closeQuietly(fis);
-            IOUtils.closeQuietly(zis);
-            IOUtils.closeQuietly(dest);
+            IOUtils.closeQuietly(in);
         }
+        return crc.getValue();
     }
 
-    private void commitChanges(Repository repository, String message) throws GitAPIException, IOException {
-        Git git = new Git(repository);
-        // Add once (without the update flag) to add new and modified files
-        git.add().addFilepattern(".").call();
-        // Then again with the update flag to add deleted and modified files
-        git.add().addFilepattern(".").setUpdate(true).call();
+    /**
+     * Writes the content of the archive entry to the file, with the
+     * modification time of the entry.
+     */
+    private static void extractEntry(ZipFile zipFile, ZipEntry entry, File file) throws IOException {
+        if (file.isDirectory()) {
+            FileUtils.delete(file, FileUtils.RECURSIVE);
+        }
+        File parent = file.getParentFile();
+        if (parent.isFile()) {
+            FileUtils.delete(parent);
+        }
+        if (!parent.isDirectory() && !parent.mkdirs()) {
+            throw new IOException("Unable to create directory " + parent);
+        }
+
+        InputStream in = zipFile.getInputStream(entry);
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(file);
+            IOUtils.copy(in, out);
+        } finally {
+            IOUtils.closeQuietly(in);
+            IOUtils.closeQuietly(out);
+        }
+        if (entry.getTime() != -1) {
+            file.setLastModified(entry.getTime());
+        }
+    }
 
-        git.commit().setMessage(message).call();
+    private static ObjectId insertBlob(ObjectInserter inserter, File file) throws IOException {
+        InputStream in = new FileInputStream(file);
+        try {
+            return inserter.insert(Constants.OBJ_BLOB, file.length(), in);
+        } finally {
+            IOUtils.closeQuietly(in);
+        }
+    }
+
+    /**
+     * Deletes the files of the working tree that aren't in the archive, and
+     * the directories left empty.
+     */
+    private static void deleteFilesNotIn(Set<String> archivedPaths, File directory, String prefix,
+            File gitMetadataDirectory) throws IOException {
+        File[] files = directory.listFiles();
+        if (files == null) return;
+
+        for (File file : files) {
+            if (file.equals(gitMetadataDirectory)) continue;
+
+            String path = prefix + file.getName();
+            if (file.isDirectory()) {
+                deleteFilesNotIn(archivedPaths, file, path + "/", gitMetadataDirectory);
+                String[] remainingFiles = file.list();
+                if (remainingFiles != null && remainingFiles.length == 0) {
+                    FileUtils.delete(file);
+                }
+            } else if (!archivedPaths.contains(path)) {
+                FileUtils.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Stages a file whose content was already inserted in the object database.
+     */
+    private static class StageFile extends PathEdit {
+        private final File file;
+        private final ObjectId objectId;
+
+        StageFile(String path, File file, ObjectId objectId) {
+            super(path);
+            this.file = file;
+            this.objectId = objectId;
+        }
+
+        @Override
+        public void apply(DirCacheEntry entry) {
+            entry.setFileMode(FileMode.REGULAR_FILE);
+            entry.setLength(file.length());
+            entry.setLastModified(file.lastModified());
+            entry.setObjectId(objectId);
+        }
+    }
+
+    private void commitChanges(Repository repository, String message) throws GitAPIException, IOException {
+        // The index was already updated with the changed files
+        new Git(repository).commit().setMessage(message).call();
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.elasticbeanstalk.git;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jgit.lib.ProgressMonitor;
+
+/**
+ * Reports the progress of JGit tasks (updating the repository, counting and
+ * compressing objects, writing them to the remote...) as sub tasks of an
+ * Eclipse progress monitor, and cancels them when it is canceled.
+ */
+class GitProgressMonitor implements ProgressMonitor {
+
+    private final IProgressMonitor monitor;
+
+    private String title;
+    private int totalWork;
+    private int completedWork;
+    private int lastReportedPercent;
+
+    GitProgressMonitor(IProgressMonitor monitor) {
+        this.monitor = monitor;
+    }
+
+    public void start(int totalTasks) {
+    }
+
+    public void beginTask(String title, int totalWork) {
+        this.title = title;
+        this.totalWork = totalWork;
+        this.completedWork = 0;
+        this.lastReportedPercent = -1;
+        monitor.subTask(title);
+    }
+
+    public void update(int completed) {
+        completedWork += completed;
+        if (totalWork == UNKNOWN || totalWork <= 0) return;
+
+        // Only report whole percents, as JGit updates tasks for every object
+        int percent = (int) (100L * completedWork / totalWork);
+        if (percent != lastReportedPercent) {
+            lastReportedPercent = percent;
+            monitor.subTask(title + " (" + percent + "%, " + completedWork + "/" + totalWork + ")");
+        }
+    }
+
+    public void endTask() {
+    }
+
+    public boolean isCancelled() {
+        return monitor.isCanceled();
+    }
+}
@@ -16,8 +16,11 @@ package com.amazonaws.eclipse.elasticbeanstalk.jobs;
 
 import static com.amazonaws.eclipse.elasticbeanstalk.ElasticBeanstalkPlugin.trace;
 
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Random;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -25,7 +28,6 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.ui.progress.IProgressConstants;
-import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.wst.server.core.IServer;
 import org.eclipse.wst.server.core.IServerWorkingCopy;
 import org.eclipse.wst.server.core.ServerCore;
@@ -35,20 +37,22 @@ import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.elasticbeanstalk.ElasticBeanstalkPlugin;
 import com.amazonaws.eclipse.elasticbeanstalk.Environment;
 import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentBehavior;
-import com.amazonaws.eclipse.elasticbeanstalk.util.ElasticBeanstalkClientExtensions;
-import com.amazonaws.services.elasticbeanstalk.AWSElasticBeanstalk;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor.EnvironmentListener;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor.EnvironmentUpdate;
 import com.amazonaws.services.elasticbeanstalk.model.ConfigurationSettingsDescription;
-import com.amazonaws.services.elasticbeanstalk.model.DescribeEnvironmentsRequest;
-import com.amazonaws.services.elasticbeanstalk.model.EnvironmentDescription;
-import com.amazonaws.services.elasticbeanstalk.model.EnvironmentStatus;
 
+/**
+ * Subscribes every AWS Elastic Beanstalk server to the
+ * {@link EnvironmentMonitor} of its environment, so it is kept in sync with the
+ * status of the environment, and asks the monitors to poll right away.
+ * Scheduled whenever servers are added, changed or removed, or when a server
+ * needs to be synchronized.
+ */
 public class SyncEnvironmentsJob extends Job {
 
-    private static final int SHORT_DELAY = 1000 * 30;
-    private static final int LONG_DELAY = 1000 * 60 * 4;
-    private static final Random RANDOM = new Random();
-    private String previousErrorMessage;
-
+    /** Server subscriptions by server ID; only accessed from this job */
+    private final Map<String, ServerSynchronizer> synchronizers = new HashMap<String, ServerSynchronizer>();
 
     public SyncEnvironmentsJob() {
         super("Synchronizing AWS Elastic Beanstalk environments");
@@ -65,73 +69,87 @@ public class SyncEnvironmentsJob extends Job {
         monitor.beginTask("Syncing", IProgressMonitor.UNKNOWN);
         trace("Syncing environment statuses");
 
-        boolean transitioningEnvironment = false;
         Exception syncingError = null;
+        Set<String> serverIds = new HashSet<String>();
+        Set<EnvironmentMonitor> environmentMonitors = new HashSet<EnvironmentMonitor>();
         for (IServer server : ServerCore.getServers()) {
             if (server.getServerType() == null) continue;
             String id = server.getServerType().getId();
 
             if (ElasticBeanstalkPlugin.SERVER_TYPE_IDS.contains(id)) {
-                convertLegacyServer(server, monitor);
-                Environment environment = (Environment)server.loadAdapter(Environment.class, monitor);
-                EnvironmentBehavior behavior = (EnvironmentBehavior)server.loadAdapter(EnvironmentBehavior.class, monitor);
-
-                monitor.setTaskName("Syncing environment " + environment.getEnvironmentName());
                 try {
-                    trace("Syncing server: " + server.getName() + ", " + "environment: " + environment.getEnvironmentName());
-                    transitioningEnvironment |= syncEnvironment(environment, behavior);
-                    previousErrorMessage = null;
+                    convertLegacyServer(server, monitor);
+                    Environment environment = (Environment)server.loadAdapter(Environment.class, monitor);
+                    EnvironmentMonitor environmentMonitor = EnvironmentMonitor.getInstance(environment);
+
+                    ServerSynchronizer synchronizer = synchronizers.get(server.getId());
+                    if (synchronizer == null || synchronizer.environmentMonitor != environmentMonitor
+                            || !synchronizer.environmentName.equals(environment.getEnvironmentName())) {
+                        if (synchronizer != null) synchronizer.unsubscribe();
+                        trace("Syncing server: " + server.getName() + ", " + "environment: " + environment.getEnvironmentName());
+                        synchronizer = new ServerSynchronizer(server, environmentMonitor, environment.getEnvironmentName());
+                        synchronizers.put(server.getId(), synchronizer);
+                    }
+                    serverIds.add(server.getId());
+                    environmentMonitors.add(environmentMonitor);
                 } catch (AmazonClientException ace) {
                     syncingError = ace;
                 }
             }
         }
 
-        if ( syncingError != null ) {
-            schedule(LONG_DELAY);
+        for (ServerSynchronizer synchronizer : synchronizers.values()) {
+            if (!serverIds.contains(synchronizer.server.getId())) synchronizer.unsubscribe();
+        }
+        synchronizers.keySet().retainAll(serverIds);
 
-            // Don't keep complaining about being unable to synchronize
-            if ( previousErrorMessage != null &&
-                    previousErrorMessage.equals(syncingError.getMessage()) ) {
-                return Status.OK_STATUS;
-            }
+        for (EnvironmentMonitor environmentMonitor : environmentMonitors) {
+            environmentMonitor.pollNow();
+        }
 
-            previousErrorMessage = syncingError.getMessage();
+        if ( syncingError != null ) {
             return new Status(Status.WARNING, ElasticBeanstalkPlugin.PLUGIN_ID,
                     "Unable to synchronize an environment", syncingError);
         }
-
-        if (transitioningEnvironment) schedule(SHORT_DELAY + RANDOM.nextInt(5 * 1000));
-        else schedule(LONG_DELAY + RANDOM.nextInt(5 * 1000));
-
         return Status.OK_STATUS;
     }
 
     /**
-     * Synchronizes the environment given with its AWS Elastic Beanstalk state and returns whether
-     * it should be considered in a "transitioning" state.
+     * Updates a server with the status of its environment whenever it
+     * changes.
      */
-    private boolean syncEnvironment(Environment environment, EnvironmentBehavior behavior) {
-        ElasticBeanstalkClientExtensions clientExt = new ElasticBeanstalkClientExtensions(environment);
+    private static class ServerSynchronizer implements EnvironmentListener {
+        private final IServer server;
+        private final EnvironmentMonitor environmentMonitor;
+        private final String environmentName;
+
+        ServerSynchronizer(IServer server, EnvironmentMonitor environmentMonitor, String environmentName) {
+            this.server = server;
+            this.environmentMonitor = environmentMonitor;
+            this.environmentName = environmentName;
+            environmentMonitor.subscribe(environmentName, this, false);
+        }
 
-        EnvironmentDescription environmentDescription = clientExt.getEnvironmentDescription(environment.getEnvironmentName());
-        List<ConfigurationSettingsDescription> settings = environment.getCurrentSettings();
-        behavior.updateServer(environmentDescription, settings);
+        void unsubscribe() {
+            environmentMonitor.unsubscribe(environmentName, this);
+        }
 
-        if (environmentDescription == null) return false;
+        public void environmentPolled(EnvironmentUpdate update) {
+            if (update.getError() != null || !update.isDescriptionChanged()) return;
 
-        EnvironmentStatus environmentStatus = null;
-        try {
-            environmentStatus = EnvironmentStatus.fromValue(environmentDescription.getStatus());
-        } catch (IllegalArgumentException e) {
-            Status status = new Status(Status.INFO, ElasticBeanstalkPlugin.PLUGIN_ID,
-                "Unknown environment status: " + environmentDescription.getStatus());
-            StatusManager.getManager().handle(status, StatusManager.LOG);
-        }
+            Environment environment = (Environment)server.loadAdapter(Environment.class, null);
+            EnvironmentBehavior behavior = (EnvironmentBehavior)server.loadAdapter(EnvironmentBehavior.class, null);
 
-        return (environmentStatus == EnvironmentStatus.Launching ||
-                environmentStatus == EnvironmentStatus.Updating ||
-                environmentStatus == EnvironmentStatus.Terminating);
+            List<ConfigurationSettingsDescription> settings = null;
+            if (update.getDescription() != null) {
+                try {
+                    settings = environment.getCurrentSettings();
+                } catch (AmazonClientException ace) {
+                    trace("Unable to load the settings of environment " + environmentName + ": " + ace.getMessage());
+                }
+            }
+            behavior.updateServer(update.getDescription(), settings);
+        }
     }
 
     /**
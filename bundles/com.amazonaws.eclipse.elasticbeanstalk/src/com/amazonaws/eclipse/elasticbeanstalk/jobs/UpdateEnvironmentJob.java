@@ -170,7 +170,7 @@ public class UpdateEnvironmentJob extends Job {
                 boolean doesEnvironmentExist = environment.doesEnvironmentExistInBeanstalk();
 
                 if (environment.getIncrementalDeployment()) {
-                    doIncrementalDeployment(utils, doesEnvironmentExist);
+                    doIncrementalDeployment(monitor, utils, doesEnvironmentExist);
                 } else {
                     doFullDeployment(monitor, utils);
                 }
@@ -233,8 +233,8 @@ public class UpdateEnvironmentJob extends Job {
         utils.waitForEnvironmentToBecomeAvailable(moduleToPublish, new SubProgressMonitor(monitor, 20), runnable);
     }
 
-    private void doIncrementalDeployment(ElasticBeanstalkPublishingUtils utils, boolean doesEnvironmentExist)
-            throws CoreException {
+    private void doIncrementalDeployment(IProgressMonitor monitor, ElasticBeanstalkPublishingUtils utils,
+            boolean doesEnvironmentExist) throws CoreException {
         AccountInfo accountInfo = AwsToolkitCore.getDefault().getAccountManager()
                 .getAccountInfo(environment.getAccountId());
         AWSGitPushCommand pushCommand = new AWSGitPushCommand(getPrivateGitRepoLocation(environment),
@@ -247,7 +247,7 @@ public class UpdateEnvironmentJob extends Job {
              * it'll automatically create a new application version and kick off a deployment to the
              * environment.
              */
-            pushCommand.execute();
+            pushCommand.execute(new SubProgressMonitor(monitor, 20));
         } else {
             /*
              * If the environment doesn't exist yet, then we need to create the application and push
@@ -256,7 +256,7 @@ public class UpdateEnvironmentJob extends Job {
              */
             utils.createNewApplication(environment.getApplicationName(), environment.getApplicationDescription());
             pushCommand.skipEnvironmentDeployment(true);
-            pushCommand.execute();
+            pushCommand.execute(new SubProgressMonitor(monitor, 20));
 
             try {
                 versionLabel = utils.getLatestApplicationVersion(environment.getApplicationName());
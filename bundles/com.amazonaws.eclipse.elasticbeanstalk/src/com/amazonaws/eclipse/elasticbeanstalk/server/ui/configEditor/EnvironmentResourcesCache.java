@@ -0,0 +1,86 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.elasticbeanstalk.server.ui.configEditor;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Short-lived cache of the descriptions of the resources of environments
+ * (their list of resources, auto scaling group, load balancer, queue...), so
+ * opening the resources editor again, or for another server of the same
+ * environment, doesn't describe everything again.
+ *
+ * @ThreadSafe
+ */
+class EnvironmentResourcesCache {
+
+    /** How long a description is reused */
+    private static final long TTL_MILLIS = 1000 * 15;
+
+    private static final Map<String, CachedDescription> descriptions = new ConcurrentHashMap<String, CachedDescription>();
+
+    /**
+     * Describes a resource.
+     */
+    interface Loader<T> {
+        T load();
+    }
+
+    private EnvironmentResourcesCache() {}
+
+    /**
+     * Returns the description cached under the specified key, loading it if
+     * it isn't cached or expired. Descriptions that failed to load aren't
+     * cached.
+     *
+     * @param key
+     *            Identifies the resource, including the account and region
+     *            it belongs to.
+     * @param reload
+     *            Whether to load the description again even if it is cached,
+     *            e.g. when the user explicitly asks for a refresh.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T get(String key, boolean reload, Loader<T> loader) {
+        long now = System.currentTimeMillis();
+        CachedDescription cached = descriptions.get(key);
+        if (!reload && cached != null && now - cached.loadedAt < TTL_MILLIS) {
+            return (T) cached.description;
+        }
+
+        T description = loader.load();
+        descriptions.put(key, new CachedDescription(description, System.currentTimeMillis()));
+        removeExpired(now);
+        return description;
+    }
+
+    private static void removeExpired(long now) {
+        for (Iterator<CachedDescription> iterator = descriptions.values().iterator(); iterator.hasNext();) {
+            if (now - iterator.next().loadedAt >= TTL_MILLIS) iterator.remove();
+        }
+    }
+
+    private static class CachedDescription {
+        private final Object description;
+        private final long loadedAt;
+
+        CachedDescription(Object description, long loadedAt) {
+            this.description = description;
+            this.loadedAt = loadedAt;
+        }
+    }
+}
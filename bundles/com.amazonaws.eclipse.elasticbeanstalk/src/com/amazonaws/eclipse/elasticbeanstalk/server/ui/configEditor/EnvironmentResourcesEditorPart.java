@@ -21,7 +21,12 @@ import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.layout.GridDataFactory;
 import org.eclipse.swt.SWT;
@@ -38,17 +43,24 @@ import org.eclipse.ui.forms.ManagedForm;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.ScrolledForm;
 import org.eclipse.ui.forms.widgets.Section;
+import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.wst.server.ui.editor.ServerEditorPart;
 import org.eclipse.wst.server.ui.editor.ServerEditorSection;
 import org.eclipse.wst.server.ui.internal.ImageResource;
 
+import com.amazonaws.AmazonClientException;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.Region;
 import com.amazonaws.eclipse.core.regions.RegionUtils;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
 import com.amazonaws.eclipse.ec2.ui.views.instances.InstanceSelectionTable;
 import com.amazonaws.eclipse.elasticbeanstalk.ConfigurationOptionConstants;
+import com.amazonaws.eclipse.elasticbeanstalk.ElasticBeanstalkPlugin;
 import com.amazonaws.eclipse.elasticbeanstalk.Environment;
+import com.amazonaws.eclipse.elasticbeanstalk.server.ui.configEditor.EnvironmentResourcesCache.Loader;
+import com.amazonaws.eclipse.explorer.ExplorerOperations;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Operation;
+import com.amazonaws.eclipse.explorer.ExplorerOperations.Results;
 import com.amazonaws.eclipse.explorer.sqs.AddMessageAction;
 import com.amazonaws.services.autoscaling.AmazonAutoScaling;
 import com.amazonaws.services.autoscaling.model.AutoScalingGroup;
@@ -71,6 +83,9 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
     private EnvironmentAutoScalingEditorSection autoScalingEditorSection;
     private EnvironmentElasticLoadBalancingEditorSection elasticLoadBalancingEditorSection;
     private EnvironmentQueueEditorSection queueEditorSection;
+    private final RefreshJob refreshJob = new RefreshJob();
+    /** Whether the next refresh has to describe the resources again, rather than use the cache */
+    private final AtomicBoolean reloadRequested = new AtomicBoolean();
 
     @Override
     public void createPartControl(Composite parent) {
@@ -118,7 +133,7 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
         form.getToolBarManager().add(new RefreshAction());
         form.getToolBarManager().update(true);
 
-        new RefreshThread().start();
+        refreshJob.schedule();
     }
 
     private class RefreshAction extends Action {
@@ -130,35 +145,88 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
 
         @Override
         public void run() {
-            new RefreshThread().start();
+            reloadRequested.set(true);
+            refreshJob.schedule();
         }
     }
 
+    /**
+     * Lists the resources of the environment, then describes them all
+     * concurrently, each section showing its resource as soon as it's
+     * described. Refreshing again while a refresh is running only schedules
+     * one more refresh once it's done. The descriptions cached when the editor
+     * is opened are only reused until the user explicitly refreshes.
+     */
+    private class RefreshJob extends Job {
+
+        public RefreshJob() {
+            super("Loading AWS Elastic Beanstalk environment resources");
+            setSystem(true);
+        }
 
-    private class RefreshThread extends Thread {
         @Override
-        public void run() {
-            if (getEnvironment().doesEnvironmentExistInBeanstalk() == false) {
-                return;
+        protected IStatus run(IProgressMonitor monitor) {
+            final Environment environment = getEnvironment();
+            final boolean reload = reloadRequested.getAndSet(false);
+            EnvironmentResourceDescription resources;
+            try {
+                resources = EnvironmentResourcesCache.get(getCacheKey("resources", environment.getEnvironmentName()),
+                        reload, new Loader<EnvironmentResourceDescription>() {
+                            public EnvironmentResourceDescription load() {
+                                DescribeEnvironmentResourcesRequest request = new DescribeEnvironmentResourcesRequest()
+                                    .withEnvironmentName(environment.getEnvironmentName());
+                                return getClient().describeEnvironmentResources(request).getEnvironmentResources();
+                            }
+                        });
+            } catch (AmazonClientException ace) {
+                // Only report the error if the environment still exists
+                try {
+                    if (environment.doesEnvironmentExistInBeanstalk() == false) {
+                        return Status.OK_STATUS;
+                    }
+                } catch (AmazonClientException e) {
+                    // Report the original error below
+                }
+                return new Status(IStatus.ERROR, ElasticBeanstalkPlugin.PLUGIN_ID,
+                        "Unable to describe the resources of environment " + environment.getEnvironmentName() + ": "
+                                + ace.getMessage(), ace);
             }
 
-            DescribeEnvironmentResourcesRequest request = new DescribeEnvironmentResourcesRequest()
-                .withEnvironmentName(getEnvironment().getEnvironmentName());
-            EnvironmentResourceDescription resources = getClient().describeEnvironmentResources(request).getEnvironmentResources();
-
-            instancesEditorSection.update(resources);
-
+            List<AbstractEnvironmentResourcesEditorSection> sections = new ArrayList<AbstractEnvironmentResourcesEditorSection>();
+            sections.add(instancesEditorSection);
             if (autoScalingEditorSection != null) {
-                autoScalingEditorSection.update(resources);
+                sections.add(autoScalingEditorSection);
             }
-
             if (elasticLoadBalancingEditorSection != null) {
-                elasticLoadBalancingEditorSection.update(resources);
+                sections.add(elasticLoadBalancingEditorSection);
             }
-
             if (queueEditorSection != null) {
-                queueEditorSection.update(resources);
+                sections.add(queueEditorSection);
             }
+
+            final EnvironmentResourceDescription environmentResources = resources;
+            Results<AbstractEnvironmentResourcesEditorSection, Void> results;
+            try {
+                results = ExplorerOperations.runAll(sections,
+                        new Operation<AbstractEnvironmentResourcesEditorSection, Void>() {
+                            public Void run(AbstractEnvironmentResourcesEditorSection section) {
+                                section.update(environmentResources, reload);
+                                return null;
+                            }
+                        });
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Status.CANCEL_STATUS;
+            }
+
+            for (Map.Entry<AbstractEnvironmentResourcesEditorSection, Exception> failure : results.getFailures().entrySet()) {
+                Status status = new Status(IStatus.WARNING, ElasticBeanstalkPlugin.PLUGIN_ID,
+                        "Unable to describe the " + failure.getKey().getResourceType() + " of environment "
+                                + environment.getEnvironmentName() + ": " + failure.getValue().getMessage(),
+                        failure.getValue());
+                StatusManager.getManager().handle(status, StatusManager.LOG);
+            }
+            return Status.OK_STATUS;
         }
     }
 
@@ -188,7 +256,18 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
             return composite;
         }
 
-        public abstract void update(EnvironmentResourceDescription resources);
+        /**
+         * Describes the resource shown by this section, and shows it. Called
+         * from a background thread.
+         *
+         * @param reload
+         *            Whether to describe the resource again even if its
+         *            description is cached.
+         */
+        public abstract void update(EnvironmentResourceDescription resources, boolean reload);
+
+        /** The kind of resource shown by this section, for error messages */
+        public abstract String getResourceType();
     }
 
     private class EnvironmentQueueEditorSection extends AbstractEnvironmentResourcesEditorSection {
@@ -251,7 +330,7 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
         }
 
         @Override
-        public void update(final EnvironmentResourceDescription resources) {
+        public void update(final EnvironmentResourceDescription resources, boolean reload) {
             if (resources.getQueues().isEmpty()) {
                 return;
             }
@@ -259,19 +338,23 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
             final String queueName = resources.getQueues().get(0).getName();
             final String queueUrl = resources.getQueues().get(0).getURL();
 
-            AmazonSQS sqs = AwsToolkitCore
-                .getClientFactory(getEnvironment().getAccountId())
-                .getSQSClientByEndpoint(getEndpointFromUrl(queueUrl));
-
-            final Map<String, String> attributes =
-                sqs.getQueueAttributes(new GetQueueAttributesRequest()
-                    .withQueueUrl(queueUrl)
-                    .withAttributeNames(
-                        QueueAttributeName.ApproximateNumberOfMessages,
-                        QueueAttributeName.ApproximateNumberOfMessagesNotVisible,
-                        QueueAttributeName.CreatedTimestamp,
-                        QueueAttributeName.DelaySeconds))
-                .getAttributes();
+            final Map<String, String> attributes = EnvironmentResourcesCache.get(getCacheKey("queue", queueUrl), reload,
+                    new Loader<Map<String, String>>() {
+                        public Map<String, String> load() {
+                            AmazonSQS sqs = AwsToolkitCore
+                                .getClientFactory(getEnvironment().getAccountId())
+                                .getSQSClientByEndpoint(getEndpointFromUrl(queueUrl));
+
+                            return sqs.getQueueAttributes(new GetQueueAttributesRequest()
+                                    .withQueueUrl(queueUrl)
+                                    .withAttributeNames(
+                                        QueueAttributeName.ApproximateNumberOfMessages,
+                                        QueueAttributeName.ApproximateNumberOfMessagesNotVisible,
+                                        QueueAttributeName.CreatedTimestamp,
+                                        QueueAttributeName.DelaySeconds))
+                                .getAttributes();
+                        }
+                    });
 
             if (attributes.isEmpty()) {
                 return;
@@ -304,6 +387,11 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
             });
         }
 
+        @Override
+        public String getResourceType() {
+            return "queue";
+        }
+
         private String getEndpointFromUrl(final String url) {
             try {
 
@@ -373,15 +461,22 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
         }
 
         @Override
-        public void update(EnvironmentResourceDescription resources) {
-            Region region = RegionUtils.getRegionByEndpoint(getEnvironment().getRegionEndpoint());
-            String endpoint = region.getServiceEndpoints().get(ServiceAbbreviations.AUTOSCALING);
-            AmazonAutoScaling as = AwsToolkitCore.getClientFactory(getEnvironment().getAccountId()).getAutoScalingClientByEndpoint(endpoint);
-
+        public void update(EnvironmentResourceDescription resources, boolean reload) {
             if ( !resources.getAutoScalingGroups().isEmpty() ) {
-                DescribeAutoScalingGroupsRequest request = new DescribeAutoScalingGroupsRequest()
-                        .withAutoScalingGroupNames(resources.getAutoScalingGroups().get(0).getName());
-                List<AutoScalingGroup> autoScalingGroups = as.describeAutoScalingGroups(request).getAutoScalingGroups();
+                final String autoScalingGroupName = resources.getAutoScalingGroups().get(0).getName();
+                List<AutoScalingGroup> autoScalingGroups = EnvironmentResourcesCache.get(
+                        getCacheKey("autoScalingGroup", autoScalingGroupName), reload,
+                        new Loader<List<AutoScalingGroup>>() {
+                            public List<AutoScalingGroup> load() {
+                                Region region = RegionUtils.getRegionByEndpoint(getEnvironment().getRegionEndpoint());
+                                String endpoint = region.getServiceEndpoints().get(ServiceAbbreviations.AUTOSCALING);
+                                AmazonAutoScaling as = AwsToolkitCore.getClientFactory(getEnvironment().getAccountId()).getAutoScalingClientByEndpoint(endpoint);
+
+                                DescribeAutoScalingGroupsRequest request = new DescribeAutoScalingGroupsRequest()
+                                        .withAutoScalingGroupNames(autoScalingGroupName);
+                                return as.describeAutoScalingGroups(request).getAutoScalingGroups();
+                            }
+                        });
 
                 if ( autoScalingGroups.size() > 0 ) {
                     final AutoScalingGroup group = autoScalingGroups.get(0);
@@ -402,6 +497,11 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
                 }
             }
         }
+
+        @Override
+        public String getResourceType() {
+            return "auto scaling group";
+        }
     }
 
     private class EnvironmentElasticLoadBalancingEditorSection extends AbstractEnvironmentResourcesEditorSection {
@@ -441,18 +541,24 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
         }
 
         @Override
-        public void update(EnvironmentResourceDescription resources) {
-            Region region = RegionUtils.getRegionByEndpoint(getEnvironment().getRegionEndpoint());
-            String endpoint = region.getServiceEndpoints().get(ServiceAbbreviations.ELB);
-            AmazonElasticLoadBalancing elb = AwsToolkitCore.getClientFactory(getEnvironment().getAccountId()).getElasticLoadBalancingClientByEndpoint(endpoint);
-
+        public void update(EnvironmentResourceDescription resources, boolean reload) {
             if (resources.getLoadBalancers() == null || resources.getLoadBalancers().size() == 0) {
                 return;
             }
 
-            String loadBalancerName = resources.getLoadBalancers().get(0).getName();
-            DescribeLoadBalancersRequest request = new DescribeLoadBalancersRequest().withLoadBalancerNames(loadBalancerName);
-            List<LoadBalancerDescription> loadBalancers = elb.describeLoadBalancers(request).getLoadBalancerDescriptions();
+            final String loadBalancerName = resources.getLoadBalancers().get(0).getName();
+            List<LoadBalancerDescription> loadBalancers = EnvironmentResourcesCache.get(
+                    getCacheKey("loadBalancer", loadBalancerName), reload,
+                    new Loader<List<LoadBalancerDescription>>() {
+                        public List<LoadBalancerDescription> load() {
+                            Region region = RegionUtils.getRegionByEndpoint(getEnvironment().getRegionEndpoint());
+                            String endpoint = region.getServiceEndpoints().get(ServiceAbbreviations.ELB);
+                            AmazonElasticLoadBalancing elb = AwsToolkitCore.getClientFactory(getEnvironment().getAccountId()).getElasticLoadBalancingClientByEndpoint(endpoint);
+
+                            DescribeLoadBalancersRequest request = new DescribeLoadBalancersRequest().withLoadBalancerNames(loadBalancerName);
+                            return elb.describeLoadBalancers(request).getLoadBalancerDescriptions();
+                        }
+                    });
 
             if (loadBalancers.size() == 0) {
                 return;
@@ -473,6 +579,11 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
                 }
             });
         }
+
+        @Override
+        public String getResourceType() {
+            return "load balancer";
+        }
     }
 
     private class EnvironmentInstancesEditorSection extends AbstractEnvironmentResourcesEditorSection {
@@ -499,19 +610,31 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
 
 
         @Override
-        public void update(EnvironmentResourceDescription resources) {
+        public void update(EnvironmentResourceDescription resources, boolean reload) {
             List<String> instanceIds = new ArrayList<String>();
             for (Instance instance : resources.getInstances()) {
                 instanceIds.add(instance.getId());
             }
 
+            // The table describes all the instances at once, in the background
             instanceSelectionTable.setInstancesToList(instanceIds);
         }
+
+        @Override
+        public String getResourceType() {
+            return "instances";
+        }
     }
 
     @Override
     public void setFocus() {}
 
+    @Override
+    public void dispose() {
+        refreshJob.cancel();
+        super.dispose();
+    }
+
     private AWSElasticBeanstalk getClient() {
         Environment environment = getEnvironment();
 
@@ -519,6 +642,15 @@ public class EnvironmentResourcesEditorPart extends ServerEditorPart {
             .getElasticBeanstalkClientByEndpoint(environment.getRegionEndpoint());
     }
 
+    /**
+     * Returns the key of a resource of the environment in the
+     * {@link EnvironmentResourcesCache}.
+     */
+    private String getCacheKey(String resourceType, String resourceName) {
+        Environment environment = getEnvironment();
+        return environment.getAccountId() + " " + environment.getRegionEndpoint() + " " + resourceType + " " + resourceName;
+    }
+
     private Environment getEnvironment() {
         return (Environment)server.loadAdapter(Environment.class, null);
     }
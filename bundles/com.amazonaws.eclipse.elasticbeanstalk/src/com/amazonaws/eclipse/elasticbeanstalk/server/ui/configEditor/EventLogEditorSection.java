@@ -17,10 +17,6 @@ package com.amazonaws.eclipse.elasticbeanstalk.server.ui.configEditor;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.action.Action;
 import org.eclipse.jface.action.IMenuListener;
 import org.eclipse.jface.action.IMenuManager;
@@ -49,16 +45,13 @@ import org.eclipse.ui.ISharedImages;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Section;
-import org.eclipse.wst.server.core.IServer;
-import org.eclipse.wst.server.core.IServerListener;
-import org.eclipse.wst.server.core.ServerEvent;
 import org.eclipse.wst.server.ui.editor.ServerEditorSection;
 
-import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.elasticbeanstalk.ElasticBeanstalkPlugin;
 import com.amazonaws.eclipse.elasticbeanstalk.Environment;
-import com.amazonaws.services.elasticbeanstalk.AWSElasticBeanstalk;
-import com.amazonaws.services.elasticbeanstalk.model.DescribeEventsRequest;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor.EnvironmentListener;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor.EnvironmentUpdate;
 import com.amazonaws.services.elasticbeanstalk.model.EventDescription;
 import com.amazonaws.services.elasticbeanstalk.model.EventSeverity;
 
@@ -73,8 +66,9 @@ public class EventLogEditorSection extends ServerEditorSection {
     private TreeViewer viewer;
     private boolean tableDataLoaded = false;
 
-    private static final Object JOB_FAMILY = new Object();
-    private AutoRefreshListener autoRefreshListener;
+    private EnvironmentMonitor environmentMonitor;
+    private String environmentName;
+    private EventLogUpdater eventLogUpdater;
 
     private volatile boolean disposed;
 
@@ -101,19 +95,19 @@ public class EventLogEditorSection extends ServerEditorSection {
 
         createEventsTable(composite);
         configureAutoRefresh();
-        refresh();
     }
 
+    /**
+     * Subscribes to the events of the environment, which are polled along
+     * with the ones of all the environments of its region; more often while
+     * it's updating.
+     */
     private void configureAutoRefresh() {
-        autoRefreshListener = new AutoRefreshListener();
         Environment environment = (Environment) server.loadAdapter(Environment.class, null);
-        environment.getServer().addServerListener(autoRefreshListener);
-
-        // Go ahead and start auto refreshing if the server is already
-        // starting up, since we won't see the starting event
-        if (environment.getServer().getServerState() == IServer.STATE_STARTING) {
-            EventLogRefreshManager.getInstance().startAutoRefresh(this);
-        }
+        environmentMonitor = EnvironmentMonitor.getInstance(environment);
+        environmentName = environment.getEnvironmentName();
+        eventLogUpdater = new EventLogUpdater();
+        environmentMonitor.subscribe(environmentName, eventLogUpdater, true);
     }
 
     protected TreeColumn newColumn(String columnText, int weight) {
@@ -130,24 +124,42 @@ public class EventLogEditorSection extends ServerEditorSection {
         return column;
     }
 
-    private final class AutoRefreshListener implements IServerListener {
-        public void serverChanged(ServerEvent event) {
-            if ((event.getKind() & ServerEvent.SERVER_CHANGE) == 0) {
+    /** Shows the events of the environment whenever new ones are polled. */
+    private final class EventLogUpdater implements EnvironmentListener {
+        public void environmentPolled(EnvironmentUpdate update) {
+            if (update.getNewEvents().isEmpty()) {
                 return;
             }
 
-            switch (event.getState()) {
-            case IServer.STATE_STARTING:
-                EventLogRefreshManager.getInstance().startAutoRefresh(EventLogEditorSection.this);
-                break;
-            default:
-                EventLogRefreshManager.getInstance().stopAutoRefresh(EventLogEditorSection.this);
-                break;
-            }
-        }
+            final List<EventDescription> events = environmentMonitor.getEvents(environmentName);
+            Display.getDefault().asyncExec(new Runnable() {
+                public void run() {
+                    if (disposed || viewer.getTree().isDisposed()) {
+                        return;
+                    }
 
-        public void dispose() {
-            EventLogRefreshManager.getInstance().stopAutoRefresh(EventLogEditorSection.this);
+                    // Preserve the current column widths
+                    int[] colWidth = new int[viewer.getTree().getColumns().length];
+                    int i = 0;
+                    for (TreeColumn col : viewer.getTree().getColumns()) {
+                        colWidth[i++] = col.getWidth();
+                    }
+
+                    viewer.setInput(events);
+
+                    // If this is the first time loading the table data, don't
+                    // set the column widths -- this will make them zero on
+                    // windows.
+                    if ( tableDataLoaded ) {
+                        i = 0;
+                        for ( TreeColumn col : viewer.getTree().getColumns() ) {
+                            col.setWidth(colWidth[i++]);
+                        }
+                    } else {
+                        tableDataLoaded = true;
+                    }
+                }
+            });
         }
     }
 
@@ -185,60 +197,6 @@ public class EventLogEditorSection extends ServerEditorSection {
         }
     }
 
-    private class LoadEnvironmentEventsJob extends Job {
-        private final Environment environment;
-
-        public LoadEnvironmentEventsJob(Environment environment) {
-            super("Loading events for environment " + environment.getEnvironmentName());
-            this.environment = environment;
-            this.setSystem(true);
-        }
-
-        @Override
-        protected IStatus run(IProgressMonitor monitor) {
-            AWSElasticBeanstalk client = AwsToolkitCore.getClientFactory(environment.getAccountId())
-                    .getElasticBeanstalkClientByEndpoint(environment.getRegionEndpoint());
-             final List<EventDescription> events = client.describeEvents(new DescribeEventsRequest()
-                 .withEnvironmentName(environment.getEnvironmentName())).getEvents();
-
-             Display.getDefault().syncExec(new Runnable() {
-                public void run() {
-                    if (disposed || viewer.getTree().isDisposed()) {
-                        return;
-                    }
-
-                    // Preserve the current column widths
-                    int[] colWidth = new int[viewer.getTree().getColumns().length];
-                    int i = 0;
-                    for (TreeColumn col : viewer.getTree().getColumns()) {
-                        colWidth[i++] = col.getWidth();
-                    }
-
-                    viewer.setInput(events);
-
-                    // If this is the first time loading the table data, don't
-                    // set the column widths -- this will make them zero on
-                    // windows.
-                    if ( tableDataLoaded ) {
-                        i = 0;
-                        for ( TreeColumn col : viewer.getTree().getColumns() ) {
-                            col.setWidth(colWidth[i++]);
-                        }
-                    } else {
-                        tableDataLoaded = true;
-                    }
-                }
-             });
-
-            return Status.OK_STATUS;
-        }
-
-        @Override
-        public boolean belongsTo(Object family) {
-            return family == JOB_FAMILY;
-        }
-    }
-
     private void addContextMenu() {
         MenuManager menuManager = new MenuManager("#PopupMenu");
         menuManager.setRemoveAllWhenShown(true);
@@ -361,10 +319,8 @@ public class EventLogEditorSection extends ServerEditorSection {
     public void dispose() {
         disposed = true;
 
-        if (autoRefreshListener != null) {
-            Environment environment = (Environment) server.loadAdapter(Environment.class, null);
-            environment.getServer().removeServerListener(autoRefreshListener);
-            autoRefreshListener.dispose();
+        if (eventLogUpdater != null) {
+            environmentMonitor.unsubscribe(environmentName, eventLogUpdater);
         }
 
         super.dispose();
@@ -375,15 +331,12 @@ public class EventLogEditorSection extends ServerEditorSection {
     }
 
     /**
-     * Refreshes the events in the table.
+     * Refreshes the events in the table, by polling the environments of the
+     * region right away.
      */
     void refresh() {
-        /*
-         * There's a race condition here, but the consequences are trivial.
-         */
-        if ( Job.getJobManager().find(JOB_FAMILY).length == 0 ) {
-            Environment environment = (Environment) server.loadAdapter(Environment.class, null);
-            new LoadEnvironmentEventsJob(environment).schedule();
+        if (environmentMonitor != null) {
+            environmentMonitor.pollNow();
         }
     }
 
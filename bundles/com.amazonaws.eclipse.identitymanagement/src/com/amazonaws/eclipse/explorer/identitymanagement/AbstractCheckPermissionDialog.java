@@ -0,0 +1,166 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer.identitymanagement;
+
+import java.util.List;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.jface.dialogs.IDialogConstants;
+import org.eclipse.jface.dialogs.TitleAreaDialog;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.GridData;
+import org.eclipse.swt.layout.GridLayout;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+import org.eclipse.ui.forms.widgets.FormToolkit;
+
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
+import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
+import com.amazonaws.eclipse.identitymanagement.policy.Decision;
+import com.amazonaws.eclipse.identitymanagement.policy.PolicyEvaluator;
+
+/**
+ * Dialog base class for user, group and role that checks whether an action on
+ * a resource is allowed, using the policy evaluator of the authorization
+ * snapshot.
+ */
+public abstract class AbstractCheckPermissionDialog extends TitleAreaDialog {
+
+    protected final AuthorizationSnapshot snapshot;
+    protected final FormToolkit toolkit;
+    private Text actionText;
+    private Text resourceText;
+    private Text resultText;
+
+    public AbstractCheckPermissionDialog(AuthorizationSnapshot snapshot, Shell parentShell, FormToolkit toolkit) {
+        super(parentShell);
+        this.snapshot = snapshot;
+        this.toolkit = toolkit;
+    }
+
+    @Override
+    protected Control createContents(Composite parent) {
+        Control contents = super.createContents(parent);
+        setTitle("Check whether the policies in IAM allow an action on a resource.");
+        setMessage("Resource-based policies, permissions boundaries and service control policies are not taken into account.");
+        setTitleImage(AwsToolkitCore.getDefault().getImageRegistry().get(AwsToolkitCore.IMAGE_AWS_LOGO));
+        return contents;
+    }
+
+    @Override
+    protected Control createDialogArea(Composite parent) {
+        Composite composite = (Composite) super.createDialogArea(parent);
+        composite.setLayout(new GridLayout(1, false));
+        composite.setBackground(toolkit.getColors().getBackground());
+
+        toolkit.createLabel(composite, "Action (e.g. s3:GetObject):");
+        actionText = toolkit.createText(composite, "", SWT.BORDER);
+        actionText.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+        toolkit.createLabel(composite, "Resource (e.g. arn:aws:s3:::my-bucket/*):");
+        resourceText = toolkit.createText(composite, "*", SWT.BORDER);
+        resourceText.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+
+        toolkit.createLabel(composite, "Result:");
+        resultText = new Text(composite, SWT.MULTI | SWT.BORDER | SWT.V_SCROLL | SWT.READ_ONLY);
+        GridData gridData = new GridData(GridData.FILL_BOTH);
+        gridData.minimumHeight = 120;
+        resultText.setLayoutData(gridData);
+        return composite;
+    }
+
+    @Override
+    protected void createButtonsForButtonBar(Composite parent) {
+        createButton(parent, IDialogConstants.OK_ID, "Check", true);
+        createButton(parent, IDialogConstants.CANCEL_ID, IDialogConstants.CLOSE_LABEL, false);
+    }
+
+    /**
+     * Checks the action and keeps the dialog open, so that other actions can
+     * be checked.
+     */
+    @Override
+    protected void okPressed() {
+        final String action = actionText.getText().trim();
+        final String resource = resourceText.getText().trim().length() == 0 ? "*" : resourceText.getText().trim();
+        if (action.length() == 0) {
+            setErrorMessage("Please input an action, such as s3:GetObject.");
+            return;
+        }
+        setErrorMessage(null);
+        resultText.setText("Checking...");
+
+        new Job("Checking permissions") {
+            @Override
+            protected IStatus run(IProgressMonitor monitor) {
+                try {
+                    PolicyEvaluator evaluator = snapshot.getPolicyEvaluator();
+                    List<String> principalArns = getPrincipalArns();
+                    StringBuilder result = new StringBuilder();
+                    if (principalArns.isEmpty()) {
+                        result.append("There are no users to check.");
+                    }
+                    for (String principalArn : principalArns) {
+                        result.append(principalArn).append(": ")
+                              .append(describe(evaluator.evaluate(principalArn, action, resource)))
+                              .append(Text.DELIMITER);
+                    }
+                    showResult(result.toString());
+                    return Status.OK_STATUS;
+                } catch (Exception e) {
+                    showResult("");
+                    return new Status(Status.ERROR, IdentityManagementPlugin.getDefault().getPluginId(), "Unable to check permissions: " + e.getMessage(), e);
+                }
+            }
+        }.schedule();
+    }
+
+    private void showResult(final String result) {
+        Display.getDefault().asyncExec(new Runnable() {
+            public void run() {
+                if (!resultText.isDisposed()) {
+                    resultText.setText(result);
+                }
+            }
+        });
+    }
+
+    private static String describe(Decision decision) {
+        switch (decision) {
+        case ALLOWED:
+            return "Allowed";
+        case CONDITIONALLY_ALLOWED:
+            return "Allowed, depending on policy conditions";
+        case EXPLICITLY_DENIED:
+            return "Denied by a policy";
+        default:
+            return "Not allowed by any policy";
+        }
+    }
+
+    /**
+     * Returns the ARNs of the users or roles to check. Called from a
+     * background job, since it may read the snapshot.
+     */
+    protected abstract List<String> getPrincipalArns();
+
+}
@@ -35,6 +35,7 @@ import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.statushandlers.StatusManager;
 
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.Group;
@@ -44,8 +45,9 @@ public abstract class AbstractGroupTable extends Composite {
     protected List<Group> groups;
     protected GroupTableContentProvider contentProvider;
     protected AmazonIdentityManagement iam;
+    protected final AuthorizationSnapshot snapshot;
 
-    public AbstractGroupTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
+    public AbstractGroupTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
         super(parent, SWT.NONE);
 
         this.setLayoutData(new GridData(GridData.FILL_BOTH));
@@ -62,6 +64,7 @@ public abstract class AbstractGroupTable extends Composite {
         viewer.setContentProvider(contentProvider);
         createColumns(tableColumnLayout, viewer.getTable());
         this.iam = iam;
+        this.snapshot = snapshot;
         refresh();
     }
 
@@ -144,14 +147,30 @@ public abstract class AbstractGroupTable extends Composite {
 
     abstract protected void listGroups();
 
+    /**
+     * Reads the principal the table belongs to into the authorization
+     * snapshot again, after it was modified. Does nothing by default.
+     */
+    protected void refreshPrincipal() {
+    }
+
     protected class LoadGroupTableThread extends Thread {
+        private final boolean principalModified;
+
         public LoadGroupTableThread() {
-            // TODO Auto-generated constructor stub
+            this(false);
+        }
+
+        public LoadGroupTableThread(boolean principalModified) {
+            this.principalModified = principalModified;
         }
 
         @Override
         public void run() {
             try {
+                if (principalModified) {
+                    refreshPrincipal();
+                }
                 listGroups();
                 Display.getDefault().asyncExec(new Runnable() {
                     public void run() {
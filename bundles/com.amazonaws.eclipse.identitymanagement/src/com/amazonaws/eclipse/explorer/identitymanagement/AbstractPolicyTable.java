@@ -35,6 +35,7 @@ import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.statushandlers.StatusManager;
 
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 
@@ -46,11 +47,13 @@ public abstract class AbstractPolicyTable extends Composite {
     protected List<String> policyNames;
     protected TableContentProvider contentProvider;
     protected AmazonIdentityManagement iam;
+    protected final AuthorizationSnapshot snapshot;
 
-    protected AbstractPolicyTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
+    protected AbstractPolicyTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
         super(parent, SWT.NONE);
 
         this.iam = iam;
+        this.snapshot = snapshot;
 
         TableColumnLayout tableColumnLayout = new TableColumnLayout();
         this.setLayout(tableColumnLayout);
@@ -134,14 +137,29 @@ public abstract class AbstractPolicyTable extends Composite {
 
     abstract protected void getPolicyNames();
 
+    /**
+     * Reads the principal shown in the table into the authorization snapshot
+     * again, after it was modified.
+     */
+    abstract protected void refreshPrincipal();
+
     protected class LoadPermissionTableThread extends Thread {
+        private final boolean principalModified;
+
         public LoadPermissionTableThread() {
-            // TODO Auto-generated constructor stub
+            this(false);
+        }
+
+        public LoadPermissionTableThread(boolean principalModified) {
+            this.principalModified = principalModified;
         }
 
         @Override
         public void run() {
             try {
+                if (principalModified) {
+                    refreshPrincipal();
+                }
                 getPolicyNames();
                 Display.getDefault().asyncExec(new Runnable() {
                     public void run() {
@@ -35,6 +35,7 @@ import org.eclipse.swt.widgets.TableColumn;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.statushandlers.StatusManager;
 
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.User;
@@ -46,6 +47,7 @@ public abstract class AbstractUserTable extends Composite {
     protected final UserTableContentProvider contentProvider;
     protected List<User> users;
     protected AmazonIdentityManagement iam;
+    protected final AuthorizationSnapshot snapshot;
 
     protected final class UserTableContentProvider extends ArrayContentProvider {
 
@@ -106,10 +108,11 @@ public abstract class AbstractUserTable extends Composite {
         }
     }
 
-    public AbstractUserTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit, EditorInput userEditorInput) {
+    public AbstractUserTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit, EditorInput userEditorInput) {
         super(parent, SWT.NONE);
         this.userEditorInput = userEditorInput;
         this.iam = iam;
+        this.snapshot = snapshot;
 
         this.setLayoutData(new GridData(GridData.FILL_BOTH));
         TableColumnLayout tableColumnLayout = new TableColumnLayout();
@@ -144,14 +147,30 @@ public abstract class AbstractUserTable extends Composite {
         return column;
     }
 
+    /**
+     * Reads the principal the table belongs to into the authorization
+     * snapshot again, after it was modified. Does nothing by default.
+     */
+    protected void refreshPrincipal() {
+    }
+
     protected class LoadUserTableThread extends Thread {
+        private final boolean principalModified;
+
         public LoadUserTableThread() {
-            // TODO Auto-generated constructor stub
+            this(false);
+        }
+
+        public LoadUserTableThread(boolean principalModified) {
+            this.principalModified = principalModified;
         }
 
         @Override
         public void run() {
             try {
+                if (principalModified) {
+                    refreshPrincipal();
+                }
                 listUsers();
                 Display.getDefault().asyncExec(new Runnable() {
                     public void run() {
@@ -21,6 +21,7 @@ import org.eclipse.swt.widgets.Display;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.group.CreateGroupWizard;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 
@@ -28,19 +29,21 @@ public class CreateGroupAction extends Action {
 
     private final IRefreshable refreshable;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
 
-    public CreateGroupAction(AmazonIdentityManagement iam, IRefreshable refreshable) {
+    public CreateGroupAction(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, IRefreshable refreshable) {
         this.refreshable = refreshable;
         setToolTipText("Create New Group");
         this.iam = iam;
+        this.snapshot = snapshot;
     }
 
     public CreateGroupAction(IRefreshable refreshable) {
-        this(null, refreshable);
+        this(null, null, refreshable);
     }
 
     public CreateGroupAction() {
-        this(null, null);
+        this(null, null, null);
     }
 
     @Override
@@ -55,7 +58,7 @@ public class CreateGroupAction extends Action {
 
     @Override
     public void run() {
-        WizardDialog dialog = new WizardDialog(Display.getCurrent().getActiveShell(), new CreateGroupWizard(iam, refreshable));
+        WizardDialog dialog = new WizardDialog(Display.getCurrent().getActiveShell(), new CreateGroupWizard(iam, snapshot, refreshable));
         dialog.open();
     }
 
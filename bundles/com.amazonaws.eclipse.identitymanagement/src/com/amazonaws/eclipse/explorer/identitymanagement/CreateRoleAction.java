@@ -21,6 +21,7 @@ import org.eclipse.swt.widgets.Display;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.role.CreateRoleWizard;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 
@@ -28,21 +29,23 @@ public class CreateRoleAction extends Action {
 
     private final IRefreshable refreshable;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
 
 
-    public CreateRoleAction(AmazonIdentityManagement iam, IRefreshable refreshable) {
+    public CreateRoleAction(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, IRefreshable refreshable) {
         this.refreshable = refreshable;
         setToolTipText("Create New Role");
         this.iam = iam;
+        this.snapshot = snapshot;
     }
 
     public CreateRoleAction(IRefreshable refreshable) {
-           this(null, refreshable);
+           this(null, null, refreshable);
     }
 
 
     public CreateRoleAction() {
-        this(null, null);
+        this(null, null, null);
     }
 
     @Override
@@ -58,7 +61,7 @@ public class CreateRoleAction extends Action {
     @Override
     public void run() {
 
-        WizardDialog dialog = new WizardDialog(Display.getCurrent().getActiveShell(), new CreateRoleWizard(iam, refreshable));
+        WizardDialog dialog = new WizardDialog(Display.getCurrent().getActiveShell(), new CreateRoleWizard(iam, snapshot, refreshable));
         dialog.open();
 
     }
@@ -21,6 +21,7 @@ import org.eclipse.swt.widgets.Display;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.user.CreateUserWizard;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 
@@ -28,20 +29,22 @@ public class CreateUserAction extends Action {
 
     private final IRefreshable refreshable;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
 
 
-    public CreateUserAction(AmazonIdentityManagement iam, IRefreshable refreshable) {
+    public CreateUserAction(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, IRefreshable refreshable) {
         this.refreshable = refreshable;
         setToolTipText("Create New Users");
         this.iam = iam;
+        this.snapshot = snapshot;
     }
 
     public CreateUserAction(IRefreshable refreshable) {
-           this(null, refreshable);
+           this(null, null, refreshable);
     }
 
     public CreateUserAction() {
-        this(null, null);
+        this(null, null, null);
     }
 
     @Override
@@ -56,7 +59,7 @@ public class CreateUserAction extends Action {
 
     @Override
     public void run() {
-        WizardDialog dialog = new WizardDialog(Display.getCurrent().getActiveShell(), new CreateUserWizard(iam, refreshable));
+        WizardDialog dialog = new WizardDialog(Display.getCurrent().getActiveShell(), new CreateUserWizard(iam, snapshot, refreshable));
         dialog.open();
     }
 
@@ -0,0 +1,931 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement;
+
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.ui.statushandlers.StatusManager;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.core.regions.RegionUtils;
+import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
+import com.amazonaws.eclipse.identitymanagement.policy.CompiledPolicy;
+import com.amazonaws.eclipse.identitymanagement.policy.PolicyCache;
+import com.amazonaws.eclipse.identitymanagement.policy.PolicyEvaluator;
+import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
+import com.amazonaws.services.identitymanagement.model.AttachedPolicy;
+import com.amazonaws.services.identitymanagement.model.GetAccountAuthorizationDetailsRequest;
+import com.amazonaws.services.identitymanagement.model.GetAccountAuthorizationDetailsResult;
+import com.amazonaws.services.identitymanagement.model.GetGroupPolicyRequest;
+import com.amazonaws.services.identitymanagement.model.GetGroupRequest;
+import com.amazonaws.services.identitymanagement.model.GetGroupResult;
+import com.amazonaws.services.identitymanagement.model.GetPolicyRequest;
+import com.amazonaws.services.identitymanagement.model.GetPolicyVersionRequest;
+import com.amazonaws.services.identitymanagement.model.GetRolePolicyRequest;
+import com.amazonaws.services.identitymanagement.model.GetRoleRequest;
+import com.amazonaws.services.identitymanagement.model.GetUserPolicyRequest;
+import com.amazonaws.services.identitymanagement.model.GetUserRequest;
+import com.amazonaws.services.identitymanagement.model.Group;
+import com.amazonaws.services.identitymanagement.model.GroupDetail;
+import com.amazonaws.services.identitymanagement.model.ListAttachedGroupPoliciesRequest;
+import com.amazonaws.services.identitymanagement.model.ListAttachedGroupPoliciesResult;
+import com.amazonaws.services.identitymanagement.model.ListAttachedRolePoliciesRequest;
+import com.amazonaws.services.identitymanagement.model.ListAttachedRolePoliciesResult;
+import com.amazonaws.services.identitymanagement.model.ListAttachedUserPoliciesRequest;
+import com.amazonaws.services.identitymanagement.model.ListAttachedUserPoliciesResult;
+import com.amazonaws.services.identitymanagement.model.ListGroupPoliciesRequest;
+import com.amazonaws.services.identitymanagement.model.ListGroupPoliciesResult;
+import com.amazonaws.services.identitymanagement.model.ListGroupsRequest;
+import com.amazonaws.services.identitymanagement.model.ListGroupsResult;
+import com.amazonaws.services.identitymanagement.model.ListGroupsForUserRequest;
+import com.amazonaws.services.identitymanagement.model.ListGroupsForUserResult;
+import com.amazonaws.services.identitymanagement.model.ListRolePoliciesRequest;
+import com.amazonaws.services.identitymanagement.model.ListRolePoliciesResult;
+import com.amazonaws.services.identitymanagement.model.ListRolesRequest;
+import com.amazonaws.services.identitymanagement.model.ListRolesResult;
+import com.amazonaws.services.identitymanagement.model.ListUserPoliciesRequest;
+import com.amazonaws.services.identitymanagement.model.ListUserPoliciesResult;
+import com.amazonaws.services.identitymanagement.model.ListUsersRequest;
+import com.amazonaws.services.identitymanagement.model.ListUsersResult;
+import com.amazonaws.services.identitymanagement.model.ManagedPolicyDetail;
+import com.amazonaws.services.identitymanagement.model.NoSuchEntityException;
+import com.amazonaws.services.identitymanagement.model.Policy;
+import com.amazonaws.services.identitymanagement.model.PolicyDetail;
+import com.amazonaws.services.identitymanagement.model.PolicyVersion;
+import com.amazonaws.services.identitymanagement.model.Role;
+import com.amazonaws.services.identitymanagement.model.RoleDetail;
+import com.amazonaws.services.identitymanagement.model.User;
+import com.amazonaws.services.identitymanagement.model.UserDetail;
+
+/**
+ * In-memory snapshot of the users, groups, roles and policies of an account,
+ * shared by all the IAM editors of the same account and endpoint. Snapshots
+ * are dropped whenever the toolkit accounts are reloaded.
+ * <p>
+ * The snapshot is loaded on first use with a single paginated
+ * GetAccountAuthorizationDetails walk, or with the List* calls of each
+ * principal if the credentials are not allowed that call, and indexes group membership in both
+ * directions and the inline and attached policies of every principal. After
+ * an editor modifies a principal, it calls {@link #refreshUser(String)},
+ * {@link #refreshGroup(String)} or {@link #refreshRole(String)} so that only
+ * that principal is read again; {@link #invalidate()} drops the whole
+ * snapshot so it is reloaded on next use.
+ * <p>
+ * {@link #getPolicyEvaluator()} answers permission questions from the
+ * policies in the snapshot without calling IAM.
+ */
+public class AuthorizationSnapshot {
+
+    /** Maximum page size allowed by GetAccountAuthorizationDetails */
+    private static final int PAGE_SIZE = 1000;
+
+    /** The error code of requests the credentials are not allowed to make */
+    private static final String ACCESS_DENIED = "AccessDenied";
+
+    /** Snapshots by account id and IAM endpoint */
+    private static final Map<String, AuthorizationSnapshot> snapshots = new HashMap<String, AuthorizationSnapshot>();
+
+    /** The type of a principal with policies */
+    private enum PrincipalType { USER, GROUP, ROLE }
+
+    private final String accountId;
+    private final String regionEndpoint;
+
+    /** Serializes full loads, so concurrent readers wait for a single load */
+    private final Object loadLock = new Object();
+
+    /**
+     * Whether the credentials were denied GetAccountAuthorizationDetails, so
+     * that later loads go straight to the List* calls; guarded by loadLock
+     */
+    private boolean authorizationDetailsDenied;
+
+    /** The current indexes, or null if they need to be loaded; guarded by this */
+    private Indexes indexes;
+
+    private AuthorizationSnapshot(String accountId, String regionEndpoint) {
+        this.accountId = accountId;
+        this.regionEndpoint = regionEndpoint;
+    }
+
+    /**
+     * Returns the snapshot of the specified account, as seen through the
+     * specified IAM endpoint.
+     */
+    public static AuthorizationSnapshot getSnapshot(String accountId, String regionEndpoint) {
+        String key = accountId + " " + regionEndpoint;
+        synchronized (snapshots) {
+            AuthorizationSnapshot snapshot = snapshots.get(key);
+            if (snapshot == null) {
+                snapshot = new AuthorizationSnapshot(accountId, regionEndpoint);
+                snapshots.put(key, snapshot);
+            }
+            return snapshot;
+        }
+    }
+
+    /**
+     * Returns the snapshot of the current account, as seen through the IAM
+     * endpoint of the current region.
+     */
+    public static AuthorizationSnapshot getSnapshot() {
+        return getSnapshot(AwsToolkitCore.getDefault().getCurrentAccountId(),
+                RegionUtils.getCurrentRegion().getServiceEndpoint(ServiceAbbreviations.IAM));
+    }
+
+    /**
+     * Drops all the snapshots, since the accounts or their credentials may
+     * have changed.
+     */
+    static void clearAll() {
+        synchronized (snapshots) {
+            snapshots.clear();
+        }
+    }
+
+    /**
+     * Discards the snapshot; it is loaded again the next time it is read.
+     */
+    public synchronized void invalidate() {
+        indexes = null;
+    }
+
+    public List<User> getUsers() {
+        Indexes current = getIndexes();
+        synchronized (this) {
+            return new ArrayList<User>(current.users.values());
+        }
+    }
+
+    public List<Group> getGroups() {
+        Indexes current = getIndexes();
+        synchronized (this) {
+            return new ArrayList<Group>(current.groups.values());
+        }
+    }
+
+    public List<Role> getRoles() {
+        Indexes current = getIndexes();
+        synchronized (this) {
+            return new ArrayList<Role>(current.roles.values());
+        }
+    }
+
+    public List<Group> getGroupsForUser(String userName) {
+        Indexes current = getIndexes();
+        synchronized (this) {
+            List<Group> groups = new ArrayList<Group>();
+            for (String groupName : current.get(current.groupsByUser, userName)) {
+                Group group = current.groups.get(groupName);
+                if (group != null) groups.add(group);
+            }
+            return groups;
+        }
+    }
+
+    public List<User> getUsersInGroup(String groupName) {
+        Indexes current = getIndexes();
+        synchronized (this) {
+            List<User> users = new ArrayList<User>();
+            for (String userName : current.get(current.usersByGroup, groupName)) {
+                User user = current.users.get(userName);
+                if (user != null) users.add(user);
+            }
+            return users;
+        }
+    }
+
+    public List<String> getUserPolicyNames(String userName) {
+        return getInlinePolicyNames(PrincipalType.USER, userName);
+    }
+
+    public List<String> getGroupPolicyNames(String groupName) {
+        return getInlinePolicyNames(PrincipalType.GROUP, groupName);
+    }
+
+    public List<String> getRolePolicyNames(String roleName) {
+        return getInlinePolicyNames(PrincipalType.ROLE, roleName);
+    }
+
+    public List<AttachedPolicy> getAttachedUserPolicies(String userName) {
+        return getAttachedPolicies(PrincipalType.USER, userName);
+    }
+
+    public List<AttachedPolicy> getAttachedGroupPolicies(String groupName) {
+        return getAttachedPolicies(PrincipalType.GROUP, groupName);
+    }
+
+    public List<AttachedPolicy> getAttachedRolePolicies(String roleName) {
+        return getAttachedPolicies(PrincipalType.ROLE, roleName);
+    }
+
+    /**
+     * Returns an evaluator for the identity-based policies of all the users
+     * and roles in the snapshot. The evaluator is built once and reused until
+     * a principal or its policies change; the compiled policies are shared
+     * through the {@link PolicyCache}, so only changed documents are compiled
+     * again.
+     */
+    public PolicyEvaluator getPolicyEvaluator() {
+        Indexes current = getIndexes();
+
+        Map<String, List<PolicySource>> sources;
+        int version;
+        synchronized (this) {
+            if (current.evaluator != null) {
+                return current.evaluator;
+            }
+            sources = current.getPolicySources();
+            version = current.version;
+        }
+
+        PolicyCache cache = PolicyCache.getInstance();
+        Map<String, List<CompiledPolicy>> policies = new HashMap<String, List<CompiledPolicy>>();
+        for (Map.Entry<String, List<PolicySource>> entry : sources.entrySet()) {
+            List<CompiledPolicy> compiled = new ArrayList<CompiledPolicy>();
+            for (PolicySource source : entry.getValue()) {
+                try {
+                    compiled.add(source.policyArn == null
+                            ? cache.getInlinePolicy(source.document)
+                            : cache.getManagedPolicy(source.policyArn, source.versionId, source.document));
+                } catch (IllegalArgumentException e) {
+                    Status status = new Status(IStatus.WARNING, IdentityManagementPlugin.PLUGIN_ID,
+                            "Skipping invalid policy " + source.name + " of " + entry.getKey(), e);
+                    StatusManager.getManager().handle(status, StatusManager.LOG);
+                }
+            }
+            policies.put(entry.getKey(), compiled);
+        }
+        PolicyEvaluator evaluator = new PolicyEvaluator(policies);
+
+        synchronized (this) {
+            if (current.version == version) {
+                current.evaluator = evaluator;
+            }
+        }
+        return evaluator;
+    }
+
+    /**
+     * Reads the specified user, its inline and attached policies and its
+     * group memberships again, or removes it from the snapshot if it no
+     * longer exists.
+     */
+    public void refreshUser(String userName) {
+        Indexes current = getIndexes();
+
+        User user;
+        try {
+            user = getClient().getUser(new GetUserRequest().withUserName(userName)).getUser();
+        } catch (NoSuchEntityException e) {
+            synchronized (this) {
+                current.removeUser(userName);
+            }
+            return;
+        }
+
+        Map<String, String> inlinePolicies = listUserPolicies(userName);
+        List<AttachedPolicy> attachedPolicies = listAttachedUserPolicies(userName);
+        List<Group> groups = listGroupsForUser(userName);
+
+        Map<String, ManagedPolicyDetail> newManagedPolicies = loadMissingManagedPolicies(current, attachedPolicies);
+
+        synchronized (this) {
+            current.managedPolicies.putAll(newManagedPolicies);
+            current.putUser(user, inlinePolicies, attachedPolicies);
+            Set<String> groupNames = new TreeSet<String>();
+            for (Group group : groups) {
+                current.groups.put(group.getGroupName(), group);
+                groupNames.add(group.getGroupName());
+            }
+            current.setGroupsForUser(userName, groupNames);
+        }
+    }
+
+    /**
+     * Reads the specified group, its inline and attached policies and its
+     * members again, or removes it from the snapshot if it no longer exists.
+     */
+    public void refreshGroup(String groupName) {
+        Indexes current = getIndexes();
+
+        Group group = null;
+        List<User> members = new ArrayList<User>();
+        GetGroupResult getGroupResult;
+        String marker = null;
+        try {
+            do {
+                getGroupResult = getClient().getGroup(new GetGroupRequest()
+                        .withGroupName(groupName).withMarker(marker));
+                group = getGroupResult.getGroup();
+                members.addAll(getGroupResult.getUsers());
+                marker = nextMarker(getGroupResult.isTruncated(), getGroupResult.getMarker());
+            } while (marker != null);
+        } catch (NoSuchEntityException e) {
+            synchronized (this) {
+                current.removeGroup(groupName);
+            }
+            return;
+        }
+
+        Map<String, String> inlinePolicies = listGroupPolicies(groupName);
+        List<AttachedPolicy> attachedPolicies = listAttachedGroupPolicies(groupName);
+
+        Map<String, ManagedPolicyDetail> newManagedPolicies = loadMissingManagedPolicies(current, attachedPolicies);
+
+        synchronized (this) {
+            current.managedPolicies.putAll(newManagedPolicies);
+            current.putGroup(group, inlinePolicies, attachedPolicies);
+            Set<String> userNames = new TreeSet<String>();
+            for (User member : members) {
+                if (!current.users.containsKey(member.getUserName())) {
+                    current.users.put(member.getUserName(), member);
+                }
+                userNames.add(member.getUserName());
+            }
+            current.setUsersInGroup(groupName, userNames);
+        }
+    }
+
+    /**
+     * Reads the specified role and its inline and attached policies again, or
+     * removes it from the snapshot if it no longer exists.
+     */
+    public void refreshRole(String roleName) {
+        Indexes current = getIndexes();
+
+        Role role;
+        try {
+            role = getClient().getRole(new GetRoleRequest().withRoleName(roleName)).getRole();
+        } catch (NoSuchEntityException e) {
+            synchronized (this) {
+                current.removeRole(roleName);
+            }
+            return;
+        }
+
+        Map<String, String> inlinePolicies = listRolePolicies(roleName);
+        List<AttachedPolicy> attachedPolicies = listAttachedRolePolicies(roleName);
+
+        Map<String, ManagedPolicyDetail> newManagedPolicies = loadMissingManagedPolicies(current, attachedPolicies);
+
+        synchronized (this) {
+            current.managedPolicies.putAll(newManagedPolicies);
+            current.putRole(role, inlinePolicies, attachedPolicies);
+        }
+    }
+
+    /**
+     * Returns the client for the account, which the client factory replaces
+     * when the credentials change.
+     */
+    private AmazonIdentityManagement getClient() {
+        return AwsToolkitCore.getClientFactory(accountId).getIAMClientByEndpoint(regionEndpoint);
+    }
+
+    private List<String> getInlinePolicyNames(PrincipalType type, String principalName) {
+        Indexes current = getIndexes();
+        synchronized (this) {
+            Map<String, String> policies = current.inlinePolicies.get(type).get(principalName);
+            if (policies == null) {
+                return new ArrayList<String>();
+            }
+            return new ArrayList<String>(policies.keySet());
+        }
+    }
+
+    private List<AttachedPolicy> getAttachedPolicies(PrincipalType type, String principalName) {
+        Indexes current = getIndexes();
+        synchronized (this) {
+            List<AttachedPolicy> policies = current.attachedPolicies.get(type).get(principalName);
+            if (policies == null) {
+                return new ArrayList<AttachedPolicy>();
+            }
+            return new ArrayList<AttachedPolicy>(policies);
+        }
+    }
+
+    /**
+     * Returns the current indexes, loading the whole account first if the
+     * snapshot has not been loaded yet or was invalidated.
+     */
+    private Indexes getIndexes() {
+        synchronized (loadLock) {
+            synchronized (this) {
+                if (indexes != null) {
+                    return indexes;
+                }
+            }
+            Indexes loaded = loadIndexes();
+            synchronized (this) {
+                indexes = loaded;
+            }
+            return loaded;
+        }
+    }
+
+    private Indexes loadIndexes() {
+        if (!authorizationDetailsDenied) {
+            try {
+                return loadAuthorizationDetails();
+            } catch (AmazonServiceException e) {
+                if (!ACCESS_DENIED.equals(e.getErrorCode())) throw e;
+                authorizationDetailsDenied = true;
+                Status status = new Status(IStatus.INFO, IdentityManagementPlugin.PLUGIN_ID,
+                        "Not allowed to call GetAccountAuthorizationDetails, listing each principal instead", e);
+                StatusManager.getManager().handle(status, StatusManager.LOG);
+            }
+        }
+        return loadEachPrincipal();
+    }
+
+    private Indexes loadAuthorizationDetails() {
+        Indexes loaded = new Indexes();
+        GetAccountAuthorizationDetailsRequest request = new GetAccountAuthorizationDetailsRequest()
+                .withMaxItems(PAGE_SIZE);
+        GetAccountAuthorizationDetailsResult result;
+        do {
+            result = getClient().getAccountAuthorizationDetails(request);
+
+            for (UserDetail detail : result.getUserDetailList()) {
+                User user = new User()
+                        .withUserName(detail.getUserName())
+                        .withUserId(detail.getUserId())
+                        .withArn(detail.getArn())
+                        .withPath(detail.getPath())
+                        .withCreateDate(detail.getCreateDate());
+                loaded.putUser(user, decode(detail.getUserPolicyList()), detail.getAttachedManagedPolicies());
+                loaded.setGroupsForUser(detail.getUserName(), new TreeSet<String>(detail.getGroupList()));
+            }
+            for (GroupDetail detail : result.getGroupDetailList()) {
+                Group group = new Group()
+                        .withGroupName(detail.getGroupName())
+                        .withGroupId(detail.getGroupId())
+                        .withArn(detail.getArn())
+                        .withPath(detail.getPath())
+                        .withCreateDate(detail.getCreateDate());
+                loaded.putGroup(group, decode(detail.getGroupPolicyList()), detail.getAttachedManagedPolicies());
+            }
+            for (RoleDetail detail : result.getRoleDetailList()) {
+                Role role = new Role()
+                        .withRoleName(detail.getRoleName())
+                        .withRoleId(detail.getRoleId())
+                        .withArn(detail.getArn())
+                        .withPath(detail.getPath())
+                        .withCreateDate(detail.getCreateDate())
+                        .withAssumeRolePolicyDocument(detail.getAssumeRolePolicyDocument());
+                loaded.putRole(role, decode(detail.getRolePolicyList()), detail.getAttachedManagedPolicies());
+            }
+            for (ManagedPolicyDetail detail : result.getPolicies()) {
+                loaded.managedPolicies.put(detail.getArn(), detail);
+            }
+
+            request.setMarker(nextMarker(result.isTruncated(), result.getMarker()));
+        } while (request.getMarker() != null);
+
+        return loaded;
+    }
+
+    /**
+     * Loads the account with the List* calls of each user, group and role,
+     * for credentials that are not allowed to call
+     * GetAccountAuthorizationDetails.
+     */
+    private Indexes loadEachPrincipal() {
+        Indexes loaded = new Indexes();
+        Map<String, AttachedPolicy> allAttachedPolicies = new LinkedHashMap<String, AttachedPolicy>();
+
+        ListUsersResult users;
+        String marker = null;
+        do {
+            users = getClient().listUsers(new ListUsersRequest().withMarker(marker));
+            for (User user : users.getUsers()) {
+                List<AttachedPolicy> attachedPolicies = listAttachedUserPolicies(user.getUserName());
+                loaded.putUser(user, listUserPolicies(user.getUserName()), attachedPolicies);
+                Set<String> groupNames = new TreeSet<String>();
+                for (Group group : listGroupsForUser(user.getUserName())) {
+                    groupNames.add(group.getGroupName());
+                }
+                loaded.setGroupsForUser(user.getUserName(), groupNames);
+                putAll(allAttachedPolicies, attachedPolicies);
+            }
+            marker = nextMarker(users.isTruncated(), users.getMarker());
+        } while (marker != null);
+
+        ListGroupsResult groups;
+        do {
+            groups = getClient().listGroups(new ListGroupsRequest().withMarker(marker));
+            for (Group group : groups.getGroups()) {
+                List<AttachedPolicy> attachedPolicies = listAttachedGroupPolicies(group.getGroupName());
+                loaded.putGroup(group, listGroupPolicies(group.getGroupName()), attachedPolicies);
+                putAll(allAttachedPolicies, attachedPolicies);
+            }
+            marker = nextMarker(groups.isTruncated(), groups.getMarker());
+        } while (marker != null);
+
+        ListRolesResult roles;
+        do {
+            roles = getClient().listRoles(new ListRolesRequest().withMarker(marker));
+            for (Role role : roles.getRoles()) {
+                List<AttachedPolicy> attachedPolicies = listAttachedRolePolicies(role.getRoleName());
+                loaded.putRole(role, listRolePolicies(role.getRoleName()), attachedPolicies);
+                putAll(allAttachedPolicies, attachedPolicies);
+            }
+            marker = nextMarker(roles.isTruncated(), roles.getMarker());
+        } while (marker != null);
+
+        loaded.managedPolicies.putAll(loadMissingManagedPolicies(loaded,
+                new ArrayList<AttachedPolicy>(allAttachedPolicies.values())));
+        return loaded;
+    }
+
+    private Map<String, String> listUserPolicies(String userName) {
+        Map<String, String> inlinePolicies = new LinkedHashMap<String, String>();
+        ListUserPoliciesResult policyNames;
+        String marker = null;
+        do {
+            policyNames = getClient().listUserPolicies(new ListUserPoliciesRequest()
+                    .withUserName(userName).withMarker(marker));
+            for (String policyName : policyNames.getPolicyNames()) {
+                inlinePolicies.put(policyName, decode(getClient().getUserPolicy(new GetUserPolicyRequest()
+                        .withUserName(userName).withPolicyName(policyName)).getPolicyDocument()));
+            }
+            marker = nextMarker(policyNames.isTruncated(), policyNames.getMarker());
+        } while (marker != null);
+        return inlinePolicies;
+    }
+
+    private List<AttachedPolicy> listAttachedUserPolicies(String userName) {
+        List<AttachedPolicy> attachedPolicies = new ArrayList<AttachedPolicy>();
+        ListAttachedUserPoliciesResult attached;
+        String marker = null;
+        do {
+            attached = getClient().listAttachedUserPolicies(new ListAttachedUserPoliciesRequest()
+                    .withUserName(userName).withMarker(marker));
+            attachedPolicies.addAll(attached.getAttachedPolicies());
+            marker = nextMarker(attached.isTruncated(), attached.getMarker());
+        } while (marker != null);
+        return attachedPolicies;
+    }
+
+    private List<Group> listGroupsForUser(String userName) {
+        List<Group> groups = new ArrayList<Group>();
+        ListGroupsForUserResult groupsForUser;
+        String marker = null;
+        do {
+            groupsForUser = getClient().listGroupsForUser(new ListGroupsForUserRequest()
+                    .withUserName(userName).withMarker(marker));
+            groups.addAll(groupsForUser.getGroups());
+            marker = nextMarker(groupsForUser.isTruncated(), groupsForUser.getMarker());
+        } while (marker != null);
+        return groups;
+    }
+
+    private Map<String, String> listGroupPolicies(String groupName) {
+        Map<String, String> inlinePolicies = new LinkedHashMap<String, String>();
+        ListGroupPoliciesResult policyNames;
+        String marker = null;
+        do {
+            policyNames = getClient().listGroupPolicies(new ListGroupPoliciesRequest()
+                    .withGroupName(groupName).withMarker(marker));
+            for (String policyName : policyNames.getPolicyNames()) {
+                inlinePolicies.put(policyName, decode(getClient().getGroupPolicy(new GetGroupPolicyRequest()
+                        .withGroupName(groupName).withPolicyName(policyName)).getPolicyDocument()));
+            }
+            marker = nextMarker(policyNames.isTruncated(), policyNames.getMarker());
+        } while (marker != null);
+        return inlinePolicies;
+    }
+
+    private List<AttachedPolicy> listAttachedGroupPolicies(String groupName) {
+        List<AttachedPolicy> attachedPolicies = new ArrayList<AttachedPolicy>();
+        ListAttachedGroupPoliciesResult attached;
+        String marker = null;
+        do {
+            attached = getClient().listAttachedGroupPolicies(new ListAttachedGroupPoliciesRequest()
+                    .withGroupName(groupName).withMarker(marker));
+            attachedPolicies.addAll(attached.getAttachedPolicies());
+            marker = nextMarker(attached.isTruncated(), attached.getMarker());
+        } while (marker != null);
+        return attachedPolicies;
+    }
+
+    private Map<String, String> listRolePolicies(String roleName) {
+        Map<String, String> inlinePolicies = new LinkedHashMap<String, String>();
+        ListRolePoliciesResult policyNames;
+        String marker = null;
+        do {
+            policyNames = getClient().listRolePolicies(new ListRolePoliciesRequest()
+                    .withRoleName(roleName).withMarker(marker));
+            for (String policyName : policyNames.getPolicyNames()) {
+                inlinePolicies.put(policyName, decode(getClient().getRolePolicy(new GetRolePolicyRequest()
+                        .withRoleName(roleName).withPolicyName(policyName)).getPolicyDocument()));
+            }
+            marker = nextMarker(policyNames.isTruncated(), policyNames.getMarker());
+        } while (marker != null);
+        return inlinePolicies;
+    }
+
+    private List<AttachedPolicy> listAttachedRolePolicies(String roleName) {
+        List<AttachedPolicy> attachedPolicies = new ArrayList<AttachedPolicy>();
+        ListAttachedRolePoliciesResult attached;
+        String marker = null;
+        do {
+            attached = getClient().listAttachedRolePolicies(new ListAttachedRolePoliciesRequest()
+                    .withRoleName(roleName).withMarker(marker));
+            attachedPolicies.addAll(attached.getAttachedPolicies());
+            marker = nextMarker(attached.isTruncated(), attached.getMarker());
+        } while (marker != null);
+        return attachedPolicies;
+    }
+
+    private static void putAll(Map<String, AttachedPolicy> policiesByArn, List<AttachedPolicy> policies) {
+        for (AttachedPolicy policy : policies) {
+            policiesByArn.put(policy.getPolicyArn(), policy);
+        }
+    }
+
+    /**
+     * Fetches the managed policies attached to a refreshed principal that are
+     * not in the snapshot yet, with the document of their default version.
+     */
+    private Map<String, ManagedPolicyDetail> loadMissingManagedPolicies(Indexes current,
+            List<AttachedPolicy> attachedPolicies) {
+        List<String> missingArns = new ArrayList<String>();
+        synchronized (this) {
+            for (AttachedPolicy attachedPolicy : attachedPolicies) {
+                if (!current.managedPolicies.containsKey(attachedPolicy.getPolicyArn())) {
+                    missingArns.add(attachedPolicy.getPolicyArn());
+                }
+            }
+        }
+
+        Map<String, ManagedPolicyDetail> managedPolicies = new HashMap<String, ManagedPolicyDetail>();
+        for (String policyArn : missingArns) {
+            Policy policy = getClient().getPolicy(new GetPolicyRequest().withPolicyArn(policyArn)).getPolicy();
+            PolicyVersion defaultVersion = getClient().getPolicyVersion(new GetPolicyVersionRequest()
+                    .withPolicyArn(policyArn)
+                    .withVersionId(policy.getDefaultVersionId()))
+                    .getPolicyVersion();
+            managedPolicies.put(policyArn, new ManagedPolicyDetail()
+                    .withPolicyName(policy.getPolicyName())
+                    .withPolicyId(policy.getPolicyId())
+                    .withArn(policy.getArn())
+                    .withPath(policy.getPath())
+                    .withDefaultVersionId(policy.getDefaultVersionId())
+                    .withAttachmentCount(policy.getAttachmentCount())
+                    .withIsAttachable(policy.getIsAttachable())
+                    .withDescription(policy.getDescription())
+                    .withCreateDate(policy.getCreateDate())
+                    .withUpdateDate(policy.getUpdateDate())
+                    .withPolicyVersionList(defaultVersion));
+        }
+        return managedPolicies;
+    }
+
+    /** A policy document that applies to a principal */
+    private static class PolicySource {
+        private final String name;
+        /** The ARN and version of a managed policy; null for inline policies */
+        private final String policyArn;
+        private final String versionId;
+        private final String document;
+
+        PolicySource(String name, String policyArn, String versionId, String document) {
+            this.name = name;
+            this.policyArn = policyArn;
+            this.versionId = versionId;
+            this.document = document;
+        }
+    }
+
+    private static String nextMarker(Boolean truncated, String marker) {
+        return Boolean.TRUE.equals(truncated) ? marker : null;
+    }
+
+    private static Map<String, String> decode(List<PolicyDetail> policies) {
+        Map<String, String> documents = new LinkedHashMap<String, String>();
+        for (PolicyDetail policy : policies) {
+            documents.put(policy.getPolicyName(), decode(policy.getPolicyDocument()));
+        }
+        return documents;
+    }
+
+    /** Policy documents are returned URL encoded */
+    private static String decode(String policyDocument) {
+        if (policyDocument == null) return null;
+        try {
+            return URLDecoder.decode(policyDocument, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new RuntimeException("Unable to decode policy document", e);
+        }
+    }
+
+    /**
+     * The principals and policies of the account, and the indexes between
+     * them. Instances are only accessed while holding the snapshot's lock.
+     */
+    private static class Indexes {
+        private final Map<String, User> users = new TreeMap<String, User>();
+        private final Map<String, Group> groups = new TreeMap<String, Group>();
+        private final Map<String, Role> roles = new TreeMap<String, Role>();
+
+        private final Map<String, Set<String>> groupsByUser = new HashMap<String, Set<String>>();
+        private final Map<String, Set<String>> usersByGroup = new HashMap<String, Set<String>>();
+
+        /** Inline policy documents by name, by principal name, by principal type */
+        private final Map<PrincipalType, Map<String, Map<String, String>>> inlinePolicies =
+                new HashMap<PrincipalType, Map<String, Map<String, String>>>();
+
+        /** Attached managed policies by principal name, by principal type */
+        private final Map<PrincipalType, Map<String, List<AttachedPolicy>>> attachedPolicies =
+                new HashMap<PrincipalType, Map<String, List<AttachedPolicy>>>();
+
+        /** Managed policies by ARN, with the document of their default version */
+        private final Map<String, ManagedPolicyDetail> managedPolicies = new HashMap<String, ManagedPolicyDetail>();
+
+        /** Incremented whenever principals, memberships or policies change */
+        private int version;
+
+        /** The evaluator for the current version, or null if not built yet */
+        private PolicyEvaluator evaluator;
+
+        Indexes() {
+            for (PrincipalType type : PrincipalType.values()) {
+                inlinePolicies.put(type, new HashMap<String, Map<String, String>>());
+                attachedPolicies.put(type, new HashMap<String, List<AttachedPolicy>>());
+            }
+        }
+
+        Set<String> get(Map<String, Set<String>> index, String name) {
+            Set<String> names = index.get(name);
+            return names == null ? Collections.<String>emptySet() : names;
+        }
+
+        void putUser(User user, Map<String, String> inline, List<AttachedPolicy> attached) {
+            users.put(user.getUserName(), user);
+            putPolicies(PrincipalType.USER, user.getUserName(), inline, attached);
+        }
+
+        void putGroup(Group group, Map<String, String> inline, List<AttachedPolicy> attached) {
+            groups.put(group.getGroupName(), group);
+            putPolicies(PrincipalType.GROUP, group.getGroupName(), inline, attached);
+        }
+
+        void putRole(Role role, Map<String, String> inline, List<AttachedPolicy> attached) {
+            roles.put(role.getRoleName(), role);
+            putPolicies(PrincipalType.ROLE, role.getRoleName(), inline, attached);
+        }
+
+        void removeUser(String userName) {
+            users.remove(userName);
+            setGroupsForUser(userName, Collections.<String>emptySet());
+            groupsByUser.remove(userName);
+            removePolicies(PrincipalType.USER, userName);
+        }
+
+        void removeGroup(String groupName) {
+            groups.remove(groupName);
+            setUsersInGroup(groupName, Collections.<String>emptySet());
+            usersByGroup.remove(groupName);
+            removePolicies(PrincipalType.GROUP, groupName);
+        }
+
+        void removeRole(String roleName) {
+            roles.remove(roleName);
+            removePolicies(PrincipalType.ROLE, roleName);
+        }
+
+        /**
+         * Returns the policy documents that apply to each user and role, by
+         * ARN: their own inline and attached policies and, for users, those of
+         * the groups they belong to.
+         */
+        Map<String, List<PolicySource>> getPolicySources() {
+            Map<String, List<PolicySource>> sources = new HashMap<String, List<PolicySource>>();
+            for (User user : users.values()) {
+                List<PolicySource> userSources = new ArrayList<PolicySource>();
+                addPolicySources(userSources, PrincipalType.USER, user.getUserName());
+                for (String groupName : get(groupsByUser, user.getUserName())) {
+                    addPolicySources(userSources, PrincipalType.GROUP, groupName);
+                }
+                sources.put(user.getArn(), userSources);
+            }
+            for (Role role : roles.values()) {
+                List<PolicySource> roleSources = new ArrayList<PolicySource>();
+                addPolicySources(roleSources, PrincipalType.ROLE, role.getRoleName());
+                sources.put(role.getArn(), roleSources);
+            }
+            return sources;
+        }
+
+        private void addPolicySources(List<PolicySource> sources, PrincipalType type, String principalName) {
+            Map<String, String> inline = inlinePolicies.get(type).get(principalName);
+            if (inline != null) {
+                for (Map.Entry<String, String> policy : inline.entrySet()) {
+                    if (policy.getValue() != null) {
+                        sources.add(new PolicySource(policy.getKey(), null, null, policy.getValue()));
+                    }
+                }
+            }
+            List<AttachedPolicy> attached = attachedPolicies.get(type).get(principalName);
+            if (attached != null) {
+                for (AttachedPolicy policy : attached) {
+                    ManagedPolicyDetail detail = managedPolicies.get(policy.getPolicyArn());
+                    PolicyVersion defaultVersion = detail == null ? null : getDefaultVersion(detail);
+                    if (defaultVersion != null && defaultVersion.getDocument() != null) {
+                        sources.add(new PolicySource(policy.getPolicyName(), policy.getPolicyArn(),
+                                defaultVersion.getVersionId(), decode(defaultVersion.getDocument())));
+                    }
+                }
+            }
+        }
+
+        private static PolicyVersion getDefaultVersion(ManagedPolicyDetail detail) {
+            for (PolicyVersion version : detail.getPolicyVersionList()) {
+                if (Boolean.TRUE.equals(version.getIsDefaultVersion())
+                        || (detail.getDefaultVersionId() != null
+                            && detail.getDefaultVersionId().equals(version.getVersionId()))) {
+                    return version;
+                }
+            }
+            return null;
+        }
+
+        /** Replaces the memberships of a user, keeping both indexes in sync */
+        void setGroupsForUser(String userName, Set<String> groupNames) {
+            modified();
+            for (String groupName : get(groupsByUser, userName)) {
+                get(usersByGroup, groupName).remove(userName);
+            }
+            groupsByUser.put(userName, new TreeSet<String>(groupNames));
+            for (String groupName : groupNames) {
+                members(usersByGroup, groupName).add(userName);
+            }
+        }
+
+        /** Replaces the members of a group, keeping both indexes in sync */
+        void setUsersInGroup(String groupName, Set<String> userNames) {
+            modified();
+            for (String userName : get(usersByGroup, groupName)) {
+                get(groupsByUser, userName).remove(groupName);
+            }
+            usersByGroup.put(groupName, new TreeSet<String>(userNames));
+            for (String userName : userNames) {
+                members(groupsByUser, userName).add(groupName);
+            }
+        }
+
+        private Set<String> members(Map<String, Set<String>> index, String name) {
+            Set<String> names = index.get(name);
+            if (names == null) {
+                names = new TreeSet<String>();
+                index.put(name, names);
+            }
+            return names;
+        }
+
+        private void putPolicies(PrincipalType type, String principalName,
+                Map<String, String> inline, List<AttachedPolicy> attached) {
+            modified();
+            inlinePolicies.get(type).put(principalName, new LinkedHashMap<String, String>(inline));
+            attachedPolicies.get(type).put(principalName, new ArrayList<AttachedPolicy>(attached));
+        }
+
+        private void removePolicies(PrincipalType type, String principalName) {
+            modified();
+            inlinePolicies.get(type).remove(principalName);
+            attachedPolicies.get(type).remove(principalName);
+        }
+
+        private void modified() {
+            version++;
+            evaluator = null;
+        }
+    }
+}
@@ -16,6 +16,8 @@ package com.amazonaws.eclipse.identitymanagement;
 
 import org.osgi.framework.BundleContext;
 
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.core.accounts.AccountInfoChangeListener;
 import com.amazonaws.eclipse.core.plugin.AbstractAwsPlugin;
 
 /**
@@ -29,6 +31,12 @@ public class IdentityManagementPlugin extends AbstractAwsPlugin {
     // The shared instance
     private static IdentityManagementPlugin plugin;
 
+    /** Drops the authorization snapshots when the accounts are reloaded */
+    private final AccountInfoChangeListener accountInfoChangeListener = new AccountInfoChangeListener() {
+        public void onAccountInfoChange() {
+            AuthorizationSnapshot.clearAll();
+        }
+    };
 
     /*
      * (non-Javadoc)
@@ -37,6 +45,7 @@ public class IdentityManagementPlugin extends AbstractAwsPlugin {
     public void start(BundleContext context) throws Exception {
         super.start(context);
         plugin = this;
+        AwsToolkitCore.getDefault().getAccountManager().addAccountInfoChangeListener(accountInfoChangeListener);
     }
 
     /*
@@ -44,6 +53,8 @@ public class IdentityManagementPlugin extends AbstractAwsPlugin {
      * @see org.eclipse.ui.plugin.AbstractUIPlugin#stop(org.osgi.framework.BundleContext)
      */
     public void stop(BundleContext context) throws Exception {
+        AwsToolkitCore.getDefault().getAccountManager().removeAccountInfoChangeListener(accountInfoChangeListener);
+        AuthorizationSnapshot.clearAll();
         plugin = null;
         super.stop(context);
     }
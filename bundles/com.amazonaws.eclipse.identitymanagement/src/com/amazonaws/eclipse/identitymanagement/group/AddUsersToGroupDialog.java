@@ -37,10 +37,10 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.ScrolledForm;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.AddUserToGroupRequest;
-import com.amazonaws.services.identitymanagement.model.GetGroupRequest;
 import com.amazonaws.services.identitymanagement.model.Group;
 import com.amazonaws.services.identitymanagement.model.User;
 
@@ -50,13 +50,15 @@ public class AddUsersToGroupDialog extends TitleAreaDialog {
     private final Group group;
     private final List<User> usersInGroup;
     private AmazonIdentityManagement iam;
+    private final AuthorizationSnapshot snapshot;
     private UsersInGroupTable usersInGroupTable;
 
-    public AddUsersToGroupDialog(AmazonIdentityManagement iam, Shell parentShell, FormToolkit toolkit, Group group, UsersInGroupTable usersInGroupTable) {
+    public AddUsersToGroupDialog(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Shell parentShell, FormToolkit toolkit, Group group, UsersInGroupTable usersInGroupTable) {
         super(parentShell);
         this.toolkit = toolkit;
         this.group = group;
         this.iam = iam;
+        this.snapshot = snapshot;
         usersInGroup = getUsersInGroup();
         this.usersInGroupTable = usersInGroupTable;
     }
@@ -110,11 +112,11 @@ public class AddUsersToGroupDialog extends TitleAreaDialog {
     }
 
     private List<User> getUsersInGroup() {
-        return iam.getGroup(new GetGroupRequest().withGroupName(group.getGroupName())).getUsers();
+        return snapshot.getUsersInGroup(group.getGroupName());
     }
 
     private List<User> listUsers() {
-        return iam.listUsers().getUsers();
+        return snapshot.getUsers();
     }
 
     @Override
@@ -0,0 +1,51 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement.group;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.ui.forms.widgets.FormToolkit;
+
+import com.amazonaws.eclipse.explorer.identitymanagement.AbstractCheckPermissionDialog;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
+import com.amazonaws.services.identitymanagement.model.Group;
+import com.amazonaws.services.identitymanagement.model.User;
+
+class CheckGroupPermissionDialog extends AbstractCheckPermissionDialog {
+    private final Group group;
+
+    public CheckGroupPermissionDialog(AuthorizationSnapshot snapshot, Shell parentShell, FormToolkit toolkit, Group group) {
+        super(snapshot, parentShell, toolkit);
+        this.group = group;
+    }
+
+    @Override
+    protected void configureShell(Shell shell) {
+        super.configureShell(shell);
+        shell.setText("Check Group Permission");
+    }
+
+    @Override
+    protected List<String> getPrincipalArns() {
+        List<String> userArns = new ArrayList<String>();
+        for (User user : snapshot.getUsersInGroup(group.getGroupName())) {
+            userArns.add(user.getArn());
+        }
+        return userArns;
+    }
+
+}
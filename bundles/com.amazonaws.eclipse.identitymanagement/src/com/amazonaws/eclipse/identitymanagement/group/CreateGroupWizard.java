@@ -22,6 +22,7 @@ import org.eclipse.jface.wizard.Wizard;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.CreateGroupRequest;
@@ -32,9 +33,10 @@ public class CreateGroupWizard extends Wizard {
     private CreateGroupSecondPage secondPage;
     private CreateGroupWizardDataModel dataModel;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
     private IRefreshable refreshable;
 
-    public CreateGroupWizard(AmazonIdentityManagement iam, IRefreshable refreshable) {
+    public CreateGroupWizard(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, IRefreshable refreshable) {
         setNeedsProgressMonitor(false);
         setWindowTitle("Create New Group");
         setDefaultPageImageDescriptor(AwsToolkitCore.getDefault().getImageRegistry().getDescriptor(AwsToolkitCore.IMAGE_AWS_LOGO));
@@ -43,11 +45,15 @@ public class CreateGroupWizard extends Wizard {
         if (iam == null) {
             this.iam = AwsToolkitCore.getClientFactory().getIAMClient();
         }
+        this.snapshot = snapshot;
+        if (snapshot == null) {
+            this.snapshot = AuthorizationSnapshot.getSnapshot();
+        }
         this.refreshable = refreshable;
     }
 
     public CreateGroupWizard() {
-        this(AwsToolkitCore.getClientFactory().getIAMClient(), null);
+        this(AwsToolkitCore.getClientFactory().getIAMClient(), null, null);
     }
 
     @Override
@@ -63,6 +69,7 @@ public class CreateGroupWizard extends Wizard {
                     if (putGroupPolicyRequest != null) {
                         iam.putGroupPolicy(putGroupPolicyRequest);
                     }
+                    snapshot.refreshGroup(dataModel.getGroupName());
 
                     if (refreshable != null) {
                         refreshable.refreshData();
@@ -40,6 +40,7 @@ import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
 import com.amazonaws.eclipse.explorer.identitymanagement.CreateGroupAction;
 import com.amazonaws.eclipse.explorer.identitymanagement.EditorInput;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 
 public class GroupEditor extends EditorPart implements IRefreshable {
@@ -50,6 +51,7 @@ public class GroupEditor extends EditorPart implements IRefreshable {
     private GroupTable groupTable;
     private GroupPermissions groupPermissions;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
 
     @Override
     public void doSave(IProgressMonitor monitor) {}
@@ -64,6 +66,7 @@ public class GroupEditor extends EditorPart implements IRefreshable {
         setPartName(input.getName());
         this.groupEditorInput = (EditorInput)input;
         iam = getClient();
+        snapshot = AuthorizationSnapshot.getSnapshot(groupEditorInput.getAccountId(), groupEditorInput.getRegionEndpoint());
     }
 
     @Override
@@ -99,7 +102,7 @@ public class GroupEditor extends EditorPart implements IRefreshable {
         createTabsSection(sash, toolkit);
 
         form.getToolBarManager().add(new RefreshAction());
-        form.getToolBarManager().add(new CreateGroupAction(iam, this));
+        form.getToolBarManager().add(new CreateGroupAction(iam, snapshot, this));
         form.getToolBarManager().update(true);
         groupTable.setGroupSummary(groupSummary);
         groupTable.setUsersInGroup(usersInGroup);
@@ -124,22 +127,22 @@ public class GroupEditor extends EditorPart implements IRefreshable {
 
         TabItem summaryTab = new TabItem(tabFolder, SWT.NONE);
         summaryTab.setText("Summary");
-        groupSummary = new GroupSummary(iam, tabFolder, toolkit);
+        groupSummary = new GroupSummary(iam, snapshot, tabFolder, toolkit);
         summaryTab.setControl(groupSummary);
 
         TabItem usersTab = new TabItem(tabFolder, SWT.NONE);
         usersTab.setText("Users");
-        usersInGroup = new UsersInGroup(iam, tabFolder, toolkit, groupEditorInput);
+        usersInGroup = new UsersInGroup(iam, snapshot, tabFolder, toolkit, groupEditorInput);
         usersTab.setControl(usersInGroup);
 
         TabItem permissionsTab = new TabItem(tabFolder, SWT.NONE);
         permissionsTab.setText("Permissions");
-        groupPermissions = new GroupPermissions(iam, tabFolder, toolkit);
+        groupPermissions = new GroupPermissions(iam, snapshot, tabFolder, toolkit);
         permissionsTab.setControl(groupPermissions);
     }
 
     private void createTableSection(Composite parent, FormToolkit toolkit) {
-        groupTable = new GroupTable(iam, parent, toolkit);
+        groupTable = new GroupTable(iam, snapshot, parent, toolkit);
     }
 
     @Override
@@ -154,6 +157,7 @@ public class GroupEditor extends EditorPart implements IRefreshable {
 
         @Override
         public void run() {
+            snapshot.invalidate();
             groupSummary.refresh();
             groupTable.refresh();
             usersInGroup.refresh();
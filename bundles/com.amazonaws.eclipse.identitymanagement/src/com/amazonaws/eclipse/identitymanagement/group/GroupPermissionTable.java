@@ -26,17 +26,17 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.identitymanagement.AbstractPolicyTable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.DeleteGroupPolicyRequest;
 import com.amazonaws.services.identitymanagement.model.Group;
-import com.amazonaws.services.identitymanagement.model.ListGroupPoliciesRequest;
 
 public class GroupPermissionTable extends AbstractPolicyTable {
 
     private Group group;
 
-    GroupPermissionTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
-        super(iam, parent, toolkit);
+    GroupPermissionTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
+        super(iam, snapshot, parent, toolkit);
 
         MenuManager menuManager = new MenuManager("#PopupMenu");
         menuManager.setRemoveAllWhenShown(true);
@@ -116,20 +116,30 @@ public class GroupPermissionTable extends AbstractPolicyTable {
 
     protected void getPolicyNames() {
         if (group != null) {
-        policyNames = iam.listGroupPolicies(new ListGroupPoliciesRequest().withGroupName(group.getGroupName())).getPolicyNames();
+            policyNames = snapshot.getGroupPolicyNames(group.getGroupName());
         } else {
             policyNames = null;
         }
     }
 
+    @Override
+    protected void refreshPrincipal() {
+        if (group != null) {
+            snapshot.refreshGroup(group.getGroupName());
+        }
+    }
+
     public void setGroup(Group group) {
         this.group = group;
-        refresh();
+        new LoadPermissionTableThread().start();
     }
 
+    /**
+     * Reloads the table after the policies of the group were modified.
+     */
     @Override
     public void refresh() {
-        new LoadPermissionTableThread().start();
+        new LoadPermissionTableThread(true).start();
     }
 
 }
@@ -26,6 +26,7 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Section;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.Group;
 
@@ -34,9 +35,10 @@ public class GroupPermissions extends Composite {
     private Group group;
     private GroupPermissionTable groupPermissionTable;
     private Button addPolicyButton;
+    private Button checkPermissionButton;
 
 
-    public GroupPermissions(final AmazonIdentityManagement iam, Composite parent, final FormToolkit toolkit) {
+    public GroupPermissions(final AmazonIdentityManagement iam, final AuthorizationSnapshot snapshot, Composite parent, final FormToolkit toolkit) {
         super(parent, SWT.NONE);
 
         this.setLayoutData(new GridData(GridData.FILL_BOTH));
@@ -52,14 +54,18 @@ public class GroupPermissions extends Composite {
         client.setLayoutData(new GridData(GridData.FILL_BOTH));
         client.setLayout(new GridLayout(2, false));
 
-        groupPermissionTable = new GroupPermissionTable(iam, client, toolkit);
+        groupPermissionTable = new GroupPermissionTable(iam, snapshot, client, toolkit);
         groupPermissionTable.setLayoutData(new GridData(GridData.FILL_BOTH));
 
 
-        addPolicyButton = toolkit.createButton(client, "Attach Policy", SWT.PUSH);
+        Composite buttons = toolkit.createComposite(client);
+        buttons.setLayoutData(new GridData(GridData.VERTICAL_ALIGN_BEGINNING));
+        buttons.setLayout(new GridLayout());
+
+        addPolicyButton = toolkit.createButton(buttons, "Attach Policy", SWT.PUSH);
 
         addPolicyButton.setEnabled(false);
-        addPolicyButton.setLayoutData(new GridData(GridData.VERTICAL_ALIGN_BEGINNING));
+        addPolicyButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
         addPolicyButton.setImage(AwsToolkitCore.getDefault().getImageRegistry().get(AwsToolkitCore.IMAGE_ADD));
         addPolicyButton.addSelectionListener(new SelectionListener() {
 
@@ -72,6 +78,19 @@ public class GroupPermissions extends Composite {
             }
         });
 
+        checkPermissionButton = toolkit.createButton(buttons, "Check Permission", SWT.PUSH);
+        checkPermissionButton.setEnabled(false);
+        checkPermissionButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+        checkPermissionButton.addSelectionListener(new SelectionListener() {
+
+            public void widgetSelected(SelectionEvent e) {
+                new CheckGroupPermissionDialog(snapshot, Display.getCurrent().getActiveShell(), toolkit, group).open();
+            }
+
+            public void widgetDefaultSelected(SelectionEvent e) {
+            }
+        });
+
         policySection.setClient(client);
     }
 
@@ -79,8 +98,10 @@ public class GroupPermissions extends Composite {
         this.group = group;
         if (group != null) {
             addPolicyButton.setEnabled(true);
+            checkPermissionButton.setEnabled(true);
         } else {
             addPolicyButton.setEnabled(false);
+            checkPermissionButton.setEnabled(false);
         }
         groupPermissionTable.setGroup(group);
     }
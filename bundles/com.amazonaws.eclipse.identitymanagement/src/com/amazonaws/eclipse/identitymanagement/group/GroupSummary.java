@@ -26,9 +26,9 @@ import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.statushandlers.StatusManager;
 
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
-import com.amazonaws.services.identitymanagement.model.GetGroupRequest;
 import com.amazonaws.services.identitymanagement.model.Group;
 
 public class GroupSummary extends Composite {
@@ -39,11 +39,13 @@ public class GroupSummary extends Composite {
     private final Text pathLabel;
     private final Text creationTimeLabel;
     private AmazonIdentityManagement iam;
+    private final AuthorizationSnapshot snapshot;
 
-    public GroupSummary(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
+    public GroupSummary(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
         super(parent, SWT.NONE);
 
         this.iam = iam;
+        this.snapshot = snapshot;
 
         GridDataFactory gridDataFactory = GridDataFactory.swtDefaults()
                 .align(SWT.FILL, SWT.TOP).grab(true, false).minSize(200, SWT.DEFAULT).hint(200, SWT.DEFAULT);
@@ -84,13 +86,14 @@ public class GroupSummary extends Composite {
         @Override
         public void run() {
             try {
+                final Group group = GroupSummary.this.group;
+                final int usersInGroup = group == null ? 0 : snapshot.getUsersInGroup(group.getGroupName()).size();
                 Display.getDefault().asyncExec(new Runnable() {
                     public void run() {
                         if (group != null) {
                         groupARNLable.setText(group.getArn());
                         pathLabel.setText(group.getPath());
                         creationTimeLabel.setText(group.getCreateDate().toString());
-                        int usersInGroup = iam.getGroup(new GetGroupRequest().withGroupName(group.getGroupName())).getUsers().size();
                         usersInGroupLabel.setText(Integer.toString(usersInGroup));
                         } else {
                             groupARNLable.setText("");
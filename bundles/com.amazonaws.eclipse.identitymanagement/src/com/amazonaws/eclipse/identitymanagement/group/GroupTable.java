@@ -35,6 +35,7 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.identitymanagement.AbstractGroupTable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.DeleteGroupPolicyRequest;
@@ -54,8 +55,8 @@ public class GroupTable extends AbstractGroupTable {
     private GroupPermissions groupPermissions;
     private final String DELTE_GROUP_CONFIRMATION = "All users and permissions belonging to the selected groups will be removed from the group first. Do you want to continue?";
 
-    public GroupTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
-        super(iam, parent, toolkit);
+    public GroupTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
+        super(iam, snapshot, parent, toolkit);
 
         MenuManager menuManager = new MenuManager("#PopupMenu");
         menuManager.setRemoveAllWhenShown(true);
@@ -168,6 +169,8 @@ public class GroupTable extends AbstractGroupTable {
             protected IStatus run(IProgressMonitor monitor) {
                 try {
                     iam.updateGroup(new UpdateGroupRequest().withGroupName(oldGroupName).withNewGroupName(newGroupName));
+                    snapshot.refreshGroup(oldGroupName);
+                    snapshot.refreshGroup(newGroupName);
                 } catch (Exception e) {
                     return new Status(Status.ERROR, IdentityManagementPlugin.getDefault().getPluginId(), "Unable to edit the group name : " + e.getMessage(), e);
                 }
@@ -186,6 +189,7 @@ public class GroupTable extends AbstractGroupTable {
                     String groupName = contentProvider.getItemByIndex(index).getGroupName();
                     try {
                         deleteGroup(groupName);
+                        snapshot.refreshGroup(groupName);
                     } catch (Exception e) {
                         return new Status(Status.ERROR, IdentityManagementPlugin.getDefault().getPluginId(), "Unable to delete groups: " + e.getMessage(), e);
                     }
@@ -198,7 +202,7 @@ public class GroupTable extends AbstractGroupTable {
 
     @Override
     protected void listGroups() {
-        groups = iam.listGroups().getGroups();
+        groups = snapshot.getGroups();
     }
 
 
@@ -27,6 +27,7 @@ import org.eclipse.ui.forms.widgets.Section;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.identitymanagement.EditorInput;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.Group;
 
@@ -36,7 +37,7 @@ public class UsersInGroup extends Composite {
     private Group group;
     private Button addUserButton;
 
-    public UsersInGroup(final AmazonIdentityManagement iam, Composite parent, final FormToolkit toolkit, final EditorInput groupEditorInput) {
+    public UsersInGroup(final AmazonIdentityManagement iam, final AuthorizationSnapshot snapshot, Composite parent, final FormToolkit toolkit, final EditorInput groupEditorInput) {
         super(parent, SWT.NONE);
 
         this.setLayoutData(new GridData(GridData.FILL_BOTH));
@@ -52,7 +53,7 @@ public class UsersInGroup extends Composite {
         client.setLayoutData(new GridData(GridData.FILL_BOTH));
         client.setLayout(new GridLayout(2, false));
 
-        usersInGroupTable = new UsersInGroupTable(iam, client, toolkit, groupEditorInput);
+        usersInGroupTable = new UsersInGroupTable(iam, snapshot, client, toolkit, groupEditorInput);
         usersInGroupTable.setLayoutData(new GridData(GridData.FILL_BOTH));
 
 
@@ -64,7 +65,7 @@ public class UsersInGroup extends Composite {
         addUserButton.addSelectionListener(new SelectionListener() {
 
             public void widgetSelected(SelectionEvent e) {
-                AddUsersToGroupDialog addUserToGroupDialog = new AddUsersToGroupDialog(iam, Display.getCurrent().getActiveShell(), toolkit, group, usersInGroupTable);
+                AddUsersToGroupDialog addUserToGroupDialog = new AddUsersToGroupDialog(iam, snapshot, Display.getCurrent().getActiveShell(), toolkit, group, usersInGroupTable);
                 addUserToGroupDialog.open();
             }
 
@@ -25,8 +25,8 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.identitymanagement.AbstractUserTable;
 import com.amazonaws.eclipse.explorer.identitymanagement.EditorInput;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
-import com.amazonaws.services.identitymanagement.model.GetGroupRequest;
 import com.amazonaws.services.identitymanagement.model.Group;
 import com.amazonaws.services.identitymanagement.model.RemoveUserFromGroupRequest;
 
@@ -36,8 +36,8 @@ public class UsersInGroupTable extends AbstractUserTable {
     AmazonIdentityManagement iam;
 
 
-    public UsersInGroupTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit, EditorInput userEditorInput) {
-        super(iam, parent, toolkit, userEditorInput);
+    public UsersInGroupTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit, EditorInput userEditorInput) {
+        super(iam, snapshot, parent, toolkit, userEditorInput);
 
         this.iam = iam;
         MenuManager menuManager = new MenuManager("#PopupMenu");
@@ -86,18 +86,28 @@ public class UsersInGroupTable extends AbstractUserTable {
 
     public void setGroup(Group group) {
         this.group = group;
-        refresh();
+        new LoadUserTableThread().start();
     }
 
+    /**
+     * Reloads the table after the members of the group were modified.
+     */
     @Override
     public void refresh() {
-        new LoadUserTableThread().start();
+        new LoadUserTableThread(true).start();
+    }
+
+    @Override
+    protected void refreshPrincipal() {
+        if (group != null) {
+            snapshot.refreshGroup(group.getGroupName());
+        }
     }
 
     @Override
     protected void listUsers() {
         if (group != null) {
-        users = iam.getGroup(new GetGroupRequest(group.getGroupName())).getUsers();
+            users = snapshot.getUsersInGroup(group.getGroupName());
         } else {
             users = null;
         }
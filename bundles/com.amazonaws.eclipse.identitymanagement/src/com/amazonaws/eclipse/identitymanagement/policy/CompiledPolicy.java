@@ -0,0 +1,172 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement.policy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * An identity-based policy document parsed into statements whose action and
+ * resource patterns are compiled into matchers, so it can be evaluated
+ * against many requests without parsing it again.
+ * <p>
+ * Conditions are not evaluated, since their values depend on the request
+ * context; statements with conditions, or with policy variables in their
+ * resources, only make a request conditionally allowed or denied. Statements
+ * whose Effect is missing or neither Allow nor Deny are invalid and never
+ * apply.
+ */
+public class CompiledPolicy {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final List<Statement> statements;
+
+    private CompiledPolicy(List<Statement> statements) {
+        this.statements = statements;
+    }
+
+    /**
+     * Parses and compiles the specified (decoded) policy document.
+     *
+     * @throws IllegalArgumentException
+     *             If the document is not a valid policy.
+     */
+    public static CompiledPolicy compile(String policyDocument) {
+        JsonNode root;
+        try {
+            root = MAPPER.readTree(policyDocument);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Unable to parse policy document: " + e.getMessage(), e);
+        }
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("Policy document is not a JSON object");
+        }
+
+        List<Statement> statements = new ArrayList<Statement>();
+        for (JsonNode statement : asList(root.get("Statement"))) {
+            statements.add(new Statement(statement));
+        }
+        return new CompiledPolicy(Collections.unmodifiableList(statements));
+    }
+
+    /**
+     * Applies the statements matching the request to the evaluation state.
+     *
+     * @param action
+     *            The action, in lower case.
+     * @param resource
+     *            The resource ARN.
+     */
+    void evaluate(String action, String resource, EvaluationState state) {
+        for (Statement statement : statements) {
+            if (statement.appliesTo(action, resource)) {
+                state.apply(statement.allow, statement.conditional);
+            }
+        }
+    }
+
+    private static List<JsonNode> asList(JsonNode node) {
+        List<JsonNode> nodes = new ArrayList<JsonNode>();
+        if (node == null || node.isNull()) {
+            return nodes;
+        }
+        if (node.isArray()) {
+            for (JsonNode member : node) {
+                nodes.add(member);
+            }
+        } else {
+            nodes.add(node);
+        }
+        return nodes;
+    }
+
+    private static class Statement {
+        private final boolean valid;
+        private final boolean allow;
+        private final boolean conditional;
+
+        /** Exactly one of each pair is set; null matches nothing */
+        private final List<WildcardMatcher> actions;
+        private final List<WildcardMatcher> notActions;
+        private final List<WildcardMatcher> resources;
+        private final List<WildcardMatcher> notResources;
+
+        Statement(JsonNode statement) {
+            String effect = statement.path("Effect").asText();
+            allow = "Allow".equals(effect);
+            valid = allow || "Deny".equals(effect);
+
+            actions = compile(statement.get("Action"), true);
+            notActions = compile(statement.get("NotAction"), true);
+            resources = compile(statement.get("Resource"), false);
+            notResources = compile(statement.get("NotResource"), false);
+
+            JsonNode condition = statement.get("Condition");
+            boolean hasCondition = condition != null && condition.size() > 0;
+            conditional = hasCondition
+                    || hasPolicyVariable(statement.get("Resource"))
+                    || hasPolicyVariable(statement.get("NotResource"));
+        }
+
+        boolean appliesTo(String action, String resource) {
+            if (!valid) {
+                return false;
+            }
+            boolean actionMatches = actions != null
+                    ? anyMatches(actions, action)
+                    : notActions != null && !anyMatches(notActions, action);
+            if (!actionMatches) {
+                return false;
+            }
+            return resources != null
+                    ? anyMatches(resources, resource)
+                    : notResources != null && !anyMatches(notResources, resource);
+        }
+
+        private static boolean anyMatches(List<WildcardMatcher> matchers, String value) {
+            for (WildcardMatcher matcher : matchers) {
+                if (matcher.matches(value)) return true;
+            }
+            return false;
+        }
+
+        private static List<WildcardMatcher> compile(JsonNode patterns, boolean ignoreCase) {
+            if (patterns == null || patterns.isNull()) {
+                return null;
+            }
+            List<WildcardMatcher> matchers = new ArrayList<WildcardMatcher>();
+            for (JsonNode pattern : asList(patterns)) {
+                // Policy variables such as ${aws:username} are resolved per
+                // request; match them like a wildcard
+                String value = pattern.asText().replaceAll("\\$\\{[^}]*\\}", "*");
+                matchers.add(new WildcardMatcher(value, ignoreCase));
+            }
+            return matchers;
+        }
+
+        private static boolean hasPolicyVariable(JsonNode patterns) {
+            for (JsonNode pattern : asList(patterns)) {
+                if (pattern.asText().contains("${")) return true;
+            }
+            return false;
+        }
+    }
+}
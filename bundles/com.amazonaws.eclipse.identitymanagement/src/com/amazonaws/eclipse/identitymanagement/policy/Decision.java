@@ -0,0 +1,41 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement.policy;
+
+/**
+ * Outcome of evaluating the identity-based policies of a principal for a
+ * request.
+ */
+public enum Decision {
+
+    /** An Allow statement without conditions applies, and no Deny statement does */
+    ALLOWED,
+
+    /**
+     * The request is allowed or denied depending on conditions or policy
+     * variables, which cannot be resolved without an actual request.
+     */
+    CONDITIONALLY_ALLOWED,
+
+    /** A Deny statement without conditions applies */
+    EXPLICITLY_DENIED,
+
+    /** No Allow statement applies */
+    IMPLICITLY_DENIED;
+
+    public boolean isAllowed() {
+        return this == ALLOWED || this == CONDITIONALLY_ALLOWED;
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement.policy;
+
+/**
+ * Collects the effects of the statements that apply to a request across all
+ * the policies of a principal.
+ */
+class EvaluationState {
+
+    private boolean denied;
+    private boolean conditionallyDenied;
+    private boolean allowed;
+    private boolean conditionallyAllowed;
+
+    void apply(boolean allow, boolean conditional) {
+        if (allow) {
+            if (conditional) conditionallyAllowed = true;
+            else allowed = true;
+        } else {
+            if (conditional) conditionallyDenied = true;
+            else denied = true;
+        }
+    }
+
+    /** Whether no further statement can change the decision */
+    boolean isFinal() {
+        return denied;
+    }
+
+    Decision getDecision() {
+        if (denied) {
+            return Decision.EXPLICITLY_DENIED;
+        }
+        if (allowed) {
+            return conditionallyDenied ? Decision.CONDITIONALLY_ALLOWED : Decision.ALLOWED;
+        }
+        if (conditionallyAllowed) {
+            return Decision.CONDITIONALLY_ALLOWED;
+        }
+        return Decision.IMPLICITLY_DENIED;
+    }
+}
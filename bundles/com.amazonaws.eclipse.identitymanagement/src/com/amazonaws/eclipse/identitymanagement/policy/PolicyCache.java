@@ -0,0 +1,79 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement.policy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Cache of compiled policies. Managed policies are keyed by ARN and version
+ * ID, since a policy version never changes once created. Inline policies have
+ * no version, so they are keyed by their document.
+ */
+public class PolicyCache {
+
+    /** Maximum number of compiled policies kept */
+    private static final int MAX_POLICIES = 5000;
+
+    private static final PolicyCache instance = new PolicyCache();
+
+    private final Map<String, CompiledPolicy> policies = new LinkedHashMap<String, CompiledPolicy>(16, 0.75f, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Entry<String, CompiledPolicy> eldest) {
+            return size() > MAX_POLICIES;
+        }
+    };
+
+    public static PolicyCache getInstance() {
+        return instance;
+    }
+
+    /**
+     * Returns the compiled version of a managed policy.
+     *
+     * @throws IllegalArgumentException
+     *             If the document is not a valid policy.
+     */
+    public CompiledPolicy getManagedPolicy(String policyArn, String versionId, String policyDocument) {
+        return getPolicy("managed:" + policyArn + ":" + versionId, policyDocument);
+    }
+
+    /**
+     * Returns the compiled version of an inline policy document.
+     *
+     * @throws IllegalArgumentException
+     *             If the document is not a valid policy.
+     */
+    public CompiledPolicy getInlinePolicy(String policyDocument) {
+        return getPolicy("inline:" + policyDocument, policyDocument);
+    }
+
+    private CompiledPolicy getPolicy(String key, String policyDocument) {
+        synchronized (policies) {
+            CompiledPolicy policy = policies.get(key);
+            if (policy != null) {
+                return policy;
+            }
+        }
+        CompiledPolicy policy = CompiledPolicy.compile(policyDocument);
+        synchronized (policies) {
+            policies.put(key, policy);
+        }
+        return policy;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement.policy;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Evaluates requests against the compiled identity-based policies of every
+ * user and role of an account: the user's or role's own inline and attached
+ * policies and, for users, those of their groups.
+ * <p>
+ * Resource-based policies, permissions boundaries and service control
+ * policies are not taken into account. An evaluator is immutable; it is
+ * rebuilt when the principals or their policies change.
+ */
+public class PolicyEvaluator {
+
+    /** Policies that apply to each principal, by principal ARN */
+    private final Map<String, List<CompiledPolicy>> policiesByPrincipal;
+
+    public PolicyEvaluator(Map<String, List<CompiledPolicy>> policiesByPrincipal) {
+        Map<String, List<CompiledPolicy>> copy = new TreeMap<String, List<CompiledPolicy>>();
+        for (Entry<String, List<CompiledPolicy>> entry : policiesByPrincipal.entrySet()) {
+            copy.put(entry.getKey(), Collections.unmodifiableList(
+                    new ArrayList<CompiledPolicy>(entry.getValue())));
+        }
+        this.policiesByPrincipal = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * Returns the ARNs of all the principals known to the evaluator.
+     */
+    public Set<String> getPrincipals() {
+        return policiesByPrincipal.keySet();
+    }
+
+    /**
+     * Returns whether the specified principal can perform an action on a
+     * resource.
+     *
+     * @param principalArn
+     *            The ARN of a user or role.
+     * @param action
+     *            The action, e.g. "s3:GetObject".
+     * @param resource
+     *            The resource ARN, e.g. "arn:aws:s3:::my-bucket/key".
+     */
+    public Decision evaluate(String principalArn, String action, String resource) {
+        List<CompiledPolicy> policies = policiesByPrincipal.get(principalArn);
+        if (policies == null) {
+            return Decision.IMPLICITLY_DENIED;
+        }
+        return evaluate(policies, action.toLowerCase(Locale.ENGLISH), resource);
+    }
+
+    /**
+     * Returns the principals that are allowed, possibly depending on
+     * conditions, to perform an action on a resource, mapped to their
+     * decision and ordered by ARN.
+     */
+    public Map<String, Decision> whoCan(String action, String resource) {
+        String normalizedAction = action.toLowerCase(Locale.ENGLISH);
+        Map<String, Decision> allowed = new LinkedHashMap<String, Decision>();
+        for (Entry<String, List<CompiledPolicy>> entry : policiesByPrincipal.entrySet()) {
+            Decision decision = evaluate(entry.getValue(), normalizedAction, resource);
+            if (decision.isAllowed()) {
+                allowed.put(entry.getKey(), decision);
+            }
+        }
+        return allowed;
+    }
+
+    private static Decision evaluate(List<CompiledPolicy> policies, String action, String resource) {
+        EvaluationState state = new EvaluationState();
+        for (CompiledPolicy policy : policies) {
+            policy.evaluate(action, resource, state);
+            if (state.isFinal()) break;
+        }
+        return state.getDecision();
+    }
+}
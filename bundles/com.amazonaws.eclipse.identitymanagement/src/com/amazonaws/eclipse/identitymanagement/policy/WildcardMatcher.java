@@ -0,0 +1,100 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement.policy;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Matcher for an action or resource pattern of a policy statement, where '*'
+ * matches any sequence of characters and '?' matches any single character.
+ * Patterns without wildcards, and patterns with only a trailing '*', are
+ * matched without a regular expression.
+ */
+class WildcardMatcher {
+
+    private enum Kind { ANY, EXACT, PREFIX, REGEX }
+
+    private final Kind kind;
+    private final String text;
+    private final Pattern pattern;
+
+    /**
+     * @param value
+     *            The pattern from the policy document.
+     * @param ignoreCase
+     *            Whether the match is case insensitive, as it is for actions.
+     *            Values passed to {@link #matches(String)} must then already
+     *            be lower case.
+     */
+    WildcardMatcher(String value, boolean ignoreCase) {
+        String normalized = ignoreCase ? value.toLowerCase(Locale.ENGLISH) : value;
+
+        int firstStar = normalized.indexOf('*');
+        boolean hasQuestionMark = normalized.indexOf('?') >= 0;
+
+        if (normalized.equals("*")) {
+            kind = Kind.ANY;
+            text = null;
+            pattern = null;
+        } else if (firstStar < 0 && !hasQuestionMark) {
+            kind = Kind.EXACT;
+            text = normalized;
+            pattern = null;
+        } else if (firstStar == normalized.length() - 1 && !hasQuestionMark) {
+            kind = Kind.PREFIX;
+            text = normalized.substring(0, firstStar);
+            pattern = null;
+        } else {
+            kind = Kind.REGEX;
+            text = null;
+            pattern = Pattern.compile(toRegex(normalized), Pattern.DOTALL);
+        }
+    }
+
+    boolean matches(String value) {
+        switch (kind) {
+        case ANY:
+            return true;
+        case EXACT:
+            return text.equals(value);
+        case PREFIX:
+            return value.startsWith(text);
+        default:
+            return pattern.matcher(value).matches();
+        }
+    }
+
+    private static String toRegex(String wildcardPattern) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (int i = 0; i < wildcardPattern.length(); i++) {
+            char c = wildcardPattern.charAt(i);
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return regex.toString();
+    }
+}
@@ -35,6 +35,7 @@ import com.amazonaws.auth.policy.Statement.Effect;
 import com.amazonaws.auth.policy.actions.SecurityTokenServiceActions;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.AddRoleToInstanceProfileRequest;
@@ -49,9 +50,10 @@ public class CreateRoleWizard extends Wizard {
     private CreateRoleThirdPage thirdPage;
     private CreateRoleWizardDataModel dataModel;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
     private IRefreshable refreshable;
 
-    public  CreateRoleWizard (AmazonIdentityManagement iam, IRefreshable refreshable) {
+    public  CreateRoleWizard (AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, IRefreshable refreshable) {
         setNeedsProgressMonitor(false);
         setWindowTitle("Create New Role");
         setDefaultPageImageDescriptor(AwsToolkitCore.getDefault().getImageRegistry().getDescriptor(AwsToolkitCore.IMAGE_AWS_LOGO));
@@ -60,12 +62,16 @@ public class CreateRoleWizard extends Wizard {
         if (iam == null) {
             this.iam = AwsToolkitCore.getClientFactory().getIAMClient();
         }
+        this.snapshot = snapshot;
+        if (snapshot == null) {
+            this.snapshot = AuthorizationSnapshot.getSnapshot();
+        }
         this.refreshable = refreshable;
     }
 
 
     public CreateRoleWizard() {
-        this(AwsToolkitCore.getClientFactory().getIAMClient(), null);
+        this(AwsToolkitCore.getClientFactory().getIAMClient(), null, null);
     }
 
     @Override
@@ -108,6 +114,7 @@ public class CreateRoleWizard extends Wizard {
                         iam.createInstanceProfile(createInstanceProfileRequest);
                         iam.addRoleToInstanceProfile(addRoleToInstanceProfileRequest);
                     }
+                    snapshot.refreshRole(createRoleRequest.getRoleName());
 
                     if (refreshable != null) {
                         refreshable.refreshData();
@@ -32,6 +32,7 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.Role;
@@ -41,11 +42,13 @@ public class EditTrustRelationshipDialog extends TitleAreaDialog {
     private Text policyText;
     private Role role;
     private AmazonIdentityManagement iam;
+    private final AuthorizationSnapshot snapshot;
 
-    public EditTrustRelationshipDialog(AmazonIdentityManagement iam, Shell parentShell, Role role) {
+    public EditTrustRelationshipDialog(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Shell parentShell, Role role) {
         super(parentShell);
         this.role = role;
         this.iam = iam;
+        this.snapshot = snapshot;
     }
 
     @Override
@@ -85,6 +88,7 @@ public class EditTrustRelationshipDialog extends TitleAreaDialog {
                 try {
 
                     updateAssumeRolePolicy(policyDoc);
+                    snapshot.refreshRole(role.getRoleName());
                     return Status.OK_STATUS;
                 } catch (Exception e) {
                     return new Status(Status.ERROR, IdentityManagementPlugin.getDefault().getPluginId(), "Unable to update the assume role policies: " + e.getMessage(), e);
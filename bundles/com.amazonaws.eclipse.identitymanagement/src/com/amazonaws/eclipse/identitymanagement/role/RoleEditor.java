@@ -40,6 +40,7 @@ import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
 import com.amazonaws.eclipse.explorer.identitymanagement.CreateRoleAction;
 import com.amazonaws.eclipse.explorer.identitymanagement.EditorInput;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 
 public class RoleEditor extends EditorPart implements IRefreshable  {
@@ -50,6 +51,7 @@ public class RoleEditor extends EditorPart implements IRefreshable  {
     private RoleTable roleTable;
     private RoleTrustRelationships roleTrustRelationships;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
 
     @Override
     public void doSave(IProgressMonitor monitor) {}
@@ -64,6 +66,7 @@ public class RoleEditor extends EditorPart implements IRefreshable  {
         setPartName(input.getName());
         this.roleEditorInput = (EditorInput)input;
         iam = getClient();
+        snapshot = AuthorizationSnapshot.getSnapshot(roleEditorInput.getAccountId(), roleEditorInput.getRegionEndpoint());
     }
 
     @Override
@@ -98,7 +101,7 @@ public class RoleEditor extends EditorPart implements IRefreshable  {
         createTablesSection(sash, toolkit);
         createTabsSection(sash, toolkit);
         form.getToolBarManager().add(new RefreshAction());
-        form.getToolBarManager().add(new CreateRoleAction(iam, this));
+        form.getToolBarManager().add(new CreateRoleAction(iam, snapshot, this));
         form.getToolBarManager().update(true);
         roleTable.setRoleSummary(roleSummary);
         roleTable.setRolePermissions(rolePermissions);
@@ -128,17 +131,17 @@ public class RoleEditor extends EditorPart implements IRefreshable  {
 
          TabItem permissionTab = new TabItem(tabFolder, SWT.NONE);
          permissionTab.setText("Permissions");
-         rolePermissions = new RolePermissions(iam, tabFolder, toolkit);
+         rolePermissions = new RolePermissions(iam, snapshot, tabFolder, toolkit);
          permissionTab.setControl(rolePermissions);
 
          TabItem trustRelationshipsTab = new TabItem(tabFolder, SWT.NONE);
          trustRelationshipsTab.setText("Trust Relationships");
-         roleTrustRelationships = new RoleTrustRelationships(iam, tabFolder, toolkit);
+         roleTrustRelationships = new RoleTrustRelationships(iam, snapshot, tabFolder, toolkit);
          trustRelationshipsTab.setControl(roleTrustRelationships);
     }
 
     private void createTablesSection(Composite parent, FormToolkit toolkit) {
-        roleTable = new RoleTable(iam, parent, toolkit);
+        roleTable = new RoleTable(iam, snapshot, parent, toolkit);
     }
 
     @Override
@@ -153,6 +156,7 @@ public class RoleEditor extends EditorPart implements IRefreshable  {
 
         @Override
         public void run() {
+            snapshot.invalidate();
             roleTable.refresh();
             roleSummary.refresh();
         }
@@ -26,17 +26,17 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.identitymanagement.AbstractPolicyTable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.DeleteRolePolicyRequest;
-import com.amazonaws.services.identitymanagement.model.ListRolePoliciesRequest;
 import com.amazonaws.services.identitymanagement.model.Role;
 
 public class RolePermissionTable extends AbstractPolicyTable {
 
     private Role role;
 
-    RolePermissionTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
-        super(iam, parent, toolkit);
+    RolePermissionTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
+        super(iam, snapshot, parent, toolkit);
 
         MenuManager menuManager = new MenuManager("#PopupMenu");
         menuManager.setRemoveAllWhenShown(true);
@@ -116,20 +116,30 @@ public class RolePermissionTable extends AbstractPolicyTable {
 
     protected void getPolicyNames() {
         if (role != null) {
-            policyNames = iam.listRolePolicies(new ListRolePoliciesRequest().withRoleName(role.getRoleName())).getPolicyNames();
+            policyNames = snapshot.getRolePolicyNames(role.getRoleName());
         } else {
             policyNames = null;
         }
     }
 
+    @Override
+    protected void refreshPrincipal() {
+        if (role != null) {
+            snapshot.refreshRole(role.getRoleName());
+        }
+    }
+
     public void setRole(Role role) {
         this.role = role;
-        refresh();
+        new LoadPermissionTableThread().start();
     }
 
+    /**
+     * Reloads the table after the policies of the role were modified.
+     */
     @Override
     public void refresh() {
-        new LoadPermissionTableThread().start();
+        new LoadPermissionTableThread(true).start();
     }
 
 }
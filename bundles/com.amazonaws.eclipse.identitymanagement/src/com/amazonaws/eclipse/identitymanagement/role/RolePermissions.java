@@ -26,6 +26,7 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Section;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.Role;
 
@@ -34,8 +35,9 @@ public class RolePermissions extends Composite {
     private Role role;
     private RolePermissionTable rolePermissionTable;
     private Button addPolicyButton;
+    private Button checkPermissionButton;
 
-    public RolePermissions(final AmazonIdentityManagement iam, Composite parent, final FormToolkit toolkit) {
+    public RolePermissions(final AmazonIdentityManagement iam, final AuthorizationSnapshot snapshot, Composite parent, final FormToolkit toolkit) {
         super(parent, SWT.NONE);
 
         this.setLayoutData(new GridData(GridData.FILL_BOTH));
@@ -51,14 +53,18 @@ public class RolePermissions extends Composite {
         client.setLayoutData(new GridData(GridData.FILL_BOTH));
         client.setLayout(new GridLayout(2, false));
 
-        rolePermissionTable = new RolePermissionTable(iam, client, toolkit);
+        rolePermissionTable = new RolePermissionTable(iam, snapshot, client, toolkit);
         rolePermissionTable.setLayoutData(new GridData(GridData.FILL_BOTH));
 
 
-        addPolicyButton = toolkit.createButton(client, "Attach Policy", SWT.PUSH);
+        Composite buttons = toolkit.createComposite(client);
+        buttons.setLayoutData(new GridData(GridData.VERTICAL_ALIGN_BEGINNING));
+        buttons.setLayout(new GridLayout());
+
+        addPolicyButton = toolkit.createButton(buttons, "Attach Policy", SWT.PUSH);
 
         addPolicyButton.setEnabled(false);
-        addPolicyButton.setLayoutData(new GridData(GridData.VERTICAL_ALIGN_BEGINNING));
+        addPolicyButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
         addPolicyButton.setImage(AwsToolkitCore.getDefault().getImageRegistry().get(AwsToolkitCore.IMAGE_ADD));
         addPolicyButton.addSelectionListener(new SelectionListener() {
 
@@ -71,14 +77,29 @@ public class RolePermissions extends Composite {
             }
         });
 
+        checkPermissionButton = toolkit.createButton(buttons, "Check Permission", SWT.PUSH);
+        checkPermissionButton.setEnabled(false);
+        checkPermissionButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+        checkPermissionButton.addSelectionListener(new SelectionListener() {
+
+            public void widgetSelected(SelectionEvent e) {
+                new CheckRolePermissionDialog(snapshot, Display.getCurrent().getActiveShell(), toolkit, role).open();
+            }
+
+            public void widgetDefaultSelected(SelectionEvent e) {
+            }
+        });
+
         policySection.setClient(client);
 }
     public void setRole(Role role) {
         this.role = role;
         if (role != null) {
         addPolicyButton.setEnabled(true);
+        checkPermissionButton.setEnabled(true);
         } else {
           addPolicyButton.setEnabled(false);
+          checkPermissionButton.setEnabled(false);
         }
         rolePermissionTable.setRole(role);
     }
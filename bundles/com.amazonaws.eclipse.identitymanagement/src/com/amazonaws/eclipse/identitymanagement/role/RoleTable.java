@@ -46,6 +46,7 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.statushandlers.StatusManager;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.DeleteRolePolicyRequest;
@@ -65,12 +66,14 @@ public class RoleTable extends Composite {
     private RoleTrustRelationships roleTrustRelationships;
     private RoleTableContentProvider contentProvider;
     private AmazonIdentityManagement iam;
+    private final AuthorizationSnapshot snapshot;
     private final String DELTE_ROLE_CONFIRMATION = "All selected roles and their associated permissions will be deleted. This will affect applications using these roles. Do you want to continue?";
 
-    public RoleTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
+    public RoleTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
         super(parent, SWT.NONE);
 
         this.iam = iam;
+        this.snapshot = snapshot;
 
         TableColumnLayout tableColumnLayout = new TableColumnLayout();
         this.setLayout(tableColumnLayout);
@@ -251,6 +254,7 @@ public class RoleTable extends Composite {
                     String roleName = contentProvider.getItemByIndex(index).getRoleName();
                     try {
                         deleteRole(roleName);
+                        snapshot.refreshRole(roleName);
                     } catch (Exception e) {
                         return new Status(Status.ERROR, IdentityManagementPlugin.getDefault().getPluginId(), "Unable to delete roles: " + e.getMessage(), e);
                     }
@@ -266,7 +270,7 @@ public class RoleTable extends Composite {
         public void run() {
             try {
                 final List<Role> roles;
-                roles = iam.listRoles().getRoles();
+                roles = snapshot.getRoles();
                 Display.getDefault().asyncExec(new Runnable() {
                     public void run() {
                         viewer.setInput(roles.toArray(new Role[roles.size()]));
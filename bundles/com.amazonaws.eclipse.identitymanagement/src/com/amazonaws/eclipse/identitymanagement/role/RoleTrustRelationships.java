@@ -36,6 +36,7 @@ import org.eclipse.ui.statushandlers.StatusManager;
 import com.amazonaws.auth.policy.Policy;
 import com.amazonaws.auth.policy.Principal;
 import com.amazonaws.auth.policy.Statement;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.Role;
@@ -46,7 +47,7 @@ public class RoleTrustRelationships extends Composite {
     private Role role;
     private Button editPolicyButton;
 
-    public RoleTrustRelationships(final AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
+    public RoleTrustRelationships(final AmazonIdentityManagement iam, final AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
         super(parent, SWT.NONE);
         this.setLayoutData(new GridData(SWT.FILL, SWT.FILL, true, false));
         this.setLayout(new GridLayout(1, false));
@@ -68,7 +69,7 @@ public class RoleTrustRelationships extends Composite {
         editPolicyButton.addSelectionListener(new SelectionListener() {
 
             public void widgetSelected(SelectionEvent e) {
-                EditTrustRelationshipDialog dialog = new EditTrustRelationshipDialog(iam, Display.getCurrent().getActiveShell(), role);
+                EditTrustRelationshipDialog dialog = new EditTrustRelationshipDialog(iam, snapshot, Display.getCurrent().getActiveShell(), role);
                 dialog.open();
             }
 
@@ -37,11 +37,11 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.ScrolledForm;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.AddUserToGroupRequest;
 import com.amazonaws.services.identitymanagement.model.Group;
-import com.amazonaws.services.identitymanagement.model.ListGroupsForUserRequest;
 import com.amazonaws.services.identitymanagement.model.User;
 
 public class AddUserToGroupsDialog extends TitleAreaDialog {
@@ -51,13 +51,15 @@ public class AddUserToGroupsDialog extends TitleAreaDialog {
     private User user;
     private List<Group> groupsForUser;
     private AmazonIdentityManagement iam;
+    private final AuthorizationSnapshot snapshot;
     private GroupForUserTable groupForUserTable;
 
-    public AddUserToGroupsDialog(AmazonIdentityManagement iam, Shell parentShell, FormToolkit toolkit,  User user, GroupForUserTable groupForUserTable) {
+    public AddUserToGroupsDialog(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Shell parentShell, FormToolkit toolkit,  User user, GroupForUserTable groupForUserTable) {
         super(parentShell);
         this.toolkit = toolkit;
         this.user = user;
         this.iam = iam;
+        this.snapshot = snapshot;
         groupsForUser = getGroupsForUser();
         this.groupForUserTable = groupForUserTable;
     }
@@ -110,11 +112,11 @@ public class AddUserToGroupsDialog extends TitleAreaDialog {
     }
 
     private List<Group> getGroupsForUser() {
-        return iam.listGroupsForUser(new ListGroupsForUserRequest().withUserName(user.getUserName())).getGroups();
+        return snapshot.getGroupsForUser(user.getUserName());
     }
 
     private List<Group> listGroups() {
-        return iam.listGroups().getGroups();
+        return snapshot.getGroups();
     }
 
     @Override
@@ -37,6 +37,7 @@ import org.eclipse.swt.widgets.Text;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.CreateUserRequest;
@@ -48,9 +49,10 @@ public class CreateUserWizard extends Wizard {
 
     private CreateUserWizardFirstPage page;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
     private IRefreshable refreshable;
 
-    public CreateUserWizard(AmazonIdentityManagement iam, IRefreshable refreshable) {
+    public CreateUserWizard(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, IRefreshable refreshable) {
         setNeedsProgressMonitor(false);
         setWindowTitle("Create New Users");
         setDefaultPageImageDescriptor(AwsToolkitCore.getDefault().getImageRegistry().getDescriptor(AwsToolkitCore.IMAGE_AWS_LOGO));
@@ -58,11 +60,15 @@ public class CreateUserWizard extends Wizard {
         if (iam == null) {
             this.iam = AwsToolkitCore.getClientFactory().getIAMClient();
         }
+        this.snapshot = snapshot;
+        if (snapshot == null) {
+            this.snapshot = AuthorizationSnapshot.getSnapshot();
+        }
         this.refreshable = refreshable;
     }
 
     public CreateUserWizard() {
-        this(AwsToolkitCore.getClientFactory().getIAMClient(), null);
+        this(AwsToolkitCore.getClientFactory().getIAMClient(), null, null);
     }
 
     @Override
@@ -83,8 +89,10 @@ public class CreateUserWizard extends Wizard {
             @Override
             protected IStatus run(IProgressMonitor monitor) {
                 try {
-                    for (CreateUserRequest request : createUserRequests)
+                    for (CreateUserRequest request : createUserRequests) {
                         iam.createUser(request);
+                        snapshot.refreshUser(request.getUserName());
+                    }
                     if (refreshable != null) {
                         refreshable.refreshData();
                     }
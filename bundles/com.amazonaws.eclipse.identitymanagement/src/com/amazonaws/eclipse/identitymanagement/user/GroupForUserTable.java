@@ -24,8 +24,8 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.identitymanagement.AbstractGroupTable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
-import com.amazonaws.services.identitymanagement.model.ListGroupsForUserRequest;
 import com.amazonaws.services.identitymanagement.model.RemoveUserFromGroupRequest;
 import com.amazonaws.services.identitymanagement.model.User;
 
@@ -33,8 +33,8 @@ public class GroupForUserTable extends AbstractGroupTable {
 
     private User user;
 
-    public GroupForUserTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
-        super(iam, parent, toolkit);
+    public GroupForUserTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
+        super(iam, snapshot, parent, toolkit);
         MenuManager menuManager = new MenuManager("#PopupMenu");
         menuManager.setRemoveAllWhenShown(true);
         menuManager.addMenuListener(new IMenuListener() {
@@ -78,18 +78,29 @@ public class GroupForUserTable extends AbstractGroupTable {
 
     public void setUser(User user) {
         this.user = user;
-        refresh();
+        new LoadGroupTableThread().start();
     }
 
+    /**
+     * Reloads the table after the group memberships of the user were
+     * modified.
+     */
     @Override
     public void refresh() {
-        new LoadGroupTableThread().start();
+        new LoadGroupTableThread(true).start();
+    }
+
+    @Override
+    protected void refreshPrincipal() {
+        if (user != null) {
+            snapshot.refreshUser(user.getUserName());
+        }
     }
 
     @Override
     protected void listGroups() {
         if (user != null) {
-            groups = iam.listGroupsForUser(new ListGroupsForUserRequest().withUserName(user.getUserName())).getGroups();
+            groups = snapshot.getGroupsForUser(user.getUserName());
         } else {
             groups = null;
         }
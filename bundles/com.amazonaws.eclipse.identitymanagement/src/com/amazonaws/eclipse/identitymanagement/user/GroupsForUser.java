@@ -26,6 +26,7 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Section;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.User;
 
@@ -35,7 +36,7 @@ public class GroupsForUser extends Composite {
     private User user;
     private Button addGroupButton;
 
-    public GroupsForUser(final AmazonIdentityManagement iam, Composite parent, final FormToolkit toolkit) {
+    public GroupsForUser(final AmazonIdentityManagement iam, final AuthorizationSnapshot snapshot, Composite parent, final FormToolkit toolkit) {
         super(parent, SWT.NONE);
 
         this.setLayoutData(new GridData(GridData.FILL_BOTH));
@@ -51,7 +52,7 @@ public class GroupsForUser extends Composite {
         client.setLayoutData(new GridData(GridData.FILL_BOTH));
         client.setLayout(new GridLayout(2, false));
 
-        groupForUserTable = new GroupForUserTable(iam, client, toolkit);
+        groupForUserTable = new GroupForUserTable(iam, snapshot, client, toolkit);
         groupForUserTable.setLayoutData(new GridData(GridData.FILL_BOTH));
 
 
@@ -63,7 +64,7 @@ public class GroupsForUser extends Composite {
         addGroupButton.addSelectionListener(new SelectionListener() {
 
             public void widgetSelected(SelectionEvent e) {
-                AddUserToGroupsDialog addUserToGroupsDialog = new AddUserToGroupsDialog(iam, Display.getCurrent().getActiveShell(), toolkit, user, groupForUserTable);
+                AddUserToGroupsDialog addUserToGroupsDialog = new AddUserToGroupsDialog(iam, snapshot, Display.getCurrent().getActiveShell(), toolkit, user, groupForUserTable);
                 addUserToGroupsDialog.open();
             }
 
@@ -38,6 +38,7 @@ import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.ui.IRefreshable;
 import com.amazonaws.eclipse.explorer.identitymanagement.CreateUserAction;
 import com.amazonaws.eclipse.explorer.identitymanagement.EditorInput;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 
 public class UserEditor extends EditorPart implements IRefreshable {
@@ -48,6 +49,7 @@ public class UserEditor extends EditorPart implements IRefreshable {
     private UserPermission userPermission;
     private GroupsForUser groups;
     private AmazonIdentityManagement iam;
+    private AuthorizationSnapshot snapshot;
 
     @Override
     public void doSave(IProgressMonitor monitor) {
@@ -64,6 +66,7 @@ public class UserEditor extends EditorPart implements IRefreshable {
         setPartName(input.getName());
         this.userEditorInput = (EditorInput) input;
         iam = getClient();
+        snapshot = AuthorizationSnapshot.getSnapshot(userEditorInput.getAccountId(), userEditorInput.getRegionEndpoint());
     }
 
     @Override
@@ -87,7 +90,7 @@ public class UserEditor extends EditorPart implements IRefreshable {
         form.setImage(AwsToolkitCore.getDefault().getImageRegistry().get(AwsToolkitCore.IMAGE_USER));
         form.getBody().setLayout(new GridLayout());
         form.getToolBarManager().add(new RefreshAction());
-        form.getToolBarManager().add(new CreateUserAction(iam, this));
+        form.getToolBarManager().add(new CreateUserAction(iam, snapshot, this));
         form.getToolBarManager().update(true);
 
         SashForm sash = new SashForm(form.getBody(), SWT.VERTICAL);
@@ -116,23 +119,23 @@ public class UserEditor extends EditorPart implements IRefreshable {
 
         TabItem summaryTab = new TabItem(tabFolder, SWT.NONE);
         summaryTab.setText("Summary");
-        userSummary = new UserSummary(iam, tabFolder, toolkit);
+        userSummary = new UserSummary(iam, snapshot, tabFolder, toolkit);
         summaryTab.setControl(userSummary);
 
         TabItem permissionTab = new TabItem(tabFolder, SWT.NONE);
         permissionTab.setText("Permissions");
-        userPermission = new UserPermission(iam, tabFolder, toolkit);
+        userPermission = new UserPermission(iam, snapshot, tabFolder, toolkit);
         permissionTab.setControl(userPermission);
 
 
         TabItem groupTab = new TabItem(tabFolder, SWT.NONE);
         groupTab.setText("Groups");
-        groups = new GroupsForUser(iam, tabFolder, toolkit);
+        groups = new GroupsForUser(iam, snapshot, tabFolder, toolkit);
         groupTab.setControl(groups);
     }
 
     private void createTableSection(Composite parent, FormToolkit toolkit) {
-        userTable = new UserTable(iam, parent, toolkit, userEditorInput);
+        userTable = new UserTable(iam, snapshot, parent, toolkit, userEditorInput);
     }
 
     @Override
@@ -148,6 +151,7 @@ public class UserEditor extends EditorPart implements IRefreshable {
 
         @Override
         public void run() {
+            snapshot.invalidate();
             userTable.refresh();
             userSummary.refresh();
             groups.refresh();
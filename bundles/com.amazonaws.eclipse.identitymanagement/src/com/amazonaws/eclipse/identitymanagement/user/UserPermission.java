@@ -26,6 +26,7 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.forms.widgets.Section;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.User;
 
@@ -34,8 +35,9 @@ public class UserPermission extends Composite {
     private User user;
     private UserPermissionTable userPermissionTable;
     private Button addPolicyButton;
+    private Button checkPermissionButton;
 
-    public UserPermission(final AmazonIdentityManagement iam, Composite parent, final FormToolkit toolkit) {
+    public UserPermission(final AmazonIdentityManagement iam, final AuthorizationSnapshot snapshot, Composite parent, final FormToolkit toolkit) {
         super(parent, SWT.NONE);
 
         this.setLayoutData(new GridData(GridData.FILL_BOTH));
@@ -51,13 +53,17 @@ public class UserPermission extends Composite {
         client.setLayoutData(new GridData(GridData.FILL_BOTH));
         client.setLayout(new GridLayout(2, false));
 
-        userPermissionTable = new UserPermissionTable(iam, client, toolkit);
+        userPermissionTable = new UserPermissionTable(iam, snapshot, client, toolkit);
         userPermissionTable.setLayoutData(new GridData(GridData.FILL_BOTH));
 
-        addPolicyButton = toolkit.createButton(client, "Attach Policy", SWT.PUSH);
+        Composite buttons = toolkit.createComposite(client);
+        buttons.setLayoutData(new GridData(GridData.VERTICAL_ALIGN_BEGINNING));
+        buttons.setLayout(new GridLayout());
+
+        addPolicyButton = toolkit.createButton(buttons, "Attach Policy", SWT.PUSH);
 
         addPolicyButton.setEnabled(false);
-        addPolicyButton.setLayoutData(new GridData(GridData.VERTICAL_ALIGN_BEGINNING));
+        addPolicyButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
         addPolicyButton.setImage(AwsToolkitCore.getDefault().getImageRegistry().get(AwsToolkitCore.IMAGE_ADD));
         addPolicyButton.addSelectionListener(new SelectionListener() {
 
@@ -71,6 +77,19 @@ public class UserPermission extends Composite {
             }
         });
 
+        checkPermissionButton = toolkit.createButton(buttons, "Check Permission", SWT.PUSH);
+        checkPermissionButton.setEnabled(false);
+        checkPermissionButton.setLayoutData(new GridData(GridData.FILL_HORIZONTAL));
+        checkPermissionButton.addSelectionListener(new SelectionListener() {
+
+            public void widgetSelected(SelectionEvent e) {
+                new CheckUserPermissionDialog(snapshot, Display.getCurrent().getActiveShell(), toolkit, user).open();
+            }
+
+            public void widgetDefaultSelected(SelectionEvent e) {
+            }
+        });
+
         policySection.setClient(client);
     }
 
@@ -78,8 +97,10 @@ public class UserPermission extends Composite {
         this.user = user;
         if (user != null) {
             addPolicyButton.setEnabled(true);
+            checkPermissionButton.setEnabled(true);
         } else {
             addPolicyButton.setEnabled(false);
+            checkPermissionButton.setEnabled(false);
         }
         userPermissionTable.setUser(user);
     }
@@ -26,17 +26,17 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.identitymanagement.AbstractPolicyTable;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.DeleteUserPolicyRequest;
-import com.amazonaws.services.identitymanagement.model.ListUserPoliciesRequest;
 import com.amazonaws.services.identitymanagement.model.User;
 
 public class UserPermissionTable extends AbstractPolicyTable {
 
     private User user;
 
-    UserPermissionTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit) {
-        super(iam, parent, toolkit);
+    UserPermissionTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit) {
+        super(iam, snapshot, parent, toolkit);
 
         MenuManager menuManager = new MenuManager("#PopupMenu");
         menuManager.setRemoveAllWhenShown(true);
@@ -116,20 +116,30 @@ public class UserPermissionTable extends AbstractPolicyTable {
 
     protected void getPolicyNames() {
         if (user != null) {
-        policyNames = iam.listUserPolicies(new ListUserPoliciesRequest().withUserName(user.getUserName())).getPolicyNames();
+            policyNames = snapshot.getUserPolicyNames(user.getUserName());
         } else {
             policyNames = null;
         }
     }
 
+    @Override
+    protected void refreshPrincipal() {
+        if (user != null) {
+            snapshot.refreshUser(user.getUserName());
+        }
+    }
+
     public void setUser(User user) {
         this.user = user;
-        refresh();
+        new LoadPermissionTableThread().start();
     }
 
+    /**
+     * Reloads the table after the policies of the user were modified.
+     */
     @Override
     public void refresh() {
-        new LoadPermissionTableThread().start();
+        new LoadPermissionTableThread(true).start();
     }
 
 }
@@ -32,12 +32,11 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import org.eclipse.ui.statushandlers.StatusManager;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.DeleteLoginProfileRequest;
 import com.amazonaws.services.identitymanagement.model.GetLoginProfileRequest;
-import com.amazonaws.services.identitymanagement.model.ListGroupsForUserRequest;
-import com.amazonaws.services.identitymanagement.model.ListGroupsForUserResult;
 import com.amazonaws.services.identitymanagement.model.User;
 
 public class UserSummary extends Composite {
@@ -53,8 +52,9 @@ public class UserSummary extends Composite {
     private Button manageAccessKeysButton;
     private boolean hasPassword;
     private AmazonIdentityManagement iam;
+    private final AuthorizationSnapshot snapshot;
 
-    public UserSummary(final AmazonIdentityManagement iam, Composite parent, final FormToolkit toolkit) {
+    public UserSummary(final AmazonIdentityManagement iam, final AuthorizationSnapshot snapshot, Composite parent, final FormToolkit toolkit) {
         super(parent, SWT.NONE);
         GridDataFactory gridDataFactory = GridDataFactory.swtDefaults()
                 .align(SWT.FILL, SWT.TOP).grab(true, false).minSize(200, SWT.DEFAULT).hint(200, SWT.DEFAULT);
@@ -134,6 +134,7 @@ public class UserSummary extends Composite {
         manageAccessKeysButton.setEnabled(false);
 
         this.iam = iam;
+        this.snapshot = snapshot;
 
     }
 
@@ -159,6 +160,25 @@ public class UserSummary extends Composite {
         @Override
         public void run() {
             try {
+                final User user = UserSummary.this.user;
+                boolean loginProfileExists = false;
+                int groupCount = 0;
+                if (user != null) {
+                    try {
+                        iam.getLoginProfile(new GetLoginProfileRequest().withUserName(user.getUserName()));
+                        loginProfileExists = true;
+                    } catch (Exception e) {
+                        loginProfileExists = false;
+                    }
+
+                    try {
+                        groupCount = snapshot.getGroupsForUser(user.getUserName()).size();
+                    } catch (Exception e) {
+                        groupCount = 0;
+                    }
+                }
+                final boolean hasLoginProfile = loginProfileExists;
+                final int groupsForUser = groupCount;
 
                 Display.getDefault().asyncExec(new Runnable() {
                     public void run() {
@@ -167,24 +187,10 @@ public class UserSummary extends Composite {
                         userARNLable.setText(user.getArn());
                         pathLabel.setText(user.getPath());
                         creationTimeLabel.setText(user.getCreateDate().toString());
-                        try {
-                            iam.getLoginProfile(new GetLoginProfileRequest().withUserName(user.getUserName()));
-                            havePasswordLabel.setText("yes");
-                            removePasswordButton.setEnabled(true);
-                            hasPassword = true;
-
-                        } catch (Exception e) {
-                            havePasswordLabel.setText("no");
-                            removePasswordButton.setEnabled(false);
-                            hasPassword = false;
-                        }
-
-                        try {
-                            ListGroupsForUserResult listGroupsForUserResult = iam.listGroupsForUser(new ListGroupsForUserRequest().withUserName(user.getUserName()));
-                            groupsLabel.setText(Integer.toString(listGroupsForUserResult.getGroups().size()));
-                        } catch (Exception e) {
-                            groupsLabel.setText("0");
-                        }
+                        havePasswordLabel.setText(hasLoginProfile ? "yes" : "no");
+                        removePasswordButton.setEnabled(hasLoginProfile);
+                        hasPassword = hasLoginProfile;
+                        groupsLabel.setText(Integer.toString(groupsForUser));
                         } else {
                             userARNLable.setText("");
                             pathLabel.setText("");
@@ -34,6 +34,7 @@ import org.eclipse.ui.forms.widgets.FormToolkit;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.explorer.identitymanagement.AbstractUserTable;
 import com.amazonaws.eclipse.explorer.identitymanagement.EditorInput;
+import com.amazonaws.eclipse.identitymanagement.AuthorizationSnapshot;
 import com.amazonaws.eclipse.identitymanagement.IdentityManagementPlugin;
 import com.amazonaws.services.identitymanagement.AmazonIdentityManagement;
 import com.amazonaws.services.identitymanagement.model.AccessKeyMetadata;
@@ -61,8 +62,8 @@ public class UserTable extends AbstractUserTable {
     private GroupsForUser userGroups = null;
 
 
-    public UserTable(AmazonIdentityManagement iam, Composite parent, FormToolkit toolkit, EditorInput userEditorInput) {
-        super(iam, parent, toolkit, userEditorInput);
+    public UserTable(AmazonIdentityManagement iam, AuthorizationSnapshot snapshot, Composite parent, FormToolkit toolkit, EditorInput userEditorInput) {
+        super(iam, snapshot, parent, toolkit, userEditorInput);
 
         MenuManager menuManager = new MenuManager("#PopupMenu");
         menuManager.setRemoveAllWhenShown(true);
@@ -137,6 +138,7 @@ public class UserTable extends AbstractUserTable {
                     String userName = contentProvider.getItemByIndex(index).getUserName();
                     try {
                         deleteUser(userName);
+                        snapshot.refreshUser(userName);
                     } catch (Exception e) {
                         return new Status(Status.ERROR, IdentityManagementPlugin.getDefault().getPluginId(), "Unable to delete users: " + e.getMessage(), e);
                     }
@@ -195,6 +197,6 @@ public class UserTable extends AbstractUserTable {
 
     @Override
     protected void listUsers() {
-        users = iam.listUsers().getUsers();
+        users = snapshot.getUsers();
     }
 }
@@ -17,7 +17,12 @@ package com.amazonaws.eclipse.lambda.invoke.handler;
 import java.io.File;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
@@ -40,9 +45,17 @@ import org.eclipse.ui.console.MessageConsole;
 import org.eclipse.ui.console.MessageConsoleStream;
 import org.eclipse.ui.handlers.HandlerUtil;
 
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.ResponseMetadata;
+import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
 import com.amazonaws.eclipse.lambda.LambdaAnalytics;
 import com.amazonaws.eclipse.lambda.LambdaPlugin;
+import com.amazonaws.eclipse.lambda.invoke.logs.CloudWatchLogsTailer;
+import com.amazonaws.eclipse.lambda.invoke.logs.CloudWatchLogsTailer.LogEventListener;
+import com.amazonaws.eclipse.lambda.invoke.loadtest.LambdaLoadTest;
+import com.amazonaws.eclipse.lambda.invoke.loadtest.LoadTestResult;
 import com.amazonaws.eclipse.lambda.invoke.logs.CloudWatchLogsUtils;
 import com.amazonaws.eclipse.lambda.invoke.ui.InvokeFunctionInputDialog;
 import com.amazonaws.eclipse.lambda.project.metadata.LambdaFunctionProjectMetadata;
@@ -56,11 +69,22 @@ import com.amazonaws.services.lambda.model.InvokeResult;
 import com.amazonaws.services.lambda.model.LogType;
 import com.amazonaws.services.lambda.model.UpdateFunctionCodeRequest;
 import com.amazonaws.services.lambda.model.UpdateFunctionCodeResult;
+import com.amazonaws.services.logs.AWSLogs;
+import com.amazonaws.services.logs.model.FilteredLogEvent;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.util.StringUtils;
 
 public class InvokeFunctionHandler extends AbstractHandler {
 
+    /**
+     * Time (in milliseconds) to keep tailing the function log after the
+     * invocation returned, waiting for CloudWatch Logs to ingest its REPORT line.
+     */
+    private static final long LIVE_LOG_INGESTION_TIMEOUT = 30 * 1000;
+
+    /** Allowance (in milliseconds) for clock skew when picking the tail start time */
+    private static final long LIVE_LOG_CLOCK_SKEW = 5 * 1000;
+
     public Object execute(ExecutionEvent event) throws ExecutionException {
 
         ISelection selection = HandlerUtil.getActiveWorkbenchWindow(event)
@@ -159,7 +183,8 @@ public class InvokeFunctionHandler extends AbstractHandler {
             @Override
             protected IStatus run(IProgressMonitor monitor) {
                 try {
-                    invokeLatestLambdaFunction(project, metadata, updateFunctionCode, lambdaOutput, lambdaError);
+                    invokeLatestLambdaFunction(project, metadata, updateFunctionCode,
+                            monitor, lambdaOutput, lambdaError);
                 } catch (Exception e) {
                     showLambdaInvocationError(lambdaError, e);
                 }
@@ -175,8 +200,9 @@ public class InvokeFunctionHandler extends AbstractHandler {
     private static void invokeLatestLambdaFunction(IProject project,
             LambdaFunctionProjectMetadata metadata,
             boolean updateFunctionCode,
+            IProgressMonitor monitor,
             MessageConsoleStream lambdaOutput,
-            MessageConsoleStream lambdaError) throws IOException {
+            MessageConsoleStream lambdaError) throws IOException, InterruptedException {
 
         AWSLambda lambda = AwsToolkitCore.getClientFactory()
                 .getLambdaClientByEndpoint(metadata.getLastDeploymentEndpoint());
@@ -198,11 +224,55 @@ public class InvokeFunctionHandler extends AbstractHandler {
             lambdaOutput
                     .println("Skip uploading function code since no local change is found...");
         }
-        InvokeResult result = invokeFunction(lambda, invokeInput, funcName, lambdaOutput);
-        if (showLiveLog) showLambdaLiveLog(result, lambdaOutput, lambdaError);
+        if (Boolean.TRUE.equals(metadata.getLastInvokeLoadTest())) {
+            runLoadTest(lambda, metadata, monitor, lambdaOutput);
+            FunctionProjectUtil.addLambdaProjectMetadata(project, metadata);
+            return;
+        }
+
+        AWSLogs logs = showLiveLog ? CloudWatchLogsUtils
+                .getLogsClientForLambdaEndpoint(metadata.getLastDeploymentEndpoint()) : null;
+        if (logs != null) {
+            invokeFunctionWithLiveLog(lambda, logs, invokeInput, funcName, lambdaOutput, lambdaError);
+        } else {
+            InvokeResult result = invokeFunction(lambda, invokeInput, funcName, lambdaOutput);
+            if (showLiveLog) showLambdaLiveLog(result, lambdaOutput, lambdaError);
+        }
         FunctionProjectUtil.addLambdaProjectMetadata(project, metadata);
     }
 
+    private static void runLoadTest(AWSLambda lambda, LambdaFunctionProjectMetadata metadata,
+            IProgressMonitor monitor, MessageConsoleStream out) throws InterruptedException {
+
+        int invocations = metadata.getLastLoadTestInvocations();
+        int concurrency = metadata.getLastLoadTestConcurrency();
+        int rate = metadata.getLastLoadTestRate();
+        out.println(String.format("Running load test: %d invocations, %d concurrent, %s...",
+                invocations, concurrency, rate == 0 ? "no rate limit" : rate + " per second"));
+
+        LoadTestResult result = new LambdaLoadTest(lambda, metadata.getLastDeploymentFunctionName(),
+                metadata.getLastInvokeInput(), invocations, concurrency, rate).run(monitor);
+        showLoadTestResult(result, out);
+    }
+
+    private static void showLoadTestResult(LoadTestResult result, MessageConsoleStream out) {
+        out.println("==================== LOAD TEST RESULTS ====================");
+        out.println(String.format("Invocations:      %d (%.1f per second)",
+                result.getInvocationCount(), result.getThroughput()));
+        out.println(String.format("Errors:           %d (%.2f%%)",
+                result.getErrorCount(), result.getErrorRate() * 100));
+        out.println(String.format("Cold starts:      %d", result.getColdStartCount()));
+        out.println(String.format("Latency (ms):     p50 %d, p95 %d, p99 %d, max %d",
+                result.getLatencyPercentile(50), result.getLatencyPercentile(95),
+                result.getLatencyPercentile(99), result.getLatencyPercentile(100)));
+        out.println(String.format("Billed duration (ms): p50 %d, p95 %d, p99 %d, max %d",
+                result.getBilledDurationPercentile(50), result.getBilledDurationPercentile(95),
+                result.getBilledDurationPercentile(99), result.getBilledDurationPercentile(100)));
+        for (Entry<String, Integer> error : result.getErrorCounts().entrySet()) {
+            out.println(String.format("  %d x %s", error.getValue(), error.getKey()));
+        }
+    }
+
     private static void safelyCloseMessageConsoleStreams(MessageConsoleStream... streams) {
         if (streams == null) return;
         try {
@@ -235,6 +305,92 @@ public class InvokeFunctionHandler extends AbstractHandler {
         }
     }
 
+    /**
+     * Invokes the function while streaming its CloudWatch log group to the
+     * console, so that the log of long running invocations shows up as it is
+     * written, including the log of any concurrent invocations. Falls back to
+     * the log tail returned by Invoke if the log of this invocation doesn't
+     * show up in time.
+     */
+    private static void invokeFunctionWithLiveLog(AWSLambda lambda, AWSLogs logs, String input,
+            String funcName, MessageConsoleStream lambdaOutput, MessageConsoleStream lambdaError) {
+
+        lambdaOutput.println("==================== FUNCTION LOG OUTPUT ====================");
+        ConsoleLogEventListener logListener = new ConsoleLogEventListener(lambdaOutput);
+        CloudWatchLogsTailer tailer = new CloudWatchLogsTailer(logs,
+                CloudWatchLogsUtils.getLogGroupNameForLambdaFunction(funcName),
+                System.currentTimeMillis() - LIVE_LOG_CLOCK_SKEW, logListener);
+        tailer.schedule();
+
+        boolean reportReceived = false;
+        InvokeResult result = null;
+        try {
+            InvokeRequest invokeRequest = newInvokeRequest(funcName, input);
+            result = invokeFunction(lambda, invokeRequest, lambdaOutput);
+            ResponseMetadata responseMetadata = lambda.getCachedResponseMetadata(invokeRequest);
+            if (responseMetadata != null) {
+                reportReceived = logListener.awaitReport(responseMetadata.getRequestId(),
+                        LIVE_LOG_INGESTION_TIMEOUT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            tailer.stopTailing();
+            try {
+                tailer.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (result != null && !reportReceived) {
+            lambdaError.println("WARNING: The function log didn't show up in CloudWatch Logs in time.");
+            showLambdaLiveLog(result, lambdaOutput, lambdaError);
+        }
+    }
+
+    /**
+     * Prints the tailed log events to the Lambda console and signals when the
+     * REPORT line of the awaited invocation arrives.
+     */
+    private static class ConsoleLogEventListener implements LogEventListener {
+        private final MessageConsoleStream out;
+        private final CountDownLatch reportLatch = new CountDownLatch(1);
+        // The request id isn't known until Invoke returns, so remember the ones reported before
+        private final Set<String> reportedRequestIds = new HashSet<String>();
+        private String awaitedRequestId;
+
+        ConsoleLogEventListener(MessageConsoleStream out) {
+            this.out = out;
+        }
+
+        public void logEventReceived(FilteredLogEvent event) {
+            out.print(event.getMessage());
+            String requestId = CloudWatchLogsUtils.parseReportLineRequestId(event.getMessage());
+            if (requestId == null) {
+                return;
+            }
+            synchronized (this) {
+                if (awaitedRequestId == null) {
+                    reportedRequestIds.add(requestId);
+                } else if (awaitedRequestId.equals(requestId)) {
+                    reportLatch.countDown();
+                }
+            }
+        }
+
+        boolean awaitReport(String requestId, long timeoutMillis) throws InterruptedException {
+            synchronized (this) {
+                awaitedRequestId = requestId;
+                if (reportedRequestIds.contains(requestId)) {
+                    reportLatch.countDown();
+                }
+                reportedRequestIds.clear();
+            }
+            return reportLatch.await(timeoutMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
     private static MessageConsole getOrCreateLambdaConsoleIfNotExist(String consoleName) {
         IConsoleManager consoleManager = ConsolePlugin.getDefault()
                 .getConsoleManager();
@@ -266,9 +422,16 @@ public class InvokeFunctionHandler extends AbstractHandler {
                 project, false);
         String randomKeyName = UUID.randomUUID().toString();
 
-        AmazonS3 s3 = AwsToolkitCore.getClientFactory()
-                .getS3ClientForBucket(bucketName);
-        s3.putObject(bucketName, randomKeyName, funcCodeFile);
+        AWSClientFactory clientFactory = AwsToolkitCore.getClientFactory();
+        AmazonS3 s3 = clientFactory.getS3ClientForBucket(bucketName);
+        try {
+            s3.putObject(bucketName, randomKeyName, funcCodeFile);
+        } catch (AmazonServiceException ase) {
+            if (!BucketRegionCache.isWrongRegionError(ase)) throw ase;
+            // The bucket is no longer in its cached region
+            s3 = clientFactory.refreshS3ClientForBucket(bucketName);
+            s3.putObject(bucketName, randomKeyName, funcCodeFile);
+        }
 
         UpdateFunctionCodeResult result =  lambda.updateFunctionCode(
                 new UpdateFunctionCodeRequest()
@@ -291,14 +454,21 @@ public class InvokeFunctionHandler extends AbstractHandler {
 
     private static InvokeResult invokeFunction(AWSLambda lambda, String input,
             String funcName, MessageConsoleStream out) {
+        return invokeFunction(lambda, newInvokeRequest(funcName, input), out);
+    }
 
-        out.println("Invoking function...");
-
-        InvokeRequest invokeRequest = new InvokeRequest()
+    private static InvokeRequest newInvokeRequest(String funcName, String input) {
+        return new InvokeRequest()
             .withFunctionName(funcName)
             .withInvocationType(InvocationType.RequestResponse)
             .withLogType(LogType.Tail)
             .withPayload(input);
+    }
+
+    private static InvokeResult invokeFunction(AWSLambda lambda,
+            InvokeRequest invokeRequest, MessageConsoleStream out) {
+
+        out.println("Invoking function...");
 
         InvokeResult result = lambda.invoke(invokeRequest);
 
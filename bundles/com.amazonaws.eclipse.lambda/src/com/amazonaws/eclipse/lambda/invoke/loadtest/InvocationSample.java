@@ -0,0 +1,67 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.lambda.invoke.loadtest;
+
+/**
+ * Measurements collected for a single invocation of a load test.
+ */
+public class InvocationSample {
+
+    private final long latencyMillis;
+    private final Long billedDurationMillis;
+    private final boolean coldStart;
+    private final String error;
+
+    /**
+     * @param latencyMillis
+     *            The round trip time of the Invoke call as seen by the client.
+     * @param billedDurationMillis
+     *            The billed duration from the function's REPORT log line, or
+     *            null if it was not found in the log tail.
+     * @param coldStart
+     *            Whether the REPORT line shows the function had to be
+     *            initialized for this invocation.
+     * @param error
+     *            The function or client error, or null if the invocation
+     *            succeeded.
+     */
+    public InvocationSample(long latencyMillis, Long billedDurationMillis,
+            boolean coldStart, String error) {
+        this.latencyMillis = latencyMillis;
+        this.billedDurationMillis = billedDurationMillis;
+        this.coldStart = coldStart;
+        this.error = error;
+    }
+
+    public long getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    public Long getBilledDurationMillis() {
+        return billedDurationMillis;
+    }
+
+    public boolean isColdStart() {
+        return coldStart;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public boolean isError() {
+        return error != null;
+    }
+}
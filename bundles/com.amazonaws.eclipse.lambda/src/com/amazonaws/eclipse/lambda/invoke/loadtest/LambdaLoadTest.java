@@ -0,0 +1,163 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.lambda.invoke.loadtest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.lambda.invoke.logs.CloudWatchLogsUtils;
+import com.amazonaws.services.lambda.AWSLambda;
+import com.amazonaws.services.lambda.model.InvocationType;
+import com.amazonaws.services.lambda.model.InvokeRequest;
+import com.amazonaws.services.lambda.model.InvokeResult;
+import com.amazonaws.services.lambda.model.LogType;
+
+/**
+ * Fires a fixed number of invocations of a Lambda function with bounded
+ * concurrency and an optional target request rate, and collects the latency,
+ * billed duration and cold start indicator of every invocation.
+ */
+public class LambdaLoadTest {
+
+    private final AWSLambda lambda;
+    private final String functionName;
+    private final String payload;
+    private final int invocations;
+    private final int concurrency;
+    private final int targetRate;
+
+    private final List<InvocationSample> samples = new ArrayList<InvocationSample>();
+
+    /**
+     * @param lambda
+     *            The client used for the invocations.
+     * @param functionName
+     *            The function to invoke.
+     * @param payload
+     *            The JSON input sent with every invocation.
+     * @param invocations
+     *            The total number of invocations.
+     * @param concurrency
+     *            The maximum number of invocations in flight at any time.
+     * @param targetRate
+     *            The maximum number of invocations started per second, or 0
+     *            to start them as fast as the concurrency allows.
+     */
+    public LambdaLoadTest(AWSLambda lambda, String functionName, String payload,
+            int invocations, int concurrency, int targetRate) {
+        if (invocations < 1 || concurrency < 1 || targetRate < 0) {
+            throw new IllegalArgumentException("Invalid load test settings");
+        }
+        this.lambda = lambda;
+        this.functionName = functionName;
+        this.payload = payload;
+        this.invocations = invocations;
+        this.concurrency = concurrency;
+        this.targetRate = targetRate;
+    }
+
+    /**
+     * Runs the load test and blocks until every started invocation has
+     * completed. If the monitor is canceled, no further invocations are
+     * started and the result only covers the ones that already ran.
+     */
+    public LoadTestResult run(IProgressMonitor monitor) throws InterruptedException {
+        monitor.beginTask("Invoking " + functionName + " " + invocations + " times", invocations);
+
+        final Semaphore inFlight = new Semaphore(concurrency);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        long intervalNanos = targetRate == 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / targetRate;
+        long startTime = System.nanoTime();
+        long nextStartTime = startTime;
+
+        try {
+            for (int i = 0; i < invocations && !monitor.isCanceled(); i++) {
+                if (intervalNanos > 0) {
+                    long delay = nextStartTime - System.nanoTime();
+                    if (delay > 0) {
+                        TimeUnit.NANOSECONDS.sleep(delay);
+                    }
+                    nextStartTime += intervalNanos;
+                }
+                inFlight.acquire();
+                executor.execute(new Runnable() {
+                    public void run() {
+                        try {
+                            addSample(invokeOnce());
+                        } finally {
+                            inFlight.release();
+                        }
+                    }
+                });
+                monitor.subTask(String.format("%d of %d invocations completed", getSampleCount(), invocations));
+                monitor.worked(1);
+            }
+            // Wait for the invocations still in flight
+            inFlight.acquire(concurrency);
+        } finally {
+            executor.shutdownNow();
+            monitor.done();
+        }
+
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        synchronized (samples) {
+            return new LoadTestResult(samples, elapsedMillis);
+        }
+    }
+
+    private InvocationSample invokeOnce() {
+        long start = System.nanoTime();
+        try {
+            InvokeResult result = lambda.invoke(new InvokeRequest()
+                    .withFunctionName(functionName)
+                    .withInvocationType(InvocationType.RequestResponse)
+                    .withLogType(LogType.Tail)
+                    .withPayload(payload));
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            String log = CloudWatchLogsUtils.fetchLogsForLambdaFunction(result);
+            String error = result.getFunctionError() == null ? null
+                    : "Function error: " + result.getFunctionError();
+            return new InvocationSample(latency,
+                    CloudWatchLogsUtils.parseBilledDuration(log),
+                    CloudWatchLogsUtils.isColdStart(log), error);
+        } catch (Exception e) {
+            long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            // Service errors are grouped by error code, their messages include the request id
+            String error = e instanceof AmazonServiceException
+                    ? ((AmazonServiceException) e).getErrorCode()
+                    : e.getClass().getSimpleName() + ": " + e.getMessage();
+            return new InvocationSample(latency, null, false, error);
+        }
+    }
+
+    private void addSample(InvocationSample sample) {
+        synchronized (samples) {
+            samples.add(sample);
+        }
+    }
+
+    private int getSampleCount() {
+        synchronized (samples) {
+            return samples.size();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.lambda.invoke.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * Aggregated statistics of a completed load test.
+ */
+public class LoadTestResult {
+
+    private final List<InvocationSample> samples;
+    private final long elapsedMillis;
+
+    public LoadTestResult(List<InvocationSample> samples, long elapsedMillis) {
+        this.samples = Collections.unmodifiableList(new ArrayList<InvocationSample>(samples));
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public List<InvocationSample> getSamples() {
+        return samples;
+    }
+
+    public int getInvocationCount() {
+        return samples.size();
+    }
+
+    public int getErrorCount() {
+        int errors = 0;
+        for (InvocationSample sample : samples) {
+            if (sample.isError()) errors++;
+        }
+        return errors;
+    }
+
+    public int getColdStartCount() {
+        int coldStarts = 0;
+        for (InvocationSample sample : samples) {
+            if (sample.isColdStart()) coldStarts++;
+        }
+        return coldStarts;
+    }
+
+    public double getErrorRate() {
+        return samples.isEmpty() ? 0 : (double) getErrorCount() / samples.size();
+    }
+
+    /**
+     * Returns the achieved rate of completed invocations per second.
+     */
+    public double getThroughput() {
+        return elapsedMillis == 0 ? 0 : samples.size() * 1000.0 / elapsedMillis;
+    }
+
+    /**
+     * Returns the specified percentile (0-100) of the client side latency of
+     * all invocations, or -1 if there are no samples.
+     */
+    public long getLatencyPercentile(double percentile) {
+        long[] latencies = new long[samples.size()];
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = samples.get(i).getLatencyMillis();
+        }
+        return percentile(latencies, percentile);
+    }
+
+    /**
+     * Returns the specified percentile (0-100) of the billed duration of all
+     * invocations that reported one, or -1 if none did.
+     */
+    public long getBilledDurationPercentile(double percentile) {
+        List<Long> billedDurations = new ArrayList<Long>();
+        for (InvocationSample sample : samples) {
+            if (sample.getBilledDurationMillis() != null) {
+                billedDurations.add(sample.getBilledDurationMillis());
+            }
+        }
+        long[] values = new long[billedDurations.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = billedDurations.get(i);
+        }
+        return percentile(values, percentile);
+    }
+
+    /**
+     * Returns the distinct error messages mapped to the number of invocations
+     * that failed with them, most frequent first.
+     */
+    public Map<String, Integer> getErrorCounts() {
+        Map<String, Integer> counts = new LinkedHashMap<String, Integer>();
+        for (InvocationSample sample : samples) {
+            if (sample.isError()) {
+                Integer count = counts.get(sample.getError());
+                counts.put(sample.getError(), count == null ? 1 : count + 1);
+            }
+        }
+        List<Entry<String, Integer>> entries = new ArrayList<Entry<String, Integer>>(counts.entrySet());
+        Collections.sort(entries, new Comparator<Entry<String, Integer>>() {
+            public int compare(Entry<String, Integer> a, Entry<String, Integer> b) {
+                return b.getValue().compareTo(a.getValue());
+            }
+        });
+        Map<String, Integer> sorted = new LinkedHashMap<String, Integer>();
+        for (Entry<String, Integer> entry : entries) {
+            sorted.put(entry.getKey(), entry.getValue());
+        }
+        return sorted;
+    }
+
+    /**
+     * Nearest-rank percentile of the given values.
+     */
+    static long percentile(long[] values, double percentile) {
+        if (values.length == 0) {
+            return -1;
+        }
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.lambda.invoke.logs;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.lambda.LambdaPlugin;
+import com.amazonaws.services.logs.AWSLogs;
+import com.amazonaws.services.logs.model.FilterLogEventsRequest;
+import com.amazonaws.services.logs.model.FilterLogEventsResult;
+import com.amazonaws.services.logs.model.FilteredLogEvent;
+import com.amazonaws.services.logs.model.ResourceNotFoundException;
+
+/**
+ * Background job that follows a CloudWatch Logs log group and streams new log
+ * events to a listener until it is stopped.
+ * <p>
+ * Each poll pages through FilterLogEvents with its next token, starting from
+ * the timestamp of the newest event seen so far. Since that start time is
+ * inclusive, events are deduplicated by event ID. The poll interval shrinks
+ * while events are arriving and backs off while the log group is quiet or
+ * the API is throttling. Events are handed to the listener a page at a time,
+ * so at most one page of events is buffered in memory.
+ */
+public class CloudWatchLogsTailer extends Job {
+
+    /** Interface for receiving log events as they are fetched */
+    public interface LogEventListener {
+        void logEventReceived(FilteredLogEvent event);
+    }
+
+    /** Poll interval (in milliseconds) used while events are arriving */
+    private static final long MIN_POLL_INTERVAL = 1000;
+
+    /** Poll interval (in milliseconds) the backoff is capped at */
+    private static final long MAX_POLL_INTERVAL = 10 * 1000;
+
+    /** Maximum number of events returned per FilterLogEvents page */
+    private static final int PAGE_SIZE = 1000;
+
+    /** Number of recent event IDs remembered for deduplication */
+    private static final int MAX_TRACKED_EVENT_IDS = 10000;
+
+    private final AWSLogs logs;
+    private final String logGroupName;
+    private final LogEventListener listener;
+
+    private final Map<String, Boolean> seenEventIds = new LinkedHashMap<String, Boolean>() {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Entry<String, Boolean> eldest) {
+            return size() > MAX_TRACKED_EVENT_IDS;
+        }
+    };
+
+    private final Object pollLock = new Object();
+
+    private long startTime;
+    private long pollInterval = MIN_POLL_INTERVAL;
+    private volatile boolean stopRequested;
+
+    /**
+     * @param logs
+     *            The client for the region the log group lives in.
+     * @param logGroupName
+     *            The log group to follow.
+     * @param startTime
+     *            Events older than this timestamp (in milliseconds since the
+     *            epoch) are not reported.
+     * @param listener
+     *            The listener notified of every new event, on the job thread.
+     */
+    public CloudWatchLogsTailer(AWSLogs logs, String logGroupName,
+            long startTime, LogEventListener listener) {
+        super("Tailing " + logGroupName);
+        this.logs = logs;
+        this.logGroupName = logGroupName;
+        this.startTime = startTime;
+        this.listener = listener;
+        setSystem(true);
+    }
+
+    /**
+     * Requests the tailer to stop. One last poll is made so that events
+     * ingested right before this call are still delivered.
+     */
+    public void stopTailing() {
+        synchronized (pollLock) {
+            stopRequested = true;
+            pollLock.notifyAll();
+        }
+    }
+
+    @Override
+    protected IStatus run(IProgressMonitor monitor) {
+        try {
+            while (!monitor.isCanceled()) {
+                boolean lastPoll = stopRequested;
+                int newEvents = pollOnce();
+                if (lastPoll) {
+                    break;
+                }
+                pollInterval = newEvents > 0
+                        ? MIN_POLL_INTERVAL
+                        : Math.min(pollInterval * 2, MAX_POLL_INTERVAL);
+                sleepUnlessStopped(pollInterval);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            LambdaPlugin.getDefault().logWarning(
+                    "Unable to tail log group " + logGroupName, e);
+        }
+        return Status.OK_STATUS;
+    }
+
+    /**
+     * Pages through every event newer than the last seen one.
+     *
+     * @return The number of new events delivered to the listener.
+     */
+    private int pollOnce() {
+        int newEvents = 0;
+        long pollStartTime = startTime;
+        String nextToken = null;
+        do {
+            FilterLogEventsResult result;
+            try {
+                result = logs.filterLogEvents(new FilterLogEventsRequest()
+                        .withLogGroupName(logGroupName)
+                        .withStartTime(pollStartTime)
+                        .withInterleaved(true)
+                        .withLimit(PAGE_SIZE)
+                        .withNextToken(nextToken));
+            } catch (ResourceNotFoundException e) {
+                // The log group is created on the first invocation
+                return newEvents;
+            } catch (AmazonServiceException e) {
+                if ("ThrottlingException".equals(e.getErrorCode())) {
+                    pollInterval = MAX_POLL_INTERVAL;
+                    return newEvents;
+                }
+                throw e;
+            }
+
+            for (FilteredLogEvent event : result.getEvents()) {
+                if (seenEventIds.put(event.getEventId(), Boolean.TRUE) != null) {
+                    continue;
+                }
+                if (event.getTimestamp() != null && event.getTimestamp() > startTime) {
+                    startTime = event.getTimestamp();
+                }
+                listener.logEventReceived(event);
+                newEvents++;
+            }
+            nextToken = result.getNextToken();
+        } while (nextToken != null);
+        return newEvents;
+    }
+
+    private void sleepUnlessStopped(long millis) throws InterruptedException {
+        synchronized (pollLock) {
+            if (!stopRequested) {
+                pollLock.wait(millis);
+            }
+        }
+    }
+}
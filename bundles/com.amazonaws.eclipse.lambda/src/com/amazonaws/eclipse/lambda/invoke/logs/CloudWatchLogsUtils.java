@@ -14,7 +14,15 @@
  */
 package com.amazonaws.eclipse.lambda.invoke.logs;
 
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.core.regions.Region;
+import com.amazonaws.eclipse.core.regions.RegionUtils;
+import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
 import com.amazonaws.services.lambda.model.InvokeResult;
+import com.amazonaws.services.logs.AWSLogs;
 import com.amazonaws.util.Base64;
 import com.amazonaws.util.CodecUtils;
 import com.amazonaws.util.StringUtils;
@@ -23,10 +31,73 @@ public class CloudWatchLogsUtils {
 
     public static final int MAX_LAMBDA_LOG_RESULT_LENGTH = 4 * 1024;// 4Kb
 
+    private static final String LAMBDA_LOG_GROUP_PREFIX = "/aws/lambda/";
+    private static final String LAMBDA_REPORT_LINE_PREFIX = "REPORT RequestId: ";
+    private static final Pattern BILLED_DURATION_PATTERN = Pattern.compile("Billed Duration: (\\d+) ms");
+    private static final Pattern INIT_DURATION_PATTERN = Pattern.compile("Init Duration: ");
+
     public static String fetchLogsForLambdaFunction(InvokeResult invokeResult) {
         if (invokeResult != null && !StringUtils.isNullOrEmpty(invokeResult.getLogResult())) {
             return CodecUtils.toStringDirect(Base64.decode((invokeResult.getLogResult())));
         }
         return null;
     }
+
+    /**
+     * Returns the name of the log group Lambda writes the logs of the
+     * specified function to.
+     */
+    public static String getLogGroupNameForLambdaFunction(String functionName) {
+        return LAMBDA_LOG_GROUP_PREFIX + functionName;
+    }
+
+    /**
+     * Returns a CloudWatch Logs client for the region of the specified Lambda
+     * endpoint, or null if CloudWatch Logs is not available in that region.
+     */
+    public static AWSLogs getLogsClientForLambdaEndpoint(String lambdaEndpoint) {
+        Region region = RegionUtils.getRegionByEndpoint(lambdaEndpoint);
+        String logsEndpoint = region.getServiceEndpoint(ServiceAbbreviations.LOGS);
+        if (logsEndpoint == null) {
+            return null;
+        }
+        return AwsToolkitCore.getClientFactory().getLogsClientByEndpoint(logsEndpoint);
+    }
+
+    /**
+     * Returns the request id of the invocation if the specified log message is
+     * the REPORT line Lambda writes once an invocation has finished, or null
+     * otherwise.
+     */
+    public static String parseReportLineRequestId(String logMessage) {
+        if (logMessage == null || !logMessage.startsWith(LAMBDA_REPORT_LINE_PREFIX)) {
+            return null;
+        }
+        String remaining = logMessage.substring(LAMBDA_REPORT_LINE_PREFIX.length());
+        int end = 0;
+        while (end < remaining.length() && !Character.isWhitespace(remaining.charAt(end))) {
+            end++;
+        }
+        return remaining.substring(0, end);
+    }
+
+    /**
+     * Returns the billed duration (in milliseconds) from the REPORT line in
+     * the specified function log, or null if the log has no REPORT line.
+     */
+    public static Long parseBilledDuration(String log) {
+        if (log == null) {
+            return null;
+        }
+        Matcher matcher = BILLED_DURATION_PATTERN.matcher(log);
+        return matcher.find() ? Long.valueOf(matcher.group(1)) : null;
+    }
+
+    /**
+     * Returns whether the REPORT line in the specified function log reports
+     * an initialization duration, i.e. the invocation was a cold start.
+     */
+    public static boolean isColdStart(String log) {
+        return log != null && INIT_DURATION_PATTERN.matcher(log).find();
+    }
 }
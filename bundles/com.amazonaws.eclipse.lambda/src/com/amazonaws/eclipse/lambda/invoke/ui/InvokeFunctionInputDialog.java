@@ -16,6 +16,9 @@ package com.amazonaws.eclipse.lambda.invoke.ui;
 
 import static com.amazonaws.eclipse.core.ui.wizards.WizardWidgetFactory.newCombo;
 import static com.amazonaws.eclipse.core.ui.wizards.WizardWidgetFactory.newFillingLabel;
+import static com.amazonaws.eclipse.core.ui.wizards.WizardWidgetFactory.newGroup;
+import static com.amazonaws.eclipse.core.ui.wizards.WizardWidgetFactory.newLabel;
+import static com.amazonaws.eclipse.core.ui.wizards.WizardWidgetFactory.newText;
 
 import java.util.LinkedList;
 import java.util.List;
@@ -41,6 +44,7 @@ import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.swt.widgets.Text;
 
@@ -51,10 +55,17 @@ import com.amazonaws.eclipse.lambda.project.metadata.LambdaFunctionProjectMetada
 public class InvokeFunctionInputDialog extends Dialog {
 
     private static final boolean DEFAULT_SHOW_LIVE_LOG = false;
+    private static final boolean DEFAULT_LOAD_TEST = false;
+    private static final int DEFAULT_LOAD_TEST_INVOCATIONS = 100;
+    private static final int DEFAULT_LOAD_TEST_CONCURRENCY = 10;
+    private static final int DEFAULT_LOAD_TEST_RATE = 0;
+
+    /** Upper bound of the load test concurrency, the client's connection pool size */
+    private static final int MAX_LOAD_TEST_CONCURRENCY = 50;
     public static final int INVOKE_BUTTON_ID = IDialogConstants.OK_ID;
 
     private static final int PREFERRED_WIDTH = 600;
-    private static final int PREFERRED_HEIGHT = 400;
+    private static final int PREFERRED_HEIGHT = 500;
 
     private final IProject project;
     private final LambdaFunctionProjectMetadata md;
@@ -63,6 +74,10 @@ public class InvokeFunctionInputDialog extends Dialog {
     private String suggestedInputBoxContent;
     private Text inputBox;
     private Button showLiveLogButton;
+    private Button loadTestButton;
+    private Text invocationsText;
+    private Text concurrencyText;
+    private Text rateText;
 
     private static final String LOADING = "Loading...";
     private static final String NONE_FOUND = "None found";
@@ -74,6 +89,18 @@ public class InvokeFunctionInputDialog extends Dialog {
         if (md.getLastInvokeShowLiveLog() == null) {
             md.setLastInvokeShowLiveLog(DEFAULT_SHOW_LIVE_LOG);
         }
+        if (md.getLastInvokeLoadTest() == null) {
+            md.setLastInvokeLoadTest(DEFAULT_LOAD_TEST);
+        }
+        if (md.getLastLoadTestInvocations() == null) {
+            md.setLastLoadTestInvocations(DEFAULT_LOAD_TEST_INVOCATIONS);
+        }
+        if (md.getLastLoadTestConcurrency() == null) {
+            md.setLastLoadTestConcurrency(DEFAULT_LOAD_TEST_CONCURRENCY);
+        }
+        if (md.getLastLoadTestRate() == null) {
+            md.setLastLoadTestRate(DEFAULT_LOAD_TEST_RATE);
+        }
     }
 
     public boolean isInputBoxContentModified() {
@@ -121,16 +148,88 @@ public class InvokeFunctionInputDialog extends Dialog {
       });
       showLiveLogButton.setSelection(md.getLastInvokeShowLiveLog());
 
+      createLoadTestGroup(container);
+
       loadJsonFilesAsync(md.getLastInvokeInput() == null);
 
       return container;
     }
 
+    private void createLoadTestGroup(Composite container) {
+        Group loadTestGroup = newGroup(container, "Load test", 2, 2);
+
+        loadTestButton = new Button(loadTestGroup, SWT.CHECK);
+        loadTestButton.setText("Run as a load test");
+        GridData gridData = new GridData(SWT.FILL, SWT.TOP, true, false);
+        gridData.horizontalSpan = 2;
+        loadTestButton.setLayoutData(gridData);
+        loadTestButton.setSelection(md.getLastInvokeLoadTest());
+        loadTestButton.addSelectionListener(new SelectionAdapter() {
+            @Override
+            public void widgetSelected(SelectionEvent event) {
+                md.setLastInvokeLoadTest(loadTestButton.getSelection());
+                updateLoadTestControls();
+            }
+        });
+
+        newLabel(loadTestGroup, "Number of invocations:");
+        invocationsText = newText(loadTestGroup, md.getLastLoadTestInvocations().toString());
+        newLabel(loadTestGroup, "Concurrent invocations (max " + MAX_LOAD_TEST_CONCURRENCY + "):");
+        concurrencyText = newText(loadTestGroup, md.getLastLoadTestConcurrency().toString());
+        newLabel(loadTestGroup, "Target invocations per second (0 for no limit):");
+        rateText = newText(loadTestGroup, md.getLastLoadTestRate().toString());
+
+        ModifyListener settingsListener = new ModifyListener() {
+            public void modifyText(ModifyEvent e) {
+                updateLoadTestControls();
+            }
+        };
+        invocationsText.addModifyListener(settingsListener);
+        concurrencyText.addModifyListener(settingsListener);
+        rateText.addModifyListener(settingsListener);
+    }
+
+    /**
+     * Enables the load test settings when the load test is selected, and only
+     * allows invoking once all of them are valid.
+     */
+    private void updateLoadTestControls() {
+        boolean loadTest = loadTestButton.getSelection();
+        invocationsText.setEnabled(loadTest);
+        concurrencyText.setEnabled(loadTest);
+        rateText.setEnabled(loadTest);
+
+        Integer invocations = parseSetting(invocationsText, 1, Integer.MAX_VALUE);
+        Integer concurrency = parseSetting(concurrencyText, 1, MAX_LOAD_TEST_CONCURRENCY);
+        Integer rate = parseSetting(rateText, 0, Integer.MAX_VALUE);
+        boolean valid = invocations != null && concurrency != null && rate != null;
+        if (valid) {
+            md.setLastLoadTestInvocations(invocations);
+            md.setLastLoadTestConcurrency(concurrency);
+            md.setLastLoadTestRate(rate);
+        }
+
+        Button invokeButton = getButton(INVOKE_BUTTON_ID);
+        if (invokeButton != null) {
+            invokeButton.setEnabled(!loadTest || valid);
+        }
+    }
+
+    private static Integer parseSetting(Text text, int min, int max) {
+        try {
+            int value = Integer.parseInt(text.getText().trim());
+            return value >= min && value <= max ? value : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     @Override
     protected void createButtonsForButtonBar(Composite parent) {
         createButton(parent, INVOKE_BUTTON_ID, "Invoke", true);
         createButton(parent, IDialogConstants.CANCEL_ID,
                 IDialogConstants.CANCEL_LABEL, false);
+        updateLoadTestControls();
     }
 
     @Override
@@ -27,12 +27,20 @@ public class LambdaFunctionProjectMetadata {
     private static final String P_LAST_DEPLOYMENT_BUCKET_NAME = "lastDeploymentBucketName";
     private static final String P_LAST_INVOKE_INPUT = "lastInvokeInput";
     private static final String P_LAST_INVOKE_SHOW_LIVE_LOG = "lastInvokeShowLiveLog";
+    private static final String P_LAST_INVOKE_LOAD_TEST = "lastInvokeLoadTest";
+    private static final String P_LAST_LOAD_TEST_INVOCATIONS = "lastLoadTestInvocations";
+    private static final String P_LAST_LOAD_TEST_CONCURRENCY = "lastLoadTestConcurrency";
+    private static final String P_LAST_LOAD_TEST_RATE = "lastLoadTestRate";
 
     private String lastDeploymentEndpoint;
     private String lastDeploymentFunctionName;
     private String lastDeploymentBucketName;
     private String lastInvokeInput;
     private Boolean lastInvokeShowLiveLog;
+    private Boolean lastInvokeLoadTest;
+    private Integer lastLoadTestInvocations;
+    private Integer lastLoadTestConcurrency;
+    private Integer lastLoadTestRate;
 
     public String getLastDeploymentEndpoint() {
         return lastDeploymentEndpoint;
@@ -89,6 +97,38 @@ public class LambdaFunctionProjectMetadata {
         this.lastInvokeShowLiveLog = lastInvokeShowLiveLog;
     }
 
+    public Boolean getLastInvokeLoadTest() {
+        return lastInvokeLoadTest;
+    }
+
+    public void setLastInvokeLoadTest(Boolean lastInvokeLoadTest) {
+        this.lastInvokeLoadTest = lastInvokeLoadTest;
+    }
+
+    public Integer getLastLoadTestInvocations() {
+        return lastLoadTestInvocations;
+    }
+
+    public void setLastLoadTestInvocations(Integer lastLoadTestInvocations) {
+        this.lastLoadTestInvocations = lastLoadTestInvocations;
+    }
+
+    public Integer getLastLoadTestConcurrency() {
+        return lastLoadTestConcurrency;
+    }
+
+    public void setLastLoadTestConcurrency(Integer lastLoadTestConcurrency) {
+        this.lastLoadTestConcurrency = lastLoadTestConcurrency;
+    }
+
+    public Integer getLastLoadTestRate() {
+        return lastLoadTestRate;
+    }
+
+    public void setLastLoadTestRate(Integer lastLoadTestRate) {
+        this.lastLoadTestRate = lastLoadTestRate;
+    }
+
     public boolean isValid() {
         return isNotEmpty(lastDeploymentEndpoint)
                 && isNotEmpty(lastDeploymentFunctionName)
@@ -114,6 +154,18 @@ public class LambdaFunctionProjectMetadata {
         if (lastInvokeShowLiveLog != null) {
             props.setProperty(P_LAST_INVOKE_SHOW_LIVE_LOG, lastInvokeShowLiveLog.toString());
         }
+        if (lastInvokeLoadTest != null) {
+            props.setProperty(P_LAST_INVOKE_LOAD_TEST, lastInvokeLoadTest.toString());
+        }
+        if (lastLoadTestInvocations != null) {
+            props.setProperty(P_LAST_LOAD_TEST_INVOCATIONS, lastLoadTestInvocations.toString());
+        }
+        if (lastLoadTestConcurrency != null) {
+            props.setProperty(P_LAST_LOAD_TEST_CONCURRENCY, lastLoadTestConcurrency.toString());
+        }
+        if (lastLoadTestRate != null) {
+            props.setProperty(P_LAST_LOAD_TEST_RATE, lastLoadTestRate.toString());
+        }
 
         return props;
     }
@@ -129,10 +181,27 @@ public class LambdaFunctionProjectMetadata {
         Boolean showLiveLog = props.getProperty(P_LAST_INVOKE_SHOW_LIVE_LOG) == null ? null :
             Boolean.valueOf(props.getProperty(P_LAST_INVOKE_SHOW_LIVE_LOG));
         md.setLastInvokeShowLiveLog(showLiveLog);
+        Boolean loadTest = props.getProperty(P_LAST_INVOKE_LOAD_TEST) == null ? null :
+            Boolean.valueOf(props.getProperty(P_LAST_INVOKE_LOAD_TEST));
+        md.setLastInvokeLoadTest(loadTest);
+        md.setLastLoadTestInvocations(parseInteger(props.getProperty(P_LAST_LOAD_TEST_INVOCATIONS)));
+        md.setLastLoadTestConcurrency(parseInteger(props.getProperty(P_LAST_LOAD_TEST_CONCURRENCY)));
+        md.setLastLoadTestRate(parseInteger(props.getProperty(P_LAST_LOAD_TEST_RATE)));
 
         return md;
     }
 
+    private static Integer parseInteger(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
     private static boolean isNotEmpty(String arg) {
         return arg != null && !arg.isEmpty();
     }
@@ -29,8 +29,11 @@ import org.eclipse.jdt.core.ITypeHierarchy;
 import org.eclipse.jdt.core.JavaCore;
 import org.eclipse.jdt.core.JavaModelException;
 
+import com.amazonaws.AmazonServiceException;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
+import com.amazonaws.eclipse.core.s3.BucketRegionCache;
+import com.amazonaws.eclipse.core.s3.S3ArtifactUploader;
 import com.amazonaws.eclipse.lambda.LambdaAnalytics;
 import com.amazonaws.eclipse.lambda.LambdaPlugin;
 import com.amazonaws.eclipse.lambda.project.metadata.LambdaFunctionProjectMetadata;
@@ -75,14 +78,23 @@ public class UploadFunctionUtil {
 
         LambdaAnalytics.trackExportedJarSize(jarFile.length());
         long startTime = System.currentTimeMillis();
-        s3.putObject(bucketName, randomKeyName, jarFile);
+        try {
+            new S3ArtifactUploader(s3).upload(bucketName, randomKeyName, jarFile,
+                    monitor, (int)(totalUnitOfWork * 0.4));
+        } catch (AmazonServiceException ase) {
+            // The upload has already reported progress, so it isn't retried
+            // here; the next one goes to the bucket's actual region
+            if (BucketRegionCache.isWrongRegionError(ase)) {
+                AwsToolkitCore.getClientFactory().getBucketRegionCache()
+                        .invalidate(bucketName);
+            }
+            throw ase;
+        }
         long uploadTime = System.currentTimeMillis() - startTime;
 
         LambdaAnalytics.trackUploadS3BucketTime(uploadTime);
         LambdaAnalytics.trackUploadS3BucketSpeed((double)jarFile.length() / (double)uploadTime);
 
-        monitor.worked((int)(totalUnitOfWork * 0.4));
-
         String functionName;
         String functionArn;
 
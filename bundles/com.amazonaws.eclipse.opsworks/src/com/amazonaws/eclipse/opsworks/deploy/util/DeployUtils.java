@@ -2,6 +2,7 @@ package com.amazonaws.eclipse.opsworks.deploy.util;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.UUID;
@@ -12,6 +13,9 @@ import org.eclipse.core.runtime.Path;
 
 import com.amazonaws.eclipse.core.AwsToolkitCore;
 import com.amazonaws.eclipse.core.regions.ServiceAbbreviations;
+import com.amazonaws.eclipse.core.s3.S3ArtifactUploader;
+import com.amazonaws.eclipse.core.s3.S3ArtifactUploader.ArtifactWriter;
+import com.amazonaws.eclipse.core.util.ZipArchiveBuilder;
 import com.amazonaws.eclipse.opsworks.OpsWorksPlugin;
 import com.amazonaws.eclipse.opsworks.deploy.wizard.model.DeployProjectToOpsworksWizardDataModel;
 import com.amazonaws.services.opsworks.AWSOpsWorks;
@@ -26,21 +30,17 @@ import com.amazonaws.services.opsworks.model.DescribeAppsRequest;
 import com.amazonaws.services.opsworks.model.EnvironmentVariable;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.model.CannedAccessControlList;
-import com.amazonaws.services.s3.model.PutObjectRequest;
 
 public class DeployUtils {
 
-    public static File repackWarFileToZipFile(File warFile) throws IOException {
+    /**
+     * Unpacks the .war file to a temp directory, whose zip archive is
+     * uploaded instead of the .war file.
+     */
+    private static File unpackWarFileToTempDirectory(File warFile) throws IOException {
         File unpackDir = createTempDirectory();
-        File zipFile = File.createTempFile("eclipse-opsworks-content-zip-", null);
-
-        // Unpack the .war file to the temp directory
         unpackWarFile(warFile, unpackDir);
-
-        // Zip it
-        ZipUtils.createZipFileOfDirectory(unpackDir, zipFile);
-
-        return zipFile;
+        return unpackDir;
     }
 
     private static void unpackWarFile(File warFile, File targetDir) throws IOException {
@@ -159,9 +159,9 @@ public class DeployUtils {
         /*
          * https://forums.aws.amazon.com/thread.jspa?messageID=557948&tstart=0
          */
-        File zipArchive = null;
+        File unpackDir = null;
         try {
-            zipArchive = repackWarFileToZipFile(warFile);
+            unpackDir = unpackWarFileToTempDirectory(warFile);
         } catch (IOException e) {
             OpsWorksPlugin.getDefault().reportException(
                     "Error when packaging the web application into zip archive.", e);
@@ -170,7 +170,7 @@ public class DeployUtils {
         progressMonitor.worked(5);
 
         /*
-         * (3) Upload to S3
+         * (3) Zip the unpacked application straight into S3
          */
         String bucketName = dataModel.getS3ApplicationSource().getBucketName();
         String keyName = dataModel.getS3ApplicationSource().getKeyName();
@@ -182,17 +182,19 @@ public class DeployUtils {
         OpsWorksPlugin.getDefault().logInfo(
                 "Uploading zip file to S3 bucket [" + bucketName + "].");
 
-        PutObjectRequest putObjectRequest = new PutObjectRequest(bucketName, keyName, zipArchive);
-        if (dataModel.getS3ApplicationSource().isAsPublicHttpArchive()) {
-            putObjectRequest.setCannedAcl(CannedAccessControlList.PublicRead);
-        }
-        s3Client.putObject(putObjectRequest);
+        CannedAccessControlList cannedAcl = dataModel.getS3ApplicationSource().isAsPublicHttpArchive()
+                ? CannedAccessControlList.PublicRead : null;
+        final File zipContentDir = unpackDir;
+        new S3ArtifactUploader(s3Client).upload(bucketName, keyName, cannedAcl,
+                new ArtifactWriter() {
+                    public void writeTo(OutputStream out) throws IOException {
+                        new ZipArchiveBuilder().addDirectory(zipContentDir).writeTo(out);
+                    }
+                }, progressMonitor, 35);
 
         OpsWorksPlugin.getDefault().logInfo(
                 "Upload succeed. [s3://" + bucketName + "/" + keyName + "]");
 
-        progressMonitor.worked(35);
-
         /*
          * (4) CreateDeployment
          */
@@ -15,13 +15,12 @@ import com.amazonaws.eclipse.explorer.AWSResourcesRootElement;
 import com.amazonaws.eclipse.explorer.AbstractContentProvider;
 import com.amazonaws.eclipse.explorer.Loading;
 import com.amazonaws.eclipse.opsworks.ServiceAPIUtils;
+import com.amazonaws.eclipse.opsworks.explorer.StackContentsCache.StackContents;
 import com.amazonaws.eclipse.opsworks.explorer.node.AppsRootNode;
 import com.amazonaws.eclipse.opsworks.explorer.node.LayerElementNode;
 import com.amazonaws.eclipse.opsworks.explorer.node.LayersRootNode;
 import com.amazonaws.eclipse.opsworks.explorer.node.OpsWorksRootNode;
 import com.amazonaws.services.opsworks.AWSOpsWorks;
-import com.amazonaws.services.opsworks.model.App;
-import com.amazonaws.services.opsworks.model.Instance;
 import com.amazonaws.services.opsworks.model.Layer;
 import com.amazonaws.services.opsworks.model.Stack;
 
@@ -29,6 +28,8 @@ public class OpsWorksContentProvider extends AbstractContentProvider {
 
     private static OpsWorksContentProvider instance;
 
+    private final StackContentsCache stackContentsCache = new StackContentsCache();
+
     public OpsWorksContentProvider() {
         instance = this;
     }
@@ -88,17 +89,19 @@ public class OpsWorksContentProvider extends AbstractContentProvider {
                     AWSOpsWorks client = AwsToolkitCore.getClientFactory()
                             .getOpsWorksClient();
 
-                    List<Layer> layers = ServiceAPIUtils
-                            .getAllLayersInStack(client, stackId);
+                    StackContents contents = stackContentsCache
+                            .getStackContents(client, stackId);
+
                     List<LayerElementNode> layerNodes = new LinkedList<LayerElementNode>();
-                    for (Layer layer : layers) {
-                        layerNodes.add(new LayerElementNode(layer));
+                    for (Layer layer : contents.getLayers()) {
+                        LayerElementNode layerNode = new LayerElementNode(layer);
+                        layerNode.setInstancesInLayer(
+                                contents.getInstancesInLayer(layer.getLayerId()));
+                        layerNodes.add(layerNode);
                     }
                     LayersRootNode layersRoot = new LayersRootNode(layerNodes);
 
-                    List<App> apps = ServiceAPIUtils
-                            .getAllAppsInStack(client, stackId);
-                    AppsRootNode appsRoot = new AppsRootNode(apps);
+                    AppsRootNode appsRoot = new AppsRootNode(contents.getApps());
 
                     return new Object[] {appsRoot, layersRoot};
                 }
@@ -106,17 +109,8 @@ public class OpsWorksContentProvider extends AbstractContentProvider {
         }
 
         if (parentElement instanceof LayersRootNode) {
-            AWSOpsWorks client = AwsToolkitCore.getClientFactory()
-                    .getOpsWorksClient();
-
-            List<LayerElementNode> layerNodes = ((LayersRootNode)parentElement).getLayerNodes();
-            for (LayerElementNode layerNode : layerNodes) {
-                List<Instance> instances = ServiceAPIUtils
-                        .getAllInstancesInLayer(client, layerNode.getLayer().getLayerId());
-                layerNode.setInstancesInLayer(instances);
-            }
-
-            return layerNodes.toArray();
+            // Instances are already assigned when the stack is loaded
+            return ((LayersRootNode)parentElement).getLayerNodes().toArray();
         }
 
         if (parentElement instanceof LayerElementNode) {
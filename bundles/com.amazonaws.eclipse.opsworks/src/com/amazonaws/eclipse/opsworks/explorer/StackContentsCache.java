@@ -0,0 +1,146 @@
+package com.amazonaws.eclipse.opsworks.explorer;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import com.amazonaws.eclipse.opsworks.ServiceAPIUtils;
+import com.amazonaws.services.opsworks.AWSOpsWorks;
+import com.amazonaws.services.opsworks.model.App;
+import com.amazonaws.services.opsworks.model.Instance;
+import com.amazonaws.services.opsworks.model.Layer;
+
+/**
+ * Short-lived cache of the layers, apps and instances of OpsWorks stacks.
+ * <p>
+ * The three describe calls for a stack are made concurrently, and the
+ * instances of all layers are fetched with a single DescribeInstances call
+ * for the whole stack and partitioned by layer on the client, instead of one
+ * call per layer. Cached contents are kept across explorer refreshes until
+ * they expire, so refreshes triggered in quick succession do not reload every
+ * expanded stack.
+ */
+public class StackContentsCache {
+
+    /** How long (in milliseconds) the contents of a stack are reused */
+    private static final long TIME_TO_LIVE = 30 * 1000;
+
+    /** Runs the describe calls that are made alongside DescribeLayers */
+    private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(new ThreadFactory() {
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "OpsWorks stack loader");
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private final Map<String, StackContents> cache = new ConcurrentHashMap<String, StackContents>();
+
+    /**
+     * Returns the contents of the specified stack, loading them if they are
+     * not cached or the cached copy has expired.
+     */
+    public StackContents getStackContents(AWSOpsWorks client, String stackId) {
+        StackContents contents = cache.get(stackId);
+        if (contents == null || contents.isExpired()) {
+            contents = loadStackContents(client, stackId);
+            cache.put(stackId, contents);
+        }
+        return contents;
+    }
+
+    private StackContents loadStackContents(final AWSOpsWorks client, final String stackId) {
+        Future<List<App>> apps = EXECUTOR.submit(new Callable<List<App>>() {
+            public List<App> call() {
+                return ServiceAPIUtils.getAllAppsInStack(client, stackId);
+            }
+        });
+        Future<List<Instance>> instances = EXECUTOR.submit(new Callable<List<Instance>>() {
+            public List<Instance> call() {
+                return ServiceAPIUtils.getAllInstancesInStack(client, stackId);
+            }
+        });
+
+        try {
+            List<Layer> layers = ServiceAPIUtils.getAllLayersInStack(client, stackId);
+            return new StackContents(layers, apps.get(), instances.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while loading stack " + stackId, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException("Unable to load stack " + stackId, e.getCause());
+        } finally {
+            apps.cancel(true);
+            instances.cancel(true);
+        }
+    }
+
+    /**
+     * The layers, apps and per-layer instances of a stack at the time they
+     * were loaded.
+     */
+    public static class StackContents {
+
+        private final List<Layer> layers;
+        private final List<App> apps;
+        private final Map<String, List<Instance>> instancesByLayerId;
+        private final long loadTime = System.nanoTime();
+
+        StackContents(List<Layer> layers, List<App> apps, List<Instance> instances) {
+            this.layers = Collections.unmodifiableList(new ArrayList<Layer>(layers));
+            this.apps = Collections.unmodifiableList(new ArrayList<App>(apps));
+            this.instancesByLayerId = partitionByLayer(instances);
+        }
+
+        public List<Layer> getLayers() {
+            return layers;
+        }
+
+        public List<App> getApps() {
+            return apps;
+        }
+
+        /**
+         * Returns the instances in the specified layer; an instance that
+         * belongs to several layers is listed under each of them.
+         */
+        public List<Instance> getInstancesInLayer(String layerId) {
+            List<Instance> instances = instancesByLayerId.get(layerId);
+            return instances == null ? Collections.<Instance>emptyList() : instances;
+        }
+
+        boolean isExpired() {
+            return System.nanoTime() - loadTime > TimeUnit.MILLISECONDS.toNanos(TIME_TO_LIVE);
+        }
+
+        private static Map<String, List<Instance>> partitionByLayer(List<Instance> instances) {
+            Map<String, List<Instance>> instancesByLayerId = new HashMap<String, List<Instance>>();
+            for (Instance instance : instances) {
+                if (instance.getLayerIds() == null) continue;
+                for (String layerId : instance.getLayerIds()) {
+                    List<Instance> instancesInLayer = instancesByLayerId.get(layerId);
+                    if (instancesInLayer == null) {
+                        instancesInLayer = new LinkedList<Instance>();
+                        instancesByLayerId.put(layerId, instancesInLayer);
+                    }
+                    instancesInLayer.add(instance);
+                }
+            }
+            return instancesByLayerId;
+        }
+    }
+}
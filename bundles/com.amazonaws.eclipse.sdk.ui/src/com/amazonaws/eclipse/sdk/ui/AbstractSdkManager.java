@@ -16,13 +16,17 @@ package com.amazonaws.eclipse.sdk.ui;
 
 import java.io.EOFException;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.OutputStream;
+import java.net.HttpURLConnection;
 import java.net.URL;
-import java.net.URLConnection;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.LinkedList;
@@ -32,8 +36,8 @@ import java.util.regex.Pattern;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 
+import org.apache.commons.codec.binary.Hex;
 import org.apache.commons.io.FileUtils;
-import org.apache.commons.io.IOUtils;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
@@ -46,11 +50,11 @@ import org.eclipse.ui.progress.IProgressConstants;
 import com.amazonaws.AmazonClientException;
 import com.amazonaws.eclipse.core.AWSClientFactory;
 import com.amazonaws.eclipse.core.AwsToolkitCore;
+import com.amazonaws.eclipse.sdk.ui.RangedDownloadInputStream.RangeSource;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.ObjectMetadata;
-import com.amazonaws.services.s3.transfer.Download;
-import com.amazonaws.services.s3.transfer.TransferManager;
 
 /**
  * Abstract base class for managing installs of AWS SDKs. Concrete subclasses
@@ -58,6 +62,17 @@ import com.amazonaws.services.s3.transfer.TransferManager;
  */
 public abstract class AbstractSdkManager<X extends AbstractSdkInstall> {
 
+    /** Size of the byte ranges the SDK archive is downloaded in */
+    private static final int DOWNLOAD_RANGE_SIZE = 4 * 1024 * 1024;
+
+    /** Number of ranges of the SDK archive downloaded at the same time */
+    private static final int DOWNLOAD_PARALLELISM = 4;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /** ETags of objects not uploaded in parts are the MD5 of their content */
+    private static final Pattern MD5_ETAG_PATTERN = Pattern.compile("[0-9a-fA-F]{32}");
+
     private SdkDownloadJob installationJob = null;
     private final String cloudfrontDownloadUrl;
     private final String sdkBucketName;
@@ -67,6 +82,11 @@ public abstract class AbstractSdkManager<X extends AbstractSdkInstall> {
 
     private final SdkInstallFactory<X> sdkInstallFactory;
 
+    /** The installs found when the install directory was last listed; guarded by this */
+    private List<X> sdkInstallCandidates;
+    private File sdkInstallCandidatesDir;
+    private long sdkInstallCandidatesStamp;
+
 
     /**
      * Constructs a new SDK manager that can be used to list SDK installs and
@@ -128,13 +148,9 @@ public abstract class AbstractSdkManager<X extends AbstractSdkInstall> {
         List<X> sdkInstalls = new LinkedList<X>();
 
         try {
-            File sdkDir = getSDKInstallDir();
-            if ( sdkDir.exists() && sdkDir.isDirectory() ) {
-                for ( File versionDir : sdkDir.listFiles() ) {
-                    X sdkInstall = sdkInstallFactory.createSdkInstallFromDisk(versionDir);
-                    if ( sdkInstall.isValidSdkInstall() )
-                        sdkInstalls.add(sdkInstall);
-                }
+            for ( X sdkInstall : getSdkInstallCandidates(getSDKInstallDir()) ) {
+                if ( sdkInstall.isValidSdkInstall() )
+                    sdkInstalls.add(sdkInstall);
             }
 
             return sdkInstalls;
@@ -144,6 +160,36 @@ public abstract class AbstractSdkManager<X extends AbstractSdkInstall> {
         }
     }
 
+    /**
+     * Returns an install for each directory in the SDK install directory. The
+     * directory is only listed again when its modification stamp changes; the
+     * metadata of each install is cached by the {@link SdkInstallRegistry}.
+     */
+    private List<X> getSdkInstallCandidates(File sdkDir) {
+        long stamp = sdkDir.lastModified();
+        synchronized ( this ) {
+            if ( sdkInstallCandidates != null && sdkDir.equals(sdkInstallCandidatesDir)
+                    && stamp == sdkInstallCandidatesStamp )
+                return sdkInstallCandidates;
+        }
+
+        List<X> candidates = new ArrayList<X>();
+        File[] versionDirs = sdkDir.isDirectory() ? sdkDir.listFiles() : null;
+        if ( versionDirs != null ) {
+            for ( File versionDir : versionDirs ) {
+                candidates.add(sdkInstallFactory.createSdkInstallFromDisk(versionDir));
+            }
+        }
+        candidates = Collections.unmodifiableList(candidates);
+
+        synchronized ( this ) {
+            sdkInstallCandidates = candidates;
+            sdkInstallCandidatesDir = sdkDir;
+            sdkInstallCandidatesStamp = stamp;
+        }
+        return candidates;
+    }
+
     /**
      * Returns the default SDK install, which is the latest
      * available, or null if no SDKs are available yet.
@@ -159,30 +205,6 @@ public abstract class AbstractSdkManager<X extends AbstractSdkInstall> {
         return null;
     }
 
-    /**
-     * Copies the SDK given into the workspace's private state storage for this
-     * plugin.
-     */
-    private void copySdk(AbstractSdkInstall install, IProgressMonitor monitor) {
-        monitor.subTask("Copying SDK to workspace metadata");
-        try {
-            File sdkDir = getSDKInstallDir();
-            File versionDir = new File(sdkDir, install.getVersion());
-
-            if ( versionDir.exists() && sdkInstallFactory.createSdkInstallFromDisk(versionDir).isValidSdkInstall() )
-                return;
-            if ( !versionDir.exists() && !versionDir.mkdirs() )
-                throw new Exception("Couldn't make SDK directory " + versionDir);
-
-            FileUtils.copyDirectory(install.getRootDirectory(), versionDir);
-            monitor.worked(20);
-        } catch ( IllegalStateException e ) {
-            JavaSdkPlugin.getDefault().logWarning("No state directory to cache SDK", e);
-        } catch ( Exception e ) {
-            JavaSdkPlugin.getDefault().logError("Failed to copy Aws Java Sdk.", e);
-        }
-    }
-
     /**
      * Returns the version number of the latest SDK in the publicly readable S3 bucket.
      */
@@ -306,221 +328,271 @@ public abstract class AbstractSdkManager<X extends AbstractSdkInstall> {
     abstract protected File getSDKInstallDir();
 
     /**
-     * Downloads the latest copy of the SDK from s3 and caches it in the workspace metadata directory
+     * Downloads the latest copy of the SDK and installs it in the SDK install
+     * directory in a single pass: the archive is downloaded in parallel
+     * ranges and extracted as it arrives into a staging directory next to the
+     * installed versions, then moved into place once its content hash is
+     * verified.
      */
     private void downloadAndInstallSDK(IProgressMonitor monitor) throws IOException {
-
-        File tempFile = File.createTempFile(sdkFilenamePrefix, "");
-        tempFile.delete();
-        tempFile.mkdirs();
-        File zipFile = new File(tempFile, "sdk.zip");
-
-        /*
-         *  60 units for SDK download
-         */
+        File sdkDir;
         try {
-            downloadSdkFromCloudFront(zipFile, monitor, 60);
-
-        } catch (Exception e) {
-            JavaSdkPlugin.getDefault().logInfo("Fall back to S3 download.");
-            downloadSdkFromS3(zipFile, monitor, 60);
+            sdkDir = getSDKInstallDir();
+        } catch ( IllegalStateException e ) {
+            JavaSdkPlugin.getDefault().logWarning("No state directory to cache SDK", e);
+            return;
         }
+        if ( !sdkDir.exists() && !sdkDir.mkdirs() )
+            throw new IOException("Couldn't make SDK directory " + sdkDir);
 
-        JavaSdkPlugin.getDefault().logInfo("SDK download completes. Location: " + zipFile.getAbsolutePath() + ", " +
-                "File-length: " + zipFile.length());
-
-        /*
-         *  20 units for unzipping
-         */
-        File unzippedDir = new File(tempFile, "unzipped");
-        unzipSDK(zipFile, unzippedDir, monitor, 20);
-
+        // Staged in the install directory so the final move is a rename
+        File stagingDir = new File(sdkDir, ".download-" + System.currentTimeMillis());
 
-        File sdkDir = unzippedDir.listFiles()[0];
-        AbstractSdkInstall latest = sdkInstallFactory.createSdkInstallFromDisk(sdkDir);
+        try {
+            /*
+             *  80 units for SDK download and extraction
+             */
+            try {
+                downloadAndExtractSdk(getCloudFrontArchive(), stagingDir, monitor, 80);
+            } catch (Exception e) {
+                JavaSdkPlugin.getDefault().logInfo("Fall back to S3 download.");
+                FileUtils.deleteDirectory(stagingDir);
+                downloadAndExtractSdk(getS3Archive(), stagingDir, monitor, 80);
+            }
 
-        copySdk(latest, monitor);
+            /*
+             *  20 units for installing
+             */
+            installExtractedSdk(stagingDir, sdkDir, monitor, 20);
+        } finally {
+            FileUtils.deleteQuietly(stagingDir);
+        }
     }
 
-    private void downloadSdkFromCloudFront(File destination,
-            IProgressMonitor monitor, int totalUnitsOfWork)
-            throws IOException {
+    private SdkArchive getCloudFrontArchive() throws IOException {
         if (cloudfrontDownloadUrl == null) {
             throw new IllegalStateException("No CloudFront endpoint is provided.");
         }
 
-        monitor.subTask("Downloading latest SDK from CloudFront");
-
-        JavaSdkPlugin.getDefault().logInfo("Downloading the SDK from CloudFront to location "
-                + destination.getAbsolutePath());
-
-        URL sourceUrl = new URL(cloudfrontDownloadUrl);
-        URLConnection connection = sourceUrl.openConnection();
-
-        long totalBytes;
-        String contentLength = connection.getHeaderField("Content-Length");
-        try {
-            totalBytes = Long.parseLong(contentLength);
-        } catch (NumberFormatException e) {
-            totalBytes = -1;
-        }
-
-        InputStream input = connection.getInputStream();
+        final URL sourceUrl = new URL(cloudfrontDownloadUrl);
+        HttpURLConnection connection = (HttpURLConnection) sourceUrl.openConnection();
         try {
-            FileOutputStream output = new FileOutputStream(destination);
-            try {
-                copyWithProgressMonitor(input, output, monitor,
-                        totalUnitsOfWork, totalBytes);
-            } finally {
-                IOUtils.closeQuietly(output);
+            connection.setRequestMethod("HEAD");
+            if (connection.getResponseCode() != HttpURLConnection.HTTP_OK) {
+                throw new IOException("Unexpected response " + connection.getResponseCode()
+                        + " from " + sourceUrl);
+            }
+            long totalBytes = connection.getContentLengthLong();
+            if (totalBytes <= 0) {
+                throw new IOException("No content length returned by " + sourceUrl);
             }
+
+            return new SdkArchive("CloudFront", totalBytes, connection.getHeaderField("ETag"),
+                    new RangeSource() {
+                        public InputStream openRange(long first, long last) throws IOException {
+                            HttpURLConnection rangeConnection = (HttpURLConnection) sourceUrl.openConnection();
+                            rangeConnection.setRequestProperty("Range", "bytes=" + first + "-" + last);
+                            if (rangeConnection.getResponseCode() != HttpURLConnection.HTTP_PARTIAL) {
+                                rangeConnection.disconnect();
+                                throw new IOException("Range requests are not supported by " + sourceUrl);
+                            }
+                            return rangeConnection.getInputStream();
+                        }
+                    });
         } finally {
-            IOUtils.closeQuietly(input);
+            connection.disconnect();
         }
+    }
 
-        if ( !destination.exists() ) {
-            throw new IllegalStateException(
-                    destination.getAbsolutePath() + " does not exist " +
-                    "after the SDK download completes.");
-        }
+    private SdkArchive getS3Archive() {
+        final AmazonS3 client = AWSClientFactory.getAnonymousS3Client();
+        final String key = "latest/" + sdkFilenamePrefix + ".zip";
+
+        ObjectMetadata objectMetadata = client.getObjectMetadata(sdkBucketName, key);
+        return new SdkArchive("S3", objectMetadata.getContentLength(), objectMetadata.getETag(),
+                new RangeSource() {
+                    public InputStream openRange(long first, long last) throws IOException {
+                        try {
+                            return client.getObject(new GetObjectRequest(sdkBucketName, key)
+                                    .withRange(first, last)).getObjectContent();
+                        } catch (AmazonClientException e) {
+                            throw new IOException("Unable to download SDK from S3", e);
+                        }
+                    }
+                });
     }
 
-    private static void copyWithProgressMonitor(InputStream input, OutputStream output,
-            IProgressMonitor monitor, int totalUnitsOfWork, long totalBytes)
-            throws IOException {
+    /**
+     * Downloads the SDK archive and extracts it into the staging directory as
+     * the bytes arrive, then checks the length and content hash of what was
+     * downloaded.
+     */
+    private void downloadAndExtractSdk(SdkArchive archive, File stagingDir,
+            IProgressMonitor monitor, int totalUnitsOfWork) throws IOException {
 
-        byte[] buffer = new byte[1024 * 8];
-        int n = 0;
-        long workedBytes = 0;
+        monitor.subTask("Downloading latest SDK from " + archive.description);
 
-        int workedUnits = 0;
+        JavaSdkPlugin.getDefault().logInfo("Downloading the SDK from " + archive.description
+                + " and extracting it to location " + stagingDir.getAbsolutePath());
 
-        while (-1 != (n = input.read(buffer))) {
-            output.write(buffer, 0, n);
-            workedBytes += n;
+        MessageDigest md5;
+        try {
+            md5 = MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is not supported", e);
+        }
 
-            if (totalBytes > 0 && workedUnits < totalUnitsOfWork) {
-                int newWork = (int)(workedBytes * totalUnitsOfWork / (double)totalBytes) - workedUnits;
-                if (newWork > 0) {
-                    monitor.worked(newWork);
-                    workedUnits += newWork;
-                }
-            }
+        RangedDownloadInputStream download = new RangedDownloadInputStream(archive.source,
+                archive.totalBytes, DOWNLOAD_RANGE_SIZE, DOWNLOAD_PARALLELISM);
+        try {
+            InputStream input = new DigestInputStream(download, md5);
+            unzipSDK(new ZipInputStream(input), stagingDir, download, archive.totalBytes,
+                    monitor, totalUnitsOfWork);
+
+            // The zip stream stops at the central directory; read the rest of
+            // the archive so that it is part of the hash
+            byte[] buffer = new byte[BUFFER_SIZE];
+            while (input.read(buffer) != -1);
+        } finally {
+            download.close();
         }
 
-        if (workedBytes != totalBytes) {
+        if (download.getBytesRead() != archive.totalBytes) {
             throw new IllegalStateException(
                     String.format(
                             "Data length (%d bytes) doesn't match the content-length (%d bytes).",
-                            workedBytes, totalBytes));
+                            download.getBytesRead(), archive.totalBytes));
         }
+        verifyContentHash(archive, md5.digest());
 
-        if (workedUnits < totalUnitsOfWork) {
-            monitor.worked(totalUnitsOfWork - workedUnits);
-        }
+        JavaSdkPlugin.getDefault().logInfo("SDK download completes. Source: " + archive.description + ", " +
+                "File-length: " + archive.totalBytes);
     }
 
-    private void downloadSdkFromS3(File destination, IProgressMonitor monitor, int totalUnitsOfWork) {
-        AmazonS3 client = AWSClientFactory.getAnonymousS3Client();
+    /**
+     * Compares the hash of the downloaded archive with its ETag, which is the
+     * MD5 of the content for objects that were not uploaded in parts.
+     */
+    private static void verifyContentHash(SdkArchive archive, byte[] md5) throws IOException {
+        String eTag = archive.eTag == null ? null : archive.eTag.replace("\"", "");
+        if (eTag == null || !MD5_ETAG_PATTERN.matcher(eTag).matches()) {
+            JavaSdkPlugin.getDefault().logInfo("No content hash available for the SDK download from "
+                    + archive.description + " (ETag: " + archive.eTag + ")");
+            return;
+        }
 
-        TransferManager manager = new TransferManager(client);
+        String actual = Hex.encodeHexString(md5);
+        if (!actual.equalsIgnoreCase(eTag)) {
+            throw new IOException("Content hash of the SDK download from " + archive.description
+                    + " (" + actual + ") doesn't match its ETag (" + eTag + ")");
+        }
+    }
 
-        try {
-            JavaSdkPlugin.getDefault().logInfo("Downloading the SDK from S3 to location "
-                                    + destination.getAbsolutePath());
+    /**
+     * Moves the SDK extracted in the staging directory into its version
+     * directory, unless that version is already installed.
+     */
+    private void installExtractedSdk(File stagingDir, File sdkDir,
+            IProgressMonitor monitor, int totalUnitsOfWork) throws IOException {
 
-            Download download = manager.download(sdkBucketName, "latest/" + sdkFilenamePrefix + ".zip", destination);
+        monitor.subTask("Installing SDK");
 
-            monitor.subTask("Downloading latest SDK from S3");
-            int worked = 0;
-            int unitWorkInBytes = (int) (download.getProgress().getTotalBytesToTransfer() / totalUnitsOfWork);
+        File[] extractedDirs = stagingDir.listFiles();
+        if ( extractedDirs == null || extractedDirs.length != 1 || !extractedDirs[0].isDirectory() )
+            throw new IOException("Unexpected layout of the SDK archive in " + stagingDir);
 
-            while ( !download.isDone() ) {
-                if ( download.getProgress().getBytesTransferred() / unitWorkInBytes > worked ) {
-                    int newWork = (int) (download.getProgress().getBytesTransferred() / unitWorkInBytes) - worked;
-                    monitor.worked(newWork);
-                    worked += newWork;
-                }
-            }
-            if ( worked < totalUnitsOfWork )
-                monitor.worked(totalUnitsOfWork - worked);
+        AbstractSdkInstall latest = sdkInstallFactory.createSdkInstallFromDisk(extractedDirs[0]);
+        if ( !latest.isValidSdkInstall() )
+            throw new IOException("The downloaded SDK is not a valid SDK install");
 
-            AmazonClientException ace;
-            try {
-                if ( (ace = download.waitForException()) != null) {
-                    throw ace;
-                }
-            } catch (InterruptedException e) {
-                throw new IllegalStateException(
-                        "The SDK download should have already been completed " +
-                        "when waitForException was called, and the method should always " +
-                        "directly return.",
-                        e);
-            }
-
-            if ( !destination.exists() ) {
-                throw new IllegalStateException(
-                        destination.getAbsolutePath() + " does not exist " +
-                        "after the SDK download completes.");
+        File versionDir = new File(sdkDir, latest.getVersion());
+        if ( versionDir.exists() ) {
+            if ( sdkInstallFactory.createSdkInstallFromDisk(versionDir).isValidSdkInstall() ) {
+                monitor.worked(totalUnitsOfWork);
+                return;
             }
-
-        } finally {
-            // Leave the shared anonymous s3 client open
-            manager.shutdownNow(false);
+            FileUtils.deleteDirectory(versionDir);
         }
+
+        Files.move(extractedDirs[0].toPath(), versionDir.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        monitor.worked(totalUnitsOfWork);
     }
 
-    private void unzipSDK(File zipFile, File unzipDestination,
+    private void unzipSDK(ZipInputStream zipInputStream, File unzipDestination,
+            RangedDownloadInputStream download, long totalBytes,
             IProgressMonitor monitor, int totalUnitsOfWork) throws IOException {
 
-        ZipInputStream zipInputStream = new ZipInputStream(new FileInputStream(zipFile));
-
-        monitor.subTask("Extracting SDK to workspace metadata directory");
-
+        String destinationPath = unzipDestination.getCanonicalPath() + File.separator;
+        byte[] buffer = new byte[BUFFER_SIZE];
         int worked = 0;
-        long totalSize = zipFile.length();
-        long totalUnzipped = 0;
-        int unitWorkInBytes = (int) (totalSize / (double)totalUnitsOfWork);
 
         ZipEntry zipEntry = null;
+        while ((zipEntry = zipInputStream.getNextEntry()) != null) {
+            IPath path = new Path(zipEntry.getName());
 
-        try {
-            while ((zipEntry = zipInputStream.getNextEntry()) != null) {
-                IPath path = new Path(zipEntry.getName());
-
-                File destinationFile = new File(unzipDestination, path.toOSString());
-                if ( zipEntry.isDirectory() ) {
-                    destinationFile.mkdirs();
-                } else {
-                    long compressedSize = zipEntry.getCompressedSize();
-
-                    FileOutputStream outputStream = new FileOutputStream(destinationFile);
-                    try {
-                        IOUtils.copy(zipInputStream, outputStream);
-                    } catch (EOFException eof) {
-                        /*
-                         * There is a bug in ZipInputStream, where it might
-                         * incorrectly throw EOFException if the read exceeds
-                         * the current zip-entry size.
-                         *
-                         * http://bugs.java.com/bugdatabase/view_bug.do?bug_id=6519463
-                         */
-                        JavaSdkPlugin.getDefault().logWarning("Ignore EOFException when unpacking zip-entry " +
-                                            zipEntry.getName(), eof);
-                    }
-                    outputStream.close();
+            File destinationFile = new File(unzipDestination, path.toOSString());
+            if ( !destinationFile.getCanonicalPath().startsWith(destinationPath) ) {
+                throw new IOException("Zip entry " + zipEntry.getName() + " is outside of the target directory");
+            }
 
-                    totalUnzipped += compressedSize;
-                    if (totalUnzipped / unitWorkInBytes > worked) {
-                        int newWork = (int) (totalUnzipped / (double)unitWorkInBytes) - worked;
-                        monitor.worked(newWork);
-                        worked += newWork;
+            if ( zipEntry.isDirectory() ) {
+                destinationFile.mkdirs();
+            } else {
+                destinationFile.getParentFile().mkdirs();
+
+                FileOutputStream outputStream = new FileOutputStream(destinationFile);
+                try {
+                    int n;
+                    while ((n = zipInputStream.read(buffer)) != -1) {
+                        outputStream.write(buffer, 0, n);
+                        worked = reportProgress(monitor, download.getBytesRead(), totalBytes,
+                                totalUnitsOfWork, worked);
                     }
+                } catch (EOFException eof) {
+                    /*
+                     * There is a bug in ZipInputStream, where it might
+                     * incorrectly throw EOFException if the read exceeds
+                     * the current zip-entry size.
+                     *
+                     * http://bugs.java.com/bugdatabase/view_bug.do?bug_id=6519463
+                     */
+                    JavaSdkPlugin.getDefault().logWarning("Ignore EOFException when unpacking zip-entry " +
+                                        zipEntry.getName(), eof);
+                } finally {
+                    outputStream.close();
                 }
             }
+        }
 
-        } finally {
-            zipInputStream.close();
+        if (worked < totalUnitsOfWork) {
+            monitor.worked(totalUnitsOfWork - worked);
+        }
+    }
+
+    private static int reportProgress(IProgressMonitor monitor, long workedBytes, long totalBytes,
+            int totalUnitsOfWork, int workedUnits) {
+        int newWork = (int) (workedBytes * totalUnitsOfWork / (double) totalBytes) - workedUnits;
+        if (newWork > 0 && workedUnits < totalUnitsOfWork) {
+            monitor.worked(newWork);
+            return workedUnits + newWork;
+        }
+        return workedUnits;
+    }
+
+    /**
+     * A remote copy of the SDK archive.
+     */
+    private static final class SdkArchive {
+        private final String description;
+        private final long totalBytes;
+        private final String eTag;
+        private final RangeSource source;
+
+        SdkArchive(String description, long totalBytes, String eTag, RangeSource source) {
+            this.description = description;
+            this.totalBytes = totalBytes;
+            this.eTag = eTag;
+            this.source = source;
         }
     }
-}
\ No newline at end of file
+}
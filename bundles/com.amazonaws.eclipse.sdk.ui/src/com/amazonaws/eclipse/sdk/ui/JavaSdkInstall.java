@@ -20,15 +20,16 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.Path;
 
+import com.amazonaws.eclipse.sdk.ui.SdkInstallRegistry.InstallMetadata;
+import com.amazonaws.eclipse.sdk.ui.SdkInstallRegistry.SampleMetadata;
+
 /**
  * Represents an installed version of the AWS SDK for Java. Provides utilities for
  * accessing parts of the AWS SDK for Java and validating the SDK install.
@@ -41,6 +42,9 @@ public class JavaSdkInstall extends AbstractSdkInstall {
     /** The third-party library directory within this SDK install */
     protected File thirdPartyDirectory;
 
+    /** The samples directory within this SDK install */
+    protected File samplesDirectory;
+
     /** File name for pulling properties about sample code */
     protected static final String SAMPLE_PROPERTIES_FILENAME = "sample.properties";
 
@@ -59,6 +63,7 @@ public class JavaSdkInstall extends AbstractSdkInstall {
         super(sdkRootDirectory);
         libDirectory = new File(sdkRootDirectory, "lib");
         thirdPartyDirectory = new File(sdkRootDirectory, "third-party");
+        samplesDirectory = new File(sdkRootDirectory, "samples");
     }
 
     /**
@@ -69,7 +74,7 @@ public class JavaSdkInstall extends AbstractSdkInstall {
      */
     @Override
     public boolean isValidSdkInstall() {
-        return sdkRootDirectory.exists() && libDirectory.exists() && thirdPartyDirectory.exists();
+        return getMetadata().isValid();
     }
 
     /**
@@ -78,14 +83,13 @@ public class JavaSdkInstall extends AbstractSdkInstall {
      * @return The Jar file containing the SDK classes.
      */
     public File getSdkJar() throws FileNotFoundException {
-        File[] files = libDirectory
-                .listFiles(new FilenameFilters.SdkLibraryJarFilenameFilter());
-        if (files == null || files.length != 1) {
+        String sdkJar = getMetadata().getSdkJar();
+        if (sdkJar == null) {
             throw new FileNotFoundException(
-                    "Could not uniquely identify an SDK jar in"
-                            + this.libDirectory + ".  Found: " + files);
+                    "Could not uniquely identify an SDK jar in "
+                            + this.libDirectory);
         }
-        return files[0];
+        return new File(sdkJar);
     }
 
     /**
@@ -94,11 +98,7 @@ public class JavaSdkInstall extends AbstractSdkInstall {
      * @return the URL of the local JavaDoc API Reference for this version of the AWS SDK for Java.
      */
     public String getJavadocURL() {
-        File documentationDir = new File(getRootDirectory(), "documentation");
-        File javadocDir = new File(documentationDir, "javadoc");
-        if (!javadocDir.exists()) return null;
-
-        return javadocDir.toURI().toString();
+        return getMetadata().getJavadocUrl();
     }
 
     /**
@@ -107,12 +107,11 @@ public class JavaSdkInstall extends AbstractSdkInstall {
      * @return The Jar file containing the SDK source.
      */
     public File getSdkSourceJar() throws FileNotFoundException {
-        File[] files = libDirectory.listFiles(
-                new FilenameFilters.SdkSourceJarFilenameFilter());
-        if (files == null || files.length == 0) {
+        String sdkSourceJar = getMetadata().getSdkSourceJar();
+        if (sdkSourceJar == null) {
             throw new FileNotFoundException("Could not find an SDK source Jar");
         }
-        return files[0];
+        return new File(sdkSourceJar);
     }
 
     /**
@@ -124,15 +123,9 @@ public class JavaSdkInstall extends AbstractSdkInstall {
      */
     public List<File> getThirdPartyJars() {
         List<File> thirdPartyJars = new ArrayList<File>();
-        // Search each subdirectory of the third-party directory
-        // for included third-party jars
-        for (File file : thirdPartyDirectory.listFiles()) {
-            if (!file.isDirectory()) continue;
-
-            thirdPartyJars.addAll(Arrays.asList(
-                    file.listFiles(new FilenameFilters.JarFilenameFilter())));
+        for (String path : getMetadata().getThirdPartyJars()) {
+            thirdPartyJars.add(new File(path));
         }
-
         return thirdPartyJars;
     }
 
@@ -142,9 +135,70 @@ public class JavaSdkInstall extends AbstractSdkInstall {
      * @return The version identifier for this SDK install, if known.
      */
     public String getVersion() {
+        return getMetadata().getVersion();
+    }
+
+    /**
+     * Returns a list of samples included in this SDK install.
+     *
+     * @return A list of samples included in this SDK install.
+     */
+    public List<SdkSample> getSamples() {
+        List<SdkSample> samples = new ArrayList<SdkSample>();
+        for (SampleMetadata sample : getMetadata().getSamples()) {
+            samples.add(new SdkSample(sample.getName(), sample.getDescription(), new Path(sample.getPath())));
+        }
+        return samples;
+    }
+
+    /**
+     * Returns a stamp of the directories of this install that changes when
+     * jars or samples are added or removed.
+     */
+    String getStamp() {
+        return sdkRootDirectory.lastModified() + ":" + libDirectory.lastModified() + ":"
+                + thirdPartyDirectory.lastModified() + ":" + samplesDirectory.lastModified();
+    }
+
+    /**
+     * Reads the metadata of this install from disk. Called by the
+     * {@link SdkInstallRegistry} when the install is new or has changed.
+     */
+    InstallMetadata scan() {
+        InstallMetadata metadata = new InstallMetadata();
+        metadata.setStamp(getStamp());
+        metadata.setValid(sdkRootDirectory.exists() && libDirectory.exists() && thirdPartyDirectory.exists());
+
+        File[] sdkJars = libDirectory.listFiles(new FilenameFilters.SdkLibraryJarFilenameFilter());
+        if (sdkJars != null && sdkJars.length == 1) {
+            metadata.setSdkJar(sdkJars[0].getAbsolutePath());
+        }
+
+        File[] sdkSourceJars = libDirectory.listFiles(new FilenameFilters.SdkSourceJarFilenameFilter());
+        if (sdkSourceJars != null && sdkSourceJars.length > 0) {
+            metadata.setSdkSourceJar(sdkSourceJars[0].getAbsolutePath());
+        }
+
+        File documentationDir = new File(getRootDirectory(), "documentation");
+        File javadocDir = new File(documentationDir, "javadoc");
+        if (javadocDir.exists()) {
+            metadata.setJavadocUrl(javadocDir.toURI().toString());
+        }
+
+        metadata.setVersion(readVersion(metadata.getSdkJar()));
+        metadata.setThirdPartyJars(scanThirdPartyJars());
+        metadata.setSamples(scanSamples());
+        return metadata;
+    }
+
+    private String readVersion(String sdkJar) {
+        if (sdkJar == null) return "Unknown";
+
+        JarFile jarFile = null;
         try {
-            JarFile jarFile = new JarFile(getSdkJar());
+            jarFile = new JarFile(sdkJar);
             ZipEntry zipEntry = jarFile.getEntry(VERSION_INFO_PROPERTIES_PATH);
+            if (zipEntry == null) return "Unknown";
 
             Properties properties = new Properties();
             properties.load(jarFile.getInputStream(zipEntry));
@@ -152,24 +206,40 @@ public class JavaSdkInstall extends AbstractSdkInstall {
             return properties.getProperty("version");
         } catch (IOException e) {
             e.printStackTrace();
+        } finally {
+            if (jarFile != null) {
+                try {jarFile.close();} catch (IOException e) {}
+            }
         }
 
         return "Unknown";
     }
 
-    /**
-     * Returns a list of samples included in this SDK install.
-     *
-     * @return A list of samples included in this SDK install.
-     */
-    public List<SdkSample> getSamples() {
-        IPath rootDirectoryPath = new Path(getRootDirectory().getAbsolutePath());
-        IPath samplesPath = rootDirectoryPath.append("samples");
+    private List<String> scanThirdPartyJars() {
+        List<String> thirdPartyJars = new ArrayList<String>();
+        File[] thirdPartyDirectories = thirdPartyDirectory.listFiles();
+        if (thirdPartyDirectories == null) return thirdPartyJars;
+
+        // Search each subdirectory of the third-party directory
+        // for included third-party jars
+        for (File file : thirdPartyDirectories) {
+            if (!file.isDirectory()) continue;
 
-        File[] sampleDirectories = samplesPath.toFile().listFiles(
+            File[] jars = file.listFiles(new FilenameFilters.JarFilenameFilter());
+            if (jars == null) continue;
+            for (File jar : jars) {
+                thirdPartyJars.add(jar.getAbsolutePath());
+            }
+        }
+
+        return thirdPartyJars;
+    }
+
+    private List<SampleMetadata> scanSamples() {
+        File[] sampleDirectories = samplesDirectory.listFiles(
                 new SdkSampleDirectoryFilter());
 
-        List<SdkSample> samples = new ArrayList<SdkSample>();
+        List<SampleMetadata> samples = new ArrayList<SampleMetadata>();
         if (sampleDirectories == null || sampleDirectories.length == 0) {
             return samples;
         }
@@ -180,10 +250,10 @@ public class JavaSdkInstall extends AbstractSdkInstall {
                 inputStream = new FileInputStream(new File(file, SAMPLE_PROPERTIES_FILENAME));
                 Properties properties = new Properties();
                 properties.load(inputStream);
-                samples.add(new SdkSample(
+                samples.add(new SampleMetadata(
                         properties.getProperty("name"),
                         properties.getProperty("description"),
-                        new Path(file.getAbsolutePath())));
+                        file.getAbsolutePath()));
             } catch (IOException e) {
                 e.printStackTrace();
             } finally {
@@ -194,6 +264,10 @@ public class JavaSdkInstall extends AbstractSdkInstall {
         return samples;
     }
 
+    private InstallMetadata getMetadata() {
+        return SdkInstallRegistry.getInstance().getMetadata(this);
+    }
+
 
     /*
      * Private Interface
@@ -0,0 +1,205 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.sdk.ui;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.LinkedList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Input stream over a remote object that is downloaded as fixed-size byte
+ * ranges fetched in parallel. Ranges are returned in order, so the stream can
+ * be consumed as it arrives; at most one window of ranges is buffered in
+ * memory ahead of the reader.
+ * <p>
+ * A range whose transfer fails is requested again starting from the first
+ * byte that was not received yet, up to a fixed number of attempts.
+ */
+class RangedDownloadInputStream extends InputStream {
+
+    /** Source of the byte ranges of a remote object */
+    interface RangeSource {
+        /**
+         * Opens a stream over the bytes from first to last, inclusive.
+         */
+        InputStream openRange(long first, long last) throws IOException;
+    }
+
+    private static final int MAX_ATTEMPTS_PER_RANGE = 5;
+    private static final long RETRY_DELAY_MILLIS = 500;
+
+    private final RangeSource source;
+    private final long length;
+    private final int rangeSize;
+    private final int rangeCount;
+    private final ExecutorService executor;
+
+    /** Ranges requested but not consumed yet, in order */
+    private final LinkedList<Future<byte[]>> pendingRanges = new LinkedList<Future<byte[]>>();
+    private int nextRangeToRequest;
+
+    private byte[] currentRange;
+    private int positionInRange;
+    private long bytesRead;
+    private boolean closed;
+
+    /**
+     * @param source
+     *            The source of the object's bytes.
+     * @param length
+     *            The length of the object, in bytes.
+     * @param rangeSize
+     *            The size of each requested range, in bytes.
+     * @param parallelism
+     *            The number of ranges downloaded at the same time.
+     */
+    RangedDownloadInputStream(RangeSource source, long length, int rangeSize, int parallelism) {
+        this.source = source;
+        this.length = length;
+        this.rangeSize = rangeSize;
+        this.rangeCount = (int) ((length + rangeSize - 1) / rangeSize);
+        this.executor = Executors.newFixedThreadPool(parallelism, new ThreadFactory() {
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "SDK download");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        for (int i = 0; i < parallelism; i++) {
+            requestNextRange();
+        }
+    }
+
+    /** Returns the number of bytes returned to the reader so far */
+    long getBytesRead() {
+        return bytesRead;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!ensureCurrentRange()) return -1;
+        bytesRead++;
+        return currentRange[positionInRange++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int count) throws IOException {
+        if (count == 0) return 0;
+        if (!ensureCurrentRange()) return -1;
+
+        int n = Math.min(count, currentRange.length - positionInRange);
+        System.arraycopy(currentRange, positionInRange, buffer, offset, n);
+        positionInRange += n;
+        bytesRead += n;
+        return n;
+    }
+
+    @Override
+    public int available() {
+        return currentRange == null ? 0 : currentRange.length - positionInRange;
+    }
+
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        for (Future<byte[]> range : pendingRanges) {
+            range.cancel(true);
+        }
+        pendingRanges.clear();
+        executor.shutdownNow();
+    }
+
+    /**
+     * Makes sure there are unread bytes in the current range, waiting for the
+     * next range if needed. Returns false at the end of the object.
+     */
+    private boolean ensureCurrentRange() throws IOException {
+        if (closed) throw new IOException("Stream closed");
+
+        while (currentRange == null || positionInRange == currentRange.length) {
+            Future<byte[]> next = pendingRanges.poll();
+            if (next == null) return false;
+
+            try {
+                currentRange = next.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while downloading");
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) throw (IOException) cause;
+                throw new IOException("Unable to download range", cause);
+            }
+            positionInRange = 0;
+            requestNextRange();
+        }
+        return true;
+    }
+
+    private void requestNextRange() {
+        if (nextRangeToRequest >= rangeCount) return;
+
+        final long first = (long) nextRangeToRequest * rangeSize;
+        final long last = Math.min(length, first + rangeSize) - 1;
+        nextRangeToRequest++;
+
+        pendingRanges.add(executor.submit(new Callable<byte[]>() {
+            public byte[] call() throws Exception {
+                return downloadRange(first, last);
+            }
+        }));
+    }
+
+    private byte[] downloadRange(long first, long last) throws IOException, InterruptedException {
+        byte[] range = new byte[(int) (last - first + 1)];
+        int received = 0;
+        int attempts = 0;
+
+        while (received < range.length) {
+            InputStream input = null;
+            try {
+                input = source.openRange(first + received, last);
+                int n;
+                while (received < range.length
+                        && (n = input.read(range, received, range.length - received)) != -1) {
+                    received += n;
+                }
+                if (received < range.length) {
+                    throw new IOException("Connection closed after " + received + " of "
+                            + range.length + " bytes of range " + first + "-" + last);
+                }
+            } catch (IOException e) {
+                if (++attempts >= MAX_ATTEMPTS_PER_RANGE) throw e;
+                JavaSdkPlugin.getDefault().logWarning("Resuming download of range " + first + "-" + last
+                        + " at byte " + (first + received), e);
+                Thread.sleep(RETRY_DELAY_MILLIS * attempts);
+            } finally {
+                IOUtils.closeQuietly(input);
+            }
+        }
+        return range;
+    }
+}
@@ -0,0 +1,274 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.sdk.ui;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Registry of the metadata of the SDK installs on disk: their version, jars,
+ * Javadoc location and samples. The metadata of an install is read from the
+ * file system once, and read again only when the modification stamp of one
+ * of its directories changes. The registry is persisted in the plugin state
+ * location, so it survives restarts.
+ * <p>
+ * Stamps are checked at most once every few seconds per install, so resolving
+ * the classpath of or decorating many projects using the same install does
+ * not touch the file system.
+ */
+public class SdkInstallRegistry {
+
+    private static final String REGISTRY_FILE_NAME = "sdk-installs.json";
+
+    /** Minimum time between two checks of the stamps of an install */
+    private static final long STAMP_CHECK_INTERVAL_MILLIS = 5 * 1000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    private static SdkInstallRegistry instance;
+
+    /** The file the registry is persisted to, or null if there is none */
+    private final File registryFile;
+
+    /** Metadata by absolute install root path */
+    private final Map<String, InstallMetadata> installs;
+
+    /** When the stamps of each install were last checked */
+    private final Map<String, Long> lastStampChecks = new HashMap<String, Long>();
+
+    private SdkInstallRegistry(File registryFile) {
+        this.registryFile = registryFile;
+        this.installs = load(registryFile);
+    }
+
+    public static synchronized SdkInstallRegistry getInstance() {
+        if (instance == null) {
+            File registryFile = null;
+            try {
+                registryFile = JavaSdkPlugin.getDefault().getStateLocation()
+                        .append(REGISTRY_FILE_NAME).toFile();
+            } catch (IllegalStateException e) {
+                JavaSdkPlugin.getDefault().logWarning("No state directory to persist the SDK install registry", e);
+            }
+            instance = new SdkInstallRegistry(registryFile);
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the metadata of the specified install, scanning it if it is not
+     * in the registry yet or if it changed on disk.
+     */
+    InstallMetadata getMetadata(JavaSdkInstall install) {
+        File root = install.getRootDirectory();
+        String key = root.getAbsolutePath();
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            InstallMetadata metadata = installs.get(key);
+            Long lastCheck = lastStampChecks.get(key);
+            if (metadata != null && lastCheck != null && now - lastCheck < STAMP_CHECK_INTERVAL_MILLIS) {
+                return metadata;
+            }
+
+            String stamp = install.getStamp();
+            if (metadata != null && stamp.equals(metadata.getStamp())) {
+                lastStampChecks.put(key, now);
+                return metadata;
+            }
+        }
+
+        InstallMetadata metadata = install.scan();
+        if (!root.exists()) {
+            // Don't remember installs that are gone
+            return metadata;
+        }
+
+        synchronized (this) {
+            installs.put(key, metadata);
+            lastStampChecks.put(key, now);
+            save();
+        }
+        return metadata;
+    }
+
+    private static Map<String, InstallMetadata> load(File registryFile) {
+        Map<String, InstallMetadata> installs = new HashMap<String, InstallMetadata>();
+        if (registryFile == null || !registryFile.exists()) {
+            return installs;
+        }
+
+        try {
+            Map<String, InstallMetadata> persisted = MAPPER.readValue(registryFile,
+                    new TypeReference<Map<String, InstallMetadata>>() {});
+            if (persisted != null) {
+                installs.putAll(persisted);
+            }
+        } catch (IOException e) {
+            JavaSdkPlugin.getDefault().logWarning("Unable to read the SDK install registry; it will be rebuilt", e);
+        }
+        return installs;
+    }
+
+    /** Writes the registry, dropping installs that no longer exist */
+    private void save() {
+        for (Iterator<String> iterator = installs.keySet().iterator(); iterator.hasNext();) {
+            String path = iterator.next();
+            if (!new File(path).exists()) {
+                iterator.remove();
+                lastStampChecks.remove(path);
+            }
+        }
+
+        if (registryFile == null) return;
+        try {
+            MAPPER.writeValue(registryFile, installs);
+        } catch (IOException e) {
+            JavaSdkPlugin.getDefault().logWarning("Unable to write the SDK install registry", e);
+        }
+    }
+
+    /**
+     * The metadata of an SDK install, as read from disk.
+     */
+    public static class InstallMetadata {
+        private String stamp;
+        private boolean valid;
+        private String version;
+        private String sdkJar;
+        private String sdkSourceJar;
+        private String javadocUrl;
+        private List<String> thirdPartyJars = new ArrayList<String>();
+        private List<SampleMetadata> samples = new ArrayList<SampleMetadata>();
+
+        public String getStamp() {
+            return stamp;
+        }
+
+        public void setStamp(String stamp) {
+            this.stamp = stamp;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        public void setValid(boolean valid) {
+            this.valid = valid;
+        }
+
+        public String getVersion() {
+            return version;
+        }
+
+        public void setVersion(String version) {
+            this.version = version;
+        }
+
+        /** The path of the SDK jar, or null if it could not be identified */
+        public String getSdkJar() {
+            return sdkJar;
+        }
+
+        public void setSdkJar(String sdkJar) {
+            this.sdkJar = sdkJar;
+        }
+
+        /** The path of the SDK source jar, or null if there is none */
+        public String getSdkSourceJar() {
+            return sdkSourceJar;
+        }
+
+        public void setSdkSourceJar(String sdkSourceJar) {
+            this.sdkSourceJar = sdkSourceJar;
+        }
+
+        public String getJavadocUrl() {
+            return javadocUrl;
+        }
+
+        public void setJavadocUrl(String javadocUrl) {
+            this.javadocUrl = javadocUrl;
+        }
+
+        public List<String> getThirdPartyJars() {
+            return thirdPartyJars;
+        }
+
+        public void setThirdPartyJars(List<String> thirdPartyJars) {
+            this.thirdPartyJars = thirdPartyJars;
+        }
+
+        public List<SampleMetadata> getSamples() {
+            return samples;
+        }
+
+        public void setSamples(List<SampleMetadata> samples) {
+            this.samples = samples;
+        }
+    }
+
+    /**
+     * The metadata of a sample included in an SDK install.
+     */
+    public static class SampleMetadata {
+        private String name;
+        private String description;
+        private String path;
+
+        public SampleMetadata() {
+        }
+
+        public SampleMetadata(String name, String description, String path) {
+            this.name = name;
+            this.description = description;
+            this.path = path;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+
+        public String getPath() {
+            return path;
+        }
+
+        public void setPath(String path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.amazonaws.eclipse.benchmarks;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import com.amazonaws.eclipse.datatools.enablement.simpledb.internal.driver.JdbcBenchmarks;
+
+/**
+ * Runs all the benchmarks, writes their results, and fails if they regressed
+ * compared to a baseline.
+ * <p>
+ * Configured with system properties: benchmark.output is the file the results
+ * are written to; benchmark.baseline is the results file of a previous run to
+ * compare with, and benchmark.tolerance the accepted relative change. See
+ * {@link BenchmarkRunner} for the iteration settings.
+ */
+public class AllBenchmarks {
+
+    public static List<Benchmark> getBenchmarks() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+        benchmarks.addAll(JdbcBenchmarks.create());
+        benchmarks.addAll(CloudFormationBenchmarks.create());
+        benchmarks.addAll(RegionBenchmarks.create());
+        benchmarks.addAll(Ec2Benchmarks.create());
+        benchmarks.addAll(ZipBenchmarks.create());
+        return benchmarks;
+    }
+
+    @Test
+    public void runBenchmarks() throws Exception {
+        List<BenchmarkResult> results = BenchmarkRunner.fromSystemProperties().run(getBenchmarks());
+
+        String output = System.getProperty("benchmark.output");
+        if (output != null && output.length() > 0) {
+            BenchmarkRunner.writeResults(results, new File(output));
+        }
+
+        String baseline = System.getProperty("benchmark.baseline");
+        if (baseline != null && baseline.length() > 0) {
+            double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.2"));
+            Map<String, BenchmarkResult> baselineResults = BenchmarkRunner.readResults(new File(baseline));
+            List<String> regressions = BenchmarkRunner.findRegressions(results, baselineResults, tolerance);
+            if (!regressions.isEmpty()) {
+                StringBuilder message = new StringBuilder("Benchmarks regressed:");
+                for (String regression : regressions) {
+                    message.append("\n  ").append(regression);
+                }
+                Assert.fail(message.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.amazonaws.eclipse.benchmarks;
+
+/**
+ * An operation whose throughput and allocation are measured by the
+ * {@link BenchmarkRunner}. The data set is prepared in {@link #setUp()}, which
+ * is not measured.
+ */
+public abstract class Benchmark {
+
+    private final String name;
+
+    protected Benchmark(String name) {
+        this.name = name;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setUp() throws Exception {}
+
+    /**
+     * Runs the measured operation once. The returned value is consumed by the
+     * runner so the operation can't be optimized away.
+     */
+    public abstract Object run() throws Exception;
+
+    public void tearDown() throws Exception {}
+}
@@ -0,0 +1,44 @@
+package com.amazonaws.eclipse.benchmarks;
+
+/**
+ * The measurements of a benchmark.
+ */
+public class BenchmarkResult {
+
+    private final String name;
+    private final double opsPerSecond;
+    private final double opsPerSecondError;
+    private final double allocatedBytesPerOp;
+
+    public BenchmarkResult(String name, double opsPerSecond, double opsPerSecondError, double allocatedBytesPerOp) {
+        this.name = name;
+        this.opsPerSecond = opsPerSecond;
+        this.opsPerSecondError = opsPerSecondError;
+        this.allocatedBytesPerOp = allocatedBytesPerOp;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Mean throughput over the measurement iterations */
+    public double getOpsPerSecond() {
+        return opsPerSecond;
+    }
+
+    /** Standard deviation of the throughput over the measurement iterations */
+    public double getOpsPerSecondError() {
+        return opsPerSecondError;
+    }
+
+    /** Bytes allocated per operation, or a negative value if unknown */
+    public double getAllocatedBytesPerOp() {
+        return allocatedBytesPerOp;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-50s %14.1f +- %10.1f ops/s %14.0f B/op",
+                name, opsPerSecond, opsPerSecondError, allocatedBytesPerOp);
+    }
+}
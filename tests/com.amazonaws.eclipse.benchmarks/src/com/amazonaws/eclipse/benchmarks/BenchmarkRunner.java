@@ -0,0 +1,236 @@
+package com.amazonaws.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * Runs benchmarks inside the Eclipse runtime the toolkit classes need. Each
+ * benchmark runs a number of warmup iterations, then measured iterations of
+ * fixed duration, in which the operation is repeated as many times as
+ * possible. Throughput and bytes allocated per operation are recorded.
+ * <p>
+ * Results are written in the JSON format of JMH, so the usual JMH reporting
+ * tools can be used on them, and can be compared with the results of a
+ * previous run to detect regressions.
+ */
+public class BenchmarkRunner {
+
+    public static final String WARMUP_ITERATIONS = "benchmark.warmupIterations";
+    public static final String ITERATIONS = "benchmark.iterations";
+    public static final String ITERATION_MILLIS = "benchmark.iterationMillis";
+    public static final String INCLUDE = "benchmark.include";
+
+    private static final String THROUGHPUT_UNIT = "ops/s";
+    private static final String ALLOCATION_METRIC = "\u00B7gc.alloc.rate.norm";
+    private static final String ALLOCATION_UNIT = "B/op";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    /** Consumes the results of the operations */
+    private static volatile int sink;
+
+    private final int warmupIterations;
+    private final int iterations;
+    private final long iterationMillis;
+    private final Pattern include;
+
+    public BenchmarkRunner(int warmupIterations, int iterations, long iterationMillis, Pattern include) {
+        this.warmupIterations = warmupIterations;
+        this.iterations = iterations;
+        this.iterationMillis = iterationMillis;
+        this.include = include;
+    }
+
+    public static BenchmarkRunner fromSystemProperties() {
+        return new BenchmarkRunner(
+                Integer.getInteger(WARMUP_ITERATIONS, 3),
+                Integer.getInteger(ITERATIONS, 5),
+                Long.getLong(ITERATION_MILLIS, 1000),
+                Pattern.compile(System.getProperty(INCLUDE, ".*")));
+    }
+
+    /**
+     * Runs the benchmarks whose name matches the include pattern, and returns
+     * their results; see {@link #writeResults(List, File)} to record them.
+     */
+    public List<BenchmarkResult> run(List<Benchmark> benchmarks) throws Exception {
+        List<BenchmarkResult> results = new ArrayList<BenchmarkResult>();
+        for (Benchmark benchmark : benchmarks) {
+            if (!include.matcher(benchmark.getName()).find()) continue;
+
+            results.add(run(benchmark));
+        }
+        return results;
+    }
+
+    private BenchmarkResult run(Benchmark benchmark) throws Exception {
+        benchmark.setUp();
+        try {
+            for (int i = 0; i < warmupIterations; i++) {
+                runIteration(benchmark);
+            }
+
+            double[] throughputs = new double[iterations];
+            long totalOps = 0;
+            long totalAllocatedBytes = 0;
+            for (int i = 0; i < iterations; i++) {
+                long[] iteration = runIteration(benchmark);
+                throughputs[i] = iteration[0] * 1e9 / iteration[1];
+                totalOps += iteration[0];
+                totalAllocatedBytes = totalAllocatedBytes < 0 || iteration[2] < 0
+                        ? -1 : totalAllocatedBytes + iteration[2];
+            }
+
+            double mean = 0;
+            for (double throughput : throughputs) mean += throughput / iterations;
+            double variance = 0;
+            for (double throughput : throughputs) variance += (throughput - mean) * (throughput - mean);
+            double error = iterations > 1 ? Math.sqrt(variance / (iterations - 1)) : 0;
+
+            double allocatedBytesPerOp = totalAllocatedBytes < 0 ? -1 : (double) totalAllocatedBytes / totalOps;
+            return new BenchmarkResult(benchmark.getName(), mean, error, allocatedBytesPerOp);
+        } finally {
+            benchmark.tearDown();
+        }
+    }
+
+    /**
+     * Repeats the operation for the iteration duration, and returns the
+     * number of operations, the elapsed nanoseconds and the allocated bytes.
+     */
+    private long[] runIteration(Benchmark benchmark) throws Exception {
+        long durationNanos = iterationMillis * 1000 * 1000;
+        long allocatedBefore = AllocationMeter.getAllocatedBytes();
+        long start = System.nanoTime();
+        long elapsed;
+        long ops = 0;
+        do {
+            Object result = benchmark.run();
+            sink ^= System.identityHashCode(result);
+            ops++;
+            elapsed = System.nanoTime() - start;
+        } while (elapsed < durationNanos);
+        long allocatedAfter = AllocationMeter.getAllocatedBytes();
+
+        long allocated = allocatedBefore < 0 ? -1 : allocatedAfter - allocatedBefore;
+        return new long[] {ops, elapsed, allocated};
+    }
+
+    /**
+     * Writes results in the JSON format of JMH.
+     */
+    public static void writeResults(List<BenchmarkResult> results, File file) throws IOException {
+        ArrayNode array = MAPPER.createArrayNode();
+        for (BenchmarkResult result : results) {
+            ObjectNode node = array.addObject();
+            node.put("benchmark", result.getName());
+            node.put("mode", "thrpt");
+
+            ObjectNode primaryMetric = node.putObject("primaryMetric");
+            primaryMetric.put("score", result.getOpsPerSecond());
+            primaryMetric.put("scoreError", result.getOpsPerSecondError());
+            primaryMetric.put("scoreUnit", THROUGHPUT_UNIT);
+
+            if (result.getAllocatedBytesPerOp() >= 0) {
+                ObjectNode allocation = node.putObject("secondaryMetrics").putObject(ALLOCATION_METRIC);
+                allocation.put("score", result.getAllocatedBytesPerOp());
+                allocation.put("scoreUnit", ALLOCATION_UNIT);
+            }
+        }
+
+        File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null) parent.mkdirs();
+        MAPPER.writeValue(file, array);
+    }
+
+    /**
+     * Reads results written by {@link #writeResults(List, File)}, or by JMH
+     * with the GC profiler, by benchmark name.
+     */
+    public static Map<String, BenchmarkResult> readResults(File file) throws IOException {
+        Map<String, BenchmarkResult> results = new LinkedHashMap<String, BenchmarkResult>();
+        for (JsonNode node : MAPPER.readTree(file)) {
+            JsonNode primaryMetric = node.path("primaryMetric");
+            JsonNode allocation = node.path("secondaryMetrics").path(ALLOCATION_METRIC);
+            BenchmarkResult result = new BenchmarkResult(
+                    node.path("benchmark").asText(),
+                    primaryMetric.path("score").asDouble(),
+                    primaryMetric.path("scoreError").asDouble(),
+                    allocation.isMissingNode() ? -1 : allocation.path("score").asDouble());
+            results.put(result.getName(), result);
+        }
+        return results;
+    }
+
+    /**
+     * Returns a description of each result whose throughput dropped, or whose
+     * allocation grew, by more than the tolerance compared to the baseline.
+     *
+     * @param tolerance
+     *            The accepted relative change, e.g. 0.2 for 20%.
+     */
+    public static List<String> findRegressions(List<BenchmarkResult> results,
+            Map<String, BenchmarkResult> baseline, double tolerance) {
+        List<String> regressions = new ArrayList<String>();
+        for (BenchmarkResult result : results) {
+            BenchmarkResult base = baseline.get(result.getName());
+            if (base == null) continue;
+
+            if (result.getOpsPerSecond() < base.getOpsPerSecond() * (1 - tolerance)) {
+                regressions.add(String.format("%s: throughput %.1f ops/s, baseline %.1f ops/s",
+                        result.getName(), result.getOpsPerSecond(), base.getOpsPerSecond()));
+            }
+            // Ignore a few bytes of noise in operations that allocate almost nothing
+            if (result.getAllocatedBytesPerOp() >= 0 && base.getAllocatedBytesPerOp() >= 0
+                    && result.getAllocatedBytesPerOp() > base.getAllocatedBytesPerOp() * (1 + tolerance) + 64) {
+                regressions.add(String.format("%s: allocation %.0f B/op, baseline %.0f B/op",
+                        result.getName(), result.getAllocatedBytesPerOp(), base.getAllocatedBytesPerOp()));
+            }
+        }
+        return regressions;
+    }
+
+    /**
+     * Reads the bytes allocated by the current thread, when the JVM supports
+     * it. The HotSpot extension of the thread MXBean is loaded from the system
+     * class loader, since the OSGi framework doesn't delegate com.sun packages.
+     */
+    private static class AllocationMeter {
+        private static final Method GET_THREAD_ALLOCATED_BYTES = findMethod();
+
+        private static Method findMethod() {
+            try {
+                Class<?> beanClass = Class.forName("com.sun.management.ThreadMXBean",
+                        true, ClassLoader.getSystemClassLoader());
+                if (!beanClass.isInstance(ManagementFactory.getThreadMXBean())) return null;
+                return beanClass.getMethod("getThreadAllocatedBytes", long.class);
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        static long getAllocatedBytes() {
+            if (GET_THREAD_ALLOCATED_BYTES == null) return -1;
+            try {
+                ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+                return (Long) GET_THREAD_ALLOCATED_BYTES.invoke(bean, Thread.currentThread().getId());
+            } catch (Exception e) {
+                return -1;
+            }
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.amazonaws.eclipse.benchmarks;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.text.source.AnnotationModel;
+import org.eclipse.jface.text.source.IAnnotationModel;
+import org.eclipse.jface.text.source.ISourceViewer;
+import org.eclipse.swt.widgets.Display;
+
+import com.amazonaws.eclipse.cloudformation.templates.editor.TemplateEditor;
+import com.amazonaws.eclipse.cloudformation.templates.editor.TemplateEditor.TemplateDocument;
+import com.amazonaws.eclipse.cloudformation.templates.editor.TemplateReconcilingStrategy;
+import com.amazonaws.eclipse.explorer.cloudformation.JsonFormatter;
+
+/**
+ * Benchmarks of the template editor's reconciling, and of template
+ * formatting, on large synthetic templates.
+ */
+public class CloudFormationBenchmarks {
+
+    private static final int TEMPLATE_RESOURCES = 2000;
+
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+        benchmarks.add(new Benchmark("cloudformation.TemplateReconcilingStrategy.fullParse") {
+            private TemplateDocument document;
+            private TemplateReconcilingStrategy strategy;
+
+            @Override
+            public void setUp() {
+                document = newTemplateDocument(SyntheticData.template(TEMPLATE_RESOURCES));
+                strategy = new TemplateReconcilingStrategy(newSourceViewer());
+            }
+
+            @Override
+            public Object run() {
+                // Setting the document drops the model, so it is parsed again
+                strategy.setDocument(document);
+                strategy.initialReconcile();
+                return document.getModel();
+            }
+        });
+
+        benchmarks.add(new Benchmark("cloudformation.TemplateReconcilingStrategy.singleEdit") {
+            private TemplateDocument document;
+            private TemplateReconcilingStrategy strategy;
+            private int editOffset;
+            private boolean upperCase;
+
+            @Override
+            public void setUp() {
+                String template = SyntheticData.template(TEMPLATE_RESOURCES);
+                document = newTemplateDocument(template);
+                strategy = new TemplateReconcilingStrategy(newSourceViewer());
+                strategy.setDocument(document);
+                strategy.initialReconcile();
+                editOffset = template.indexOf("echo instance " + TEMPLATE_RESOURCES / 2);
+            }
+
+            @Override
+            public Object run() throws Exception {
+                upperCase = !upperCase;
+                document.replace(editOffset, 1, upperCase ? "E" : "e");
+                strategy.reconcile(null, null);
+                return document.getModel();
+            }
+        });
+
+        benchmarks.add(new Benchmark("cloudformation.JsonFormatter.format") {
+            private String template;
+
+            @Override
+            public void setUp() {
+                template = SyntheticData.template(TEMPLATE_RESOURCES);
+            }
+
+            @Override
+            public Object run() throws Exception {
+                return JsonFormatter.format(template);
+            }
+        });
+
+        return benchmarks;
+    }
+
+    private static TemplateDocument newTemplateDocument(final String text) {
+        final TemplateDocument[] document = new TemplateDocument[1];
+        // The editor sets up its source viewer configuration on creation
+        Display.getDefault().syncExec(new Runnable() {
+            public void run() {
+                document[0] = new TemplateEditor().new TemplateDocument();
+            }
+        });
+        document[0].set(text);
+        return document[0];
+    }
+
+    /**
+     * Returns a source viewer that only provides an annotation model, which is
+     * all the reconciling strategy uses.
+     */
+    private static ISourceViewer newSourceViewer() {
+        final IAnnotationModel annotationModel = new AnnotationModel();
+        return (ISourceViewer) Proxy.newProxyInstance(ISourceViewer.class.getClassLoader(),
+                new Class<?>[] {ISourceViewer.class}, new InvocationHandler() {
+                    public Object invoke(Object proxy, Method method, Object[] args) {
+                        if (method.getName().equals("getAnnotationModel")) return annotationModel;
+                        return null;
+                    }
+                });
+    }
+}
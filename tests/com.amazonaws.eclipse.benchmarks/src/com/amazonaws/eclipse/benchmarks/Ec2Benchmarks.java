@@ -0,0 +1,36 @@
+package com.amazonaws.eclipse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amazonaws.eclipse.ec2.ui.amis.ImageFilter;
+import com.amazonaws.services.ec2.model.Image;
+
+/**
+ * Benchmarks of the filtering of the AMI selection table, which runs on every
+ * keystroke in the filter box.
+ */
+public class Ec2Benchmarks {
+
+    private static final int IMAGES = 20000;
+
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+        benchmarks.add(new Benchmark("ec2.ImageFilter.filter") {
+            private List<Image> images;
+
+            @Override
+            public void setUp() {
+                images = SyntheticData.images(IMAGES);
+            }
+
+            @Override
+            public Object run() {
+                return new ImageFilter("AMZN available").filter(images);
+            }
+        });
+
+        return benchmarks;
+    }
+}
@@ -0,0 +1,44 @@
+package com.amazonaws.eclipse.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amazonaws.eclipse.core.regions.Region;
+import com.amazonaws.eclipse.core.regions.RegionUtils;
+
+/**
+ * Benchmarks of the region lookups done whenever a client or an editor is
+ * created for an endpoint.
+ */
+public class RegionBenchmarks {
+
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+        benchmarks.add(new Benchmark("core.RegionUtils.getRegionByEndpoint") {
+            private String[] endpoints;
+            private int next;
+
+            @Override
+            public void setUp() {
+                // Use the regions shipped with the toolkit, not the latest ones
+                System.setProperty(RegionUtils.USE_LOCAL_REGION_FILE, "true");
+
+                List<String> allEndpoints = new ArrayList<String>();
+                for (Region region : RegionUtils.getRegions()) {
+                    allEndpoints.addAll(region.getServiceEndpoints().values());
+                }
+                endpoints = allEndpoints.toArray(new String[allEndpoints.size()]);
+            }
+
+            @Override
+            public Object run() {
+                String endpoint = endpoints[next];
+                next = (next + 1) % endpoints.length;
+                return RegionUtils.getRegionByEndpoint(endpoint);
+            }
+        });
+
+        return benchmarks;
+    }
+}
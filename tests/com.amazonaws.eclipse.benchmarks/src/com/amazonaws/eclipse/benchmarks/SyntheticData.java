@@ -0,0 +1,126 @@
+package com.amazonaws.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.apache.commons.io.FileUtils;
+
+import com.amazonaws.services.ec2.model.Image;
+
+/**
+ * Deterministic data sets for the benchmarks.
+ */
+public class SyntheticData {
+
+    private static final String[] INSTANCE_TYPES = {"t2.micro", "m4.large", "c4.xlarge", "r4.2xlarge"};
+    private static final String[] IMAGE_STATES = {"available", "pending", "failed"};
+    private static final String[] PLATFORMS = {"amzn-ami-hvm", "ubuntu-xenial", "windows-server-2016", "suse-sles"};
+
+    /**
+     * Returns a CloudFormation template with the specified number of
+     * resources, each with properties, tags and intrinsic functions.
+     */
+    public static String template(int resourceCount) {
+        StringBuilder json = new StringBuilder(resourceCount * 600);
+        json.append("{\n  \"AWSTemplateFormatVersion\" : \"2010-09-09\",\n");
+        json.append("  \"Description\" : \"Synthetic template with ").append(resourceCount).append(" resources\",\n");
+        json.append("  \"Parameters\" : {\n");
+        json.append("    \"KeyName\" : { \"Type\" : \"AWS::EC2::KeyPair::KeyName\", \"Description\" : \"Key pair\" },\n");
+        json.append("    \"InstanceType\" : { \"Type\" : \"String\", \"Default\" : \"t2.micro\", \"AllowedValues\" : [");
+        for (int i = 0; i < INSTANCE_TYPES.length; i++) {
+            if (i > 0) json.append(", ");
+            json.append('"').append(INSTANCE_TYPES[i]).append('"');
+        }
+        json.append("] }\n  },\n");
+
+        json.append("  \"Resources\" : {\n");
+        for (int i = 0; i < resourceCount; i++) {
+            json.append("    \"Instance").append(i).append("\" : {\n");
+            json.append("      \"Type\" : \"AWS::EC2::Instance\",\n");
+            json.append("      \"Properties\" : {\n");
+            json.append("        \"ImageId\" : \"ami-").append(String.format("%08x", i)).append("\",\n");
+            json.append("        \"InstanceType\" : { \"Ref\" : \"InstanceType\" },\n");
+            json.append("        \"KeyName\" : { \"Ref\" : \"KeyName\" },\n");
+            json.append("        \"SecurityGroups\" : [ { \"Ref\" : \"SecurityGroup").append(i % 10).append("\" } ],\n");
+            json.append("        \"UserData\" : { \"Fn::Base64\" : { \"Fn::Join\" : [\"\", [\"#!/bin/bash\\n\", ");
+            json.append("\"yum update -y\\n\", \"echo instance ").append(i).append("\\n\"]]}},\n");
+            json.append("        \"Tags\" : [\n");
+            json.append("          { \"Key\" : \"Name\", \"Value\" : \"instance-").append(i).append("\" },\n");
+            json.append("          { \"Key\" : \"Index\", \"Value\" : \"").append(i).append("\" }\n");
+            json.append("        ]\n");
+            json.append("      }\n");
+            json.append(i < resourceCount - 1 ? "    },\n" : "    }\n");
+        }
+        json.append("  },\n");
+
+        json.append("  \"Outputs\" : {\n");
+        json.append("    \"FirstInstance\" : { \"Value\" : { \"Fn::GetAtt\" : [ \"Instance0\", \"PublicDnsName\" ] } }\n");
+        json.append("  }\n}\n");
+        return json.toString();
+    }
+
+    /**
+     * Returns the specified number of images with random attributes.
+     */
+    public static List<Image> images(int count) {
+        Random random = new Random(42);
+        List<Image> images = new ArrayList<Image>(count);
+        for (int i = 0; i < count; i++) {
+            String platform = PLATFORMS[random.nextInt(PLATFORMS.length)];
+            String ownerId = String.format("%012d", random.nextInt(1000) * 1000000L);
+            images.add(new Image()
+                    .withImageId(String.format("ami-%08x", random.nextInt()))
+                    .withImageLocation(ownerId + "/" + platform + "-" + (2015 + random.nextInt(3))
+                            + "." + random.nextInt(12) + "-x86_64-gp2")
+                    .withOwnerId(ownerId)
+                    .withState(IMAGE_STATES[random.nextInt(IMAGE_STATES.length)]));
+        }
+        return images;
+    }
+
+    /**
+     * Creates a directory tree of random files, spread over a few
+     * subdirectories.
+     *
+     * @param fileCount
+     *            The number of files.
+     * @param fileSize
+     *            The size of each file, in bytes. Half of each file is
+     *            random, and half is repeated text, so it compresses like
+     *            typical application archives.
+     */
+    public static File directory(String prefix, int fileCount, int fileSize) throws IOException {
+        File root = File.createTempFile(prefix, "");
+        root.delete();
+        root.mkdirs();
+
+        Random random = new Random(42);
+        byte[] content = new byte[fileSize];
+        byte[] text = "<bean id=\"service\" class=\"com.example.Service\"/>\n".getBytes("UTF-8");
+        for (int i = 0; i < fileCount; i++) {
+            File dir = new File(root, "dir" + (i % 8) + File.separator + "sub" + (i % 3));
+            dir.mkdirs();
+
+            random.nextBytes(content);
+            for (int j = fileSize / 2; j < fileSize; j++) {
+                content[j] = text[j % text.length];
+            }
+            OutputStream output = new FileOutputStream(new File(dir, "file" + i + ".dat"));
+            try {
+                output.write(content);
+            } finally {
+                output.close();
+            }
+        }
+        return root;
+    }
+
+    public static void delete(File file) {
+        FileUtils.deleteQuietly(file);
+    }
+}
@@ -0,0 +1,113 @@
+package com.amazonaws.eclipse.benchmarks;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+import com.amazonaws.eclipse.core.util.ZipArchiveBuilder;
+
+/**
+ * Benchmarks of the archives built and extracted when deploying to CodeDeploy
+ * and OpsWorks.
+ */
+public class ZipBenchmarks {
+
+    private static final int FILES = 200;
+    private static final int FILE_SIZE = 32 * 1024;
+
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+        benchmarks.add(new ZipBenchmark("core.ZipArchiveBuilder.writeTo (1 thread)") {
+            @Override
+            public Object run() throws Exception {
+                new ZipArchiveBuilder(Deflater.DEFAULT_COMPRESSION, 1).addDirectory(directory).writeTo(zipFile);
+                return zipFile.length();
+            }
+        });
+
+        benchmarks.add(new ZipBenchmark("core.ZipArchiveBuilder.writeTo (all processors)") {
+            @Override
+            public Object run() throws Exception {
+                new ZipArchiveBuilder().addDirectory(directory).writeTo(zipFile);
+                return zipFile.length();
+            }
+        });
+
+        benchmarks.add(new ZipBenchmark("core.ZipArchiveBuilder.update (one file changed)") {
+            private File changedFile;
+
+            @Override
+            public void setUp() throws Exception {
+                super.setUp();
+                new ZipArchiveBuilder().addDirectory(directory).update(zipFile);
+                changedFile = new File(directory, "dir0" + File.separator + "sub0").listFiles()[0];
+            }
+
+            @Override
+            public Object run() throws Exception {
+                FileOutputStream out = new FileOutputStream(changedFile, true);
+                out.write('\n');
+                out.close();
+                return new ZipArchiveBuilder().addDirectory(directory).update(zipFile);
+            }
+
+            @Override
+            public void tearDown() {
+                super.tearDown();
+                SyntheticData.delete(new File(zipFile.getPath() + ".manifest"));
+            }
+        });
+
+        benchmarks.add(new ZipBenchmark("opsworks.ZipUtils.unzipFileToDirectory") {
+            private File targetDirectory;
+
+            @Override
+            public void setUp() throws Exception {
+                super.setUp();
+                new ZipArchiveBuilder().addDirectory(directory).writeTo(zipFile);
+                targetDirectory = new File(directory.getParentFile(), directory.getName() + "-unzipped");
+            }
+
+            @Override
+            public Object run() throws Exception {
+                // The target has to be empty, so this includes deleting the previous output
+                SyntheticData.delete(targetDirectory);
+                targetDirectory.mkdirs();
+                com.amazonaws.eclipse.opsworks.deploy.util.ZipUtils.unzipFileToDirectory(zipFile, targetDirectory);
+                return targetDirectory;
+            }
+
+            @Override
+            public void tearDown() {
+                super.tearDown();
+                SyntheticData.delete(targetDirectory);
+            }
+        });
+
+        return benchmarks;
+    }
+
+    private abstract static class ZipBenchmark extends Benchmark {
+        protected File directory;
+        protected File zipFile;
+
+        ZipBenchmark(String name) {
+            super(name);
+        }
+
+        @Override
+        public void setUp() throws Exception {
+            directory = SyntheticData.directory("benchmark", FILES, FILE_SIZE);
+            zipFile = File.createTempFile("benchmark", ".zip");
+        }
+
+        @Override
+        public void tearDown() {
+            SyntheticData.delete(directory);
+            SyntheticData.delete(zipFile);
+        }
+    }
+}
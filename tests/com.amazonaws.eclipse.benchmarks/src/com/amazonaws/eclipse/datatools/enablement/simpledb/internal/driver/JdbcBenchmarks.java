@@ -0,0 +1,117 @@
+package com.amazonaws.eclipse.datatools.enablement.simpledb.internal.driver;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.amazonaws.eclipse.benchmarks.Benchmark;
+import com.amazonaws.eclipse.datatools.enablement.simpledb.driver.JdbcConnection;
+
+/**
+ * Benchmarks of the SimpleDB JDBC driver's result handling: aggregating items
+ * into the tabular {@link JdbcStatement.RawData}, and reading it back through
+ * {@link JdbcResultSet}. They live in the driver package because that state
+ * is package-private.
+ */
+public class JdbcBenchmarks {
+
+    private static final int ITEMS = 1000;
+    private static final int ATTRIBUTES = 20;
+    private static final int VALUES_PER_ATTRIBUTE = 2;
+
+    public static List<Benchmark> create() {
+        List<Benchmark> benchmarks = new ArrayList<Benchmark>();
+
+        benchmarks.add(new Benchmark("simpledb.RawData.populate") {
+            private JdbcStatement statement;
+
+            @Override
+            public void setUp() {
+                statement = newStatement();
+            }
+
+            @Override
+            public Object run() {
+                return populate(statement);
+            }
+        });
+
+        benchmarks.add(new Benchmark("simpledb.JdbcResultSet.getStringByIndex") {
+            private JdbcStatement statement;
+
+            @Override
+            public void setUp() {
+                statement = newStatement();
+                statement.data = populate(statement);
+            }
+
+            @Override
+            public Object run() throws Exception {
+                JdbcResultSet resultSet = statement.resultSet;
+                resultSet.open();
+                int length = 0;
+                while (resultSet.next()) {
+                    for (int column = 1; column <= ATTRIBUTES + 1; column++) {
+                        length += resultSet.getString(column).length();
+                    }
+                }
+                return length;
+            }
+        });
+
+        benchmarks.add(new Benchmark("simpledb.JdbcResultSet.getStringByName") {
+            private JdbcStatement statement;
+            private String[] columnNames;
+
+            @Override
+            public void setUp() {
+                statement = newStatement();
+                statement.data = populate(statement);
+                columnNames = new String[ATTRIBUTES];
+                for (int i = 0; i < ATTRIBUTES; i++) {
+                    columnNames[i] = attributeName(i);
+                }
+            }
+
+            @Override
+            public Object run() throws Exception {
+                JdbcResultSet resultSet = statement.resultSet;
+                resultSet.open();
+                int length = 0;
+                while (resultSet.next()) {
+                    for (String columnName : columnNames) {
+                        length += resultSet.getString(columnName).length();
+                    }
+                }
+                return length;
+            }
+        });
+
+        return benchmarks;
+    }
+
+    private static JdbcStatement newStatement() {
+        JdbcStatement statement = new JdbcStatement(new JdbcConnection(null, null, null, null));
+        statement.sql = "select * from `benchmark`";
+        return statement;
+    }
+
+    /**
+     * Aggregates synthetic items the way query results are.
+     */
+    private static JdbcStatement.RawData populate(JdbcStatement statement) {
+        JdbcStatement.RawData data = statement.new RawData();
+        for (int row = 0; row < ITEMS; row++) {
+            data.addItemName("item-" + row, row);
+            for (int attribute = 0; attribute < ATTRIBUTES; attribute++) {
+                for (int value = 0; value < VALUES_PER_ATTRIBUTE; value++) {
+                    data.add(attributeName(attribute), "value-" + row + "-" + value, row);
+                }
+            }
+        }
+        return data;
+    }
+
+    private static String attributeName(int attribute) {
+        return "attribute" + attribute;
+    }
+}
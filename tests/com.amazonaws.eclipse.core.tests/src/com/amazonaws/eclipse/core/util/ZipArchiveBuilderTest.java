@@ -0,0 +1,375 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.core.util;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.Enumeration;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipInputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ZipArchiveBuilderTest {
+
+    private static final long FOUR_GB = 4L * 1024 * 1024 * 1024;
+
+    private File directory;
+    private File zipFile;
+
+    @Before
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("aws-eclipse-zip-archive-builder").toFile();
+        zipFile = new File(directory, "archive.zip");
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void testEmptyArchive() throws IOException {
+        new ZipArchiveBuilder().writeTo(zipFile);
+
+        ZipFile zip = new ZipFile(zipFile);
+        try {
+            assertEquals(0, zip.size());
+        } finally {
+            zip.close();
+        }
+        assertStreamedEntries();
+    }
+
+    @Test
+    public void testDeflatedEntries() throws IOException {
+        byte[] text = compressibleContent(100 * 1024);
+        createFile("src/index.html", text);
+        createFile("src/css/empty.css", new byte[0]);
+
+        new ZipArchiveBuilder().addDirectory(new File(directory, "src")).writeTo(zipFile);
+
+        assertEntry("index.html", ZipEntry.DEFLATED, text);
+        // Deflating nothing still takes a couple of bytes
+        assertEntry("css/empty.css", ZipEntry.STORED, new byte[0]);
+    }
+
+    @Test
+    public void testStoredEntries() throws IOException {
+        byte[] text = compressibleContent(10 * 1024);
+        byte[] random = randomContent(10 * 1024);
+        File textFile = createFile("index.html", text);
+        File jarFile = createFile("library.jar", text);
+        File randomFile = createFile("random.bin", random);
+
+        new ZipArchiveBuilder()
+                .addFile(jarFile, "WEB-INF/lib/library.jar")
+                .addFile(randomFile, "random.bin")
+                .writeTo(zipFile);
+        assertEntry("WEB-INF/lib/library.jar", ZipEntry.STORED, text);
+        assertEntry("random.bin", ZipEntry.STORED, random);
+
+        new ZipArchiveBuilder(Deflater.NO_COMPRESSION, 1).addFile(textFile, "index.html").writeTo(zipFile);
+        assertEntry("index.html", ZipEntry.STORED, text);
+    }
+
+    @Test
+    public void testFilesTooLargeToBeBuffered() throws IOException {
+        byte[] text = compressibleContent(17 * 1024 * 1024);
+        File textFile = createFile("large.txt", text);
+        File jarFile = createFile("large.jar", text);
+
+        new ZipArchiveBuilder(Deflater.DEFAULT_COMPRESSION, 2)
+                .addFile(textFile, "large.txt")
+                .addFile(jarFile, "large.jar")
+                .writeTo(zipFile);
+
+        assertEntry("large.txt", ZipEntry.DEFLATED, text);
+        assertEntry("large.jar", ZipEntry.STORED, text);
+        assertStreamedEntries("large.txt", "large.jar");
+    }
+
+    @Test
+    public void testEntriesKeepTheirOrder() throws IOException {
+        ZipArchiveBuilder builder = new ZipArchiveBuilder(Deflater.DEFAULT_COMPRESSION, 4);
+        String[] names = new String[40];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = "file" + i + ".txt";
+            // Alternate small and large files so the workers complete out of order
+            builder.addFile(createFile(names[i], compressibleContent(i % 2 == 0 ? 100 : 2 * 1024 * 1024)), names[i]);
+        }
+        builder.writeTo(zipFile);
+
+        assertStreamedEntries(names);
+    }
+
+    @Test
+    public void testZip64EntryCount() throws IOException {
+        File file = createFile("file.txt", "content".getBytes("UTF-8"));
+        ZipArchiveBuilder builder = new ZipArchiveBuilder();
+        int entryCount = 70000;
+        for (int i = 0; i < entryCount; i++) {
+            builder.addFile(file, "dir" + (i / 1000) + "/file" + i + ".txt");
+        }
+        builder.writeTo(zipFile);
+
+        ZipFile zip = new ZipFile(zipFile);
+        try {
+            assertEquals(entryCount, zip.size());
+            assertArrayEquals("content".getBytes("UTF-8"), read(zip, "dir69/file69999.txt"));
+        } finally {
+            zip.close();
+        }
+    }
+
+    @Test
+    public void testZip64ArchiveLargerThanFourGB() throws IOException {
+        Assume.assumeTrue(directory.getUsableSpace() > 3 * FOUR_GB);
+
+        // Sparse files, stored as is since they are named as compressed archives
+        File first = createSparseFile("first.zip", FOUR_GB / 2 + 1);
+        File second = createSparseFile("second.zip", FOUR_GB / 2 + 1);
+        byte[] text = compressibleContent(1024);
+        File last = createFile("last.txt", text);
+
+        new ZipArchiveBuilder()
+                .addFile(first, "first.zip")
+                .addFile(second, "second.zip")
+                .addFile(last, "last.txt")
+                .writeTo(zipFile);
+
+        assertTrue(zipFile.length() > FOUR_GB);
+        ZipFile zip = new ZipFile(zipFile);
+        try {
+            assertEquals(3, zip.size());
+            assertEquals(FOUR_GB / 2 + 1, zip.getEntry("second.zip").getSize());
+            assertArrayEquals(text, read(zip, "last.txt"));
+        } finally {
+            zip.close();
+        }
+    }
+
+    @Test
+    public void testUpdateCompressesOnlyChangedFiles() throws IOException {
+        byte[] text = compressibleContent(10 * 1024);
+        File index = createFile("index.html", text, 1);
+        File library = createFile("library.jar", text, 1);
+        File style = createFile("style.css", text, 1);
+
+        assertEquals(3, update(index, library, style));
+        long archiveLastModified = zipFile.lastModified();
+
+        assertEquals(0, update(index, library, style));
+        assertEquals(archiveLastModified, zipFile.lastModified());
+
+        byte[] modified = compressibleContent(20 * 1024);
+        FileUtils.writeByteArrayToFile(style, modified);
+        style.setLastModified(System.currentTimeMillis() - 1000);
+        assertEquals(1, update(index, library, style));
+
+        assertEntry("index.html", ZipEntry.DEFLATED, text);
+        assertEntry("library.jar", ZipEntry.STORED, text);
+        assertEntry("style.css", ZipEntry.DEFLATED, modified);
+        assertStreamedEntries("index.html", "library.jar", "style.css");
+    }
+
+    @Test
+    public void testUpdateComparesChecksumsOfTouchedFiles() throws IOException {
+        byte[] text = compressibleContent(10 * 1024);
+        File index = createFile("index.html", text, 1);
+        File large = createFile("large.txt", compressibleContent(17 * 1024 * 1024), 1);
+        assertEquals(2, update(index, large));
+
+        index.setLastModified(System.currentTimeMillis() - 1000);
+        large.setLastModified(System.currentTimeMillis() - 1000);
+        assertEquals(0, update(index, large));
+
+        byte[] modified = text.clone();
+        modified[0] = 'z';
+        FileUtils.writeByteArrayToFile(index, modified);
+        index.setLastModified(System.currentTimeMillis() - 500);
+        assertEquals(1, update(index, large));
+        assertEntry("index.html", ZipEntry.DEFLATED, modified);
+        assertStreamedEntries("index.html", "large.txt");
+    }
+
+    @Test
+    public void testUpdateWithAddedRemovedAndRenamedFiles() throws IOException {
+        byte[] text = compressibleContent(1024);
+        File first = createFile("first.txt", text, 1);
+        File second = createFile("second.txt", text, 1);
+        assertEquals(2, update(first, second));
+
+        assertEquals(1, update(second, first, createFile("third.txt", text, 1)));
+        assertStreamedEntries("second.txt", "first.txt", "third.txt");
+
+        assertEquals(0, update(second));
+        assertStreamedEntries("second.txt");
+
+        assertEquals(1, new ZipArchiveBuilder().addFile(second, "renamed.txt").update(zipFile));
+        assertStreamedEntries("renamed.txt");
+    }
+
+    @Test
+    public void testUpdateWithDuplicateEntryNames() throws IOException {
+        File file = createFile("file.txt", compressibleContent(1024), 1);
+        assertEquals(1, update(file));
+
+        assertEquals(0, new ZipArchiveBuilder().addFile(file, "file.txt").addFile(file, "file.txt").update(zipFile));
+        assertStreamedEntries("file.txt", "file.txt");
+    }
+
+    @Test
+    public void testUpdateIgnoresArchiveWrittenByOthers() throws IOException {
+        File file = createFile("file.txt", compressibleContent(1024), 1);
+        assertEquals(1, update(file));
+
+        new ZipArchiveBuilder().addFile(file, "other.txt").writeTo(zipFile);
+        assertEquals(1, update(file));
+        assertStreamedEntries("file.txt");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidCompressionLevel() {
+        new ZipArchiveBuilder(10, 1);
+    }
+
+    private File createFile(String path, byte[] content) throws IOException {
+        File file = new File(directory, path);
+        FileUtils.writeByteArrayToFile(file, content);
+        return file;
+    }
+
+    /**
+     * Creates a file last modified the specified number of minutes ago, so
+     * that it is older than the archives written afterwards.
+     */
+    private File createFile(String path, byte[] content, int minutesAgo) throws IOException {
+        File file = createFile(path, content);
+        file.setLastModified(System.currentTimeMillis() - minutesAgo * 60 * 1000);
+        return file;
+    }
+
+    /**
+     * Updates the archive with the specified files, named after them.
+     */
+    private int update(File... files) throws IOException {
+        ZipArchiveBuilder builder = new ZipArchiveBuilder();
+        for (File file : files) {
+            builder.addFile(file, file.getName());
+        }
+        return builder.update(zipFile);
+    }
+
+    private File createSparseFile(String path, long length) throws IOException {
+        File file = new File(directory, path);
+        RandomAccessFile sparseFile = new RandomAccessFile(file, "rw");
+        try {
+            sparseFile.setLength(length);
+        } finally {
+            sparseFile.close();
+        }
+        return file;
+    }
+
+    private static byte[] compressibleContent(int length) {
+        byte[] content = new byte[length];
+        for (int i = 0; i < length; i++) {
+            content[i] = (byte) ('a' + (i / 7) % 26);
+        }
+        return content;
+    }
+
+    private static byte[] randomContent(int length) {
+        byte[] content = new byte[length];
+        new Random(42).nextBytes(content);
+        return content;
+    }
+
+    /**
+     * Checks the entry through the central directory, as read by
+     * {@link ZipFile}.
+     */
+    private void assertEntry(String name, int method, byte[] content) throws IOException {
+        ZipFile zip = new ZipFile(zipFile);
+        try {
+            ZipEntry entry = zip.getEntry(name);
+            assertNotNull(name, entry);
+            assertEquals(method, entry.getMethod());
+            assertEquals(content.length, entry.getSize());
+            assertArrayEquals(content, read(zip, name));
+        } finally {
+            zip.close();
+        }
+    }
+
+    /**
+     * Checks the names and order of the entries through their local headers,
+     * as read by {@link ZipInputStream}, along with the checksums of their
+     * content.
+     */
+    private void assertStreamedEntries(String... names) throws IOException {
+        ZipInputStream in = new ZipInputStream(new FileInputStream(zipFile));
+        try {
+            for (String name : names) {
+                ZipEntry entry = in.getNextEntry();
+                assertNotNull(name, entry);
+                assertEquals(name, entry.getName());
+                // The checksum is verified while the entry is read
+                IOUtils.toByteArray(in);
+            }
+            assertNull(in.getNextEntry());
+        } finally {
+            in.close();
+        }
+
+        ZipFile zip = new ZipFile(zipFile);
+        try {
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            for (String name : names) {
+                assertEquals(name, entries.nextElement().getName());
+            }
+        } finally {
+            zip.close();
+        }
+    }
+
+    private static byte[] read(ZipFile zip, String name) throws IOException {
+        InputStream in = zip.getInputStream(zip.getEntry(name));
+        try {
+            return IOUtils.toByteArray(in);
+        } finally {
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.explorer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class RequestRateLimiterTest {
+
+    private static final int REQUESTS_PER_SECOND = 50;
+    private static final long NANOS_PER_REQUEST = TimeUnit.SECONDS.toNanos(1) / REQUESTS_PER_SECOND;
+
+    @Test
+    public void testFirstRequestDoesNotWait() throws Exception {
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(REQUESTS_PER_SECOND);
+
+        long start = System.nanoTime();
+        rateLimiter.acquire();
+        assertTrue(System.nanoTime() - start < NANOS_PER_REQUEST);
+    }
+
+    @Test
+    public void testRequestsAreSpacedOut() throws Exception {
+        long start = System.nanoTime();
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(REQUESTS_PER_SECOND);
+        for (int i = 0; i < 11; i++) {
+            rateLimiter.acquire();
+        }
+        assertTrue(System.nanoTime() - start >= 10 * NANOS_PER_REQUEST);
+    }
+
+    @Test
+    public void testIdleTimeDoesNotAllowBursts() throws Exception {
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(REQUESTS_PER_SECOND);
+        rateLimiter.acquire();
+        Thread.sleep(TimeUnit.NANOSECONDS.toMillis(10 * NANOS_PER_REQUEST));
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            rateLimiter.acquire();
+        }
+        assertTrue(System.nanoTime() - start >= 3 * NANOS_PER_REQUEST);
+    }
+
+    @Test
+    public void testBatchReservesOneIntervalPerRequest() throws Exception {
+        long start = System.nanoTime();
+        RequestRateLimiter rateLimiter = new RequestRateLimiter(REQUESTS_PER_SECOND);
+        rateLimiter.acquire(10);
+        assertTrue(System.nanoTime() - start < NANOS_PER_REQUEST);
+
+        rateLimiter.acquire();
+        assertTrue(System.nanoTime() - start >= 10 * NANOS_PER_REQUEST);
+    }
+
+    @Test
+    public void testConcurrentCallersShareTheRate() throws Exception {
+        long start = System.nanoTime();
+        final RequestRateLimiter rateLimiter = new RequestRateLimiter(REQUESTS_PER_SECOND);
+        final List<Long> acquiredAt = Collections.synchronizedList(new ArrayList<Long>());
+
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            threads.add(new Thread() {
+                @Override
+                public void run() {
+                    try {
+                        for (int j = 0; j < 3; j++) {
+                            rateLimiter.acquire();
+                            acquiredAt.add(System.nanoTime());
+                        }
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) thread.start();
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(12, acquiredAt.size());
+        assertTrue(Collections.max(acquiredAt) - start >= 11 * NANOS_PER_REQUEST);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRateMustBePositive() {
+        new RequestRateLimiter(0);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.elasticbeanstalk;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor.EnvironmentListener;
+import com.amazonaws.eclipse.elasticbeanstalk.EnvironmentMonitor.EnvironmentUpdate;
+import com.amazonaws.services.elasticbeanstalk.AWSElasticBeanstalk;
+import com.amazonaws.services.elasticbeanstalk.model.DescribeEnvironmentsResult;
+import com.amazonaws.services.elasticbeanstalk.model.DescribeEventsRequest;
+import com.amazonaws.services.elasticbeanstalk.model.DescribeEventsResult;
+import com.amazonaws.services.elasticbeanstalk.model.EnvironmentDescription;
+import com.amazonaws.services.elasticbeanstalk.model.EnvironmentStatus;
+import com.amazonaws.services.elasticbeanstalk.model.EventDescription;
+
+public class EnvironmentMonitorTest {
+
+    private static final String ENVIRONMENT_NAME = "my-environment";
+    private static final long SECOND = 1000;
+    private static final long MINUTE = 60 * SECOND;
+
+    private FakeBeanstalk beanstalk;
+    private EnvironmentMonitor monitor;
+    private final BlockingQueue<EnvironmentUpdate> updates = new LinkedBlockingQueue<EnvironmentUpdate>();
+    private final EnvironmentListener listener = new EnvironmentListener() {
+        public void environmentPolled(EnvironmentUpdate update) {
+            updates.add(update);
+        }
+    };
+
+    @Before
+    public void setup() {
+        beanstalk = new FakeBeanstalk();
+        monitor = new EnvironmentMonitor("account", "elasticbeanstalk.us-east-1.amazonaws.com") {
+            @Override
+            AWSElasticBeanstalk getClient() {
+                return beanstalk.client;
+            }
+        };
+    }
+
+    @After
+    public void tearDown() {
+        monitor.unsubscribe(ENVIRONMENT_NAME, listener);
+    }
+
+    @Test
+    public void testDelayBacksOffWhileEnvironmentsAreStable() {
+        assertEquals(10 * SECOND, EnvironmentMonitor.nextDelay(5 * SECOND, false, false));
+        assertEquals(4 * MINUTE, EnvironmentMonitor.nextDelay(3 * MINUTE, false, false));
+        assertEquals(30 * SECOND, EnvironmentMonitor.nextDelay(20 * SECOND, false, true));
+        assertEquals(5 * SECOND, EnvironmentMonitor.nextDelay(4 * MINUTE, true, false));
+    }
+
+    @Test
+    public void testPollsAreFrequentWhileEnvironmentIsUpdating() throws Exception {
+        beanstalk.status = EnvironmentStatus.Updating;
+        monitor.subscribe(ENVIRONMENT_NAME, listener, false);
+        assertEquals(EnvironmentStatus.Updating.toString(), nextUpdate().getDescription().getStatus());
+        assertEquals(5 * SECOND, monitor.getDelay());
+
+        beanstalk.status = EnvironmentStatus.Ready;
+        monitor.pollNow();
+        EnvironmentUpdate update = nextUpdate();
+        assertTrue(update.isDescriptionChanged());
+        assertEquals(EnvironmentStatus.Ready.toString(), update.getDescription().getStatus());
+        assertEquals(10 * SECOND, monitor.getDelay());
+    }
+
+    @Test
+    public void testFailedPollKeepsPollingFrequentlyWhileEnvironmentIsUpdating() throws Exception {
+        beanstalk.status = EnvironmentStatus.Updating;
+        monitor.subscribe(ENVIRONMENT_NAME, listener, false);
+        nextUpdate();
+
+        beanstalk.error = new AmazonServiceException("Rate exceeded");
+        monitor.pollNow();
+        assertNotNull(nextUpdate().getError());
+        assertEquals(5 * SECOND, monitor.getDelay());
+    }
+
+    @Test
+    public void testEventsAreDeliveredOnce() throws Exception {
+        long now = System.currentTimeMillis();
+        EventDescription launched = event("Launched", now - 3 * MINUTE);
+        EventDescription deploying = event("Deploying", now - 2 * MINUTE);
+        EventDescription deployed = event("Deployed", now - MINUTE);
+        EventDescription otherEnvironment = event("Other", now - MINUTE).withEnvironmentName("other-environment");
+
+        // The events fetched since the latest one seen overlap with the history
+        beanstalk.history = Arrays.asList(launched);
+        beanstalk.recentEvents = Arrays.asList(launched, deploying, otherEnvironment);
+        monitor.subscribe(ENVIRONMENT_NAME, listener, true);
+        assertEquals(Arrays.asList(deploying, launched), nextUpdate().getNewEvents());
+        assertEquals(1, beanstalk.historyRequests);
+
+        beanstalk.recentEvents = Arrays.asList(deploying, deployed, otherEnvironment);
+        monitor.pollNow();
+        assertEquals(Arrays.asList(deployed), nextUpdate().getNewEvents());
+
+        monitor.pollNow();
+        assertEquals(0, nextUpdate().getNewEvents().size());
+        assertEquals(Arrays.asList(deployed, deploying, launched), monitor.getEvents(ENVIRONMENT_NAME));
+        assertEquals(1, beanstalk.historyRequests);
+
+        // Events are fetched again from the latest one seen, minus some overlap
+        assertEquals(new Date(deployed.getEventDate().getTime() - MINUTE), beanstalk.lastStartTime);
+    }
+
+    private EnvironmentUpdate nextUpdate() throws InterruptedException {
+        EnvironmentUpdate update = updates.poll(10, TimeUnit.SECONDS);
+        assertNotNull("No update received", update);
+        return update;
+    }
+
+    private static EventDescription event(String message, long time) {
+        return new EventDescription()
+                .withEnvironmentName(ENVIRONMENT_NAME)
+                .withMessage(message)
+                .withEventDate(new Date(time));
+    }
+
+    /**
+     * Answers the requests of the monitor with the status and events set by
+     * the tests.
+     */
+    private static class FakeBeanstalk implements InvocationHandler {
+        private final AWSElasticBeanstalk client = (AWSElasticBeanstalk) Proxy.newProxyInstance(
+                AWSElasticBeanstalk.class.getClassLoader(), new Class<?>[] { AWSElasticBeanstalk.class }, this);
+
+        private volatile EnvironmentStatus status = EnvironmentStatus.Ready;
+        private volatile List<EventDescription> history = new ArrayList<EventDescription>();
+        private volatile List<EventDescription> recentEvents = new ArrayList<EventDescription>();
+        private volatile int historyRequests;
+        private volatile Date lastStartTime;
+        private volatile AmazonServiceException error;
+
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            if (error != null) throw error;
+            if (method.getName().equals("describeEnvironments")) {
+                return new DescribeEnvironmentsResult().withEnvironments(new EnvironmentDescription()
+                        .withEnvironmentName(ENVIRONMENT_NAME)
+                        .withStatus(status));
+            }
+            if (method.getName().equals("describeEvents")) {
+                DescribeEventsRequest request = (DescribeEventsRequest) args[0];
+                if (request.getEnvironmentName() != null) {
+                    historyRequests++;
+                    return new DescribeEventsResult().withEvents(history);
+                }
+                lastStartTime = request.getStartTime();
+                return new DescribeEventsResult().withEvents(recentEvents);
+            }
+            throw new UnsupportedOperationException(method.getName());
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.elasticbeanstalk.git;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import org.apache.commons.io.FileUtils;
+import org.eclipse.jgit.dircache.DirCacheEntry;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AWSGitPushCommandTest {
+
+    /** A time with an odd number of seconds, which entry times round down */
+    private static final long ENTRY_TIME = 1483228801000L;
+
+    private File directory;
+    private File file;
+
+    @Before
+    public void setup() throws IOException {
+        directory = File.createTempFile("aws-eclipse-git-push", null);
+        directory.delete();
+        directory.mkdirs();
+        file = new File(directory, "index.html");
+    }
+
+    @After
+    public void tearDown() {
+        FileUtils.deleteQuietly(directory);
+    }
+
+    @Test
+    public void testFileWithSameContentIsUnchanged() throws IOException {
+        ZipEntry entry = archiveEntry("version 1");
+        writeFile("version 1", ENTRY_TIME + 60 * 1000);
+
+        assertTrue(AWSGitPushCommand.isUnchanged(file, entry));
+    }
+
+    @Test
+    public void testFileWithSameSizeAndTimeButDifferentContentIsChanged() throws IOException {
+        ZipEntry entry = archiveEntry("version 2");
+        // As extracted by the previous deployment, within the resolution of entry times
+        writeFile("version 1", entry.getTime());
+
+        assertFalse(AWSGitPushCommand.isUnchanged(file, entry));
+    }
+
+    @Test
+    public void testMissingOrResizedFileIsChanged() throws IOException {
+        ZipEntry entry = archiveEntry("version 1");
+        assertFalse(AWSGitPushCommand.isUnchanged(file, entry));
+
+        writeFile("version 10", entry.getTime());
+        assertFalse(AWSGitPushCommand.isUnchanged(file, entry));
+    }
+
+    @Test
+    public void testStagingDecision() throws IOException {
+        writeFile("version 1", ENTRY_TIME);
+        DirCacheEntry indexEntry = new DirCacheEntry(file.getName());
+        indexEntry.setLength(file.length());
+        indexEntry.setLastModified(file.lastModified());
+
+        assertFalse(AWSGitPushCommand.needsStaging(indexEntry, file, false));
+        assertTrue(AWSGitPushCommand.needsStaging(indexEntry, file, true));
+        assertTrue(AWSGitPushCommand.needsStaging(null, file, false));
+
+        file.setLastModified(ENTRY_TIME + 1000);
+        assertTrue(AWSGitPushCommand.needsStaging(indexEntry, file, false));
+
+        writeFile("version 10", ENTRY_TIME);
+        assertTrue(AWSGitPushCommand.needsStaging(indexEntry, file, false));
+    }
+
+    /**
+     * Returns the entry of an archive containing the specified content, as
+     * read back from the archive.
+     */
+    private ZipEntry archiveEntry(String content) throws IOException {
+        File archive = new File(directory, "archive.zip");
+        ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive));
+        try {
+            ZipEntry entry = new ZipEntry(file.getName());
+            entry.setTime(ENTRY_TIME);
+            out.putNextEntry(entry);
+            out.write(content.getBytes("UTF-8"));
+            out.closeEntry();
+        } finally {
+            out.close();
+        }
+
+        ZipFile zipFile = new ZipFile(archive);
+        try {
+            return zipFile.getEntry(file.getName());
+        } finally {
+            zipFile.close();
+        }
+    }
+
+    private void writeFile(String content, long lastModified) throws IOException {
+        FileUtils.writeStringToFile(file, content, "UTF-8");
+        file.setLastModified(lastModified);
+    }
+}
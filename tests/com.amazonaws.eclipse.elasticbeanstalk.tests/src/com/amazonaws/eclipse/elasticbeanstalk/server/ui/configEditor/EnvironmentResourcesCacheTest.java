@@ -0,0 +1,60 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.elasticbeanstalk.server.ui.configEditor;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import com.amazonaws.AmazonServiceException;
+import com.amazonaws.eclipse.elasticbeanstalk.server.ui.configEditor.EnvironmentResourcesCache.Loader;
+
+public class EnvironmentResourcesCacheTest {
+
+    @Test
+    public void testDescriptionIsReusedUnlessReloaded() {
+        CountingLoader loader = new CountingLoader();
+        String key = "account us-east-1 resources reused-environment";
+
+        assertEquals(Integer.valueOf(1), EnvironmentResourcesCache.get(key, false, loader));
+        assertEquals(Integer.valueOf(1), EnvironmentResourcesCache.get(key, false, loader));
+
+        assertEquals(Integer.valueOf(2), EnvironmentResourcesCache.get(key, true, loader));
+        assertEquals(Integer.valueOf(2), EnvironmentResourcesCache.get(key, false, loader));
+    }
+
+    @Test
+    public void testFailuresAreNotCached() {
+        String key = "account us-east-1 resources failing-environment";
+        try {
+            EnvironmentResourcesCache.get(key, false, new Loader<Integer>() {
+                public Integer load() {
+                    throw new AmazonServiceException("Throttling");
+                }
+            });
+        } catch (AmazonServiceException expected) {
+        }
+
+        assertEquals(Integer.valueOf(1), EnvironmentResourcesCache.get(key, false, new CountingLoader()));
+    }
+
+    private static class CountingLoader implements Loader<Integer> {
+        private int loads;
+
+        public Integer load() {
+            return ++loads;
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2017 Amazon.com, Inc. or its affiliates. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License").
+ * You may not use this file except in compliance with the License.
+ * A copy of the License is located at
+ *
+ *  http://aws.amazon.com/apache2.0
+ *
+ * or in the "license" file accompanying this file. This file is distributed
+ * on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either
+ * express or implied. See the License for the specific language governing
+ * permissions and limitations under the License.
+ */
+package com.amazonaws.eclipse.identitymanagement.policy;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+
+public class PolicyEvaluatorTest {
+
+    private static final String USER = "arn:aws:iam::123456789012:user/alice";
+    private static final String BUCKET = "arn:aws:s3:::my-bucket";
+    private static final String OBJECT = "arn:aws:s3:::my-bucket/reports/2017.csv";
+
+    @Test
+    public void testAllowWithWildcards() {
+        PolicyEvaluator evaluator = evaluator(statement("Allow", "\"Action\": \"s3:Get*\"", "\"Resource\": \"arn:aws:s3:::my-bucket/*\""));
+
+        assertEquals(Decision.ALLOWED, evaluator.evaluate(USER, "s3:GetObject", OBJECT));
+        assertEquals(Decision.ALLOWED, evaluator.evaluate(USER, "S3:GETOBJECT", OBJECT));
+        assertEquals(Decision.IMPLICITLY_DENIED, evaluator.evaluate(USER, "s3:PutObject", OBJECT));
+        assertEquals(Decision.IMPLICITLY_DENIED, evaluator.evaluate(USER, "s3:GetObject", BUCKET));
+    }
+
+    @Test
+    public void testQuestionMarkMatchesSingleCharacter() {
+        PolicyEvaluator evaluator = evaluator(statement("Allow", "\"Action\": \"s3:*\"", "\"Resource\": \"arn:aws:s3:::my-bucket/reports/201?.csv\""));
+
+        assertEquals(Decision.ALLOWED, evaluator.evaluate(USER, "s3:GetObject", OBJECT));
+        assertEquals(Decision.IMPLICITLY_DENIED, evaluator.evaluate(USER, "s3:GetObject", "arn:aws:s3:::my-bucket/reports/20170.csv"));
+    }
+
+    @Test
+    public void testDenyOverridesAllow() {
+        PolicyEvaluator evaluator = evaluator(
+                statement("Allow", "\"Action\": \"s3:*\"", "\"Resource\": \"*\""),
+                statement("Deny", "\"Action\": \"s3:DeleteObject\"", "\"Resource\": \"*\""));
+
+        assertEquals(Decision.ALLOWED, evaluator.evaluate(USER, "s3:GetObject", OBJECT));
+        assertEquals(Decision.EXPLICITLY_DENIED, evaluator.evaluate(USER, "s3:DeleteObject", OBJECT));
+    }
+
+    @Test
+    public void testDenyOverridesAllowAcrossPolicies() {
+        List<CompiledPolicy> policies = new ArrayList<CompiledPolicy>();
+        policies.add(policy(statement("Deny", "\"Action\": \"*\"", "\"Resource\": \"" + OBJECT + "\"")));
+        policies.add(policy(statement("Allow", "\"Action\": \"*\"", "\"Resource\": \"*\"")));
+        PolicyEvaluator evaluator = new PolicyEvaluator(Collections.singletonMap(USER, policies));
+
+        assertEquals(Decision.EXPLICITLY_DENIED, evaluator.evaluate(USER, "s3:GetObject", OBJECT));
+        assertEquals(Decision.ALLOWED, evaluator.evaluate(USER, "s3:GetObject", BUCKET));
+    }
+
+    @Test
+    public void testNotActionAndNotResource() {
+        PolicyEvaluator evaluator = evaluator(statement("Allow", "\"NotAction\": \"iam:*\"", "\"NotResource\": \"" + BUCKET + "\""));
+
+        assertEquals(Decision.ALLOWED, evaluator.evaluate(USER, "s3:GetObject", OBJECT));
+        assertEquals(Decision.IMPLICITLY_DENIED, evaluator.evaluate(USER, "iam:CreateUser", OBJECT));
+        assertEquals(Decision.IMPLICITLY_DENIED, evaluator.evaluate(USER, "s3:GetObject", BUCKET));
+    }
+
+    @Test
+    public void testMissingEffectNeverApplies() {
+        PolicyEvaluator evaluator = evaluator("{ \"Action\": \"*\", \"Resource\": \"*\" }");
+
+        assertEquals(Decision.IMPLICITLY_DENIED, evaluator.evaluate(USER, "s3:GetObject", OBJECT));
+    }
+
+    @Test
+    public void testUnknownEffectNeverApplies() {
+        PolicyEvaluator allow = evaluator(statement("allow", "\"Action\": \"*\"", "\"Resource\": \"*\""));
+        PolicyEvaluator deny = evaluator(
+                statement("Allow", "\"Action\": \"*\"", "\"Resource\": \"*\""),
+                statement("Forbid", "\"Action\": \"*\"", "\"Resource\": \"*\""));
+
+        assertEquals(Decision.IMPLICITLY_DENIED, allow.evaluate(USER, "s3:GetObject", OBJECT));
+        assertEquals(Decision.ALLOWED, deny.evaluate(USER, "s3:GetObject", OBJECT));
+    }
+
+    @Test
+    public void testConditionsAndPolicyVariables() {
+        PolicyEvaluator conditional = evaluator(
+                "{ \"Effect\": \"Allow\", \"Action\": \"s3:*\", \"Resource\": \"*\","
+                + " \"Condition\": { \"Bool\": { \"aws:SecureTransport\": \"true\" } } }");
+        PolicyEvaluator variable = evaluator(statement("Allow", "\"Action\": \"s3:*\"", "\"Resource\": \"arn:aws:s3:::my-bucket/${aws:username}/*\""));
+        PolicyEvaluator conditionalDeny = evaluator(
+                statement("Allow", "\"Action\": \"s3:*\"", "\"Resource\": \"*\""),
+                "{ \"Effect\": \"Deny\", \"Action\": \"s3:*\", \"Resource\": \"*\","
+                + " \"Condition\": { \"IpAddress\": { \"aws:SourceIp\": \"10.0.0.0/8\" } } }");
+
+        assertEquals(Decision.CONDITIONALLY_ALLOWED, conditional.evaluate(USER, "s3:GetObject", OBJECT));
+        assertEquals(Decision.CONDITIONALLY_ALLOWED, variable.evaluate(USER, "s3:GetObject", "arn:aws:s3:::my-bucket/alice/notes.txt"));
+        assertEquals(Decision.CONDITIONALLY_ALLOWED, conditionalDeny.evaluate(USER, "s3:GetObject", OBJECT));
+    }
+
+    @Test
+    public void testWhoCan() {
+        Map<String, List<CompiledPolicy>> policies = new HashMap<String, List<CompiledPolicy>>();
+        policies.put(USER, Collections.singletonList(policy(statement("Allow", "\"Action\": \"s3:*\"", "\"Resource\": \"*\""))));
+        policies.put("arn:aws:iam::123456789012:user/bob", Collections.singletonList(
+                policy(statement("Allow", "\"Action\": \"ec2:*\"", "\"Resource\": \"*\""))));
+        PolicyEvaluator evaluator = new PolicyEvaluator(policies);
+
+        assertEquals(Collections.singletonMap(USER, Decision.ALLOWED), evaluator.whoCan("s3:GetObject", OBJECT));
+        assertEquals(Decision.IMPLICITLY_DENIED, evaluator.evaluate("arn:aws:iam::123456789012:user/carol", "s3:GetObject", OBJECT));
+    }
+
+    private static String statement(String effect, String action, String resource) {
+        return "{ \"Effect\": \"" + effect + "\", " + action + ", " + resource + " }";
+    }
+
+    private static CompiledPolicy policy(String... statements) {
+        StringBuilder document = new StringBuilder("{ \"Version\": \"2012-10-17\", \"Statement\": [");
+        for (int i = 0; i < statements.length; i++) {
+            if (i > 0) document.append(", ");
+            document.append(statements[i]);
+        }
+        return CompiledPolicy.compile(document.append("] }").toString());
+    }
+
+    private static PolicyEvaluator evaluator(String... statements) {
+        return new PolicyEvaluator(Collections.singletonMap(USER, Collections.singletonList(policy(statements))));
+    }
+}